@@ -0,0 +1,101 @@
+package com.cloud.aws_services.benchmark;
+
+import com.cloud.aws_services.service.Compression;
+import com.cloud.aws_services.service.CompressingInputStream;
+import com.cloud.aws_services.service.ContentCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-thread throughput of the upload compression codecs on JSON-lines content.
+ * Each operation processes {@link #SIZE} bytes, so {@code ops/s * 8} is MiB/s per core; {@code compress} also
+ * reports the {@code originalBytes} and {@code compressedBytes} counters, whose quotient is the compression ratio
+ * of each configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final int SIZE = 8 * 1024 * 1024;
+
+    @Param({"GZIP:1", "GZIP:6", "ZSTD:1", "ZSTD:3", "ZSTD:9"})
+    public String codec;
+
+    private final byte[] sink = new byte[64 * 1024];
+    private Compression compression;
+    private byte[] data;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] parts = codec.split(":");
+        compression = new Compression(ContentCodec.valueOf(parts[0]), Integer.parseInt(parts[1]));
+        StringBuilder lines = new StringBuilder(SIZE + 200);
+        Random random = new Random(42);
+        while (lines.length() < SIZE) {
+            lines.append("{\"ts\":").append(1_700_000_000_000L + random.nextInt(86_400_000))
+                    .append(",\"level\":\"").append(random.nextInt(10) == 0 ? "WARN" : "INFO")
+                    .append("\",\"service\":\"orders\",\"orderId\":").append(random.nextInt(1_000_000))
+                    .append(",\"message\":\"order state changed\",\"amount\":").append(random.nextInt(100_000))
+                    .append("}\n");
+        }
+        data = lines.substring(0, SIZE).getBytes(StandardCharsets.UTF_8);
+        try (CompressingInputStream in = compression.compress(new ByteArrayInputStream(data))) {
+            compressed = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public long compress(Bytes bytes) throws IOException {
+        try (CompressingInputStream in = compression.compress(new ByteArrayInputStream(data))) {
+            drain(in);
+            bytes.originalBytes += data.length;
+            bytes.compressedBytes += in.compressedBytes();
+            return in.compressedBytes();
+        }
+    }
+
+    @Benchmark
+    public long decompress() throws IOException {
+        try (InputStream in = compression.codec().decompress(new ByteArrayInputStream(compressed))) {
+            return drain(in);
+        }
+    }
+
+    /**
+     * Bytes read and written by {@code compress} in an iteration. JMH reports event counters as they are, so they
+     * are cleared before each iteration; neither is a ratio on its own, {@code originalBytes / compressedBytes} is.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+
+        public long originalBytes;
+        public long compressedBytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            originalBytes = 0;
+            compressedBytes = 0;
+        }
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = in.read(sink)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
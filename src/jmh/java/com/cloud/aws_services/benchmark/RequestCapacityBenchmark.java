@@ -0,0 +1,101 @@
+package com.cloud.aws_services.benchmark;
+
+import com.cloud.aws_services.config.HttpTransportProfile;
+import com.cloud.aws_services.support.FakeS3Server;
+import com.cloud.aws_services.support.FakeSqsServer;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent-request capacity of blocking SDK calls made from request threads, as the controllers make them.
+ * Each operation is a wave of {@value #REQUESTS} concurrent requests: {@code longPollPercent} of them long-poll an
+ * empty queue for one second, the rest download a small object. {@code platform} runs them on a pool the size of
+ * Tomcat's default 200 request threads, {@code virtual} on one virtual thread each
+ * ({@code spring.threads.virtual.enabled=true}). Once long polls outnumber the platform threads, downloads queue
+ * behind them; virtual threads are then bounded by the connection pools only.
+ * The result is requests per second, comparable across execution modes and HTTP transports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RequestCapacityBenchmark {
+
+    private static final int REQUESTS = 500;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final String BUCKET = "capacity";
+    private static final String KEY = "small.json";
+
+    @Param({"platform", "virtual"})
+    public String execution;
+
+    @Param({"apache", "url-connection", "crt"})
+    public String transport;
+
+    @Param({"50"})
+    public int longPollPercent;
+
+    private FakeS3Server s3Server;
+    private FakeSqsServer sqsServer;
+    private S3Client s3Client;
+    private SqsClient sqsClient;
+    private ExecutorService requestThreads;
+    private String queueUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        // The JDK server behind the fakes closes keep-alive connections beyond 200 idle ones by default.
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(2 * REQUESTS));
+        HttpTransportProfile profile = new HttpTransportProfile(
+                HttpTransportProfile.Transport.valueOf(transport.toUpperCase().replace('-', '_')),
+                REQUESTS, Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofSeconds(30),
+                Duration.ofSeconds(60), Duration.ZERO, true, true);
+        s3Server = new FakeS3Server();
+        sqsServer = new FakeSqsServer();
+        s3Client = s3Server.client(profile.syncClientBuilder());
+        sqsClient = sqsServer.client(profile.syncClientBuilder());
+        s3Server.putObject(BUCKET, KEY, new byte[4 * 1024]);
+        queueUrl = sqsServer.queueUrl("idle");
+        requestThreads = execution.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        s3Client.close();
+        sqsClient.close();
+        s3Server.close();
+        sqsServer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int wave() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            boolean longPoll = i % 100 < longPollPercent;
+            responses.add(requestThreads.submit(() -> longPoll
+                    ? sqsClient.receiveMessage(b -> b.queueUrl(queueUrl).waitTimeSeconds(1)).messages().size()
+                    : s3Client.getObjectAsBytes(b -> b.bucket(BUCKET).key(KEY)).asByteArray().length));
+        }
+        int total = 0;
+        for (Future<Integer> response : responses) {
+            total += response.get();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,195 @@
+package com.cloud.aws_services.benchmark;
+
+import com.cloud.aws_services.model.ListingOptions;
+import com.cloud.aws_services.service.PresignedUrlCache;
+import com.cloud.aws_services.service.S3MetadataCache;
+import com.cloud.aws_services.service.S3MultipartCopier;
+import com.cloud.aws_services.service.S3MultipartUploader;
+import com.cloud.aws_services.service.S3ObjectCache;
+import com.cloud.aws_services.service.S3RangedDownloader;
+import com.cloud.aws_services.service.S3Service;
+import com.cloud.aws_services.support.FakeS3Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of {@link S3Service} uploads, downloads, listings and pre-signing against {@link FakeS3Server}.
+ * Upload and download scores are operations per second; multiply by {@code objectSize} for bytes per second.
+ * Objects above 16 MB take the multipart upload and parallel ranged download paths;
+ * {@link #downloadSingleConnection} is the one-{@code GetObject} baseline for the latter.
+ * Concurrency is set with JMH's {@code -t} option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class S3ServiceBenchmark {
+
+    private static final String BUCKET = "benchmark-bucket";
+    private static final int LISTED_OBJECTS = 5_000;
+
+    @Param({"1024", "1048576", "33554432"})
+    public int objectSize;
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private S3Presigner presigner;
+    private ExecutorService executor;
+    private S3Service s3Service;
+    private S3ObjectCache objectCache;
+    private S3RangedDownloader rangedDownloader;
+    private Path cacheDirectory;
+    private Path stagingDirectory;
+    private byte[] data;
+    private MockMultipartFile upload;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private String key;
+        private int presignCounter;
+
+        @Setup
+        public void setUp(S3ServiceBenchmark benchmark) {
+            key = "objects/thread-" + benchmark.threadIds.incrementAndGet();
+            benchmark.server.putObject(BUCKET, key, benchmark.data);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        presigner = S3Presigner.builder()
+                .endpointOverride(server.endpoint())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+        executor = Executors.newFixedThreadPool(16, Thread.ofPlatform().name("s3-transfer-", 0).daemon(true).factory());
+        S3MultipartUploader uploader = new S3MultipartUploader(s3Client, executor, DataSize.ofMegabytes(16),
+                DataSize.ofMegabytes(8), 4, 3);
+        S3MultipartCopier copier = new S3MultipartCopier(s3Client, executor, DataSize.ofMegabytes(512),
+                DataSize.ofMegabytes(128), 8, 3);
+        cacheDirectory = Files.createTempDirectory("s3-object-cache");
+        objectCache = new S3ObjectCache(s3Client, new SimpleMeterRegistry(), true, cacheDirectory,
+                DataSize.ofGigabytes(1), DataSize.ofMegabytes(64), Duration.ofSeconds(30));
+        objectCache.initialize();
+        rangedDownloader = new S3RangedDownloader(s3Client, executor, DataSize.ofMegabytes(16), DataSize.ofMegabytes(8), 4,
+                DataSize.ofMegabytes(256), 3);
+        stagingDirectory = Files.createTempDirectory("s3-staging");
+        s3Service = new S3Service(s3Client, presigner, uploader, copier, rangedDownloader,
+                new PresignedUrlCache(10_000, 0.5), objectCache,
+                new S3MetadataCache(new SimpleMeterRegistry(), 100, Duration.ofSeconds(30)), executor);
+
+        data = new byte[objectSize];
+        new Random(42).nextBytes(data);
+        upload = new MockMultipartFile("file", "data.bin", "application/octet-stream", data);
+        for (int i = 0; i < LISTED_OBJECTS; i++) {
+            server.putObject(BUCKET, String.format("listing/p%02d/key-%05d", i % 50, i), new byte[0]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        FileSystemUtils.deleteRecursively(cacheDirectory);
+        FileSystemUtils.deleteRecursively(stagingDirectory);
+        presigner.close();
+        s3Client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public void upload(ThreadKeys keys) throws IOException {
+        s3Service.uploadFile(BUCKET, keys.key, upload);
+    }
+
+    @Benchmark
+    public long download(ThreadKeys keys) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (ResponseInputStream<GetObjectResponse> object = s3Service.downloadFile(BUCKET, keys.key, null);
+             InputStream in = object) {
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long downloadSingleConnection(ThreadKeys keys) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b.bucket(BUCKET).key(keys.key))) {
+            return object.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    /** Parallel ranged GETs written positionally into a preallocated file, as {@code /aws/s3/stage} does. */
+    @Benchmark
+    public long stageToFile(ThreadKeys keys) throws IOException {
+        return rangedDownloader.downloadToFile(BUCKET, keys.key, stagingDirectory.resolve(keys.key.replace('/', '_')));
+    }
+
+    /** Served from the local object cache after the first fetch, as {@code /aws/s3/download} does when the cache is enabled. */
+    @Benchmark
+    public long downloadCached(ThreadKeys keys) throws IOException {
+        S3ObjectCache.CachedObject cached = objectCache.get(BUCKET, keys.key).cached();
+        try (FileChannel file = cached.open();
+             WritableByteChannel sink = Channels.newChannel(OutputStream.nullOutputStream())) {
+            return file.transferTo(0, cached.length(), sink);
+        }
+    }
+
+    /** Objects listed per second is this score times {@value #LISTED_OBJECTS}; independent of {@code objectSize}. */
+    @Benchmark
+    public long listSequential(Blackhole blackhole) {
+        return s3Service.streamObjects(BUCKET, new ListingOptions("listing/", null, null, 1000), blackhole::consume);
+    }
+
+    @Benchmark
+    public long listParallel(Blackhole blackhole) {
+        return s3Service.streamObjectsParallel(BUCKET, new ListingOptions("listing/", null, null, 1000), 8, blackhole::consume);
+    }
+
+    /** Distinct keys, so every call signs; independent of {@code objectSize}. */
+    @Benchmark
+    public Object presignUncached(ThreadKeys keys) {
+        return s3Service.generatePresignedUrl(BUCKET, keys.key + "/" + keys.presignCounter++, 300).getBody();
+    }
+
+    /** The same key over and over, served from the pre-signed URL cache. */
+    @Benchmark
+    public Object presignCached(ThreadKeys keys) {
+        return s3Service.generatePresignedUrl(BUCKET, keys.key, 300).getBody();
+    }
+}
@@ -0,0 +1,153 @@
+package com.cloud.aws_services.benchmark;
+
+import com.cloud.aws_services.service.SqsBatchSender;
+import com.cloud.aws_services.service.SqsPayloadOffloader;
+import com.cloud.aws_services.service.SqsService;
+import com.cloud.aws_services.support.FakeS3Server;
+import com.cloud.aws_services.support.FakeSqsServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency of {@link SqsService} and {@link SqsBatchSender} against {@link FakeSqsServer}.
+ * {@link #sendDirect} and {@link #sendBatched} send to one queue shared by all threads, so that concurrent callers
+ * land in the same batch buffer; run with {@code -t N} to see how client-side batching compares with one call per
+ * message under concurrency. The batch and round-trip benchmarks use a queue per thread.
+ * Payload offloading is enabled with the default 256 KB threshold against {@link FakeS3Server}, so the small-message
+ * benchmarks measure its inline path and {@link #sendReceiveDeleteLarge} the claim-check path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SqsServiceBenchmark {
+
+    private static final String BODY = "{\"orderId\":12345,\"status\":\"CREATED\",\"amount\":\"99.95\"}";
+    private static final String LARGE_BODY = "x".repeat(512 * 1024);
+
+    private FakeSqsServer server;
+    private FakeS3Server s3Server;
+    private SqsClient sqsClient;
+    private S3Client s3Client;
+    private ScheduledExecutorService batchExecutor;
+    private ExecutorService payloadExecutor;
+    private SqsService sqsService;
+    private SqsBatchSender batchSender;
+    private String sharedQueueUrl;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class ThreadQueue {
+        private String queueUrl;
+        private List<SendMessageBatchRequestEntry> batch;
+        private List<SendMessageBatchRequestEntry> largeBatch;
+
+        @Setup
+        public void setUp(SqsServiceBenchmark benchmark) {
+            queueUrl = benchmark.server.queueUrl("benchmark-" + benchmark.threadIds.incrementAndGet());
+            batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                batch.add(SendMessageBatchRequestEntry.builder().id(String.valueOf(i)).messageBody(BODY).build());
+            }
+            largeBatch = new ArrayList<>(batch);
+            for (int i = 0; i < 3; i++) {
+                largeBatch.set(i, largeBatch.get(i).toBuilder().messageBody(LARGE_BODY).build());
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeSqsServer();
+        sqsClient = server.client();
+        s3Server = new FakeS3Server();
+        s3Client = s3Server.client();
+        batchExecutor = Executors.newScheduledThreadPool(4);
+        payloadExecutor = Executors.newFixedThreadPool(4);
+        SqsPayloadOffloader payloadOffloader = new SqsPayloadOffloader(s3Client, payloadExecutor, new ObjectMapper(), true,
+                "sqs-payloads", "", DataSize.ofKilobytes(256), true);
+        sqsService = new SqsService(sqsClient, payloadOffloader);
+        batchSender = new SqsBatchSender(sqsService, batchExecutor, Duration.ofMillis(5), true);
+        sharedQueueUrl = server.queueUrl("benchmark-shared");
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchSender.flushAll();
+        batchExecutor.shutdownNow();
+        payloadExecutor.shutdownNow();
+        sqsClient.close();
+        s3Client.close();
+        server.close();
+        s3Server.close();
+    }
+
+    @Benchmark
+    public String sendDirect() {
+        return sqsService.sendMessage(sharedQueueUrl, BODY);
+    }
+
+    /** One message per call, packed into batches with messages from other threads by the sender. */
+    @Benchmark
+    public String sendBatched() {
+        return batchSender.send(sharedQueueUrl, BODY).join().messageId();
+    }
+
+    /** Ten messages per operation. */
+    @Benchmark
+    public Object sendBatch(ThreadQueue queue) {
+        return sqsService.sendMessageBatch(queue.queueUrl, queue.batch);
+    }
+
+    /** Sends ten messages, then receives and deletes them in batches: a full produce/consume round trip. */
+    @Benchmark
+    public int sendReceiveDelete(ThreadQueue queue) {
+        sqsService.sendMessageBatch(queue.queueUrl, queue.batch);
+        int consumed = 0;
+        while (consumed < 10) {
+            List<Message> messages = sqsService.receiveMessages(queue.queueUrl, 10, 0, 30);
+            if (messages.isEmpty()) {
+                break;
+            }
+            sqsService.deleteMessageBatch(queue.queueUrl, messages.stream().map(Message::receiptHandle).toList());
+            consumed += messages.size();
+        }
+        return consumed;
+    }
+
+    /**
+     * The round trip of {@link #sendReceiveDelete} with three 512 KB bodies per batch, which are stored in S3 on send,
+     * fetched in parallel on receive and deleted together with their messages.
+     */
+    @Benchmark
+    public int sendReceiveDeleteLarge(ThreadQueue queue) {
+        sqsService.sendMessageBatch(queue.queueUrl, queue.largeBatch);
+        int consumed = 0;
+        while (consumed < 10) {
+            List<Message> messages = sqsService.receiveMessages(queue.queueUrl, 10, 0, 30);
+            if (messages.isEmpty()) {
+                break;
+            }
+            sqsService.deleteMessageBatch(queue.queueUrl, messages.stream().map(Message::receiptHandle).toList());
+            consumed += messages.size();
+        }
+        return consumed;
+    }
+}
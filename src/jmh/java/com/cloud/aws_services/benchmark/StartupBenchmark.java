@@ -0,0 +1,83 @@
+package com.cloud.aws_services.benchmark;
+
+import com.cloud.aws_services.AwsServicesApplication;
+import com.cloud.aws_services.support.FakeS3Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request: from starting the Spring application in a fresh JVM until {@code GET /aws/s3/objects} has
+ * been answered through the S3 client, against {@link FakeS3Server}. Every measurement is a new fork, so class
+ * loading and JIT start cold as on a newly scaled-out instance. {@code default} runs the application as configured,
+ * {@code startup} with the startup-optimized profile ({@code application-startup.properties}).
+ * <p>
+ * For an AOT build, run with the {@code aot} Maven profile as well and {@code -jvmArgsAppend -Dspring.aot.enabled=true};
+ * a CDS archive is passed the same way with {@code -XX:SharedArchiveFile=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    private static final String BUCKET = "startup";
+
+    @Param({"default", "startup"})
+    public String profile;
+
+    private FakeS3Server s3Server;
+    private HttpClient http;
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void setUp() throws IOException {
+        s3Server = new FakeS3Server();
+        s3Server.putObject(BUCKET, "first.json", new byte[16]);
+        http = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        http.close();
+        s3Server.close();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        context = new SpringApplicationBuilder(AwsServicesApplication.class)
+                .profiles(profile.equals("default") ? new String[0] : new String[]{profile})
+                .properties("server.port=0",
+                        "aws.region=us-east-1",
+                        "aws.accessKeyId=test",
+                        "aws.secretKey=test",
+                        "aws.endpoint-override=" + s3Server.endpoint(),
+                        "aws.s3.index.resume-on-startup=false")
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/aws/s3/objects?bucketName=" + BUCKET)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("First request failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body().length();
+    }
+}
@@ -0,0 +1,230 @@
+package com.cloud.aws_services.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the calls in flight per service and bucket prefix or queue, adapting each cap with AIMD:
+ * a call that completes while the partition is at least half busy raises the limit by one,
+ * a throttling response ({@code 503 SlowDown}, {@code 429} or a throttling error code) multiplies it by the backoff ratio.
+ * A call over the limit fails at once with {@link ConcurrencyLimitExceededException} instead of adding load.
+ * <p>
+ * S3 partitions are the bucket plus the first key segment, because S3 scales request rates per prefix;
+ * SQS partitions are the queue. Past {@code maxPartitions}, new S3 prefixes share their bucket's partition.
+ * <ul>
+ *     <li>{@code aws.client.concurrency.limit}: current limit per partition.</li>
+ *     <li>{@code aws.client.concurrency.in-flight}: calls holding a permit.</li>
+ *     <li>{@code aws.client.concurrency.rejected}: calls refused because the limit was reached.</li>
+ *     <li>{@code aws.client.concurrency.throttled}: throttling responses seen, including retried attempts.</li>
+ * </ul>
+ */
+public class AdaptiveConcurrencyLimiter implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Permit> PERMIT = new ExecutionAttribute<>("ConcurrencyLimitPermit");
+    /** Throttling responses arrive in bursts; one decrease per interval keeps a burst from collapsing the limit. */
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** Throttling codes AWS's own retry policy does not know about. */
+    private static final Set<String> EXTRA_THROTTLING_CODES = Set.of("KMS.ThrottlingException", "ServiceUnavailable");
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxPartitions;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry registry, boolean enabled, int initialLimit, int minLimit,
+                                      int maxLimit, double backoffRatio, int maxPartitions) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.registry = registry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxPartitions = maxPartitions;
+    }
+
+    /**
+     * Whether a failure means AWS asked the client to slow down. Shared with the retry strategy so that
+     * throttled attempts get the longer throttling backoff.
+     */
+    public static boolean isThrottling(Throwable error) {
+        if (!(error instanceof AwsServiceException e)) {
+            return false;
+        }
+        return e.isThrottlingException() || e.statusCode() == 503
+                || e.awsErrorDetails() != null && EXTRA_THROTTLING_CODES.contains(e.awsErrorDetails().errorCode());
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        if (!enabled) {
+            return;
+        }
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME).toLowerCase(Locale.ROOT);
+        Limit limit = limit(service, partition(context.request()));
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            throw new ConcurrencyLimitExceededException(service + ":" + limit.partition, limit.current());
+        }
+        executionAttributes.putAttribute(PERMIT, new Permit(limit));
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        Permit permit = executionAttributes.getAttribute(PERMIT);
+        int status = context.httpResponse().statusCode();
+        if (permit != null && (status == 503 || status == 429)) {
+            permit.limit.onThrottled();
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Limit limit = release(executionAttributes);
+        if (limit != null) {
+            limit.onSuccess();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Limit limit = release(executionAttributes);
+        // 503 and 429 attempts were already counted in afterTransmission; SQS throttles with a 400 and an error code.
+        if (limit != null && isThrottling(context.exception())
+                && !(context.exception() instanceof AwsServiceException e && (e.statusCode() == 503 || e.statusCode() == 429))) {
+            limit.onThrottled();
+        }
+    }
+
+    /**
+     * The limit of one partition, created at the initial limit on first use.
+     */
+    Limit limit(String service, String partition) {
+        String name = limits.size() >= maxPartitions && !limits.containsKey(service + ":" + partition)
+                ? service + ":" + bucketOf(partition) : service + ":" + partition;
+        return limits.computeIfAbsent(name, n -> new Limit(service, n.substring(service.length() + 1)));
+    }
+
+    /**
+     * Returns the permit of the call, or {@code null} if it had none or it was already returned.
+     */
+    private static Limit release(ExecutionAttributes executionAttributes) {
+        Permit permit = executionAttributes.getAttribute(PERMIT);
+        if (permit == null || !permit.released.compareAndSet(false, true)) {
+            return null;
+        }
+        permit.limit.release();
+        return permit.limit;
+    }
+
+    private static String partition(SdkRequest request) {
+        Optional<String> bucket = request.getValueForField("Bucket", String.class)
+                .or(() -> request.getValueForField("DestinationBucket", String.class));
+        if (bucket.isPresent()) {
+            String key = request.getValueForField("Key", String.class)
+                    .or(() -> request.getValueForField("DestinationKey", String.class))
+                    .or(() -> request.getValueForField("Prefix", String.class))
+                    .orElse("");
+            int slash = key.indexOf('/');
+            return slash > 0 ? bucket.get() + "/" + key.substring(0, slash + 1) : bucket.get();
+        }
+        return request.getValueForField("QueueUrl", String.class)
+                .map(queueUrl -> queueUrl.substring(queueUrl.lastIndexOf('/') + 1))
+                .orElse("-");
+    }
+
+    private static String bucketOf(String partition) {
+        int slash = partition.indexOf('/');
+        return slash < 0 ? partition : partition.substring(0, slash);
+    }
+
+    private record Permit(Limit limit, AtomicBoolean released) {
+        Permit(Limit limit) {
+            this(limit, new AtomicBoolean());
+        }
+    }
+
+    /**
+     * AIMD state of one partition.
+     */
+    final class Limit {
+
+        private final String partition;
+        private final Counter rejected;
+        private final Counter throttled;
+        private double limit = initialLimit;
+        private int inFlight;
+        private long lastDecreaseNanos = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+
+        private Limit(String service, String partition) {
+            this.partition = partition;
+            Tags tags = Tags.of("service", service, "partition", partition);
+            Gauge.builder("aws.client.concurrency.limit", this, Limit::current).tags(tags).register(registry);
+            Gauge.builder("aws.client.concurrency.in-flight", this, Limit::inFlight).tags(tags).register(registry);
+            rejected = Counter.builder("aws.client.concurrency.rejected").tags(tags).register(registry);
+            throttled = Counter.builder("aws.client.concurrency.throttled").tags(tags).register(registry);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release() {
+            inFlight--;
+        }
+
+        /** Grows the limit only while it is being used, so an idle partition does not drift up to the maximum. */
+        synchronized void onSuccess() {
+            if ((inFlight + 1) * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+
+        synchronized void onThrottled() {
+            throttled.increment();
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        }
+
+        synchronized int current() {
+            return (int) limit;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+    }
+}
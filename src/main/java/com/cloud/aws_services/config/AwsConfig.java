@@ -1,21 +1,39 @@
 package com.cloud.aws_services.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.BackoffStrategy;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class AwsConfig {
 
+    private final Environment environment;
+
+    public AwsConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Value("${aws.region}")
     private String region;
 
@@ -25,31 +43,187 @@ public class AwsConfig {
     @Value("${aws.secretKey}")
     private String secretKey;
 
+    @Value("${aws.endpoint-override:}")
+    private String endpointOverride;
+
+    @Value("${aws.s3.multipart.threshold:64MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${aws.s3.multipart.part-size:16MB}")
+    private DataSize multipartPartSize;
+
+    @Value("${aws.limiter.enabled:true}")
+    private boolean limiterEnabled;
+
+    @Value("${aws.limiter.initial-limit:64}")
+    private int limiterInitialLimit;
+
+    @Value("${aws.limiter.min-limit:8}")
+    private int limiterMinLimit;
+
+    @Value("${aws.limiter.max-limit:1024}")
+    private int limiterMaxLimit;
+
+    @Value("${aws.limiter.backoff-ratio:0.75}")
+    private double limiterBackoffRatio;
+
+    @Value("${aws.limiter.max-partitions:1000}")
+    private int limiterMaxPartitions;
+
+    @Value("${aws.retry.max-attempts:4}")
+    private int retryMaxAttempts;
+
+    @Value("${aws.retry.base-delay:100ms}")
+    private Duration retryBaseDelay;
+
+    @Value("${aws.retry.throttling-base-delay:500ms}")
+    private Duration retryThrottlingBaseDelay;
+
+    @Value("${aws.retry.max-backoff:20s}")
+    private Duration retryMaxBackoff;
+
+    @Value("${aws.retry.budget-enabled:true}")
+    private boolean retryBudgetEnabled;
+
     private StaticCredentialsProvider credentialsProvider() {
         return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretKey));
     }
 
+    /**
+     * Points a client at {@code aws.endpoint-override} (LocalStack, MinIO, an in-process fake) when it is set.
+     */
+    private <B extends AwsClientBuilder<B, ?>> B withEndpoint(B builder) {
+        if (!endpointOverride.isBlank()) {
+            builder.endpointOverride(URI.create(endpointOverride));
+        }
+        return builder;
+    }
+
+    /**
+     * Attaches the metric publisher and the interceptor that tags metrics with bucket/queue names and sizes.
+     */
+    static ClientOverrideConfiguration instrumented(MicrometerMetricPublisher metricPublisher,
+                                                    ResourceTaggingInterceptor taggingInterceptor) {
+        return ClientOverrideConfiguration.builder()
+                .addMetricPublisher(metricPublisher)
+                .addExecutionInterceptor(taggingInterceptor)
+                .build();
+    }
+
+    /**
+     * Adds the adaptive concurrency limiter and the throttle-aware retry strategy to {@link #instrumented}.
+     */
+    static ClientOverrideConfiguration instrumented(MicrometerMetricPublisher metricPublisher,
+                                                    ResourceTaggingInterceptor taggingInterceptor,
+                                                    AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                                    RetryStrategy retryStrategy) {
+        return instrumented(metricPublisher, taggingInterceptor).toBuilder()
+                .addExecutionInterceptor(concurrencyLimiter)
+                .retryStrategy(retryStrategy)
+                .build();
+    }
+
+    /**
+     * AWS's standard retry strategy with full-jitter exponential backoff, a longer base delay for throttling errors
+     * and, when the budget is enabled, its token bucket: each retry spends tokens that only successful calls refill,
+     * so a sustained outage or throttling storm stops retries instead of multiplying the load.
+     */
+    static RetryStrategy throttleAwareRetryStrategy(int maxAttempts, Duration baseDelay, Duration throttlingBaseDelay,
+                                                    Duration maxBackoff, boolean budgetEnabled) {
+        return AwsRetryStrategy.standardRetryStrategy().toBuilder()
+                .maxAttempts(maxAttempts)
+                .backoffStrategy(BackoffStrategy.exponentialDelay(baseDelay, maxBackoff))
+                .throttlingBackoffStrategy(BackoffStrategy.exponentialDelay(throttlingBaseDelay, maxBackoff))
+                .retryOnException(AdaptiveConcurrencyLimiter::isThrottling)
+                .treatAsThrottling(AdaptiveConcurrencyLimiter::isThrottling)
+                .circuitBreakerEnabled(budgetEnabled)
+                .build();
+    }
+
+    private ClientOverrideConfiguration instrumented(MicrometerMetricPublisher metricPublisher,
+                                                     ResourceTaggingInterceptor taggingInterceptor,
+                                                     AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return instrumented(metricPublisher, taggingInterceptor, concurrencyLimiter, throttleAwareRetryStrategy(
+                retryMaxAttempts, retryBaseDelay, retryThrottlingBaseDelay, retryMaxBackoff, retryBudgetEnabled));
+    }
+
+    /**
+     * Limits calls in flight per bucket prefix and queue; shared by the blocking and async clients.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(MeterRegistry registry) {
+        return new AdaptiveConcurrencyLimiter(registry, limiterEnabled, limiterInitialLimit, limiterMinLimit,
+                limiterMaxLimit, limiterBackoffRatio, limiterMaxPartitions);
+    }
+
     @Bean
-    public S3Client s3Client() {
-        return S3Client.builder()
+    public S3Client s3Client(MicrometerMetricPublisher metricPublisher, ResourceTaggingInterceptor taggingInterceptor,
+                             AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return withEndpoint(S3Client.builder())
                 .region(Region.of(region))
                 .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(HttpTransportProfile.of(environment, "s3").syncClientBuilder())
+                .overrideConfiguration(instrumented(metricPublisher, taggingInterceptor, concurrencyLimiter))
+                .forcePathStyle(!endpointOverride.isBlank())
                 .build();
     }
 
     @Bean
     public S3Presigner presigner(){
-        return S3Presigner.builder()
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider());
+        if (!endpointOverride.isBlank()) {
+            builder.endpointOverride(URI.create(endpointOverride))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public SqsClient sqsClient(MicrometerMetricPublisher metricPublisher, ResourceTaggingInterceptor taggingInterceptor,
+                               AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return withEndpoint(SqsClient.builder())
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(HttpTransportProfile.of(environment, "sqs").syncClientBuilder())
+                .overrideConfiguration(instrumented(metricPublisher, taggingInterceptor, concurrencyLimiter))
+                .build();
+    }
+
+    /**
+     * Non-blocking S3 client, only created when {@code aws.client.mode=async}.
+     * Large uploads use the SDK's built-in parallel multipart support.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+    public S3AsyncClient s3AsyncClient(MicrometerMetricPublisher metricPublisher, ResourceTaggingInterceptor taggingInterceptor,
+                                       AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return withEndpoint(S3AsyncClient.builder())
                 .region(Region.of(region))
                 .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(HttpTransportProfile.of(environment, "s3").asyncClientBuilder())
+                .overrideConfiguration(instrumented(metricPublisher, taggingInterceptor, concurrencyLimiter))
+                .forcePathStyle(!endpointOverride.isBlank())
+                .multipartEnabled(true)
+                .multipartConfiguration(c -> c
+                        .thresholdInBytes(multipartThreshold.toBytes())
+                        .minimumPartSizeInBytes(multipartPartSize.toBytes()))
                 .build();
     }
 
+    /**
+     * Non-blocking SQS client, only created when {@code aws.client.mode=async}.
+     */
     @Bean
-    public SqsClient sqsClient() {
-        return SqsClient.builder()
+    @ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+    public SqsAsyncClient sqsAsyncClient(MicrometerMetricPublisher metricPublisher, ResourceTaggingInterceptor taggingInterceptor,
+                                         AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return withEndpoint(SqsAsyncClient.builder())
                 .region(Region.of(region))
                 .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(HttpTransportProfile.of(environment, "sqs").asyncClientBuilder())
+                .overrideConfiguration(instrumented(metricPublisher, taggingInterceptor, concurrencyLimiter))
                 .build();
     }
 }
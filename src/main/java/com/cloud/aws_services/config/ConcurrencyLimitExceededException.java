@@ -0,0 +1,24 @@
+package com.cloud.aws_services.config;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+/**
+ * Thrown before a request is sent when its partition already has as many calls in flight as its current limit.
+ * Nothing reached AWS, so the caller can retry after a short pause; controllers answer with {@code 429}.
+ */
+public class ConcurrencyLimitExceededException extends SdkClientException {
+
+    private final String partition;
+
+    ConcurrencyLimitExceededException(String partition, int limit) {
+        super(SdkClientException.builder()
+                .message("Concurrency limit of " + limit + " reached for " + partition)
+                .writableStackTrace(false));
+        this.partition = partition;
+    }
+
+    /** The service and bucket prefix or queue the limit applies to, such as {@code s3:my-bucket/logs/}. */
+    public String partition() {
+        return partition;
+    }
+}
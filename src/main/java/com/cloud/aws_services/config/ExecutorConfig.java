@@ -0,0 +1,42 @@
+package com.cloud.aws_services.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Configuration for the thread pools used by background AWS transfers.
+ * Callers bound their own concurrency; the pools only cap the total number of threads.
+ * With {@code spring.threads.virtual.enabled} transfers run on one virtual thread each, like request handling.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${aws.s3.transfer.threads:16}")
+    private int transferThreads;
+
+    @Value("${aws.sqs.batch.threads:4}")
+    private int sqsBatchThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService s3TransferExecutor() {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("s3-transfer-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(transferThreads,
+                Thread.ofPlatform().name("s3-transfer-", 0).daemon(true).factory());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService sqsBatchExecutor() {
+        return Executors.newScheduledThreadPool(sqsBatchThreads,
+                Thread.ofPlatform().name("sqs-batch-", 0).daemon(true).factory());
+    }
+}
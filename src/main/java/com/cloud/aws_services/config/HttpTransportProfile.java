@@ -0,0 +1,145 @@
+package com.cloud.aws_services.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+import java.time.Duration;
+
+/**
+ * HTTP transport settings of one SDK client, read from {@code aws.http.<client>.*} with {@code aws.http.*} as defaults.
+ * Not every transport supports every setting:
+ * <ul>
+ *     <li>{@code apache}: pooled connections, supports all settings.</li>
+ *     <li>{@code url-connection}: the JDK's {@code HttpURLConnection}, whose keep-alive pool is sized by the
+ *     {@code http.maxConnections} system property; only the connection and socket timeouts apply.
+ *     It loads fastest and has the fewest dependencies.</li>
+ *     <li>{@code crt}: the AWS Common Runtime (native). It has no read timeout; a connection that transfers nothing
+ *     for {@code socket-timeout} is closed instead. Idle connections are always reaped.</li>
+ * </ul>
+ * Async clients use Netty for {@code apache} and {@code url-connection}, and the CRT async client for {@code crt}.
+ *
+ * @param transport                The HTTP client implementation.
+ * @param maxConnections           Connections (or concurrent streams) per client.
+ * @param connectionAcquireTimeout How long a call waits for a pooled connection before failing.
+ * @param connectionTimeout        TCP connect timeout.
+ * @param socketTimeout            How long a read may block; must exceed the SQS long-poll wait.
+ * @param connectionMaxIdleTime    Idle connections older than this are closed.
+ * @param connectionTimeToLive     Connections are closed after this age, or never when zero.
+ * @param reapIdleConnections      Whether a background thread closes idle connections.
+ * @param tcpKeepAlive             Whether to send TCP keep-alive probes on pooled connections.
+ */
+public record HttpTransportProfile(Transport transport,
+                                   int maxConnections,
+                                   Duration connectionAcquireTimeout,
+                                   Duration connectionTimeout,
+                                   Duration socketTimeout,
+                                   Duration connectionMaxIdleTime,
+                                   Duration connectionTimeToLive,
+                                   boolean reapIdleConnections,
+                                   boolean tcpKeepAlive) {
+
+    public enum Transport { APACHE, URL_CONNECTION, CRT }
+
+    /** Interval between keep-alive probes when {@code tcpKeepAlive} is set and the transport lets us choose it. */
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * Reads the profile of one client.
+     *
+     * @param environment The application environment.
+     * @param client      The client name in property keys, such as {@code s3} or {@code sqs}.
+     */
+    public static HttpTransportProfile of(Environment environment, String client) {
+        Binder binder = Binder.get(environment);
+        return new HttpTransportProfile(
+                setting(binder, client, "transport", Transport.class, Transport.APACHE),
+                setting(binder, client, "max-connections", Integer.class, 50),
+                setting(binder, client, "connection-acquire-timeout", Duration.class, Duration.ofSeconds(10)),
+                setting(binder, client, "connection-timeout", Duration.class, Duration.ofSeconds(2)),
+                setting(binder, client, "socket-timeout", Duration.class, Duration.ofSeconds(30)),
+                setting(binder, client, "connection-max-idle-time", Duration.class, Duration.ofSeconds(60)),
+                setting(binder, client, "connection-time-to-live", Duration.class, Duration.ZERO),
+                setting(binder, client, "reap-idle-connections", Boolean.class, true),
+                setting(binder, client, "tcp-keep-alive", Boolean.class, true));
+    }
+
+    /**
+     * The builder of the blocking HTTP client for this profile. Passing the builder rather than a built client to an
+     * SDK client lets the SDK client close the connection pool when it is closed.
+     */
+    public SdkHttpClient.Builder<?> syncClientBuilder() {
+        return switch (transport) {
+            case APACHE -> ApacheHttpClient.builder()
+                    .maxConnections(maxConnections)
+                    .connectionAcquisitionTimeout(connectionAcquireTimeout)
+                    .connectionTimeout(connectionTimeout)
+                    .socketTimeout(socketTimeout)
+                    .connectionMaxIdleTime(connectionMaxIdleTime)
+                    .connectionTimeToLive(connectionTimeToLive)
+                    .useIdleConnectionReaper(reapIdleConnections)
+                    .tcpKeepAlive(tcpKeepAlive);
+            case URL_CONNECTION -> UrlConnectionHttpClient.builder()
+                    .connectionTimeout(connectionTimeout)
+                    .socketTimeout(socketTimeout);
+            case CRT -> {
+                AwsCrtHttpClient.Builder builder = AwsCrtHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .connectionAcquisitionTimeout(connectionAcquireTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .connectionMaxIdleTime(connectionMaxIdleTime)
+                        .connectionHealthConfiguration(health -> health
+                                .minimumThroughputInBps(1L)
+                                .minimumThroughputTimeout(socketTimeout));
+                if (tcpKeepAlive) {
+                    builder.tcpKeepAliveConfiguration(keepAlive -> keepAlive
+                            .keepAliveInterval(KEEP_ALIVE_INTERVAL)
+                            .keepAliveTimeout(KEEP_ALIVE_INTERVAL));
+                }
+                yield builder;
+            }
+        };
+    }
+
+    /**
+     * The builder of the non-blocking HTTP client for this profile.
+     */
+    public SdkAsyncHttpClient.Builder<?> asyncClientBuilder() {
+        if (transport == Transport.CRT) {
+            AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder()
+                    .maxConcurrency(maxConnections)
+                    .connectionAcquisitionTimeout(connectionAcquireTimeout)
+                    .connectionTimeout(connectionTimeout)
+                    .connectionMaxIdleTime(connectionMaxIdleTime)
+                    .connectionHealthConfiguration(health -> health
+                            .minimumThroughputInBps(1L)
+                            .minimumThroughputTimeout(socketTimeout));
+            if (tcpKeepAlive) {
+                builder.tcpKeepAliveConfiguration(keepAlive -> keepAlive
+                        .keepAliveInterval(KEEP_ALIVE_INTERVAL)
+                        .keepAliveTimeout(KEEP_ALIVE_INTERVAL));
+            }
+            return builder;
+        }
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConnections)
+                .connectionAcquisitionTimeout(connectionAcquireTimeout)
+                .connectionTimeout(connectionTimeout)
+                .readTimeout(socketTimeout)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .connectionTimeToLive(connectionTimeToLive)
+                .useIdleConnectionReaper(reapIdleConnections)
+                .tcpKeepAlive(tcpKeepAlive);
+    }
+
+    private static <T> T setting(Binder binder, String client, String name, Class<T> type, T fallback) {
+        return binder.bind("aws.http." + client + "." + name, type)
+                .orElseGet(() -> binder.bind("aws.http." + name, type).orElse(fallback));
+    }
+}
@@ -0,0 +1,46 @@
+package com.cloud.aws_services.config;
+
+import com.cloud.aws_services.service.PresignedUrlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for the metrics exposed under {@code /actuator/metrics} and {@code /actuator/prometheus}.
+ * SDK clients publish per-call metrics through {@link MicrometerMetricPublisher};
+ * controller timings come from Spring's {@code http.server.requests}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MicrometerMetricPublisher awsMetricPublisher(MeterRegistry registry) {
+        return new MicrometerMetricPublisher(registry);
+    }
+
+    @Bean
+    public ResourceTaggingInterceptor resourceTaggingInterceptor() {
+        return new ResourceTaggingInterceptor();
+    }
+
+    @Bean
+    public MeterBinder presignCacheMetrics(PresignedUrlCache presignedUrlCache) {
+        return registry -> {
+            Gauge.builder("aws.s3.presign.cache.size", presignedUrlCache, cache -> cache.stats().size())
+                    .register(registry);
+            FunctionCounter.builder("aws.s3.presign.cache.hits", presignedUrlCache, cache -> cache.stats().hits())
+                    .register(registry);
+            FunctionCounter.builder("aws.s3.presign.cache.misses", presignedUrlCache, cache -> cache.stats().misses())
+                    .register(registry);
+            FunctionTimer.builder("aws.s3.presign.signing", presignedUrlCache,
+                            cache -> cache.stats().misses(), PresignedUrlCache::totalSigningNanos, TimeUnit.NANOSECONDS)
+                    .register(registry);
+        };
+    }
+}
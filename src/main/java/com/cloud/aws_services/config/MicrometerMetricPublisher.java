@@ -0,0 +1,112 @@
+package com.cloud.aws_services.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the metrics the AWS SDK collects for every API call to Micrometer.
+ * <ul>
+ *     <li>{@code aws.sdk.api.call.duration}: end-to-end call time including retries.</li>
+ *     <li>{@code aws.sdk.api.call.retries}: retries per call.</li>
+ *     <li>{@code aws.sdk.service.call.duration}: time of each HTTP attempt.</li>
+ *     <li>{@code aws.sdk.http.connection.acquire}: time spent waiting for a pooled connection.</li>
+ *     <li>{@code aws.sdk.bytes}: payload bytes per call, by direction.</li>
+ *     <li>{@code aws.sdk.http.connections.leased} / {@code .pending}: connection pool usage at the last call.</li>
+ * </ul>
+ * Call meters are tagged with service, operation, resource (bucket or queue name) and outcome.
+ */
+public class MicrometerMetricPublisher implements MetricPublisher {
+
+    private static final String ATTEMPT = "ApiCallAttempt";
+    private static final String HTTP_CLIENT = "HttpClient";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> leasedConnections = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pendingAcquires = new ConcurrentHashMap<>();
+
+    public MicrometerMetricPublisher(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void publish(MetricCollection call) {
+        String service = first(call, CoreMetric.SERVICE_ID, "unknown");
+        Tags tags = Tags.of(
+                "service", service,
+                "operation", first(call, CoreMetric.OPERATION_NAME, "unknown"),
+                "resource", first(call, ResourceTaggingInterceptor.RESOURCE, "none"),
+                "outcome", Boolean.TRUE.equals(first(call, CoreMetric.API_CALL_SUCCESSFUL, false)) ? "success" : "failure");
+
+        Duration duration = first(call, CoreMetric.API_CALL_DURATION, null);
+        if (duration != null) {
+            Timer.builder("aws.sdk.api.call.duration").tags(tags).register(registry).record(duration);
+        }
+        DistributionSummary.builder("aws.sdk.api.call.retries").tags(tags).register(registry)
+                .record(first(call, CoreMetric.RETRY_COUNT, 0));
+        recordBytes(call, tags, ResourceTaggingInterceptor.BYTES_SENT, "sent");
+        recordBytes(call, tags, ResourceTaggingInterceptor.BYTES_RECEIVED, "received");
+
+        call.childrenWithName(ATTEMPT).forEach(attempt -> {
+            Duration attemptDuration = first(attempt, CoreMetric.SERVICE_CALL_DURATION, null);
+            if (attemptDuration != null) {
+                Timer.builder("aws.sdk.service.call.duration").tags(tags).register(registry).record(attemptDuration);
+            }
+            attempt.childrenWithName(HTTP_CLIENT).forEach(http -> recordHttpClient(service, http));
+        });
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void recordHttpClient(String service, MetricCollection http) {
+        Tags tags = Tags.of("service", service, "client", first(http, HttpMetric.HTTP_CLIENT_NAME, "unknown"));
+        Duration acquire = first(http, HttpMetric.CONCURRENCY_ACQUIRE_DURATION, null);
+        if (acquire != null) {
+            Timer.builder("aws.sdk.http.connection.acquire").tags(tags).register(registry).record(acquire);
+        }
+        Integer leased = first(http, HttpMetric.LEASED_CONCURRENCY, null);
+        if (leased != null) {
+            gauge(leasedConnections, "aws.sdk.http.connections.leased", tags).set(leased);
+        }
+        Integer pending = first(http, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, null);
+        if (pending != null) {
+            gauge(pendingAcquires, "aws.sdk.http.connections.pending", tags).set(pending);
+        }
+    }
+
+    private void recordBytes(MetricCollection call, Tags tags, SdkMetric<Long> metric, String direction) {
+        List<Long> values = call.metricValues(metric);
+        if (!values.isEmpty()) {
+            DistributionSummary.builder("aws.sdk.bytes").baseUnit("bytes").tags(tags.and("direction", direction))
+                    .register(registry).record(values.stream().mapToLong(Long::longValue).sum());
+        }
+    }
+
+    private AtomicInteger gauge(Map<String, AtomicInteger> gauges, String name, Tags tags) {
+        return gauges.computeIfAbsent(name + tags, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder(name, value, AtomicInteger::get).tags(tags).register(registry);
+            return value;
+        });
+    }
+
+    private static <T> T first(MetricCollection collection, SdkMetric<T> metric, T defaultValue) {
+        List<T> values = collection.metricValues(metric);
+        return values.isEmpty() ? defaultValue : values.get(0);
+    }
+}
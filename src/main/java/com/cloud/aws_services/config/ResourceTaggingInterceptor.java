@@ -0,0 +1,70 @@
+package com.cloud.aws_services.config;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpHeaders;
+import software.amazon.awssdk.metrics.MetricCategory;
+import software.amazon.awssdk.metrics.MetricCollector;
+import software.amazon.awssdk.metrics.MetricLevel;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.util.Optional;
+
+/**
+ * Adds the bucket or queue name and the bytes on the wire to the SDK metrics of each API call,
+ * so {@link MicrometerMetricPublisher} can tag and size its meters. The SDK does not report either itself.
+ */
+public class ResourceTaggingInterceptor implements ExecutionInterceptor {
+
+    /** The bucket name, or the queue name taken from the queue URL. */
+    static final SdkMetric<String> RESOURCE =
+            SdkMetric.create("Resource", String.class, MetricLevel.INFO, MetricCategory.CUSTOM);
+    /** Request body bytes of one attempt. */
+    static final SdkMetric<Long> BYTES_SENT =
+            SdkMetric.create("BytesSent", Long.class, MetricLevel.INFO, MetricCategory.CUSTOM);
+    /** Response body bytes of one attempt, as announced by {@code Content-Length}. */
+    static final SdkMetric<Long> BYTES_RECEIVED =
+            SdkMetric.create("BytesReceived", Long.class, MetricLevel.INFO, MetricCategory.CUSTOM);
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        MetricCollector collector = executionAttributes.getAttribute(SdkExecutionAttribute.API_CALL_METRIC_COLLECTOR);
+        if (collector == null) {
+            return;
+        }
+        Optional<String> bucket = context.request().getValueForField("Bucket", String.class);
+        if (bucket.isPresent()) {
+            collector.reportMetric(RESOURCE, bucket.get());
+            return;
+        }
+        context.request().getValueForField("QueueUrl", String.class)
+                .map(queueUrl -> queueUrl.substring(queueUrl.lastIndexOf('/') + 1))
+                .ifPresent(queueName -> collector.reportMetric(RESOURCE, queueName));
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        MetricCollector collector = executionAttributes.getAttribute(SdkExecutionAttribute.API_CALL_METRIC_COLLECTOR);
+        if (collector == null) {
+            return;
+        }
+        // Streaming uploads announce the payload size in x-amz-decoded-content-length; the wire length includes chunk signatures.
+        contentLength(context.httpRequest(), "x-amz-decoded-content-length")
+                .or(() -> contentLength(context.httpRequest(), "Content-Length"))
+                .ifPresent(bytes -> collector.reportMetric(BYTES_SENT, bytes));
+        contentLength(context.httpResponse(), "Content-Length")
+                .ifPresent(bytes -> collector.reportMetric(BYTES_RECEIVED, bytes));
+    }
+
+    private static Optional<Long> contentLength(SdkHttpHeaders headers, String header) {
+        return headers.firstMatchingHeader(header).flatMap(value -> {
+            try {
+                return Optional.of(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        });
+    }
+}
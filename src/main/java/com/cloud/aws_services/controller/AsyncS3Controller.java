@@ -0,0 +1,136 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.service.S3AsyncService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking REST Controller for Amazon S3 operations.
+ * Mirrors {@link S3Controller} under {@code /aws/async/s3}; handlers return a {@link CompletableFuture}
+ * so the servlet thread is released while the AWS call is in flight.
+ * Only active when {@code aws.client.mode=async}.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/async/s3")
+@ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+public class AsyncS3Controller {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncS3Controller.class);
+    private final S3AsyncService s3AsyncService;
+
+    /**
+     * Retrieves a list of all S3 buckets.
+     *
+     * @return A future ResponseEntity containing the bucket names.
+     */
+    @GetMapping("/buckets")
+    public CompletableFuture<ResponseEntity<List<String>>> listBuckets() {
+        return s3AsyncService.listBuckets()
+                .handle((buckets, error) -> error == null
+                        ? ResponseEntity.ok(buckets)
+                        : AwsErrorResponses.failure(error).build());
+    }
+
+    /**
+     * Retrieves a list of objects within a specified bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @return A future ResponseEntity containing a list of object keys.
+     */
+    @GetMapping("/objects")
+    public CompletableFuture<ResponseEntity<List<String>>> listObjects(@RequestParam String bucketName) {
+        return s3AsyncService.listObjects(bucketName)
+                .handle((objects, error) -> error == null
+                        ? ResponseEntity.ok(objects)
+                        : AwsErrorResponses.failure(error).build());
+    }
+
+    /**
+     * Uploads a file to the specified S3 bucket.
+     *
+     * @param bucketName The target bucket name.
+     * @param key        The key under which the file will be stored.
+     * @param file       The file to upload.
+     * @return A future ResponseEntity with a status message.
+     */
+    @PostMapping("/upload")
+    public CompletableFuture<ResponseEntity<String>> uploadFile(@RequestParam("bucketName") String bucketName,
+                                                                @RequestParam("key") String key,
+                                                                @RequestParam("file") MultipartFile file) {
+        try {
+            return s3AsyncService.uploadFile(bucketName, key, file)
+                    .handle((ignored, error) -> error == null
+                            ? ResponseEntity.ok("File uploaded successfully.")
+                            : AwsErrorResponses.failure(error)
+                            .body("Error uploading file: " + error.getMessage()));
+        } catch (IOException e) {
+            logger.error("IO error uploading file '{}' to bucket {}: {}", key, bucketName, e.getMessage(), e);
+            return CompletableFuture.completedFuture(AwsErrorResponses.failure(e)
+                    .body("Error uploading file: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Deletes an object from the specified S3 bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to delete.
+     * @return A future ResponseEntity with a status message.
+     */
+    @DeleteMapping("/delete/object")
+    public CompletableFuture<ResponseEntity<String>> deleteObject(@RequestParam("bucketName") String bucketName,
+                                                                  @RequestParam("key") String key) {
+        return s3AsyncService.deleteObject(bucketName, key)
+                .handle((ignored, error) -> error == null
+                        ? ResponseEntity.ok("Object deleted successfully.")
+                        : AwsErrorResponses.failure(error)
+                        .body("Error deleting file: " + error.getMessage()));
+    }
+
+    /**
+     * Streams an object from the specified S3 bucket to the client.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to download.
+     * @param range      The optional HTTP {@code Range} header.
+     * @return A future ResponseEntity streaming the object content.
+     */
+    @GetMapping("/download")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadFile(@RequestParam String bucketName,
+                                                                                 @RequestParam String key,
+                                                                                 @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return s3AsyncService.downloadFile(bucketName, key, S3ObjectResponses.singleByteRange(range))
+                .handle((object, error) -> error == null
+                        ? S3ObjectResponses.stream(bucketName, key, object)
+                        : ResponseEntity.status(S3ObjectResponses.downloadErrorStatus(error)).build());
+    }
+
+    /**
+     * Copies an object from one location to another within S3.
+     *
+     * @param payload A map containing sourceBucket, sourceKey, destinationBucket, and destinationKey.
+     * @return A future ResponseEntity with a status message.
+     */
+    @PostMapping("/copy")
+    public CompletableFuture<ResponseEntity<String>> copyObject(@RequestBody Map<String, String> payload) {
+        return s3AsyncService.copyObject(payload.get("sourceBucket"), payload.get("sourceKey"),
+                        payload.get("destinationBucket"), payload.get("destinationKey"))
+                .handle((ignored, error) -> error == null
+                        ? ResponseEntity.ok("Object copied successfully.")
+                        : AwsErrorResponses.failure(error)
+                        .body("Error copying object: " + error.getMessage()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.service.SqsAsyncService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking controller for SQS operations.
+ * Mirrors {@link SqsController} under {@code /aws/async/sqs}; long polls no longer occupy a servlet thread.
+ * Only active when {@code aws.client.mode=async}.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/async/sqs")
+@ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+public class AsyncSqsController {
+
+    private final SqsAsyncService sqsAsyncService;
+
+    /**
+     * Endpoint to send a message to an SQS queue.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @param message  The message body.
+     * @return A future confirmation message with the sent message ID.
+     */
+    @PostMapping("/send")
+    public CompletableFuture<ResponseEntity<String>> sendMessage(@RequestParam String queueUrl,
+                                                                 @RequestParam String message) {
+        return sqsAsyncService.sendMessage(queueUrl, message)
+                .handle((messageId, error) -> error == null
+                        ? ResponseEntity.ok("Message sent. Message ID: " + messageId)
+                        : AwsErrorResponses.failure(error)
+                        .body("Error sending message: " + error.getMessage()));
+    }
+
+    /**
+     * Endpoint to receive messages from an SQS queue.
+     *
+     * @param queueUrl        The URL of the SQS queue.
+     * @param maxMessages     Maximum number of messages to receive.
+     * @param waitTimeSeconds Wait time for long polling.
+     * @return A future list of formatted message details.
+     */
+    @GetMapping("/receive")
+    public CompletableFuture<ResponseEntity<List<String>>> receiveMessages(@RequestParam String queueUrl,
+                                                                           @RequestParam(defaultValue = "10") int maxMessages,
+                                                                           @RequestParam(defaultValue = "10") int waitTimeSeconds) {
+        return sqsAsyncService.receiveMessages(queueUrl, maxMessages, waitTimeSeconds)
+                .handle((messages, error) -> error == null
+                        ? ResponseEntity.ok(messages.stream()
+                        .map(m -> "MessageId: " + m.messageId() +
+                                ", Body: " + m.body() +
+                                ", ReceiptHandle: " + m.receiptHandle())
+                        .toList())
+                        : AwsErrorResponses.failure(error).body(null));
+    }
+
+    /**
+     * Endpoint to delete a message from an SQS queue.
+     *
+     * @param payload A map containing queueUrl and receiptHandle.
+     * @return A future confirmation message.
+     */
+    @DeleteMapping("/delete")
+    public CompletableFuture<ResponseEntity<String>> deleteMessage(@RequestBody Map<String, String> payload) {
+        return sqsAsyncService.deleteMessage(payload.get("queueUrl"), payload.get("receiptHandle"))
+                .handle((ignored, error) -> error == null
+                        ? ResponseEntity.ok("Message deleted successfully.")
+                        : AwsErrorResponses.failure(error)
+                        .body("Error deleting message: " + error.getMessage()));
+    }
+}
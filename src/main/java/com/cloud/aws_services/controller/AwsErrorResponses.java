@@ -0,0 +1,39 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.config.AdaptiveConcurrencyLimiter;
+import com.cloud.aws_services.config.ConcurrencyLimitExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Maps failed AWS calls to error responses. Services wrap SDK exceptions, so the whole cause chain is inspected.
+ */
+final class AwsErrorResponses {
+
+    /** Seconds a client should wait before retrying a throttled request. */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private AwsErrorResponses() {
+    }
+
+    /**
+     * Starts an error response: {@code 429} with {@code Retry-After} when the call was throttled by AWS or refused by
+     * the concurrency limiter, {@code 500} otherwise.
+     */
+    static ResponseEntity.BodyBuilder failure(Throwable error) {
+        if (isThrottled(error)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    static boolean isThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyLimitExceededException || AdaptiveConcurrencyLimiter.isThrottling(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.ArchiveDownloadRequest;
+import com.cloud.aws_services.model.ArchiveUploadSummary;
+import com.cloud.aws_services.service.S3ArchiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Controller for moving many S3 objects in a single request.
+ * Exposes endpoints to unpack an uploaded zip or tar archive into objects and to download objects as one zip.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/s3/archive")
+public class S3ArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3ArchiveController.class);
+    private final S3ArchiveService archiveService;
+
+    /**
+     * Endpoint to store every file of an archive sent as the raw request body as its own object.
+     *
+     * @param bucketName The target bucket name.
+     * @param prefix     The optional prefix prepended to every entry name.
+     * @param format     The archive format ({@code zip}, {@code tar} or {@code tar.gz}); defaults from the content type.
+     * @param request    The request whose body is the archive.
+     * @return The number of stored and failed entries.
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<?> uploadArchive(@RequestParam String bucketName,
+                                           @RequestParam(required = false) String prefix,
+                                           @RequestParam(required = false) String format,
+                                           HttpServletRequest request) {
+        try {
+            String archiveFormat = format != null ? format : formatOf(request.getContentType());
+            ArchiveUploadSummary summary = archiveService.uploadArchive(bucketName, prefix, request.getInputStream(), archiveFormat);
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error unpacking archive into bucket {}: {}", bucketName, e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error unpacking archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to download every object under a prefix as a zip, with entry names relative to the prefix.
+     *
+     * @param bucketName The name of the bucket.
+     * @param prefix     The non-empty prefix to archive.
+     * @return A ResponseEntity streaming the zip.
+     */
+    @GetMapping("/download")
+    public ResponseEntity<StreamingResponseBody> downloadPrefix(@RequestParam String bucketName,
+                                                                @RequestParam String prefix) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return zip(bucketName, prefix, null);
+    }
+
+    /**
+     * Endpoint to download a list of objects, or every object under a prefix, as a zip.
+     *
+     * @param request The bucket, and the keys or the prefix to archive.
+     * @return A ResponseEntity streaming the zip.
+     */
+    @PostMapping("/download")
+    public ResponseEntity<StreamingResponseBody> downloadObjects(@RequestBody ArchiveDownloadRequest request) {
+        boolean noKeys = request.keys() == null || request.keys().isEmpty();
+        if (request.bucketName() == null || (noKeys && (request.prefix() == null || request.prefix().isBlank()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return zip(request.bucketName(), request.prefix(), noKeys ? null : request.keys());
+    }
+
+    private ResponseEntity<StreamingResponseBody> zip(String bucketName, String prefix, List<String> keys) {
+        String name = prefix != null && !prefix.isBlank() ? prefix.replaceAll("/+$", "").replace('/', '_') : bucketName;
+        StreamingResponseBody body = outputStream -> {
+            try {
+                archiveService.writeZip(bucketName, prefix, keys, outputStream);
+            } catch (RuntimeException e) {
+                // Headers are already sent; dropping the connection leaves the client with a truncated archive.
+                logger.error("Error streaming zip from bucket {}: {}", bucketName, e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, "application/zip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".zip\"")
+                .body(body);
+    }
+
+    private static String formatOf(String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("Specify the archive format or a Content-Type");
+        }
+        return switch (contentType.split(";")[0].trim()) {
+            case "application/zip", "application/x-zip-compressed" -> "zip";
+            case "application/x-tar" -> "tar";
+            case "application/gzip", "application/x-gzip", "application/x-compressed-tar" -> "tar.gz";
+            default -> throw new IllegalArgumentException("Unsupported archive content type: " + contentType);
+        };
+    }
+}
@@ -1,33 +1,65 @@
 package com.cloud.aws_services.controller;
 
+import com.cloud.aws_services.model.BulkDeleteRequest;
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.BulkPresignRequest;
+import com.cloud.aws_services.model.ListingOptions;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.ObjectMetadata;
+import com.cloud.aws_services.model.PrefixDeleteSummary;
+import com.cloud.aws_services.model.PresignStats;
+import com.cloud.aws_services.model.PresignedUrl;
+import com.cloud.aws_services.model.StreamingUploadResult;
+import com.cloud.aws_services.service.Compression;
+import com.cloud.aws_services.service.ContentCodec;
+import com.cloud.aws_services.service.PresignedUrlCache;
+import com.cloud.aws_services.service.S3CompressionPolicy;
+import com.cloud.aws_services.service.S3ObjectCache;
 import com.cloud.aws_services.service.S3Service;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * REST Controller for Amazon S3 operations.
  * Provides endpoints to list buckets, list objects in a bucket,
  * upload files, delete objects, download files, copy objects, and generate pre-signed URLs.
  */
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RestController
 @RequestMapping("/aws/s3")
 public class S3Controller {
 
     private static final Logger logger = LoggerFactory.getLogger(S3Controller.class);
     private final S3Service s3Service;
+    private final PresignedUrlCache presignedUrlCache;
+    private final S3ObjectCache objectCache;
+    private final S3CompressionPolicy compressionPolicy;
+    private final ObjectMapper objectMapper;
+
+    @Value("${aws.s3.listing.max-parallelism:8}")
+    private int maxListingParallelism;
 
     /**
      * Retrieves a list of all S3 buckets.
@@ -42,7 +74,7 @@ public class S3Controller {
             return ResponseEntity.ok(buckets);
         } catch (Exception e) {
             logger.error("Error listing buckets: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return AwsErrorResponses.failure(e).build();
         }
     }
 
@@ -60,33 +92,113 @@ public class S3Controller {
             return ResponseEntity.ok(objects);
         } catch (Exception e) {
             logger.error("Error listing objects in bucket {}: {}", bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return AwsErrorResponses.failure(e).build();
         }
     }
 
+    /**
+     * Streams the complete listing of a bucket as NDJSON, one object or common prefix per line.
+     * Continuation tokens are followed server-side, so the listing is not limited to the first 1,000 keys.
+     *
+     * @param bucketName  The name of the bucket.
+     * @param prefix      Only list keys starting with this prefix.
+     * @param delimiter   Group keys into common prefixes up to this delimiter.
+     * @param startAfter  Only list keys sorting after this key.
+     * @param pageSize    The number of keys fetched per S3 call; clamped to 1 to 1000.
+     * @param parallelism When greater than 1, list the partitions under the prefix concurrently (unordered output).
+     * @return A ResponseEntity streaming the listing.
+     */
+    @GetMapping(value = "/objects/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamObjects(@RequestParam String bucketName,
+                                                               @RequestParam(required = false) String prefix,
+                                                               @RequestParam(required = false) String delimiter,
+                                                               @RequestParam(required = false) String startAfter,
+                                                               @RequestParam(required = false) Integer pageSize,
+                                                               @RequestParam(defaultValue = "1") int parallelism) {
+        ListingOptions options = new ListingOptions(prefix, delimiter, startAfter, pageSize);
+        int partitions = Math.min(Math.max(parallelism, 1), maxListingParallelism);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, S3ObjectResponses.DOWNLOAD_BUFFER_SIZE);
+            Consumer<ObjectEntry> writer = entry -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(entry));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            try {
+                long count = s3Service.streamObjectsParallel(bucketName, options, partitions, writer);
+                logger.info("Streamed {} entries from bucket '{}'.", count, bucketName);
+            } catch (UncheckedIOException e) {
+                logger.warn("Listing of bucket '{}' aborted by client: {}", bucketName, e.getMessage());
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Uploads a file to the specified S3 bucket.
      *
-     * @param bucketName The target bucket name.
-     * @param key        The key under which the file will be stored.
-     * @param file       The file to upload.
+     * @param bucketName  The target bucket name.
+     * @param key         The key under which the file will be stored.
+     * @param file        The file to upload.
+     * @param compression The optional codec to store the file with ({@code gzip}, {@code zstd} or {@code none});
+     *                    defaults to the configured rule for the bucket and prefix.
      * @return A ResponseEntity with a status message.
      */
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(@RequestParam("bucketName") String bucketName,
                                              @RequestParam("key") String key,
-                                             @RequestParam("file") MultipartFile file) {
+                                             @RequestParam("file") MultipartFile file,
+                                             @RequestParam(value = "compression", required = false) String compression) {
         try {
-            s3Service.uploadFile(bucketName, key, file);
+            s3Service.uploadFile(bucketName, key, file, compressionPolicy.resolve(bucketName, key, compression));
             logger.info("File '{}' uploaded successfully to bucket '{}'.", key, bucketName);
             return ResponseEntity.ok("File uploaded successfully.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             logger.error("IO error uploading file '{}' to bucket {}: {}", key, bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body("Error uploading file: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Unexpected error uploading file '{}' to bucket {}: {}", key, bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
+                    .body("Error uploading file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Uploads the raw request body as an object, piping it to S3 as it arrives instead of
+     * spooling a multipart form to disk first. Bodies without a {@code Content-Length} are uploaded in parts.
+     *
+     * @param bucketName  The target bucket name.
+     * @param key         The key under which the object will be stored.
+     * @param compression The optional codec to store the body with ({@code gzip}, {@code zstd} or {@code none});
+     *                    defaults to the configured rule for the bucket and prefix.
+     * @param contentMd5  The optional base64 {@code Content-MD5} header the body must match.
+     * @param request     The request whose body is the object content.
+     * @return A ResponseEntity with the ETag, sizes and checksums of the stored object.
+     */
+    @PutMapping("/upload")
+    public ResponseEntity<?> uploadStream(@RequestParam("bucketName") String bucketName,
+                                          @RequestParam("key") String key,
+                                          @RequestParam(value = "compression", required = false) String compression,
+                                          @RequestHeader(value = "Content-MD5", required = false) String contentMd5,
+                                          HttpServletRequest request) {
+        try {
+            Compression resolved = compressionPolicy.resolve(bucketName, key, compression);
+            StreamingUploadResult result = s3Service.uploadStream(bucketName, key, request.getInputStream(),
+                    request.getContentLengthLong(), request.getContentType(), contentMd5, resolved);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error streaming upload of '{}' to bucket {}: {}", key, bucketName, e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
                     .body("Error uploading file: " + e.getMessage());
         }
     }
@@ -107,31 +219,239 @@ public class S3Controller {
             return ResponseEntity.ok("Object deleted successfully.");
         } catch (Exception e) {
             logger.error("Error deleting object '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body("Error deleting file: " + e.getMessage());
         }
     }
 
     /**
-     * Downloads an object from the specified S3 bucket.
+     * Deletes many objects from the specified S3 bucket using {@code DeleteObjects} calls of up to 1,000 keys.
+     *
+     * @param request The bucket name and the keys to delete.
+     * @return A ResponseEntity with one result per key.
+     */
+    @PostMapping("/delete/objects")
+    public ResponseEntity<List<BulkItemResult>> deleteObjects(@RequestBody BulkDeleteRequest request) {
+        try {
+            List<BulkItemResult> results = s3Service.deleteObjects(request.bucketName(), request.keys());
+            logger.info("Bulk deleted {} objects from bucket '{}'.", results.size(), request.bucketName());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            logger.error("Error bulk deleting objects from bucket {}: {}", request.bucketName(), e.getMessage(), e);
+            return AwsErrorResponses.failure(e).build();
+        }
+    }
+
+    /**
+     * Deletes every object under a prefix in the specified S3 bucket.
      *
      * @param bucketName The name of the bucket.
-     * @param key        The key of the object to download.
-     * @return A ResponseEntity containing the file data as a byte array.
+     * @param prefix     The non-empty prefix whose objects are deleted.
+     * @return A ResponseEntity with the number of deleted and failed objects.
+     */
+    @DeleteMapping("/delete/prefix")
+    public ResponseEntity<?> deletePrefix(@RequestParam String bucketName,
+                                          @RequestParam String prefix) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().body("A non-empty prefix is required.");
+        }
+        try {
+            PrefixDeleteSummary summary = s3Service.deletePrefix(bucketName, prefix);
+            logger.info("Deleted prefix '{}' from bucket '{}'.", prefix, bucketName);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            logger.error("Error deleting prefix '{}' from bucket {}: {}", prefix, bucketName, e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error deleting prefix: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams an object from the specified S3 bucket to the client.
+     * The body is piped through a fixed-size buffer, so heap usage does not grow with the object size.
+     * A single-range {@code Range} header is forwarded to S3 and answered with {@code 206 Partial Content}.
+     * When the local object cache is enabled, objects small enough to cache are served from disk instead,
+     * with concurrent requests for the same object sharing one fetch from S3.
+     * Objects stored compressed are sent as stored when {@code Accept-Encoding} allows their codec,
+     * and are otherwise decompressed while streaming, in which case any {@code Range} is ignored.
+     * {@code If-None-Match} and {@code If-Modified-Since} are forwarded to S3 (or checked against the cached copy),
+     * and a current client copy is answered with {@code 304 Not Modified} without transferring the body.
+     *
+     * @param bucketName      The name of the bucket.
+     * @param key             The key of the object to download.
+     * @param range           The optional HTTP {@code Range} header.
+     * @param acceptEncoding  The optional HTTP {@code Accept-Encoding} header.
+     * @param ifNoneMatch     The optional HTTP {@code If-None-Match} header.
+     * @param ifModifiedSince The optional HTTP {@code If-Modified-Since} header.
+     * @return A ResponseEntity streaming the object content.
      */
     @GetMapping("/download")
-    public ResponseEntity<byte[]> downloadFile(@RequestParam String bucketName,
-                                               @RequestParam String key) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(@RequestParam String bucketName,
+                                                              @RequestParam String key,
+                                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                              @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
+        String byteRange = S3ObjectResponses.singleByteRange(range);
+        Instant modifiedSince = S3ObjectResponses.httpDate(ifModifiedSince);
+        if (objectCache.isEnabled()) {
+            S3ObjectCache.Lookup lookup;
+            try {
+                lookup = objectCache.get(bucketName, key);
+            } catch (UncheckedIOException e) {
+                logger.warn("Could not cache '{}' from bucket {}, streaming from S3: {}", key, bucketName, e.getMessage());
+                lookup = null;
+            } catch (Exception e) {
+                logger.error("Error downloading file '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
+                return ResponseEntity.status(S3ObjectResponses.downloadErrorStatus(e)).build();
+            }
+            ResponseInputStream<GetObjectResponse> uncached = lookup != null ? lookup.uncached() : null;
+            if (uncached != null) {
+                // Too large to cache: the cache already opened the whole object, so use it unless a range is needed.
+                GetObjectResponse response = uncached.response();
+                if (S3ObjectResponses.isNotModified(ifNoneMatch, modifiedSince, response.eTag(), response.lastModified())) {
+                    uncached.abort();
+                    return S3ObjectResponses.notModified(response.eTag(), response.lastModified(), ifNoneMatch);
+                }
+                if (byteRange == null) {
+                    return S3ObjectResponses.stream(bucketName, key, uncached,
+                            decoderFor(response.contentEncoding(), acceptEncoding));
+                }
+                uncached.abort();
+            }
+            S3ObjectCache.CachedObject cached = lookup != null ? lookup.cached() : null;
+            if (cached != null) {
+                if (S3ObjectResponses.isNotModified(ifNoneMatch, modifiedSince, cached.eTag(), cached.lastModified())) {
+                    return S3ObjectResponses.notModified(cached.eTag(), cached.lastModified(), ifNoneMatch);
+                }
+                try {
+                    return S3ObjectResponses.serve(bucketName, key, cached, cached.open(), byteRange,
+                            decoderFor(cached.contentEncoding(), acceptEncoding));
+                } catch (IOException e) {
+                    // Evicted between lookup and open.
+                    logger.warn("Cached copy of '{}' from bucket {} is gone, streaming from S3.", key, bucketName);
+                }
+            }
+        }
+
+        String eTags = S3ObjectResponses.strongETags(ifNoneMatch);
+        ResponseInputStream<GetObjectResponse> object;
+        ContentCodec decode;
         try {
-            byte[] fileData = s3Service.downloadFile(bucketName, key);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + key + "\"");
-            logger.info("File '{}' from bucket '{}' downloaded successfully.", key, bucketName);
-            return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+            object = s3Service.downloadFile(bucketName, key, byteRange, eTags, eTags == null ? modifiedSince : null);
+            decode = decoderFor(object.response().contentEncoding(), acceptEncoding);
+            if (decode != null && byteRange != null) {
+                // The range addresses compressed bytes; fetch the whole object to decode it.
+                object.abort();
+                object = s3Service.downloadFile(bucketName, key, null);
+                decode = decoderFor(object.response().contentEncoding(), acceptEncoding);
+            }
         } catch (Exception e) {
+            HttpStatus status = S3ObjectResponses.downloadErrorStatus(e);
+            if (status == HttpStatus.NOT_MODIFIED) {
+                return S3ObjectResponses.notModified(e, ifNoneMatch);
+            }
             logger.error("Error downloading file '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return ResponseEntity.status(status).build();
+        }
+
+        return S3ObjectResponses.stream(bucketName, key, object, decode);
+    }
+
+    /**
+     * Answers {@code HEAD} for a download with the headers the download would carry, from cached {@code HeadObject}
+     * metadata, so clients can check an object without transferring it.
+     *
+     * @param bucketName      The name of the bucket.
+     * @param key             The key of the object.
+     * @param acceptEncoding  The optional HTTP {@code Accept-Encoding} header.
+     * @param ifNoneMatch     The optional HTTP {@code If-None-Match} header.
+     * @param ifModifiedSince The optional HTTP {@code If-Modified-Since} header.
+     * @return A {@code 200} or {@code 304} response without a body.
+     */
+    @RequestMapping(value = "/download", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> headFile(@RequestParam String bucketName,
+                                         @RequestParam String key,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
+        try {
+            ObjectMetadata metadata = s3Service.getObjectMetadata(bucketName, key);
+            if (S3ObjectResponses.isNotModified(ifNoneMatch, S3ObjectResponses.httpDate(ifModifiedSince),
+                    metadata.eTag(), metadata.lastModified())) {
+                return S3ObjectResponses.notModified(metadata.eTag(), metadata.lastModified(), ifNoneMatch);
+            }
+            return S3ObjectResponses.head(key, metadata, decoderFor(metadata.contentEncoding(), acceptEncoding));
+        } catch (Exception e) {
+            HttpStatus status = S3ObjectResponses.downloadErrorStatus(e);
+            if (status != HttpStatus.NOT_FOUND) {
+                logger.error("Error reading metadata of '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
+            }
+            return ResponseEntity.status(status).build();
+        }
+    }
+
+    /**
+     * Endpoint to read the metadata of an object: size, ETag, last-modified time, content type and encoding,
+     * storage class and user metadata. Served from a short-lived cache that writes through this application invalidate.
+     *
+     * @param bucketName  The name of the bucket.
+     * @param key         The key of the object.
+     * @param ifNoneMatch The optional HTTP {@code If-None-Match} header.
+     * @return The metadata, or {@code 304 Not Modified} if the client's ETag is current.
+     */
+    @GetMapping("/metadata")
+    public ResponseEntity<ObjectMetadata> getObjectMetadata(@RequestParam String bucketName,
+                                                            @RequestParam String key,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            ObjectMetadata metadata = s3Service.getObjectMetadata(bucketName, key);
+            if (S3ObjectResponses.isNotModified(ifNoneMatch, null, metadata.eTag(), metadata.lastModified())) {
+                return S3ObjectResponses.notModified(metadata.eTag(), metadata.lastModified(), ifNoneMatch);
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (metadata.eTag() != null) {
+                response.eTag(metadata.eTag());
+            }
+            if (metadata.lastModified() != null) {
+                response.lastModified(metadata.lastModified());
+            }
+            return response.body(metadata);
+        } catch (Exception e) {
+            HttpStatus status = S3ObjectResponses.downloadErrorStatus(e);
+            if (status != HttpStatus.NOT_FOUND) {
+                logger.error("Error reading metadata of '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
+            }
+            return ResponseEntity.status(status).build();
+        }
+    }
+
+    /**
+     * Returns the codec to decompress a stored object with, or {@code null} if it can be sent as stored.
+     */
+    private static ContentCodec decoderFor(String contentEncoding, String acceptEncoding) {
+        ContentCodec codec = ContentCodec.fromEncoding(contentEncoding);
+        return codec == null || codec.isAcceptedBy(acceptEncoding) ? null : codec;
+    }
+
+    /**
+     * Downloads an object to local disk on the server with parallel ranged GETs, for jobs that process it there.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to stage.
+     * @return A ResponseEntity with the local path and size of the staged file.
+     */
+    @PostMapping("/stage")
+    public ResponseEntity<?> stageObject(@RequestParam String bucketName,
+                                         @RequestParam String key) {
+        try {
+            return ResponseEntity.ok(s3Service.stageObject(bucketName, key));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error staging object '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
+            return ResponseEntity.status(S3ObjectResponses.downloadErrorStatus(e))
+                    .body("Error staging object: " + e.getMessage());
         }
     }
 
@@ -153,7 +473,7 @@ public class S3Controller {
             return ResponseEntity.ok("Object copied successfully.");
         } catch (Exception e) {
             logger.error("Error copying object: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body("Error copying object: " + e.getMessage());
         }
     }
@@ -176,8 +496,42 @@ public class S3Controller {
             return response;
         } catch (Exception e) {
             logger.error("Error generating pre-signed URL for object '{}' in bucket {}: {}", key, bucketName, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body("Error generating pre-signed URL: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Generates pre-signed URLs for many objects in one request.
+     * {@code PUT} URLs let browsers upload directly to S3.
+     *
+     * @param request The bucket, keys, method, validity and (for PUT) content type.
+     * @return A ResponseEntity with one pre-signed URL per key.
+     */
+    @PostMapping("/presign/bulk")
+    public ResponseEntity<?> generatePresignedUrls(@RequestBody BulkPresignRequest request) {
+        String method = request.method() != null ? request.method().toUpperCase() : "GET";
+        long expirationSeconds = request.expirationSeconds() != null ? request.expirationSeconds() : 300;
+        try {
+            List<PresignedUrl> urls = s3Service.generatePresignedUrls(request.bucketName(), request.keys(), method,
+                    expirationSeconds, request.contentType());
+            return ResponseEntity.ok(urls);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error generating pre-signed URLs for bucket {}: {}", request.bucketName(), e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error generating pre-signed URLs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reports the hit ratio and signing latency of the pre-signed URL cache.
+     *
+     * @return A ResponseEntity with the cache statistics.
+     */
+    @GetMapping("/presign/stats")
+    public ResponseEntity<PresignStats> presignStats() {
+        return ResponseEntity.ok(presignedUrlCache.stats());
+    }
+}
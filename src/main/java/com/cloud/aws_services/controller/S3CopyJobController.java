@@ -0,0 +1,97 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.CopyJobRequest;
+import com.cloud.aws_services.model.CopyJobStatus;
+import com.cloud.aws_services.service.S3CopyJobService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for bulk S3 copy jobs.
+ * Exposes endpoints to copy a whole prefix in the background, follow its progress, and cancel or resume it.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/s3/copy/jobs")
+public class S3CopyJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3CopyJobController.class);
+    private final S3CopyJobService copyJobService;
+
+    /**
+     * Endpoint to start copying every object under a prefix.
+     *
+     * @param request The source and destination buckets and prefixes, and optional concurrency and start key.
+     * @return The initial status of the job.
+     */
+    @PostMapping
+    public ResponseEntity<?> startJob(@RequestBody CopyJobRequest request) {
+        try {
+            CopyJobStatus status = copyJobService.start(request);
+            logger.info("Started copy job {} for {}/{}", status.id(), request.sourceBucket(), request.sourcePrefix());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error starting copy job: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error starting copy job: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to list all copy jobs.
+     *
+     * @return One status per job.
+     */
+    @GetMapping
+    public ResponseEntity<List<CopyJobStatus>> listJobs() {
+        return ResponseEntity.ok(copyJobService.statuses());
+    }
+
+    /**
+     * Endpoint to read the progress of a copy job.
+     *
+     * @param id The job ID.
+     * @return The job status.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CopyJobStatus> jobStatus(@PathVariable String id) {
+        CopyJobStatus status = copyJobService.status(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to cancel a running copy job. Objects already being copied finish first.
+     *
+     * @param id The job ID.
+     * @return The job status.
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<CopyJobStatus> cancelJob(@PathVariable String id) {
+        CopyJobStatus status = copyJobService.cancel(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to resume a cancelled or failed copy job after its checkpoint.
+     *
+     * @param id The job ID.
+     * @return The job status.
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resumeJob(@PathVariable String id) {
+        try {
+            CopyJobStatus status = copyJobService.resume(id);
+            return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.KeyIndexSettings;
+import com.cloud.aws_services.model.KeyIndexStatus;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.PrefixSummary;
+import com.cloud.aws_services.service.S3KeyIndexManager;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for local key indexes of buckets.
+ * Exposes endpoints to start and stop indexing a bucket, and prefix listings, counts and sizes answered from the
+ * index without calling S3.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/s3/index")
+public class S3KeyIndexController {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3KeyIndexController.class);
+    private final S3KeyIndexManager indexManager;
+
+    /**
+     * Endpoint to start indexing a bucket, seeding the index first if it is new.
+     *
+     * @param settings The bucket, the queue receiving its event notifications and optional seeding options.
+     * @return The status of the index.
+     */
+    @PostMapping
+    public ResponseEntity<?> startIndex(@RequestBody KeyIndexSettings settings) {
+        try {
+            KeyIndexStatus status = indexManager.start(settings);
+            logger.info("Started index of bucket '{}' ({})", status.bucketName(), status.state());
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error starting index: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error starting index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to stop indexing a bucket.
+     *
+     * @param bucketName The indexed bucket.
+     * @param delete     Whether to delete the index file instead of keeping it for the next start.
+     * @return The final status of the index.
+     */
+    @DeleteMapping
+    public ResponseEntity<KeyIndexStatus> stopIndex(@RequestParam String bucketName,
+                                                    @RequestParam(defaultValue = "false") boolean delete) {
+        KeyIndexStatus status = indexManager.stop(bucketName, delete);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to read the state and size of all open indexes.
+     *
+     * @return One status per index.
+     */
+    @GetMapping
+    public ResponseEntity<List<KeyIndexStatus>> indexStatus() {
+        return ResponseEntity.ok(indexManager.status());
+    }
+
+    /**
+     * Endpoint to list indexed objects in key order.
+     *
+     * @param bucketName The indexed bucket.
+     * @param prefix     Only list keys starting with this prefix.
+     * @param delimiter  Group keys into common prefixes up to this delimiter.
+     * @param startAfter Only list entries sorting after this key; pass the last key or common prefix
+     *                   of a page to get the next one.
+     * @param limit      The maximum number of entries (up to 10,000).
+     * @return The objects and common prefixes.
+     */
+    @GetMapping("/objects")
+    public ResponseEntity<?> listObjects(@RequestParam String bucketName,
+                                         @RequestParam(required = false) String prefix,
+                                         @RequestParam(required = false) String delimiter,
+                                         @RequestParam(required = false) String startAfter,
+                                         @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            List<ObjectEntry> entries = indexManager.list(bucketName, prefix, delimiter, startAfter, limit);
+            return entries != null ? ResponseEntity.ok(entries) : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to count the indexed objects under a prefix and sum their sizes.
+     *
+     * @param bucketName The indexed bucket.
+     * @param prefix     The key prefix; omit for the whole bucket.
+     * @return The object count and total size.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> summary(@RequestParam String bucketName,
+                                     @RequestParam(required = false) String prefix) {
+        try {
+            PrefixSummary summary = indexManager.summary(bucketName, prefix);
+            return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
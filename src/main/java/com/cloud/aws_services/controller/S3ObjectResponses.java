@@ -0,0 +1,344 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.ObjectMetadata;
+import com.cloud.aws_services.service.ContentCodec;
+import com.cloud.aws_services.service.S3ObjectCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers shared by the S3 controllers for turning object streams into HTTP responses.
+ */
+final class S3ObjectResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3ObjectResponses.class);
+    static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private S3ObjectResponses() {
+    }
+
+    /**
+     * Builds a response that pipes the object stream to the client through a fixed-size buffer,
+     * passing through the object's length, type, encoding, ETag and range headers.
+     *
+     * @param bucketName The name of the bucket, for logging.
+     * @param key        The key of the object.
+     * @param object     The open object stream; it is closed once the body has been written.
+     * @return A {@code 200} or {@code 206} response streaming the object content.
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String bucketName, String key,
+                                                       ResponseInputStream<GetObjectResponse> object) {
+        return stream(bucketName, key, object, null);
+    }
+
+    /**
+     * Builds a response that pipes the object stream to the client through a fixed-size buffer.
+     * When {@code decode} is set, the stored bytes are decompressed on the way out and the response carries
+     * neither a length nor a range, since both would describe the compressed bytes.
+     *
+     * @param bucketName The name of the bucket, for logging.
+     * @param key        The key of the object.
+     * @param object     The open object stream; it is closed once the body has been written.
+     * @param decode     The codec to decompress with, or {@code null} to send the stored bytes as they are.
+     * @return A {@code 200} or {@code 206} response streaming the object content.
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String bucketName, String key,
+                                                       ResponseInputStream<GetObjectResponse> object, ContentCodec decode) {
+        GetObjectResponse metadata = object.response();
+        HttpHeaders headers = headers(key, metadata.contentType(), metadata.eTag(), metadata.lastModified(),
+                metadata.contentEncoding(), decode);
+        HttpStatus status = HttpStatus.OK;
+        if (decode == null) {
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (metadata.contentLength() != null) {
+                headers.setContentLength(metadata.contentLength());
+            }
+            if (metadata.contentRange() != null) {
+                headers.set(HttpHeaders.CONTENT_RANGE, metadata.contentRange());
+                status = HttpStatus.PARTIAL_CONTENT;
+            }
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (object; InputStream content = decode != null ? decode.decompress(object) : object) {
+                copy(content, outputStream);
+                logger.info("File '{}' from bucket '{}' downloaded successfully{}.", key, bucketName,
+                        decode != null ? " (" + decode.encoding() + " decoded)" : "");
+            } catch (IOException e) {
+                // Drop the connection instead of draining the rest of the object on close.
+                object.abort();
+                logger.warn("Download of '{}' from bucket '{}' aborted: {}", key, bucketName, e.getMessage());
+                throw e;
+            }
+        };
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    /**
+     * Builds a response that serves an object from the local cache with {@code FileChannel.transferTo},
+     * answering a single byte range with {@code 206 Partial Content}.
+     *
+     * @param bucketName The name of the bucket, for logging.
+     * @param key        The key of the object.
+     * @param cached     The cached object.
+     * @param file       The cached file, already open; it is closed once the body has been written.
+     * @param range      The single byte range requested, or {@code null} for the whole object.
+     * @param decode     The codec to decompress with, or {@code null} to send the stored bytes as they are.
+     *                   Decoded responses ignore {@code range} and are sent whole without a length.
+     * @return A {@code 200}, {@code 206} or {@code 416} response.
+     */
+    static ResponseEntity<StreamingResponseBody> serve(String bucketName, String key, S3ObjectCache.CachedObject cached,
+                                                      FileChannel file, String range, ContentCodec decode) throws IOException {
+        if (decode != null) {
+            HttpHeaders headers = headers(key, cached.contentType(), cached.eTag(), cached.lastModified(),
+                    cached.contentEncoding(), decode);
+            StreamingResponseBody body = outputStream -> {
+                try (file; InputStream content = decode.decompress(Channels.newInputStream(file))) {
+                    copy(content, outputStream);
+                    logger.info("File '{}' from bucket '{}' served from cache ({} decoded).", key, bucketName, decode.encoding());
+                }
+            };
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+        long length = cached.length();
+        long start = 0;
+        long end = length - 1;
+        HttpHeaders headers = new HttpHeaders();
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).trim().split("-", -1);
+            try {
+                if (bounds[0].isEmpty()) {
+                    start = Math.max(0, length - Long.parseLong(bounds[1]));
+                } else {
+                    start = Long.parseLong(bounds[0]);
+                    end = bounds[1].isEmpty() ? end : Math.min(Long.parseLong(bounds[1]), end);
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                start = length;
+            }
+            if (start >= length || start > end) {
+                file.close();
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+        headers.addAll(headers(key, cached.contentType(), cached.eTag(), cached.lastModified(),
+                cached.contentEncoding(), null));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentLength(end - start + 1);
+
+        long first = start;
+        long count = end - start + 1;
+        StreamingResponseBody body = outputStream -> {
+            try (file) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long position = first;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = file.transferTo(position, remaining, target);
+                    position += sent;
+                    remaining -= sent;
+                }
+                logger.info("File '{}' from bucket '{}' served from cache.", key, bucketName);
+            }
+        };
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    /**
+     * Builds the response to a {@code HEAD} request from cached metadata: the headers a download would carry,
+     * without a body.
+     *
+     * @param key      The key of the object.
+     * @param metadata The metadata of the object.
+     * @param decode   The codec a download would decompress with, or {@code null} if it would send the stored bytes.
+     * @return A {@code 200} response without a body.
+     */
+    static ResponseEntity<Void> head(String key, ObjectMetadata metadata, ContentCodec decode) {
+        HttpHeaders headers = headers(key, metadata.contentType(), metadata.eTag(), metadata.lastModified(),
+                metadata.contentEncoding(), decode);
+        if (decode == null) {
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (metadata.size() != null) {
+                headers.setContentLength(metadata.size());
+            }
+        }
+        return new ResponseEntity<>(headers, HttpStatus.OK);
+    }
+
+    /**
+     * Evaluates the client's conditional headers against the current object as RFC 9110 specifies:
+     * {@code If-None-Match} is compared weakly and, when present, {@code If-Modified-Since} is ignored.
+     *
+     * @return Whether the client's copy is current and {@code 304 Not Modified} should be sent.
+     */
+    static boolean isNotModified(String ifNoneMatch, Instant ifModifiedSince, String eTag, Instant lastModified) {
+        if (ifNoneMatch != null) {
+            if (eTag == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || strong(tag).equals(strong(eTag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return ifModifiedSince != null && lastModified != null
+                && !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(ifModifiedSince);
+    }
+
+    /**
+     * Builds a {@code 304 Not Modified} response. The ETag is sent weak if the client holds the weak form,
+     * which it received for a decompressed download.
+     */
+    static <T> ResponseEntity<T> notModified(String eTag, Instant lastModified, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            boolean weak = ifNoneMatch != null && ifNoneMatch.contains("W/" + strong(eTag));
+            headers.setETag(weak ? "W/" + strong(eTag) : eTag);
+        }
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    /**
+     * Builds a {@code 304 Not Modified} response from the {@code 304} S3 answered a conditional GET with.
+     */
+    static <T> ResponseEntity<T> notModified(Throwable error, String ifNoneMatch) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof S3Exception s3Exception && s3Exception.awsErrorDetails() != null
+                    && s3Exception.awsErrorDetails().sdkHttpResponse() != null) {
+                SdkHttpResponse response = s3Exception.awsErrorDetails().sdkHttpResponse();
+                return notModified(response.firstMatchingHeader(HttpHeaders.ETAG).orElse(null),
+                        response.firstMatchingHeader(HttpHeaders.LAST_MODIFIED).map(S3ObjectResponses::httpDate).orElse(null),
+                        ifNoneMatch);
+            }
+        }
+        return notModified(null, null, ifNoneMatch);
+    }
+
+    /**
+     * The entity tags of an {@code If-None-Match} header in strong form. S3 compares ETags strongly, and the
+     * weak tags clients hold for decompressed downloads describe the same stored object.
+     */
+    static String strongETags(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        return Arrays.stream(ifNoneMatch.split(",")).map(String::trim).map(S3ObjectResponses::strong)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Parses an HTTP date such as {@code If-Modified-Since}; an invalid date is ignored, as RFC 9110 requires.
+     */
+    static Instant httpDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String strong(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    /**
+     * Headers common to every download response. A stored {@code Content-Encoding} is passed through unless the
+     * content is decoded, in which case the ETag is weakened because the bytes sent differ from the stored ones.
+     */
+    private static HttpHeaders headers(String key, String contentType, String eTag, Instant lastModified,
+                                       String contentEncoding, ContentCodec decode) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + key + "\"");
+        if (eTag != null) {
+            headers.setETag(decode != null && !eTag.startsWith("W/") ? "W/" + eTag : eTag);
+        }
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+        if (contentEncoding != null && decode == null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        if (contentEncoding != null) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        return headers;
+    }
+
+    private static void copy(InputStream content, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * S3 only honours a single byte range; anything else is served as the full object.
+     */
+    static String singleByteRange(String range) {
+        if (range == null || !range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        return range;
+    }
+
+    /**
+     * Maps a failed download to the HTTP status the client should see.
+     */
+    static HttpStatus downloadErrorStatus(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoSuchKeyException) {
+                return HttpStatus.NOT_FOUND;
+            }
+            if (cause instanceof S3Exception s3Exception && (s3Exception.statusCode() == HttpStatus.NOT_MODIFIED.value()
+                    || s3Exception.statusCode() == HttpStatus.NOT_FOUND.value())) {
+                return HttpStatus.valueOf(s3Exception.statusCode());
+            }
+            if (cause instanceof S3Exception s3Exception
+                    && s3Exception.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                return HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
+            }
+        }
+        return AwsErrorResponses.isThrottled(error) ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,71 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.ArchiveSinkSettings;
+import com.cloud.aws_services.model.ArchiveSinkStatus;
+import com.cloud.aws_services.service.SqsArchiveManager;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for SQS-to-S3 archive sinks.
+ * Exposes endpoints to start and stop draining queues into batched NDJSON objects and to read their progress.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/sqs/archives")
+public class SqsArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsArchiveController.class);
+    private final SqsArchiveManager archiveManager;
+
+    /**
+     * Endpoint to start archiving queues to S3.
+     *
+     * @param settings The queue URLs, bucket, prefix and optional batching limits.
+     * @return The status of the started sink.
+     */
+    @PostMapping
+    public ResponseEntity<?> startSink(@RequestBody ArchiveSinkSettings settings) {
+        try {
+            ArchiveSinkStatus status = archiveManager.start(settings);
+            logger.info("Started archive sink '{}' for queues {}", status.name(), settings.queueUrls());
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error starting archive sink: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error starting archive sink: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to stop a sink after writing its open batch.
+     *
+     * @param name The name of the sink.
+     * @return The final status of the sink.
+     */
+    @DeleteMapping
+    public ResponseEntity<ArchiveSinkStatus> stopSink(@RequestParam String name) {
+        ArchiveSinkStatus status = archiveManager.stop(name);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to read the progress of all running sinks.
+     *
+     * @return One status per sink.
+     */
+    @GetMapping
+    public ResponseEntity<List<ArchiveSinkStatus>> sinkStatus() {
+        return ResponseEntity.ok(archiveManager.status());
+    }
+}
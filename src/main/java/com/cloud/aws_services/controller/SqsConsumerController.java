@@ -0,0 +1,71 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.ConsumerSettings;
+import com.cloud.aws_services.model.ConsumerStatus;
+import com.cloud.aws_services.service.SqsConsumerManager;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for managed SQS consumers.
+ * Exposes endpoints to start and stop server-side consumers and to read their throughput and lag.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/aws/sqs/consumers")
+public class SqsConsumerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsConsumerController.class);
+    private final SqsConsumerManager consumerManager;
+
+    /**
+     * Endpoint to start consuming a queue.
+     *
+     * @param settings The queue URL, handler bean name and optional tuning.
+     * @return The status of the started consumer.
+     */
+    @PostMapping
+    public ResponseEntity<?> startConsumer(@RequestBody ConsumerSettings settings) {
+        try {
+            ConsumerStatus status = consumerManager.start(settings);
+            logger.info("Started consumer for queue {}", settings.queueUrl());
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error starting consumer: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e)
+                    .body("Error starting consumer: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to stop the consumer of a queue.
+     *
+     * @param queueUrl The URL of the consumed queue.
+     * @return The final status of the consumer.
+     */
+    @DeleteMapping
+    public ResponseEntity<ConsumerStatus> stopConsumer(@RequestParam String queueUrl) {
+        ConsumerStatus status = consumerManager.stop(queueUrl);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to read per-queue throughput, lag and in-flight counts of all running consumers.
+     *
+     * @return One status per consumer.
+     */
+    @GetMapping
+    public ResponseEntity<List<ConsumerStatus>> consumerStatus() {
+        return ResponseEntity.ok(consumerManager.status());
+    }
+}
@@ -1,16 +1,26 @@
 package com.cloud.aws_services.controller;
 
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.BulkMessageDeleteRequest;
+import com.cloud.aws_services.model.BulkSendRequest;
+import com.cloud.aws_services.model.SendResult;
+import com.cloud.aws_services.service.SqsBatchSender;
+import com.cloud.aws_services.service.SqsMessageBroadcaster;
 import com.cloud.aws_services.service.SqsService;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import software.amazon.awssdk.services.sqs.model.Message;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -23,10 +33,17 @@ import java.util.stream.Collectors;
 public class SqsController {
 
     private static final Logger logger = LoggerFactory.getLogger(SqsController.class);
+    static final String SEND_LATENCY_HEADER = "X-Send-Latency-Millis";
+
     private final SqsService sqsService;
+    private final SqsBatchSender sqsBatchSender;
+    private final SqsMessageBroadcaster messageBroadcaster;
 
     /**
      * Endpoint to send a message to an SQS queue.
+     * When {@code aws.sqs.batch.enabled} is set the message is sent as part of a {@code SendMessageBatch};
+     * the call still returns the ID of this message, and the time it waited for and spent in its batch is reported
+     * in the {@value #SEND_LATENCY_HEADER} header.
      *
      * @param queueUrl The URL of the SQS queue.
      * @param message  The message body.
@@ -36,17 +53,53 @@ public class SqsController {
     public ResponseEntity<String> sendMessage(@RequestParam String queueUrl,
                                               @RequestParam String message) {
         try {
-            String messageId = sqsService.sendMessage(queueUrl, message);
-            String responseMsg = "Message sent. Message ID: " + messageId;
+            if (sqsBatchSender.isEnabled()) {
+                SqsBatchSender.SentMessage sent = sqsBatchSender.send(queueUrl, message).join();
+                String responseMsg = "Message sent. Message ID: " + sent.messageId();
+                logger.info("{} (batched, {} ms)", responseMsg, sent.latency().toMillis());
+                return ResponseEntity.ok()
+                        .header(SEND_LATENCY_HEADER, Long.toString(sent.latency().toMillis()))
+                        .body(responseMsg);
+            }
+            String responseMsg = "Message sent. Message ID: " + sqsService.sendMessage(queueUrl, message);
             logger.info(responseMsg);
             return ResponseEntity.ok(responseMsg);
         } catch (Exception e) {
             logger.error("Error in sendMessage endpoint: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body("Error sending message: " + e.getMessage());
         }
     }
 
+    /**
+     * Endpoint to send many messages to an SQS queue in one request.
+     * Messages are packed into {@code SendMessageBatch} calls of up to 10 entries / 256 KB.
+     *
+     * @param request The queue URL and the message bodies.
+     * @return One result per message, in request order, with its message ID and latency or its failure reason.
+     */
+    @PostMapping("/send/batch")
+    public ResponseEntity<List<SendResult>> sendMessages(@RequestBody BulkSendRequest request) {
+        try {
+            List<CompletableFuture<SqsBatchSender.SentMessage>> futures =
+                    sqsBatchSender.sendAll(request.queueUrl(), request.messages());
+            List<SendResult> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    SqsBatchSender.SentMessage sent = futures.get(i).join();
+                    results.add(new SendResult(i, sent.messageId(), sent.latency().toNanos() / 1e6, null));
+                } catch (CompletionException e) {
+                    results.add(new SendResult(i, null, null, e.getCause().getMessage()));
+                }
+            }
+            logger.info("Sent {} messages to queue {}", results.size(), request.queueUrl());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            logger.error("Error in sendMessages endpoint: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e).build();
+        }
+    }
+
     /**
      * Endpoint to receive messages from an SQS queue.
      *
@@ -70,11 +123,30 @@ public class SqsController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error in receiveMessages endpoint: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return AwsErrorResponses.failure(e)
                     .body(null);
         }
     }
 
+    /**
+     * Endpoint to stream messages from an SQS queue as Server-Sent Events, for as long as the client stays connected.
+     * All subscribers of a queue share one server-side long-poll loop and each receives every message as a
+     * {@code message} event whose data is a JSON {@link com.cloud.aws_services.model.StreamedMessage}.
+     * Messages are not deleted; use the receipt handle with {@code /delete} once processed.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @return The event stream.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@RequestParam String queueUrl) {
+        SseEmitter emitter = new SseEmitter();
+        SqsMessageBroadcaster.Subscription subscription = messageBroadcaster.subscribe(queueUrl, new SseMessageSink(emitter));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
     /**
      * Endpoint to delete a message from an SQS queue.
      *
@@ -84,14 +156,37 @@ public class SqsController {
      *      Expecting a map containing:
      *          queueUrl: The URL of the SQS queue.
      *          receiptHandle: The receipt handle of the message.
+     *          deletePayload: Optionally, whether to delete the S3 payload of an offloaded message
+     *                         (defaults to aws.sqs.payload-offload.delete-payloads).
      * @return A confirmation message.
      */
     @DeleteMapping("/delete")
     public ResponseEntity<String> deleteMessage(@RequestBody Map<String, String> payload) {
         String queueUrl = payload.get("queueUrl");
         String receiptHandle = payload.get("receiptHandle");
-        sqsService.deleteMessage(queueUrl, receiptHandle);
+        String deletePayload = payload.get("deletePayload");
+        if (deletePayload != null) {
+            sqsService.deleteMessage(queueUrl, receiptHandle, Boolean.parseBoolean(deletePayload));
+        } else {
+            sqsService.deleteMessage(queueUrl, receiptHandle);
+        }
         return ResponseEntity.ok("Message deleted successfully.");
     }
-}
 
+    /**
+     * Endpoint to delete many messages from an SQS queue using {@code DeleteMessageBatch} calls of up to ten entries.
+     *
+     * @param request The queue URL and the receipt handles of the messages.
+     * @return One result per receipt handle, identified by its position in the request.
+     */
+    @PostMapping("/delete/batch")
+    public ResponseEntity<List<BulkItemResult>> deleteMessages(@RequestBody BulkMessageDeleteRequest request) {
+        try {
+            List<BulkItemResult> results = sqsService.deleteMessages(request.queueUrl(), request.receiptHandles());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            logger.error("Error in deleteMessages endpoint: {}", e.getMessage(), e);
+            return AwsErrorResponses.failure(e).build();
+        }
+    }
+}
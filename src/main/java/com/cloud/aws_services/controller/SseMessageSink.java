@@ -0,0 +1,60 @@
+package com.cloud.aws_services.controller;
+
+import com.cloud.aws_services.model.StreamedMessage;
+import com.cloud.aws_services.service.MessageStreamSink;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes streamed SQS messages to a Server-Sent Events connection: one {@code message} event per message, with the
+ * message ID as event ID and a {@link StreamedMessage} as JSON data. Empty polls send a comment as keep-alive.
+ */
+final class SseMessageSink implements MessageStreamSink {
+
+    private final SseEmitter emitter;
+
+    SseMessageSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(List<Message> messages) throws IOException {
+        if (messages.isEmpty()) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+            return;
+        }
+        for (Message message : messages) {
+            emitter.send(SseEmitter.event()
+                    .id(message.messageId())
+                    .name("message")
+                    .data(toStreamedMessage(message), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+
+    static StreamedMessage toStreamedMessage(Message message) {
+        Map<String, String> messageAttributes = new LinkedHashMap<>();
+        message.messageAttributes().forEach((name, value) -> messageAttributes.put(name, stringValue(value)));
+        return new StreamedMessage(message.messageId(), message.body(), message.attributesAsStrings(),
+                messageAttributes, message.receiptHandle());
+    }
+
+    private static String stringValue(MessageAttributeValue value) {
+        if (value.stringValue() != null) {
+            return value.stringValue();
+        }
+        return value.binaryValue() != null ? Base64.getEncoder().encodeToString(value.binaryValue().asByteArray()) : null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Payload of {@code POST /aws/s3/archive/download}.
+ *
+ * @param bucketName The name of the bucket.
+ * @param prefix     The prefix whose objects are archived, or the prefix stripped from entry names when {@code keys} is set.
+ * @param keys       The keys of the objects to archive, in archive order; if absent, every object under {@code prefix}.
+ */
+public record ArchiveDownloadRequest(String bucketName, String prefix, List<String> keys) {
+}
@@ -0,0 +1,32 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Settings of an SQS-to-S3 archive sink. Unset values fall back to the {@code aws.sqs.archive.*} defaults.
+ *
+ * @param name                     The name identifying the sink; defaults to the name of the first queue.
+ * @param queueUrls                The URLs of the SQS queues to drain.
+ * @param bucketName               The bucket the batch objects are written to.
+ * @param prefix                   The key prefix of the batch objects.
+ * @param compression              The codec of the batch objects ({@code gzip}, {@code zstd} or {@code none});
+ *                                 defaults to the {@code aws.s3.compression.rules} for the prefix.
+ * @param maxBatchSize             The uncompressed size at which a batch is written, e.g. {@code 16MB}.
+ * @param maxBatchMessages         The number of messages at which a batch is written.
+ * @param maxBatchAgeSeconds       The age at which a non-empty batch is written.
+ * @param pollersPerQueue          The number of concurrent long-poll loops per queue.
+ * @param visibilityTimeoutSeconds The visibility timeout requested on receive and renewed while a batch is pending.
+ * @param waitTimeSeconds          The long-poll wait time.
+ */
+public record ArchiveSinkSettings(String name,
+                                  List<String> queueUrls,
+                                  String bucketName,
+                                  String prefix,
+                                  String compression,
+                                  String maxBatchSize,
+                                  Integer maxBatchMessages,
+                                  Integer maxBatchAgeSeconds,
+                                  Integer pollersPerQueue,
+                                  Integer visibilityTimeoutSeconds,
+                                  Integer waitTimeSeconds) {
+}
@@ -0,0 +1,40 @@
+package com.cloud.aws_services.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot of an SQS-to-S3 archive sink.
+ *
+ * @param name             The name of the sink.
+ * @param queueUrls        The drained queues.
+ * @param bucketName       The bucket the batch objects are written to.
+ * @param prefix           The key prefix of the batch objects.
+ * @param running          Whether the sink is still polling.
+ * @param startedAt        When the sink was started.
+ * @param received         Messages received since start.
+ * @param archived         Messages deleted from their queue after their batch was written.
+ * @param pending          Messages received but not yet archived, in the open batch or in batches being written.
+ * @param batchesWritten   Batch objects written since start.
+ * @param batchesFailed    Batches whose object write failed; their messages reappear after the visibility timeout.
+ * @param ackFailures      Messages written to S3 but not deleted from their queue; they are archived again when redelivered.
+ * @param bytesWritten     Uncompressed NDJSON bytes of the written batches.
+ * @param bytesStored      Bytes stored in S3 for the written batches, after compression.
+ * @param lastObjectKey    The key of the most recently written batch object.
+ */
+public record ArchiveSinkStatus(String name,
+                                List<String> queueUrls,
+                                String bucketName,
+                                String prefix,
+                                boolean running,
+                                Instant startedAt,
+                                long received,
+                                long archived,
+                                int pending,
+                                long batchesWritten,
+                                long batchesFailed,
+                                long ackFailures,
+                                long bytesWritten,
+                                long bytesStored,
+                                String lastObjectKey) {
+}
@@ -0,0 +1,17 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Result of unpacking an archive into individual objects.
+ *
+ * @param bucketName The name of the bucket.
+ * @param prefix     The prefix the entries were stored under.
+ * @param uploaded   The number of entries stored as objects.
+ * @param failed     The number of entries that could not be stored.
+ * @param bytes      The total size of the stored entries.
+ * @param failures   Details of the failed entries, capped to keep the response bounded.
+ */
+public record ArchiveUploadSummary(String bucketName, String prefix, long uploaded, long failed, long bytes,
+                                   List<BulkItemResult> failures) {
+}
@@ -0,0 +1,12 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Payload of {@code POST /aws/s3/delete/objects}.
+ *
+ * @param bucketName The name of the bucket.
+ * @param keys       The keys of the objects to delete.
+ */
+public record BulkDeleteRequest(String bucketName, List<String> keys) {
+}
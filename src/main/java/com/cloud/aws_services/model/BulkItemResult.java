@@ -0,0 +1,22 @@
+package com.cloud.aws_services.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a bulk operation.
+ *
+ * @param id      The object key, or the position of the item in the request.
+ * @param success Whether the operation succeeded for this item.
+ * @param error   The failure reason, or {@code null} on success.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(String id, boolean success, String error) {
+
+    public static BulkItemResult ok(String id) {
+        return new BulkItemResult(id, true, null);
+    }
+
+    public static BulkItemResult failed(String id, String error) {
+        return new BulkItemResult(id, false, error);
+    }
+}
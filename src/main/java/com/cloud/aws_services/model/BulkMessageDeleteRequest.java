@@ -0,0 +1,12 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Payload of {@code POST /aws/sqs/delete/batch}.
+ *
+ * @param queueUrl       The URL of the SQS queue.
+ * @param receiptHandles The receipt handles of the messages to delete.
+ */
+public record BulkMessageDeleteRequest(String queueUrl, List<String> receiptHandles) {
+}
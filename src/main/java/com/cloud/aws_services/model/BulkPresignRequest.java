@@ -0,0 +1,16 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Payload of {@code POST /aws/s3/presign/bulk}.
+ *
+ * @param bucketName        The name of the bucket.
+ * @param keys              The keys to pre-sign.
+ * @param method            {@code GET} for downloads (default) or {@code PUT} for direct uploads.
+ * @param expirationSeconds The requested validity of the URLs (default 300 seconds).
+ * @param contentType       For {@code PUT}, the content type the upload must be sent with.
+ */
+public record BulkPresignRequest(String bucketName, List<String> keys, String method,
+                                 Long expirationSeconds, String contentType) {
+}
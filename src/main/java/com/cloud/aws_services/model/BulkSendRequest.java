@@ -0,0 +1,12 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Payload of {@code POST /aws/sqs/send/batch}.
+ *
+ * @param queueUrl The URL of the SQS queue.
+ * @param messages The message bodies to send.
+ */
+public record BulkSendRequest(String queueUrl, List<String> messages) {
+}
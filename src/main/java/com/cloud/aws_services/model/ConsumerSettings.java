@@ -0,0 +1,24 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Settings of a managed SQS consumer. Unset values fall back to the {@code aws.sqs.consumer.*} defaults.
+ *
+ * @param queueUrl                 The URL of the SQS queue to consume.
+ * @param handler                  The bean name of the {@code MessageHandler} that processes messages.
+ * @param pollers                  The number of concurrent long-poll loops.
+ * @param workers                  The number of handler threads.
+ * @param maxInFlight              The maximum number of received but unfinished messages; polling pauses above it.
+ * @param visibilityTimeoutSeconds The visibility timeout requested on receive and renewed while a handler runs.
+ * @param waitTimeSeconds          The long-poll wait time.
+ * @param ordered                  Whether to handle messages of the same message group one at a time, in order, while
+ *                                 different groups run concurrently. Defaults to {@code true} for FIFO queues.
+ */
+public record ConsumerSettings(String queueUrl,
+                               String handler,
+                               Integer pollers,
+                               Integer workers,
+                               Integer maxInFlight,
+                               Integer visibilityTimeoutSeconds,
+                               Integer waitTimeSeconds,
+                               Boolean ordered) {
+}
@@ -0,0 +1,42 @@
+package com.cloud.aws_services.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot of a managed SQS consumer.
+ *
+ * @param queueUrl             The URL of the consumed queue.
+ * @param handler              The bean name of the message handler.
+ * @param running              Whether the consumer is still polling.
+ * @param startedAt            When the consumer was started.
+ * @param inFlight             Messages received but not yet finished.
+ * @param received             Messages received since start.
+ * @param processed            Messages handled successfully since start.
+ * @param failed               Messages whose handler threw since start.
+ * @param acknowledged         Messages deleted from the queue since start.
+ * @param visibilityExtensions Visibility timeout extensions issued for slow handlers.
+ * @param messagesPerSecond    Successfully handled messages per second since the previous snapshot.
+ * @param lastLagMillis        Age of the most recently received message when it was received.
+ * @param maxLagMillis         Largest age of a message at receive time since start.
+ * @param ordered              Whether messages are handled in order per message group.
+ * @param activeGroups         Message groups with messages waiting or recently handled (ordered consumers only).
+ * @param groups               The active groups with the largest backlog (ordered consumers only).
+ */
+public record ConsumerStatus(String queueUrl,
+                             String handler,
+                             boolean running,
+                             Instant startedAt,
+                             int inFlight,
+                             long received,
+                             long processed,
+                             long failed,
+                             long acknowledged,
+                             long visibilityExtensions,
+                             double messagesPerSecond,
+                             long lastLagMillis,
+                             long maxLagMillis,
+                             boolean ordered,
+                             int activeGroups,
+                             List<GroupStatus> groups) {
+}
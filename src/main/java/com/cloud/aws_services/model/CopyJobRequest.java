@@ -0,0 +1,15 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Payload of {@code POST /aws/s3/copy/jobs}.
+ *
+ * @param sourceBucket      The source bucket name.
+ * @param sourcePrefix      Every key under this prefix is copied.
+ * @param destinationBucket The destination bucket name.
+ * @param destinationPrefix Replaces {@code sourcePrefix} in the destination keys.
+ * @param concurrency       The number of objects copied at the same time, or {@code null} for the default.
+ * @param startAfter        Only copy keys sorting after this key, e.g. the checkpoint of an earlier job.
+ */
+public record CopyJobRequest(String sourceBucket, String sourcePrefix, String destinationBucket,
+                             String destinationPrefix, Integer concurrency, String startAfter) {
+}
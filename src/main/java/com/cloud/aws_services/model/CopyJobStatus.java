@@ -0,0 +1,25 @@
+package com.cloud.aws_services.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a bulk copy job.
+ *
+ * @param id                The job ID.
+ * @param request           The request the job was started with.
+ * @param state             {@code RUNNING}, {@code COMPLETED}, {@code FAILED} or {@code CANCELLED}.
+ * @param copiedObjects     Objects copied so far.
+ * @param copiedBytes       Bytes copied so far.
+ * @param failedObjects     Objects that could not be copied.
+ * @param failures          Details of the first failures.
+ * @param checkpoint        Every source key up to and including this one has been copied; resuming starts after it.
+ * @param error             Why the job failed, if it did.
+ * @param startedAt         When the job was started.
+ * @param finishedAt        When the job stopped, or {@code null} while running.
+ * @param objectsPerSecond  Average copy rate since the job started.
+ */
+public record CopyJobStatus(String id, CopyJobRequest request, String state, long copiedObjects, long copiedBytes,
+                            long failedObjects, List<BulkItemResult> failures, String checkpoint, String error,
+                            Instant startedAt, Instant finishedAt, double objectsPerSecond) {
+}
@@ -0,0 +1,17 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Snapshot of one message group of an ordered SQS consumer.
+ *
+ * @param groupId           The message group ID.
+ * @param backlog           Messages of the group received but not yet finished, including the one being handled.
+ * @param processed         Messages of the group handled successfully while the group was active.
+ * @param failed            Messages of the group whose handler threw while the group was active.
+ * @param messagesPerSecond Successfully handled messages per second since the previous snapshot.
+ */
+public record GroupStatus(String groupId,
+                          int backlog,
+                          long processed,
+                          long failed,
+                          double messagesPerSecond) {
+}
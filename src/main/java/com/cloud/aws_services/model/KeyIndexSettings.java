@@ -0,0 +1,15 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Settings of a local key index of a bucket. Unset values fall back to the {@code aws.s3.index.*} defaults.
+ *
+ * @param bucketName      The bucket to index.
+ * @param queueUrl        The SQS queue receiving the bucket's S3 event notifications, directly or through SNS.
+ * @param reseed          Whether to rebuild an existing index from a full listing instead of resuming it.
+ * @param seedParallelism The number of key partitions listed at the same time while seeding.
+ */
+public record KeyIndexSettings(String bucketName,
+                               String queueUrl,
+                               Boolean reseed,
+                               Integer seedParallelism) {
+}
@@ -0,0 +1,29 @@
+package com.cloud.aws_services.model;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the local key index of a bucket.
+ *
+ * @param bucketName    The indexed bucket.
+ * @param queueUrl      The queue the index consumes S3 event notifications from.
+ * @param state         {@code SEEDING}, {@code LIVE}, {@code FAILED} or {@code STOPPED}.
+ * @param objects       The number of indexed objects.
+ * @param totalSize     The total size of the indexed objects in bytes.
+ * @param seededAt      When the last full listing completed, or {@code null} while seeding.
+ * @param eventsApplied Object changes from event notifications applied since start.
+ * @param eventsIgnored Object changes ignored because the index already held a newer state of the key.
+ * @param lastEventAt   The event time of the most recently applied change.
+ * @param lastError     The most recent seeding or polling error, if any.
+ */
+public record KeyIndexStatus(String bucketName,
+                             String queueUrl,
+                             String state,
+                             long objects,
+                             long totalSize,
+                             Instant seededAt,
+                             long eventsApplied,
+                             long eventsIgnored,
+                             Instant lastEventAt,
+                             String lastError) {
+}
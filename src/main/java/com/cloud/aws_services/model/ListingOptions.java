@@ -0,0 +1,13 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Options for a paginated object listing.
+ *
+ * @param prefix     Only list keys starting with this prefix, or {@code null}.
+ * @param delimiter  Group keys sharing a prefix up to this delimiter into common prefixes, or {@code null}.
+ * @param startAfter Only list keys sorting after this key, or {@code null}.
+ * @param pageSize   The number of keys requested per {@code ListObjectsV2} call (clamped to 1 to 1000),
+ *                   or {@code null}.
+ */
+public record ListingOptions(String prefix, String delimiter, String startAfter, Integer pageSize) {
+}
@@ -0,0 +1,28 @@
+package com.cloud.aws_services.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+
+/**
+ * One line of an object listing: either an object or, when a delimiter is used, a common prefix.
+ *
+ * @param key          The object key, or {@code null} for a common prefix.
+ * @param size         The object size in bytes.
+ * @param eTag         The object ETag.
+ * @param lastModified The time the object was last modified.
+ * @param prefix       The common prefix, or {@code null} for an object.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ObjectEntry(String key, Long size, String eTag, Instant lastModified, String prefix) {
+
+    public static ObjectEntry of(S3Object object) {
+        return new ObjectEntry(object.key(), object.size(), object.eTag(), object.lastModified(), null);
+    }
+
+    public static ObjectEntry of(CommonPrefix commonPrefix) {
+        return new ObjectEntry(null, null, null, null, commonPrefix.prefix());
+    }
+}
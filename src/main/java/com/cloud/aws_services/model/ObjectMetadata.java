@@ -0,0 +1,40 @@
+package com.cloud.aws_services.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The metadata of an object, as returned by {@code HeadObject}.
+ *
+ * @param bucketName      The name of the bucket.
+ * @param key             The key of the object.
+ * @param size            The object size in bytes.
+ * @param eTag            The object ETag.
+ * @param lastModified    The time the object was last modified.
+ * @param contentType     The stored {@code Content-Type}.
+ * @param contentEncoding The stored {@code Content-Encoding}, if the object is stored compressed.
+ * @param storageClass    The storage class; {@code null} for {@code STANDARD}.
+ * @param versionId       The version of the object, if the bucket is versioned.
+ * @param userMetadata    The {@code x-amz-meta-*} user metadata.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ObjectMetadata(String bucketName,
+                             String key,
+                             Long size,
+                             String eTag,
+                             Instant lastModified,
+                             String contentType,
+                             String contentEncoding,
+                             String storageClass,
+                             String versionId,
+                             Map<String, String> userMetadata) {
+
+    public static ObjectMetadata of(String bucketName, String key, HeadObjectResponse response) {
+        return new ObjectMetadata(bucketName, key, response.contentLength(), response.eTag(), response.lastModified(),
+                response.contentType(), response.contentEncoding(), response.storageClassAsString(),
+                response.versionId(), response.metadata());
+    }
+}
@@ -0,0 +1,16 @@
+package com.cloud.aws_services.model;
+
+import java.util.List;
+
+/**
+ * Result of deleting every object under a prefix.
+ *
+ * @param bucketName The name of the bucket.
+ * @param prefix     The deleted prefix.
+ * @param deleted    The number of objects deleted.
+ * @param failed     The number of objects that could not be deleted.
+ * @param failures   Details of the failed objects, capped to keep the response bounded.
+ */
+public record PrefixDeleteSummary(String bucketName, String prefix, long deleted, long failed,
+                                  List<BulkItemResult> failures) {
+}
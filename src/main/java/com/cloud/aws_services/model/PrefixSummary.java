@@ -0,0 +1,12 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Object count and total size under a key prefix.
+ *
+ * @param bucketName The name of the bucket.
+ * @param prefix     The key prefix; empty for the whole bucket.
+ * @param objects    The number of objects whose key starts with the prefix.
+ * @param totalSize  The total size of those objects in bytes.
+ */
+public record PrefixSummary(String bucketName, String prefix, long objects, long totalSize) {
+}
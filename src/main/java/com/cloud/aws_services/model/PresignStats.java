@@ -0,0 +1,15 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Statistics of the pre-signed URL cache.
+ *
+ * @param size                 The number of cached URLs.
+ * @param hits                 Requests answered from the cache.
+ * @param misses               Requests that had to sign a new URL.
+ * @param hitRatio             {@code hits / (hits + misses)}.
+ * @param averageSigningMillis Mean time spent signing a URL on a miss.
+ * @param maxSigningMillis     Longest time spent signing a single URL.
+ */
+public record PresignStats(int size, long hits, long misses, double hitRatio,
+                           double averageSigningMillis, double maxSigningMillis) {
+}
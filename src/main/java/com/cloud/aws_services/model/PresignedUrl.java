@@ -0,0 +1,14 @@
+package com.cloud.aws_services.model;
+
+import java.time.Instant;
+
+/**
+ * A pre-signed URL for one object.
+ *
+ * @param key       The key of the object.
+ * @param method    The HTTP method the URL is signed for.
+ * @param url       The pre-signed URL.
+ * @param expiresAt When the URL stops being valid.
+ */
+public record PresignedUrl(String key, String method, String url, Instant expiresAt) {
+}
@@ -0,0 +1,16 @@
+package com.cloud.aws_services.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one message of a bulk send.
+ *
+ * @param index         The position of the message in the request.
+ * @param messageId     The ID assigned by SQS, or {@code null} if the message failed.
+ * @param latencyMillis The time from queuing the message until its batch was acknowledged,
+ *                      or {@code null} if the message failed.
+ * @param error         The failure reason, or {@code null} if the message was sent.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SendResult(int index, String messageId, Double latencyMillis, String error) {
+}
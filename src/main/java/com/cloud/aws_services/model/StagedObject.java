@@ -0,0 +1,12 @@
+package com.cloud.aws_services.model;
+
+/**
+ * An object downloaded to local disk on the server.
+ *
+ * @param bucketName The bucket the object was read from.
+ * @param key        The key of the object.
+ * @param path       The local file holding the object.
+ * @param size       The number of bytes written.
+ */
+public record StagedObject(String bucketName, String key, String path, long size) {
+}
@@ -0,0 +1,19 @@
+package com.cloud.aws_services.model;
+
+import java.util.Map;
+
+/**
+ * One SQS message as sent to stream subscribers.
+ *
+ * @param messageId         The ID of the message.
+ * @param body              The message body, with offloaded payloads already resolved.
+ * @param attributes        System attributes such as {@code SentTimestamp} and {@code ApproximateReceiveCount}.
+ * @param messageAttributes Message attributes; binary values are Base64-encoded.
+ * @param receiptHandle     The receipt handle to delete the message or change its visibility with.
+ */
+public record StreamedMessage(String messageId,
+                              String body,
+                              Map<String, String> attributes,
+                              Map<String, String> messageAttributes,
+                              String receiptHandle) {
+}
@@ -0,0 +1,18 @@
+package com.cloud.aws_services.model;
+
+/**
+ * Result of a streaming upload.
+ *
+ * @param bucketName      The bucket the object was stored in.
+ * @param key             The key of the object.
+ * @param eTag            The ETag S3 assigned to the object.
+ * @param size            The number of bytes uploaded.
+ * @param storedSize      The number of bytes stored, which differs from {@code size} when compressed.
+ * @param contentEncoding The codec the object was compressed with, or {@code null}.
+ * @param md5             The hex MD5 digest of the uploaded bytes.
+ * @param sha256          The hex SHA-256 digest of the uploaded bytes.
+ * @param multipart       Whether the object was uploaded in parts.
+ */
+public record StreamingUploadResult(String bucketName, String key, String eTag, long size, long storedSize,
+                                    String contentEncoding, String md5, String sha256, boolean multipart) {
+}
@@ -0,0 +1,86 @@
+package com.cloud.aws_services.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the MD5 and SHA-256 digests and the byte count of a stream while it is being read.
+ */
+final class ChecksumInputStream extends FilterInputStream {
+
+    private final MessageDigest md5;
+    private final MessageDigest sha256;
+    private long count;
+    private byte[] md5Digest;
+    private String sha256Hex;
+
+    ChecksumInputStream(InputStream in) {
+        super(in);
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            md5.update((byte) b);
+            sha256.update((byte) b);
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0) {
+            md5.update(buffer, offset, read);
+            sha256.update(buffer, offset, read);
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes would be missing from the digests.
+        throw new IOException("skip is not supported");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /** The MD5 digest of the stream; the digests are final once either of them has been read. */
+    byte[] md5() {
+        finish();
+        return md5Digest;
+    }
+
+    /** The hex SHA-256 digest of the stream; the digests are final once either of them has been read. */
+    String sha256Hex() {
+        finish();
+        return sha256Hex;
+    }
+
+    private void finish() {
+        if (md5Digest == null) {
+            md5Digest = md5.digest();
+            sha256Hex = HexFormat.of().formatHex(sha256.digest());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cloud.aws_services.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Pull-based compression: each refill reads one chunk of the source, feeds it to the encoder and serves
+ * whatever the encoder produced. The output length is unknown until the source is exhausted.
+ */
+public final class CompressingInputStream extends InputStream {
+
+    private final InputStream source;
+    private final ExposedBuffer buffer = new ExposedBuffer();
+    private final OutputStream encoder;
+    private final byte[] chunk = new byte[ContentCodec.BUFFER_SIZE];
+    private int position;
+    private boolean finished;
+    private boolean closed;
+    private long compressedBytes;
+
+    CompressingInputStream(InputStream source, Compression compression) throws IOException {
+        this.source = source;
+        this.encoder = compression.codec().compress(buffer, compression.level());
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position == buffer.size()) {
+            if (finished) {
+                return -1;
+            }
+            refill();
+        }
+        int read = Math.min(len, buffer.size() - position);
+        System.arraycopy(buffer.bytes(), position, b, off, read);
+        position += read;
+        compressedBytes += read;
+        return read;
+    }
+
+    /**
+     * The number of compressed bytes read so far.
+     */
+    public long compressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Releases the encoder. The source stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            finished = true;
+            encoder.close();
+        }
+    }
+
+    private void refill() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        buffer.reset();
+        position = 0;
+        int read = source.read(chunk);
+        if (read == -1) {
+            close();
+        } else {
+            encoder.write(chunk, 0, read);
+        }
+    }
+
+    private static final class ExposedBuffer extends ByteArrayOutputStream {
+        private ExposedBuffer() {
+            super(ContentCodec.BUFFER_SIZE);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
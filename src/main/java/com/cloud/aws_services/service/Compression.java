@@ -0,0 +1,25 @@
+package com.cloud.aws_services.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A codec and the level to compress with.
+ *
+ * @param codec The storage format.
+ * @param level The codec-specific compression level.
+ */
+public record Compression(ContentCodec codec, int level) {
+
+    /**
+     * Wraps a stream so that reading it yields the compressed bytes, compressing one chunk at a time
+     * as the caller reads rather than buffering the whole content.
+     *
+     * @param source The uncompressed content; it is not closed by the returned stream.
+     * @return The compressing stream. Close it to release the encoder.
+     * @throws IOException if the encoder cannot be created.
+     */
+    public CompressingInputStream compress(InputStream source) throws IOException {
+        return new CompressingInputStream(source, this);
+    }
+}
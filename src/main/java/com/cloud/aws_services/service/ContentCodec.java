@@ -0,0 +1,129 @@
+package com.cloud.aws_services.service;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression formats objects can be stored in, identified by their HTTP {@code Content-Encoding} token.
+ */
+public enum ContentCodec {
+
+    GZIP("gzip") {
+        @Override
+        OutputStream compress(OutputStream target, int level) throws IOException {
+            return new GZIPOutputStream(target, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream source) throws IOException {
+            return new GZIPInputStream(source, BUFFER_SIZE);
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        OutputStream compress(OutputStream target, int level) throws IOException {
+            return new ZstdOutputStreamNoFinalizer(target, level);
+        }
+
+        @Override
+        public InputStream decompress(InputStream source) throws IOException {
+            return new ZstdInputStreamNoFinalizer(source);
+        }
+    };
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String encoding;
+
+    ContentCodec(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * The {@code Content-Encoding} token of this format.
+     */
+    public String encoding() {
+        return encoding;
+    }
+
+    abstract OutputStream compress(OutputStream target, int level) throws IOException;
+
+    /**
+     * Wraps a compressed stream so that reading it yields the original bytes.
+     *
+     * @param source The compressed stream; closing the returned stream closes it.
+     * @return The decompressing stream.
+     * @throws IOException if the stream header cannot be read.
+     */
+    public abstract InputStream decompress(InputStream source) throws IOException;
+
+    /**
+     * Looks up the codec for a {@code Content-Encoding} value.
+     *
+     * @param encoding The header value, or {@code null}.
+     * @return The matching codec, or {@code null} if the value is absent or not a supported format.
+     */
+    public static ContentCodec fromEncoding(String encoding) {
+        if (encoding == null) {
+            return null;
+        }
+        String token = encoding.trim().toLowerCase(Locale.ROOT);
+        for (ContentCodec codec : values()) {
+            if (codec.encoding.equals(token)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header allows this format to be sent as is.
+     * An item naming the format takes precedence over {@code *}, wherever it appears in the header.
+     *
+     * @param acceptEncoding The header value, or {@code null}.
+     * @return {@code true} if the format is listed without {@code q=0}, or is not listed and {@code *} is.
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean exact = null;
+        Boolean wildcard = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String token = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!token.equals(encoding) && !token.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (token.equals(encoding)) {
+                exact = exact == null ? !refused : exact;
+            } else {
+                wildcard = wildcard == null ? !refused : wildcard;
+            }
+        }
+        return exact != null ? exact : Boolean.TRUE.equals(wildcard);
+    }
+}
@@ -0,0 +1,20 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Default message handler that logs each message and acknowledges it.
+ */
+@Component("logging")
+public class LoggingMessageHandler implements MessageHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingMessageHandler.class);
+
+    @Override
+    public void handle(Message message) {
+        logger.info("Consumed message {}: {}", message.messageId(), message.body());
+    }
+}
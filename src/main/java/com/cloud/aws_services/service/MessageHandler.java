@@ -0,0 +1,20 @@
+package com.cloud.aws_services.service;
+
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Processes messages for a managed SQS consumer.
+ * Implementations are registered as Spring beans and selected by bean name when a consumer is started.
+ * Returning normally acknowledges the message; throwing leaves it on the queue for redelivery.
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    /**
+     * Handles one message.
+     *
+     * @param message The received message, including its attributes.
+     * @throws Exception if the message could not be processed.
+     */
+    void handle(Message message) throws Exception;
+}
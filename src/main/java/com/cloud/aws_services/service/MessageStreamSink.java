@@ -0,0 +1,28 @@
+package com.cloud.aws_services.service;
+
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the messages of a queue stream, such as an open Server-Sent Events connection.
+ * Each sink is called from its own thread, so a slow sink never delays the others.
+ */
+public interface MessageStreamSink {
+
+    /**
+     * Sends one received batch to the subscriber.
+     *
+     * @param messages The received messages; empty when a long poll found nothing, so idle connections
+     *                 can send a keep-alive and notice a client that went away.
+     * @throws IOException if the subscriber can no longer be reached; the subscription is then closed.
+     */
+    void send(List<Message> messages) throws IOException;
+
+    /**
+     * Called once when the subscription ends for a reason other than the subscriber leaving:
+     * a failed send, a full buffer or shutdown.
+     */
+    void close();
+}
@@ -0,0 +1,154 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.PresignStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of pre-signed URLs.
+ * A URL is reused while at least {@code min-remaining-fraction} of its requested validity is left,
+ * so callers always receive a URL that stays valid for a predictable share of what they asked for.
+ * A URL is never valid for longer than the caller asked for: it is signed for exactly the requested validity, and a
+ * cached URL is only reused if its remaining lifetime does not exceed the requested validity. Entries are grouped by
+ * requested validity rounded down to a few fixed classes, so callers asking for slightly different lifetimes can share
+ * one signed URL. Entries are evicted least-recently-used once {@code max-entries} is reached; expired entries are
+ * treated as misses and swept out at most once per {@link #SWEEP_INTERVAL}.
+ */
+@Service
+public class PresignedUrlCache {
+
+    static final List<Duration> VALIDITY_CLASSES = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5),
+            Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofHours(6), Duration.ofDays(1), Duration.ofDays(7));
+    static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private final int maxEntries;
+    private final double minRemainingFraction;
+    private final Map<CacheKey, CachedUrl> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder signingNanos = new LongAdder();
+    private final LongAccumulator maxSigningNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong nextSweepMillis = new AtomicLong();
+
+    public PresignedUrlCache(@Value("${aws.s3.presign-cache.max-entries:10000}") int maxEntries,
+                             @Value("${aws.s3.presign-cache.min-remaining-fraction:0.5}") double minRemainingFraction) {
+        this.maxEntries = maxEntries;
+        this.minRemainingFraction = minRemainingFraction;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedUrl> eldest) {
+                return size() > PresignedUrlCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached URL for the request, or signs a new one.
+     *
+     * @param method      The HTTP method the URL is signed for.
+     * @param bucketName  The name of the bucket.
+     * @param key         The key of the object.
+     * @param validity    The requested validity of the URL.
+     * @param contentType The content type bound into PUT signatures, or {@code null}.
+     * @param signer      Signs a new URL valid for the given duration, which is {@code validity};
+     *                    only called on a cache miss.
+     * @return The URL and the instant it expires, at most {@code validity} from now.
+     */
+    public CachedUrl get(String method, String bucketName, String key, Duration validity, String contentType,
+                         Function<Duration, String> signer) {
+        CacheKey cacheKey = new CacheKey(method, bucketName, key, validityClass(validity).toSeconds(), contentType);
+        Instant now = Instant.now();
+        sweepExpired(now);
+        Instant reusableUntil = now.plusMillis((long) (validity.toMillis() * minRemainingFraction));
+        Instant latestExpiry = now.plus(validity);
+        synchronized (entries) {
+            CachedUrl cached = entries.get(cacheKey);
+            if (cached != null && cached.expiresAt().isAfter(reusableUntil) && !cached.expiresAt().isAfter(latestExpiry)) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        long started = System.nanoTime();
+        String url = signer.apply(validity);
+        long elapsed = System.nanoTime() - started;
+        signingNanos.add(elapsed);
+        maxSigningNanos.accumulate(elapsed);
+        CachedUrl signed = new CachedUrl(url, latestExpiry);
+        synchronized (entries) {
+            entries.put(cacheKey, signed);
+        }
+        return signed;
+    }
+
+    /**
+     * Rounds a requested validity down to its class; validities below the smallest class are kept as they are.
+     * The class only groups cache entries; URLs are always signed for the requested validity.
+     */
+    static Duration validityClass(Duration validity) {
+        Duration rounded = validity;
+        for (Duration validityClass : VALIDITY_CLASSES) {
+            if (validity.compareTo(validityClass) >= 0) {
+                rounded = validityClass;
+            }
+        }
+        return rounded;
+    }
+
+    private void sweepExpired(Instant now) {
+        long next = nextSweepMillis.get();
+        if (now.toEpochMilli() < next
+                || !nextSweepMillis.compareAndSet(next, now.plus(SWEEP_INTERVAL).toEpochMilli())) {
+            return;
+        }
+        synchronized (entries) {
+            entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+    }
+
+    /**
+     * The total time spent signing URLs since startup, for the signing timer.
+     *
+     * @return The accumulated signing time in nanoseconds.
+     */
+    public long totalSigningNanos() {
+        return signingNanos.sum();
+    }
+
+    /**
+     * Reports cache effectiveness and signing latency since startup.
+     *
+     * @return The current cache statistics.
+     */
+    public PresignStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new PresignStats(size, hitCount, missCount, total == 0 ? 0 : (double) hitCount / total,
+                missCount == 0 ? 0 : signingNanos.sum() / 1e6 / missCount, maxSigningNanos.get() / 1e6);
+    }
+
+    private record CacheKey(String method, String bucketName, String key, long validitySeconds, String contentType) {
+    }
+
+    /**
+     * A signed URL and the instant it stops being valid.
+     */
+    public record CachedUrl(String url, Instant expiresAt) {
+    }
+}
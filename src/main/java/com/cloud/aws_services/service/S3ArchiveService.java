@@ -0,0 +1,333 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ArchiveUploadSummary;
+import com.cloud.aws_services.model.BulkItemResult;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Moves many small objects in one request: unpacks an uploaded zip or tar stream into individual objects,
+ * and streams a zip of many objects back.
+ * Neither direction uses temporary files. Uploads buffer at most {@code upload-concurrency} small entries
+ * while their {@code PutObject} calls run; downloads prefetch a bounded window of objects in parallel and
+ * write them to the archive in order. Entries or objects too large to buffer are streamed through inline.
+ */
+@Service
+public class S3ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3ArchiveService.class);
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    static final String ERRORS_ENTRY = "_errors.txt";
+
+    private final S3Client s3Client;
+    private final S3Service s3Service;
+    private final ExecutorService executor;
+    private final int uploadConcurrency;
+    private final long maxBufferedEntryBytes;
+    private final int downloadPrefetch;
+    private final long maxPrefetchObjectBytes;
+    private final int zipLevel;
+
+    public S3ArchiveService(S3Client s3Client,
+                            S3Service s3Service,
+                            @Qualifier("s3TransferExecutor") ExecutorService executor,
+                            @Value("${aws.s3.archive.upload-concurrency:16}") int uploadConcurrency,
+                            @Value("${aws.s3.archive.max-buffered-entry-size:8MB}") DataSize maxBufferedEntrySize,
+                            @Value("${aws.s3.archive.download-prefetch:8}") int downloadPrefetch,
+                            @Value("${aws.s3.archive.max-prefetch-object-size:8MB}") DataSize maxPrefetchObjectSize,
+                            @Value("${aws.s3.archive.zip-level:1}") int zipLevel) {
+        this.s3Client = s3Client;
+        this.s3Service = s3Service;
+        this.executor = executor;
+        this.uploadConcurrency = Math.max(1, uploadConcurrency);
+        this.maxBufferedEntryBytes = Math.min(maxBufferedEntrySize.toBytes(), Integer.MAX_VALUE - 8);
+        this.downloadPrefetch = Math.max(1, downloadPrefetch);
+        this.maxPrefetchObjectBytes = Math.min(maxPrefetchObjectSize.toBytes(), Integer.MAX_VALUE - 8);
+        this.zipLevel = zipLevel;
+    }
+
+    /**
+     * Stores every file entry of an archive as an object named {@code prefix + entry name}.
+     * Entries up to the buffering limit are uploaded with parallel {@code PutObject} calls; larger entries
+     * are streamed through {@link S3Service#uploadStream} while the archive is read.
+     * Entries whose names are absolute or contain {@code ..} are rejected individually.
+     *
+     * @param bucketName The target bucket name.
+     * @param prefix     The prefix prepended to every entry name, or {@code null}.
+     * @param body       The archive stream; it is read sequentially and not closed.
+     * @param format     The archive format: {@code zip}, {@code tar} or {@code tar.gz}.
+     * @return The number of stored and failed entries.
+     * @throws IOException if reading the archive fails.
+     * @throws IllegalArgumentException if the format is not supported.
+     */
+    public ArchiveUploadSummary uploadArchive(String bucketName, String prefix, InputStream body, String format) throws IOException {
+        String keyPrefix = prefix != null ? prefix : "";
+        ArchiveInputStream<? extends ArchiveEntry> archive = openArchive(body, format);
+        LongAdder uploaded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        List<BulkItemResult> failures = Collections.synchronizedList(new ArrayList<>());
+        Semaphore slots = new Semaphore(uploadConcurrency);
+        List<CompletableFuture<Void>> puts = new ArrayList<>();
+        try {
+            ArchiveEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String key = objectKey(keyPrefix, entry.getName());
+                if (key == null || !archive.canReadEntryData(entry)) {
+                    record(failures, failed, BulkItemResult.failed(entry.getName(),
+                            key == null ? "Unsafe entry name" : "Unsupported entry compression or encryption"));
+                    continue;
+                }
+                String contentType = MediaTypeFactory.getMediaType(key).map(MediaType::toString).orElse(null);
+                long size = entry.getSize();
+                byte[] head = archive.readNBytes((int) Math.min(size >= 0 ? size : Long.MAX_VALUE, maxBufferedEntryBytes + 1));
+                if (head.length <= maxBufferedEntryBytes && (size < 0 || head.length == size)) {
+                    slots.acquire();
+                    puts.add(CompletableFuture
+                            .runAsync(() -> putEntry(bucketName, key, head, contentType, uploaded, failed, bytes, failures), executor)
+                            .whenComplete((ignored, error) -> slots.release()));
+                } else {
+                    // Too large to buffer: stream it now, while the archive is positioned on it.
+                    InputStream content = new SequenceInputStream(new ByteArrayInputStream(head), archive);
+                    try {
+                        long stored = s3Service.uploadStream(bucketName, key, content, size, contentType, null).size();
+                        uploaded.increment();
+                        bytes.add(stored);
+                    } catch (RuntimeException e) {
+                        record(failures, failed, BulkItemResult.failed(key, e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                    }
+                }
+            }
+            CompletableFuture.allOf(puts.toArray(CompletableFuture[]::new)).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while unpacking archive into " + keyPrefix, e);
+        } finally {
+            puts.forEach(put -> put.cancel(false));
+        }
+        logger.info("Unpacked {} archive into '{}' in bucket '{}': {} objects, {} bytes, {} failed.", format, keyPrefix,
+                bucketName, uploaded.sum(), bytes.sum(), failed.sum());
+        return new ArchiveUploadSummary(bucketName, keyPrefix, uploaded.sum(), failed.sum(), bytes.sum(), List.copyOf(failures));
+    }
+
+    /**
+     * Writes a zip of objects to a stream. Up to {@code download-prefetch} objects are fetched ahead in parallel
+     * while entries are written in listing or request order. Objects above the prefetch size limit are
+     * streamed straight into the archive when their turn comes: listed objects are not fetched ahead at all, and
+     * requested keys, whose size is only known from the response, keep their open response for the writer.
+     * Each object is read with a single {@code GetObject}. Keys that cannot be read are skipped and listed in
+     * a trailing {@value #ERRORS_ENTRY} entry, since the response status has been sent by then.
+     *
+     * @param bucketName The name of the bucket.
+     * @param prefix     The prefix to archive, and to strip from entry names; may be empty when {@code keys} is set.
+     * @param keys       The keys to archive in order, or {@code null} to archive every object under {@code prefix}.
+     * @param out        The stream to write the zip to; it is not closed.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void writeZip(String bucketName, String prefix, List<String> keys, OutputStream out) throws IOException {
+        String stripPrefix = prefix != null ? prefix : "";
+        Iterator<Listed> source = keys != null ? keys.stream().map(key -> new Listed(key, null)).iterator()
+                : s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder().bucket(bucketName).prefix(stripPrefix).build())
+                        .contents().stream().map(object -> new Listed(object.key(), object.size())).iterator();
+        ZipArchiveOutputStream zip = new ZipArchiveOutputStream(out);
+        zip.setLevel(zipLevel);
+        zip.setUseZip64(Zip64Mode.AsNeeded);
+        Deque<Prefetch> window = new ArrayDeque<>();
+        List<String> errors = new ArrayList<>();
+        long written = 0;
+        try {
+            while (true) {
+                while (window.size() < downloadPrefetch && source.hasNext()) {
+                    Listed listed = source.next();
+                    window.add(new Prefetch(listed.key(), CompletableFuture.supplyAsync(() -> prefetch(bucketName, listed), executor)));
+                }
+                Prefetch next = window.poll();
+                if (next == null) {
+                    break;
+                }
+                String name = next.key().startsWith(stripPrefix) && next.key().length() > stripPrefix.length()
+                        ? next.key().substring(stripPrefix.length()) : next.key();
+                try {
+                    Fetched fetched = next.object().join();
+                    if (fetched.data() != null) {
+                        writeEntry(zip, name, fetched.size(), fetched.lastModified(), new ByteArrayInputStream(fetched.data()));
+                    } else if (fetched.stream() != null) {
+                        try (ResponseInputStream<GetObjectResponse> object = fetched.stream()) {
+                            writeEntry(zip, name, fetched.size(), fetched.lastModified(), object);
+                        }
+                    } else {
+                        try (ResponseInputStream<GetObjectResponse> object = s3Service.downloadFile(bucketName, next.key(), null)) {
+                            writeEntry(zip, name, object.response().contentLength(), object.response().lastModified(), object);
+                        }
+                    }
+                    written++;
+                } catch (RuntimeException e) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.warn("Skipping '{}' from bucket {} in zip: {}", next.key(), bucketName, cause.getMessage());
+                    errors.add(next.key() + ": " + reason(cause));
+                }
+            }
+            if (!errors.isEmpty()) {
+                byte[] report = (String.join("\n", errors) + "\n").getBytes(StandardCharsets.UTF_8);
+                writeEntry(zip, ERRORS_ENTRY, report.length, Instant.now(), new ByteArrayInputStream(report));
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // Not cancelled: a fetch still running would leave its open response behind.
+            window.forEach(prefetch -> prefetch.object().thenAccept(Fetched::release));
+        }
+        logger.info("Streamed zip of {} objects from bucket '{}' ({} skipped).", written, bucketName, errors.size());
+    }
+
+    private void putEntry(String bucketName, String key, byte[] data, String contentType,
+                          LongAdder uploaded, LongAdder failed, LongAdder bytes, List<BulkItemResult> failures) {
+        try {
+            s3Client.putObject(b -> b.bucket(bucketName).key(key).contentType(contentType), RequestBody.fromBytes(data));
+            s3Service.invalidateCaches(bucketName, key);
+            uploaded.increment();
+            bytes.add(data.length);
+        } catch (SdkException e) {
+            logger.warn("Error uploading archive entry '{}' to bucket {}: {}", key, bucketName, e.getMessage());
+            record(failures, failed, BulkItemResult.failed(key, e.getMessage()));
+        }
+    }
+
+    /**
+     * Reads a small object fully. Listed objects known to be larger are not fetched, and larger objects found
+     * only from the response are handed to the writer still open.
+     */
+    private Fetched prefetch(String bucketName, Listed listed) {
+        if (listed.size() != null && listed.size() > maxPrefetchObjectBytes) {
+            return new Fetched(null, null, -1, null);
+        }
+        ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b.bucket(bucketName).key(listed.key()));
+        GetObjectResponse response = object.response();
+        long size = response.contentLength() != null ? response.contentLength() : -1;
+        if (size < 0 || size > maxPrefetchObjectBytes) {
+            return new Fetched(null, object, size, response.lastModified());
+        }
+        try (object) {
+            return new Fetched(object.readAllBytes(), null, size, response.lastModified());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + listed.key(), e);
+        }
+    }
+
+    private static void writeEntry(ZipArchiveOutputStream zip, String name, long size, Instant lastModified,
+                                   InputStream content) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        if (size >= 0) {
+            entry.setSize(size);
+        }
+        if (lastModified != null) {
+            entry.setTime(lastModified.toEpochMilli());
+        }
+        zip.putArchiveEntry(entry);
+        content.transferTo(zip);
+        zip.closeArchiveEntry();
+    }
+
+    private static ArchiveInputStream<? extends ArchiveEntry> openArchive(InputStream body, String format) throws IOException {
+        return switch (format == null ? "" : format.toLowerCase(Locale.ROOT)) {
+            case "zip" -> new ZipArchiveInputStream(body, StandardCharsets.UTF_8.name(), true, true);
+            case "tar" -> new TarArchiveInputStream(body);
+            case "tar.gz", "tgz" -> new TarArchiveInputStream(new GZIPInputStream(body, ContentCodec.BUFFER_SIZE));
+            default -> throw new IllegalArgumentException("Unsupported archive format: " + format);
+        };
+    }
+
+    /**
+     * Maps an entry name to an object key, or returns {@code null} for names that would escape the prefix.
+     */
+    static String objectKey(String prefix, String entryName) {
+        String name = entryName.replace('\\', '/');
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        if (name.isEmpty() || name.startsWith("/")) {
+            return null;
+        }
+        for (String segment : name.split("/")) {
+            if (segment.equals("..")) {
+                return null;
+            }
+        }
+        return prefix + name;
+    }
+
+    private static void record(List<BulkItemResult> failures, LongAdder failed, BulkItemResult failure) {
+        failed.increment();
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(failure);
+        }
+    }
+
+    private static String reason(Throwable error) {
+        return error instanceof NoSuchKeyException ? "NoSuchKey" : String.valueOf(error.getMessage());
+    }
+
+    private record Prefetch(String key, CompletableFuture<Fetched> object) {
+    }
+
+    private record Listed(String key, Long size) {
+    }
+
+    /**
+     * A prefetched object: its content, or its open response for objects too large to buffer, or neither for
+     * objects left for the writer to fetch.
+     */
+    private record Fetched(byte[] data, ResponseInputStream<GetObjectResponse> stream, long size, Instant lastModified) {
+
+        void release() {
+            if (stream != null) {
+                stream.abort();
+            }
+        }
+    }
+}
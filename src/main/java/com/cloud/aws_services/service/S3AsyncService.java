@@ -0,0 +1,191 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.Bucket;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking counterpart of {@link S3Service} built on {@link S3AsyncClient}.
+ * Every method returns immediately with a {@link CompletableFuture}, so no request thread
+ * is parked for the duration of the AWS round trip.
+ * Writes drop their key from the object and metadata caches shared with {@link S3Service} before their future completes.
+ * Only active when {@code aws.client.mode=async}.
+ */
+@Service
+@ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+public class S3AsyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3AsyncService.class);
+    private final S3AsyncClient s3AsyncClient;
+    private final ExecutorService transferExecutor;
+    private final S3ObjectCache objectCache;
+    private final S3MetadataCache metadataCache;
+
+    public S3AsyncService(S3AsyncClient s3AsyncClient,
+                          @Qualifier("s3TransferExecutor") ExecutorService transferExecutor,
+                          S3ObjectCache objectCache,
+                          S3MetadataCache metadataCache) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.transferExecutor = transferExecutor;
+        this.objectCache = objectCache;
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Lists all S3 buckets in the account.
+     *
+     * @return A future completing with the bucket names.
+     */
+    public CompletableFuture<List<String>> listBuckets() {
+        return s3AsyncClient.listBuckets()
+                .thenApply(response -> response.buckets().stream().map(Bucket::name).toList())
+                .whenComplete((buckets, error) -> {
+                    if (error != null) {
+                        logger.error("Error listing buckets: {}", error.getMessage(), error);
+                    } else {
+                        logger.info("Listed {} buckets.", buckets.size());
+                    }
+                });
+    }
+
+    /**
+     * Lists the first page of objects within the specified bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @return A future completing with the object keys.
+     */
+    public CompletableFuture<List<String>> listObjects(String bucketName) {
+        return s3AsyncClient.listObjectsV2(b -> b.bucket(bucketName))
+                .thenApply(response -> response.contents().stream().map(S3Object::key).toList())
+                .whenComplete((objects, error) -> {
+                    if (error != null) {
+                        logger.error("Error listing objects in bucket {}: {}", bucketName, error.getMessage(), error);
+                    } else {
+                        logger.info("Found {} objects in bucket '{}'.", objects.size(), bucketName);
+                    }
+                });
+    }
+
+    /**
+     * Uploads a file to the specified S3 bucket.
+     * The file is streamed from a transfer pool thread; large files are uploaded in parallel parts by the SDK.
+     *
+     * @param bucketName The target bucket name.
+     * @param key        The key under which the file will be stored.
+     * @param file       The file to upload.
+     * @return A future completing once the object has been stored.
+     * @throws IOException if the file cannot be opened.
+     */
+    public CompletableFuture<Void> uploadFile(String bucketName, String key, MultipartFile file) throws IOException {
+        InputStream input = file.getInputStream();
+        AsyncRequestBody body = AsyncRequestBody.fromInputStream(input, file.getSize(), transferExecutor);
+        return s3AsyncClient.putObject(b -> b.bucket(bucketName).key(key).contentType(file.getContentType()), body)
+                .whenComplete((response, error) -> {
+                    closeQuietly(input);
+                    invalidateCaches(bucketName, key);
+                    if (error != null) {
+                        logger.error("Error uploading file '{}' to bucket {}: {}", key, bucketName, error.getMessage(), error);
+                    } else {
+                        logger.info("Uploaded file '{}' to bucket '{}'.", key, bucketName);
+                    }
+                })
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Deletes an object from the specified S3 bucket.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to delete.
+     * @return A future completing once the object has been deleted.
+     */
+    public CompletableFuture<Void> deleteObject(String bucketName, String key) {
+        return s3AsyncClient.deleteObject(b -> b.bucket(bucketName).key(key))
+                .whenComplete((response, error) -> {
+                    invalidateCaches(bucketName, key);
+                    if (error != null) {
+                        logger.error("Error deleting object '{}' from bucket {}: {}", key, bucketName, error.getMessage(), error);
+                    } else {
+                        logger.info("Deleted object '{}' from bucket '{}'.", key, bucketName);
+                    }
+                })
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Opens a streaming download of an object.
+     * The future completes as soon as the response headers arrive; the body is then read from the returned stream.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to download.
+     * @param range      An optional HTTP byte range, or {@code null} for the whole object.
+     * @return A future completing with the object content stream.
+     */
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> downloadFile(String bucketName, String key, String range) {
+        return s3AsyncClient.getObject(b -> b.bucket(bucketName).key(key).range(range),
+                        AsyncResponseTransformer.<GetObjectResponse>toBlockingInputStream())
+                .whenComplete((stream, error) -> {
+                    if (error != null) {
+                        logger.error("Error downloading object '{}' from bucket {}: {}", key, bucketName, error.getMessage(), error);
+                    } else {
+                        logger.info("Opened download of object '{}' from bucket '{}'.", key, bucketName);
+                    }
+                });
+    }
+
+    /**
+     * Copies an object from a source location to a destination.
+     *
+     * @param sourceBucket      The source bucket name.
+     * @param sourceKey         The key of the source object.
+     * @param destinationBucket The destination bucket name.
+     * @param destinationKey    The key for the new object.
+     * @return A future completing once the copy has finished.
+     */
+    public CompletableFuture<Void> copyObject(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) {
+        return s3AsyncClient.copyObject(b -> b.sourceBucket(sourceBucket).sourceKey(sourceKey)
+                        .destinationBucket(destinationBucket).destinationKey(destinationKey))
+                .whenComplete((response, error) -> {
+                    invalidateCaches(destinationBucket, destinationKey);
+                    if (error != null) {
+                        logger.error("Error copying object from {}/{} to {}/{}: {}", sourceBucket, sourceKey,
+                                destinationBucket, destinationKey, error.getMessage(), error);
+                    } else {
+                        logger.info("Copied object from {}/{} to {}/{}.", sourceBucket, sourceKey, destinationBucket, destinationKey);
+                    }
+                })
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Drops a written key from the caches, also after a failed write, which may still have reached S3.
+     */
+    private void invalidateCaches(String bucketName, String key) {
+        objectCache.invalidate(bucketName, key);
+        metadataCache.invalidate(bucketName, key);
+    }
+
+    private static void closeQuietly(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            logger.debug("Error closing upload stream: {}", e.getMessage());
+        }
+    }
+}
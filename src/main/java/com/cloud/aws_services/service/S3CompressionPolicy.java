@@ -0,0 +1,86 @@
+package com.cloud.aws_services.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides whether an upload is stored compressed, and with which codec.
+ * An explicit per-request choice wins; otherwise the longest configured {@code bucket/prefix=codec} rule
+ * matching the object applies, and objects matching no rule are stored as sent.
+ */
+@Service
+public class S3CompressionPolicy {
+
+    private final List<Rule> rules;
+    private final int gzipLevel;
+    private final int zstdLevel;
+
+    public S3CompressionPolicy(@Value("${aws.s3.compression.rules:}") List<String> rules,
+                               @Value("${aws.s3.compression.gzip-level:6}") int gzipLevel,
+                               @Value("${aws.s3.compression.zstd-level:3}") int zstdLevel) {
+        this.rules = rules.stream()
+                .filter(rule -> !rule.isBlank())
+                .map(Rule::parse)
+                .sorted(Comparator.comparingInt((Rule rule) -> rule.location().length()).reversed())
+                .toList();
+        this.gzipLevel = gzipLevel;
+        this.zstdLevel = zstdLevel;
+    }
+
+    /**
+     * Resolves the compression for an upload.
+     *
+     * @param bucketName The target bucket name.
+     * @param key        The key of the object.
+     * @param requested  The codec requested by the client ({@code gzip}, {@code zstd} or {@code none}), or {@code null}.
+     * @return The compression to apply, or {@code null} to store the content as sent.
+     * @throws IllegalArgumentException if the requested codec is not supported.
+     */
+    public Compression resolve(String bucketName, String key, String requested) {
+        if (requested != null && !requested.isBlank()) {
+            String name = requested.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("none") || name.equals("identity")) {
+                return null;
+            }
+            ContentCodec codec = ContentCodec.fromEncoding(name);
+            if (codec == null) {
+                throw new IllegalArgumentException("Unsupported compression: " + requested);
+            }
+            return forCodec(codec);
+        }
+        String location = bucketName + "/" + key;
+        for (Rule rule : rules) {
+            if (location.startsWith(rule.location())) {
+                return rule.codec() == null ? null : forCodec(rule.codec());
+            }
+        }
+        return null;
+    }
+
+    private Compression forCodec(ContentCodec codec) {
+        return new Compression(codec, codec == ContentCodec.GZIP ? gzipLevel : zstdLevel);
+    }
+
+    /**
+     * A rule with codec {@code none} exempts a more specific prefix from a broader rule.
+     */
+    private record Rule(String location, ContentCodec codec) {
+        private static Rule parse(String rule) {
+            int separator = rule.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Compression rule must be bucket/prefix=codec: " + rule);
+            }
+            String name = rule.substring(separator + 1).trim();
+            ContentCodec codec = ContentCodec.fromEncoding(name);
+            if (codec == null && !name.equalsIgnoreCase("none")) {
+                throw new IllegalArgumentException("Unsupported compression in rule: " + rule);
+            }
+            String location = rule.substring(0, separator).trim();
+            return new Rule(location.contains("/") ? location : location + "/", codec);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.CopyJobRequest;
+import com.cloud.aws_services.model.CopyJobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs bulk copy jobs that copy every key under a source prefix to a destination prefix.
+ * Keys are listed page by page and copied with per-job concurrency; large objects go through
+ * {@link S3MultipartCopier} via {@link S3Service#copyObject}.
+ * A job keeps a checkpoint: the last key of the newest listing page whose objects, and those of every
+ * earlier page, were all copied successfully. Resuming a cancelled or failed job restarts after the checkpoint.
+ * Stopped jobs are forgotten {@code retention} after they finish, checked whenever a job is started or listed.
+ */
+@Service
+@RequiredArgsConstructor
+public class S3CopyJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3CopyJobService.class);
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final int PAGES_IN_FLIGHT = 2;
+
+    private final S3Client s3Client;
+    private final S3Service s3Service;
+    private final Map<String, CopyJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService jobRunner = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("s3-copy-job-", 0).daemon(true).factory());
+
+    @Value("${aws.s3.copy-job.concurrency:16}")
+    private int defaultConcurrency;
+
+    @Value("${aws.s3.copy-job.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${aws.s3.copy-job.retention:24h}")
+    private Duration retention;
+
+    /**
+     * Starts a bulk copy job in the background.
+     *
+     * @param request The source and destination prefixes and the job concurrency.
+     * @return The initial status of the job.
+     */
+    public CopyJobStatus start(CopyJobRequest request) {
+        if (request.sourceBucket() == null || request.destinationBucket() == null) {
+            throw new IllegalArgumentException("sourceBucket and destinationBucket are required");
+        }
+        int concurrency = request.concurrency() != null && request.concurrency() > 0
+                ? Math.min(request.concurrency(), maxConcurrency) : defaultConcurrency;
+        evictStopped();
+        CopyJob job = new CopyJob(UUID.randomUUID().toString(), request, concurrency);
+        jobs.put(job.id, job);
+        job.launch();
+        return job.status();
+    }
+
+    /**
+     * Reports the progress of a job.
+     *
+     * @param id The job ID.
+     * @return The job status, or {@code null} if the job is unknown.
+     */
+    public CopyJobStatus status(String id) {
+        CopyJob job = jobs.get(id);
+        return job == null ? null : job.status();
+    }
+
+    /**
+     * Reports the progress of all jobs.
+     *
+     * @return One status per job.
+     */
+    public List<CopyJobStatus> statuses() {
+        evictStopped();
+        return jobs.values().stream().map(CopyJob::status).toList();
+    }
+
+    /**
+     * Requests a running job to stop; objects already being copied finish first.
+     *
+     * @param id The job ID.
+     * @return The job status, or {@code null} if the job is unknown.
+     */
+    public CopyJobStatus cancel(String id) {
+        CopyJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        job.cancelled.set(true);
+        return job.status();
+    }
+
+    /**
+     * Restarts a stopped job after its checkpoint.
+     *
+     * @param id The job ID.
+     * @return The job status, or {@code null} if the job is unknown.
+     * @throws IllegalStateException if the job is still running.
+     */
+    public CopyJobStatus resume(String id) {
+        CopyJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        job.launch();
+        return job.status();
+    }
+
+    private void evictStopped() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            Instant finished = job.finishedAt;
+            return finished != null && finished.isBefore(cutoff) && !"RUNNING".equals(job.state);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled.set(true));
+        jobRunner.shutdownNow();
+    }
+
+    private final class CopyJob {
+        private final String id;
+        private final CopyJobRequest request;
+        private final int concurrency;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final LongAdder copiedObjects = new LongAdder();
+        private final LongAdder copiedBytes = new LongAdder();
+        private final LongAdder failedObjects = new LongAdder();
+        private final List<BulkItemResult> failures = Collections.synchronizedList(new ArrayList<>());
+        private final Instant startedAt = Instant.now();
+        private volatile String state;
+        private volatile String checkpoint;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private CopyJob(String id, CopyJobRequest request, int concurrency) {
+            this.id = id;
+            this.request = request;
+            this.concurrency = concurrency;
+            this.checkpoint = request.startAfter();
+        }
+
+        private synchronized void launch() {
+            if ("RUNNING".equals(state)) {
+                throw new IllegalStateException("Copy job " + id + " is already running");
+            }
+            cancelled.set(false);
+            failures.clear();
+            error = null;
+            finishedAt = null;
+            state = "RUNNING";
+            jobRunner.execute(this::run);
+        }
+
+        private void run() {
+            String sourcePrefix = request.sourcePrefix() != null ? request.sourcePrefix() : "";
+            String destinationPrefix = request.destinationPrefix() != null ? request.destinationPrefix() : "";
+            logger.info("Copy job {} started: {}/{} -> {}/{} after '{}' with concurrency {}.", id, request.sourceBucket(),
+                    sourcePrefix, request.destinationBucket(), destinationPrefix, checkpoint, concurrency);
+            ExecutorService workers = Executors.newFixedThreadPool(concurrency,
+                    Thread.ofPlatform().name("s3-copy-" + id.substring(0, 8) + "-", 0).daemon(true).factory());
+            Deque<PageCopy> window = new ArrayDeque<>();
+            boolean checkpointFrozen = false;
+            try {
+                ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                        .bucket(request.sourceBucket())
+                        .prefix(sourcePrefix)
+                        .startAfter(checkpoint)
+                        .build();
+                for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
+                    if (cancelled.get()) {
+                        break;
+                    }
+                    if (page.contents().isEmpty()) {
+                        continue;
+                    }
+                    PageCopy pageCopy = new PageCopy(page.contents().getLast().key());
+                    pageCopy.done = CompletableFuture.allOf(page.contents().stream()
+                            .map(object -> CompletableFuture.runAsync(
+                                    () -> copyOne(object, sourcePrefix, destinationPrefix, pageCopy), workers))
+                            .toArray(CompletableFuture[]::new));
+                    window.add(pageCopy);
+                    while (window.size() > PAGES_IN_FLIGHT) {
+                        checkpointFrozen = advance(window.poll(), checkpointFrozen);
+                    }
+                }
+                while (!window.isEmpty()) {
+                    checkpointFrozen = advance(window.poll(), checkpointFrozen);
+                }
+                state = cancelled.get() ? "CANCELLED" : "COMPLETED";
+            } catch (RuntimeException e) {
+                logger.error("Copy job {} failed: {}", id, e.getMessage(), e);
+                cancelled.set(true);
+                error = e.getMessage();
+                state = "FAILED";
+            } finally {
+                workers.shutdown();
+                finishedAt = Instant.now();
+            }
+            logger.info("Copy job {} {}: {} objects, {} bytes copied, {} failed, checkpoint '{}'.", id, state.toLowerCase(),
+                    copiedObjects.sum(), copiedBytes.sum(), failedObjects.sum(), checkpoint);
+        }
+
+        /**
+         * Waits for the oldest page and moves the checkpoint past it, unless this or an earlier page was incomplete.
+         */
+        private boolean advance(PageCopy page, boolean frozen) {
+            page.done.join();
+            if (frozen || page.incomplete.get()) {
+                return true;
+            }
+            checkpoint = page.lastKey;
+            return false;
+        }
+
+        private void copyOne(S3Object object, String sourcePrefix, String destinationPrefix, PageCopy page) {
+            if (cancelled.get()) {
+                page.incomplete.set(true);
+                return;
+            }
+            String destinationKey = destinationPrefix + object.key().substring(sourcePrefix.length());
+            try {
+                s3Service.copyObject(request.sourceBucket(), object.key(), request.destinationBucket(), destinationKey, object.size());
+                copiedObjects.increment();
+                copiedBytes.add(object.size());
+            } catch (RuntimeException e) {
+                page.incomplete.set(true);
+                failedObjects.increment();
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(BulkItemResult.failed(object.key(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                }
+            }
+        }
+
+        private CopyJobStatus status() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis() / 1000.0, 0.001);
+            List<BulkItemResult> failureSnapshot;
+            synchronized (failures) {
+                failureSnapshot = List.copyOf(failures);
+            }
+            return new CopyJobStatus(id, request, state, copiedObjects.sum(), copiedBytes.sum(), failedObjects.sum(),
+                    failureSnapshot, checkpoint, error, startedAt, finishedAt, copiedObjects.sum() / seconds);
+        }
+    }
+
+    private static final class PageCopy {
+        private final String lastKey;
+        private final AtomicBoolean incomplete = new AtomicBoolean();
+        private CompletableFuture<Void> done;
+
+        private PageCopy(String lastKey) {
+            this.lastKey = lastKey;
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.KeyIndexStatus;
+import com.cloud.aws_services.model.ListingOptions;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.PrefixSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.BasicDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A persistent index of the objects of one bucket, kept in an MVStore file.
+ * It holds the size, ETag and last-modified time of every key, plus the object count and total size of every
+ * {@code /}-delimited prefix, so listings are range scans and the totals of a folder-like prefix are one lookup.
+ * <p>
+ * The index is seeded once by a parallel listing of the bucket and then kept current from S3 event notifications
+ * delivered to an SQS queue; notifications queued while seeding are applied afterwards. A change is applied only if
+ * it is newer than what the index holds for the key, by event sequencer or, for listed entries, by event time against
+ * last-modified, so redelivered and out-of-order notifications are harmless. Removed keys leave a tombstone for
+ * {@code tombstoneRetention} to keep a late creation event from resurrecting them. Messages are deleted only after
+ * the changes they carry are committed to disk.
+ */
+class S3KeyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3KeyIndex.class);
+    private static final int MAX_RECEIVE = 10;
+    private static final int SEED_COMMIT_INTERVAL = 10_000;
+    private static final int SEED_PAGE_SIZE = 1000;
+    private static final int COMPACT_INTERVAL = 1000;
+    private static final String SEEDED_AT = "seededAt";
+    private static final String QUEUE_URL = "queueUrl";
+
+    private final SqsService sqsService;
+    private final S3Service s3Service;
+    private final ObjectMapper objectMapper;
+    private final String bucketName;
+    private final String queueUrl;
+    private final int seedParallelism;
+    private final int waitTimeSeconds;
+    private final int visibilityTimeoutSeconds;
+    private final long tombstoneRetentionMillis;
+
+    private final MVStore store;
+    private final MVMap<String, IndexedObject> objects;
+    private final MVMap<String, IndexedObject> tombstones;
+    private final MVMap<String, Totals> totals;
+    private final MVMap<String, String> meta;
+
+    private final LongAdder eventsApplied = new LongAdder();
+    private final LongAdder eventsIgnored = new LongAdder();
+    private volatile String state = "STOPPED";
+    private volatile boolean running;
+    private volatile Instant lastEventAt;
+    private volatile String lastError;
+    private boolean receiving;
+    private int commitsSinceCompaction;
+    private Thread worker;
+
+    S3KeyIndex(SqsService sqsService, S3Service s3Service, ObjectMapper objectMapper, Path file, String bucketName,
+               String queueUrl, int seedParallelism, int waitTimeSeconds, int visibilityTimeoutSeconds,
+               Duration tombstoneRetention) {
+        this.sqsService = sqsService;
+        this.s3Service = s3Service;
+        this.objectMapper = objectMapper;
+        this.bucketName = bucketName;
+        this.seedParallelism = seedParallelism;
+        this.waitTimeSeconds = waitTimeSeconds;
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.tombstoneRetentionMillis = tombstoneRetention.toMillis();
+        // Commits are explicit so that an object and the totals of its prefixes always reach the disk together.
+        this.store = new MVStore.Builder().fileName(file.toString()).autoCommitDisabled().compress().open();
+        this.objects = store.openMap("objects", new MVMap.Builder<String, IndexedObject>()
+                .keyType(StringDataType.INSTANCE).valueType(IndexedObjectType.INSTANCE));
+        this.tombstones = store.openMap("tombstones", new MVMap.Builder<String, IndexedObject>()
+                .keyType(StringDataType.INSTANCE).valueType(IndexedObjectType.INSTANCE));
+        this.totals = store.openMap("totals", new MVMap.Builder<String, Totals>()
+                .keyType(StringDataType.INSTANCE).valueType(TotalsType.INSTANCE));
+        this.meta = store.openMap("meta", new MVMap.Builder<String, String>()
+                .keyType(StringDataType.INSTANCE).valueType(StringDataType.INSTANCE));
+        this.queueUrl = queueUrl != null ? queueUrl : meta.get(QUEUE_URL);
+        if (this.queueUrl == null) {
+            store.closeImmediately();
+            throw new IllegalArgumentException("queueUrl is required for a new index of bucket " + bucketName);
+        }
+        meta.put(QUEUE_URL, this.queueUrl);
+        store.commit();
+    }
+
+    /**
+     * Starts the worker thread, which seeds the index unless it was already seeded and then consumes notifications.
+     *
+     * @param reseed Whether to discard the entries of a seeded index and list the bucket again.
+     */
+    synchronized void start(boolean reseed) {
+        running = true;
+        worker = Thread.ofPlatform().name("s3-index-" + bucketName).daemon(true).start(() -> {
+            try {
+                if (reseed || meta.get(SEEDED_AT) == null) {
+                    seed();
+                }
+                state = "LIVE";
+                consumeLoop();
+            } catch (CancellationException e) {
+                logger.info("Seeding of index of bucket '{}' was cancelled.", bucketName);
+            } catch (RuntimeException e) {
+                logger.error("Index of bucket '{}' failed: {}", bucketName, e.getMessage(), e);
+                lastError = e.getMessage();
+                state = "FAILED";
+            }
+        });
+    }
+
+    /**
+     * Stops the worker, interrupting a pending long poll, and closes the store.
+     *
+     * @return The final status of the index.
+     */
+    KeyIndexStatus stop(long graceMillis) {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = worker;
+            // Interrupting store I/O would close its file channel, so only the long poll is interrupted.
+            if (receiving && thread != null) {
+                thread.interrupt();
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(graceMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            state = "STOPPED";
+            KeyIndexStatus status = status();
+            store.close();
+            return status;
+        }
+    }
+
+    String bucketName() {
+        return bucketName;
+    }
+
+    KeyIndexStatus status() {
+        Totals bucketTotals = totals.getOrDefault("", Totals.ZERO);
+        String seededAt = meta.get(SEEDED_AT);
+        return new KeyIndexStatus(bucketName, queueUrl, state, bucketTotals.objects(), bucketTotals.bytes(),
+                seededAt != null ? Instant.parse(seededAt) : null, eventsApplied.sum(), eventsIgnored.sum(),
+                lastEventAt, lastError);
+    }
+
+    /**
+     * Lists indexed objects in key order.
+     *
+     * @param prefix     Only keys starting with this prefix are listed.
+     * @param delimiter  If set, keys containing the delimiter after the prefix are rolled up into common prefixes.
+     * @param startAfter Only keys and common prefixes after this one are listed; with a delimiter, a key or common
+     *                   prefix containing it after {@code prefix} skips every key under that common prefix.
+     * @param limit      The maximum number of entries returned.
+     * @return Objects and common prefixes, in key order.
+     * @throws IllegalStateException if the index is not seeded yet.
+     */
+    List<ObjectEntry> list(String prefix, String delimiter, String startAfter, int limit) {
+        requireSeeded();
+        boolean rollUp = delimiter != null && !delimiter.isEmpty();
+        List<ObjectEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+        String key;
+        if (startAfter == null || startAfter.compareTo(prefix) < 0) {
+            key = objects.ceilingKey(prefix);
+        } else if (rollUp && startAfter.startsWith(prefix) && startAfter.indexOf(delimiter, prefix.length()) >= 0) {
+            // Everything under the common prefix of startAfter was rolled up into it on an earlier page.
+            String commonPrefix = startAfter.substring(0, startAfter.indexOf(delimiter, prefix.length()) + delimiter.length());
+            key = objects.ceilingKey(successor(commonPrefix));
+        } else {
+            key = objects.higherKey(startAfter);
+        }
+        while (key != null && key.startsWith(prefix) && entries.size() < limit) {
+            int end = rollUp ? key.indexOf(delimiter, prefix.length()) : -1;
+            if (end >= 0) {
+                String commonPrefix = key.substring(0, end + delimiter.length());
+                entries.add(new ObjectEntry(null, null, null, null, commonPrefix));
+                key = objects.ceilingKey(successor(commonPrefix));
+            } else {
+                IndexedObject object = objects.get(key);
+                if (object != null) {
+                    entries.add(new ObjectEntry(key, object.size(), object.eTag(),
+                            Instant.ofEpochMilli(object.lastModified()), null));
+                }
+                key = objects.higherKey(key);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Counts the objects under a prefix and sums their sizes. Prefixes that are empty or end with {@code /} are a
+     * single lookup; other prefixes scan their keys.
+     *
+     * @throws IllegalStateException if the index is not seeded yet.
+     */
+    PrefixSummary summary(String prefix) {
+        requireSeeded();
+        if (prefix.isEmpty() || prefix.endsWith("/")) {
+            Totals prefixTotals = totals.getOrDefault(prefix, Totals.ZERO);
+            return new PrefixSummary(bucketName, prefix, prefixTotals.objects(), prefixTotals.bytes());
+        }
+        long count = 0;
+        long bytes = 0;
+        Cursor<String, IndexedObject> cursor = objects.cursor(prefix);
+        while (cursor.hasNext() && cursor.next().startsWith(prefix)) {
+            count++;
+            bytes += cursor.getValue().size();
+        }
+        return new PrefixSummary(bucketName, prefix, count, bytes);
+    }
+
+    private void requireSeeded() {
+        if (meta.get(SEEDED_AT) == null) {
+            throw new IllegalStateException("The index of bucket " + bucketName + " is not seeded yet (" + state.toLowerCase() + ")");
+        }
+    }
+
+    private void seed() {
+        state = "SEEDING";
+        long started = System.nanoTime();
+        synchronized (this) {
+            meta.remove(SEEDED_AT);
+            objects.clear();
+            tombstones.clear();
+            totals.clear();
+            store.commit();
+        }
+        // Prefix totals are summed in memory and written once, instead of updating every ancestor per key.
+        Map<String, long[]> prefixTotals = new HashMap<>();
+        long[] pending = {0};
+        long count = s3Service.streamObjectsParallel(bucketName, new ListingOptions(null, null, null, SEED_PAGE_SIZE),
+                seedParallelism, entry -> {
+                    if (!running) {
+                        throw new CancellationException();
+                    }
+                    long lastModified = entry.lastModified() != null ? entry.lastModified().toEpochMilli() : 0;
+                    synchronized (this) {
+                        objects.put(entry.key(), new IndexedObject(entry.size(), entry.eTag(), lastModified, ""));
+                        if (++pending[0] % SEED_COMMIT_INTERVAL == 0) {
+                            store.commit();
+                        }
+                    }
+                    forEachPrefix(entry.key(), prefix -> {
+                        long[] sums = prefixTotals.computeIfAbsent(prefix, ignored -> new long[2]);
+                        sums[0]++;
+                        sums[1] += entry.size();
+                    });
+                });
+        synchronized (this) {
+            prefixTotals.forEach((prefix, sums) -> totals.put(prefix, new Totals(sums[0], sums[1])));
+            meta.put(SEEDED_AT, Instant.now().toString());
+            store.commit();
+            store.compact(50, 16 * 1024 * 1024);
+        }
+        logger.info("Seeded index of bucket '{}' with {} objects in {} ms.", bucketName, count,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void consumeLoop() {
+        while (true) {
+            List<Message> messages;
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                receiving = true;
+            }
+            try {
+                messages = sqsService.receiveMessages(queueUrl, MAX_RECEIVE, waitTimeSeconds, visibilityTimeoutSeconds);
+            } catch (RuntimeException e) {
+                if (running) {
+                    logger.warn("Polling notifications of bucket '{}' failed, backing off: {}", bucketName, e.getMessage());
+                    lastError = e.getMessage();
+                    sleepQuietly(1_000);
+                }
+                continue;
+            } finally {
+                synchronized (this) {
+                    receiving = false;
+                    Thread.interrupted();
+                }
+            }
+            try {
+                if (messages.isEmpty()) {
+                    pruneTombstones();
+                    continue;
+                }
+                List<ObjectChange> changes = new ArrayList<>();
+                for (Message message : messages) {
+                    try {
+                        changes.addAll(parseNotification(objectMapper, message.body(), bucketName));
+                    } catch (JsonProcessingException | RuntimeException e) {
+                        logger.warn("Ignoring unreadable notification {} for bucket '{}': {}", message.messageId(),
+                                bucketName, e.getMessage());
+                    }
+                }
+                apply(changes);
+                sqsService.deleteMessageBatch(queueUrl, messages.stream().map(Message::receiptHandle).toList());
+            } catch (RuntimeException e) {
+                // Undeleted messages are redelivered after the visibility timeout; applying them again is a no-op.
+                logger.warn("Applying notifications to index of bucket '{}' failed: {}", bucketName, e.getMessage());
+                lastError = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Applies changes in order and commits them together.
+     */
+    synchronized void apply(List<ObjectChange> changes) {
+        for (ObjectChange change : changes) {
+            IndexedObject current = objects.get(change.key());
+            IndexedObject previous = current != null ? current : tombstones.get(change.key());
+            if (previous != null && !change.isNewerThan(previous)) {
+                eventsIgnored.increment();
+                continue;
+            }
+            IndexedObject next = change.object();
+            if (change.removed()) {
+                tombstones.put(change.key(), next);
+                if (current != null) {
+                    objects.remove(change.key());
+                    addToPrefixes(change.key(), -1, -current.size());
+                }
+            } else {
+                tombstones.remove(change.key());
+                objects.put(change.key(), next);
+                addToPrefixes(change.key(), current == null ? 1 : 0, next.size() - (current == null ? 0 : current.size()));
+            }
+            eventsApplied.increment();
+            lastEventAt = Instant.ofEpochMilli(next.lastModified());
+        }
+        store.commit();
+        if (++commitsSinceCompaction >= COMPACT_INTERVAL) {
+            commitsSinceCompaction = 0;
+            store.compact(50, 16 * 1024 * 1024);
+        }
+    }
+
+    private void addToPrefixes(String key, long objectDelta, long bytesDelta) {
+        forEachPrefix(key, prefix -> {
+            Totals current = totals.getOrDefault(prefix, Totals.ZERO);
+            Totals next = new Totals(current.objects() + objectDelta, current.bytes() + bytesDelta);
+            if (next.objects() <= 0) {
+                totals.remove(prefix);
+            } else {
+                totals.put(prefix, next);
+            }
+        });
+    }
+
+    private synchronized void pruneTombstones() {
+        long cutoff = System.currentTimeMillis() - tombstoneRetentionMillis;
+        int pruned = 0;
+        for (Iterator<Map.Entry<String, IndexedObject>> it = tombstones.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().lastModified() < cutoff) {
+                it.remove();
+                pruned++;
+            }
+        }
+        if (pruned > 0) {
+            store.commit();
+        }
+    }
+
+    /**
+     * Calls the action with the empty prefix and every {@code /}-terminated prefix of the key.
+     */
+    private static void forEachPrefix(String key, Consumer<String> action) {
+        action.accept("");
+        for (int slash = key.indexOf('/'); slash >= 0; slash = key.indexOf('/', slash + 1)) {
+            action.accept(key.substring(0, slash + 1));
+        }
+    }
+
+    /**
+     * The smallest string greater than every string starting with the prefix.
+     */
+    private static String successor(String prefix) {
+        return prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+    }
+
+    /**
+     * Extracts the object changes of one bucket from an S3 event notification, which may be wrapped in an SNS
+     * notification. Test events and event types that do not change the current object yield no changes.
+     */
+    static List<ObjectChange> parseNotification(ObjectMapper objectMapper, String body, String bucketName)
+            throws JsonProcessingException {
+        JsonNode root = objectMapper.readTree(body);
+        if ("Notification".equals(root.path("Type").asText()) && root.hasNonNull("Message")) {
+            root = objectMapper.readTree(root.get("Message").asText());
+        }
+        List<ObjectChange> changes = new ArrayList<>();
+        for (JsonNode record : root.path("Records")) {
+            String eventName = record.path("eventName").asText();
+            boolean created = eventName.startsWith("ObjectCreated:");
+            boolean removed = eventName.startsWith("ObjectRemoved:") || eventName.startsWith("LifecycleExpiration:");
+            JsonNode s3 = record.path("s3");
+            if (!created && !removed || !bucketName.equals(s3.path("bucket").path("name").asText())) {
+                continue;
+            }
+            JsonNode object = s3.path("object");
+            // Keys are form-encoded in notifications: spaces arrive as '+'.
+            String key = URLDecoder.decode(object.path("key").asText(), StandardCharsets.UTF_8);
+            String eTag = object.path("eTag").asText("");
+            if (!eTag.isEmpty() && !eTag.startsWith("\"")) {
+                eTag = "\"" + eTag + "\"";
+            }
+            changes.add(new ObjectChange(key, removed, new IndexedObject(object.path("size").asLong(), eTag,
+                    Instant.parse(record.path("eventTime").asText()).toEpochMilli(),
+                    object.path("sequencer").asText(""))));
+        }
+        return changes;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A creation or removal of a key, carrying the object state after a creation and the event time and sequencer.
+     */
+    record ObjectChange(String key, boolean removed, IndexedObject object) {
+
+        /**
+         * Whether this change happened after the given state of its key. Sequencers order events of the same key;
+         * entries from a listing have none and are compared by time instead.
+         */
+        boolean isNewerThan(IndexedObject previous) {
+            if (!previous.sequencer().isEmpty() && !object.sequencer().isEmpty()) {
+                return compareSequencers(object.sequencer(), previous.sequencer()) > 0;
+            }
+            return object.lastModified() >= previous.lastModified();
+        }
+
+        /**
+         * Compares sequencers as S3 documents it: the shorter one is right-padded with zeros.
+         */
+        private static int compareSequencers(String left, String right) {
+            int length = Math.max(left.length(), right.length());
+            return (left + "0".repeat(length - left.length())).compareTo(right + "0".repeat(length - right.length()));
+        }
+    }
+
+    /**
+     * The indexed state of a key; {@code lastModified} is the event time for entries from notifications.
+     */
+    record IndexedObject(long size, String eTag, long lastModified, String sequencer) {
+    }
+
+    record Totals(long objects, long bytes) {
+        static final Totals ZERO = new Totals(0, 0);
+    }
+
+    private static final class IndexedObjectType extends BasicDataType<IndexedObject> {
+
+        static final IndexedObjectType INSTANCE = new IndexedObjectType();
+
+        @Override
+        public int getMemory(IndexedObject value) {
+            return 48 + 2 * (value.eTag().length() + value.sequencer().length());
+        }
+
+        @Override
+        public void write(WriteBuffer buffer, IndexedObject value) {
+            buffer.putVarLong(value.size()).putVarLong(value.lastModified());
+            buffer.putVarInt(value.eTag().length()).putStringData(value.eTag(), value.eTag().length());
+            buffer.putVarInt(value.sequencer().length()).putStringData(value.sequencer(), value.sequencer().length());
+        }
+
+        @Override
+        public IndexedObject read(ByteBuffer buffer) {
+            long size = DataUtils.readVarLong(buffer);
+            long lastModified = DataUtils.readVarLong(buffer);
+            String eTag = DataUtils.readString(buffer);
+            String sequencer = DataUtils.readString(buffer);
+            return new IndexedObject(size, eTag, lastModified, sequencer);
+        }
+
+        @Override
+        public IndexedObject[] createStorage(int size) {
+            return new IndexedObject[size];
+        }
+    }
+
+    private static final class TotalsType extends BasicDataType<Totals> {
+
+        static final TotalsType INSTANCE = new TotalsType();
+
+        @Override
+        public int getMemory(Totals value) {
+            return 32;
+        }
+
+        @Override
+        public void write(WriteBuffer buffer, Totals value) {
+            buffer.putVarLong(value.objects()).putVarLong(value.bytes());
+        }
+
+        @Override
+        public Totals read(ByteBuffer buffer) {
+            return new Totals(DataUtils.readVarLong(buffer), DataUtils.readVarLong(buffer));
+        }
+
+        @Override
+        public Totals[] createStorage(int size) {
+            return new Totals[size];
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.KeyIndexSettings;
+import com.cloud.aws_services.model.KeyIndexStatus;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.PrefixSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts, stops and queries local key indexes of buckets, one {@code <bucket>.mv.db} file each in the index directory.
+ * Indexes found in the directory on startup are resumed from the queue they were consuming, without listing again.
+ * The manager is created eagerly even with lazy initialization, but reaches the services (and so the SDK clients)
+ * only when there is an index to resume or a request for one.
+ */
+@Lazy(false)
+@Service
+public class S3KeyIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3KeyIndexManager.class);
+    private static final String FILE_SUFFIX = ".mv.db";
+    private static final int MAX_LIST_SIZE = 10_000;
+    private static final Pattern BUCKET_NAME = Pattern.compile("[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]");
+
+    private final SqsService sqsService;
+    private final S3Service s3Service;
+    private final ObjectMapper objectMapper;
+    private final Map<String, S3KeyIndex> indexes = new ConcurrentHashMap<>();
+
+    @Value("${aws.s3.index.directory:${java.io.tmpdir}/aws-services-key-index}")
+    private Path directory;
+
+    @Value("${aws.s3.index.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    @Value("${aws.s3.index.seed-parallelism:16}")
+    private int defaultSeedParallelism;
+
+    @Value("${aws.s3.index.wait-time-seconds:20}")
+    private int waitTimeSeconds;
+
+    @Value("${aws.s3.index.visibility-timeout-seconds:60}")
+    private int visibilityTimeoutSeconds;
+
+    @Value("${aws.s3.index.tombstone-retention:1h}")
+    private Duration tombstoneRetention;
+
+    @Value("${aws.s3.index.shutdown-grace-millis:5000}")
+    private long shutdownGraceMillis;
+
+    public S3KeyIndexManager(@Lazy SqsService sqsService, @Lazy S3Service s3Service, ObjectMapper objectMapper) {
+        this.sqsService = sqsService;
+        this.s3Service = s3Service;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resumes the indexes left in the index directory by a previous run.
+     */
+    @PostConstruct
+    public void resume() throws IOException {
+        if (!resumeOnStartup || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(FILE_SUFFIX)) {
+                    String bucketName = name.substring(0, name.length() - FILE_SUFFIX.length());
+                    try {
+                        start(new KeyIndexSettings(bucketName, null, false, null));
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not resume index of bucket '{}': {}", bucketName, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens or creates the index of a bucket and starts keeping it current. A new index is seeded first;
+     * queries are refused until seeding completes.
+     *
+     * @param settings The bucket, notification queue and seeding options.
+     * @return The initial status of the index.
+     * @throws IllegalArgumentException if the bucket is missing or not a valid bucket name, or the queue is missing
+     *                                  for a new index.
+     * @throws IllegalStateException    if the bucket is already indexed.
+     */
+    public synchronized KeyIndexStatus start(KeyIndexSettings settings) {
+        if (settings.bucketName() == null || settings.bucketName().isBlank()) {
+            throw new IllegalArgumentException("bucketName is required");
+        }
+        Path file = indexFile(settings.bucketName());
+        if (indexes.containsKey(settings.bucketName())) {
+            throw new IllegalStateException("Bucket '" + settings.bucketName() + "' is already indexed");
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create index directory " + directory, e);
+        }
+        int seedParallelism = settings.seedParallelism() != null && settings.seedParallelism() > 0
+                ? settings.seedParallelism() : defaultSeedParallelism;
+        S3KeyIndex index = new S3KeyIndex(sqsService, s3Service, objectMapper,
+                file, settings.bucketName(), settings.queueUrl(),
+                seedParallelism, waitTimeSeconds, visibilityTimeoutSeconds, tombstoneRetention);
+        indexes.put(settings.bucketName(), index);
+        index.start(Boolean.TRUE.equals(settings.reseed()));
+        logger.info("Started index of bucket '{}' from queue {}.", settings.bucketName(), index.status().queueUrl());
+        return index.status();
+    }
+
+    /**
+     * Stops keeping the index of a bucket current and closes it.
+     *
+     * @param bucketName The indexed bucket.
+     * @param delete     Whether to delete the index file too; otherwise it is resumed on the next start.
+     * @return The final status of the index, or {@code null} if the bucket was not indexed.
+     */
+    public KeyIndexStatus stop(String bucketName, boolean delete) {
+        S3KeyIndex index = indexes.remove(bucketName);
+        if (index == null) {
+            return null;
+        }
+        KeyIndexStatus status = index.stop(shutdownGraceMillis);
+        if (delete) {
+            try {
+                Files.deleteIfExists(indexFile(bucketName));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete index of bucket " + bucketName, e);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Returns the index file of a bucket, refusing names that are not valid bucket names and so could
+     * point outside the index directory.
+     */
+    private Path indexFile(String bucketName) {
+        if (!BUCKET_NAME.matcher(bucketName).matches() || bucketName.contains("..")) {
+            throw new IllegalArgumentException("Invalid bucket name '" + bucketName + "'");
+        }
+        Path base = directory.toAbsolutePath().normalize();
+        Path file = base.resolve(bucketName + FILE_SUFFIX).normalize();
+        if (!file.getParent().equals(base)) {
+            throw new IllegalArgumentException("Invalid bucket name '" + bucketName + "'");
+        }
+        return file;
+    }
+
+    /**
+     * Reports on all open indexes.
+     */
+    public List<KeyIndexStatus> status() {
+        return indexes.values().stream().map(S3KeyIndex::status).toList();
+    }
+
+    /**
+     * Lists indexed objects of a bucket in key order, without calling S3.
+     *
+     * @param bucketName The indexed bucket.
+     * @param prefix     Only keys starting with this prefix are listed.
+     * @param delimiter  If set, keys containing the delimiter after the prefix are rolled up into common prefixes.
+     * @param startAfter Only entries after this key are listed.
+     * @param limit      The maximum number of entries, at most {@value #MAX_LIST_SIZE}.
+     * @return The entries, or {@code null} if the bucket is not indexed.
+     * @throws IllegalStateException if the index is still being seeded.
+     */
+    public List<ObjectEntry> list(String bucketName, String prefix, String delimiter, String startAfter, int limit) {
+        S3KeyIndex index = indexes.get(bucketName);
+        if (index == null) {
+            return null;
+        }
+        return index.list(prefix != null ? prefix : "", delimiter, startAfter, Math.clamp(limit, 1, MAX_LIST_SIZE));
+    }
+
+    /**
+     * Counts the indexed objects under a prefix and sums their sizes, without calling S3.
+     *
+     * @param bucketName The indexed bucket.
+     * @param prefix     The key prefix; empty for the whole bucket.
+     * @return The summary, or {@code null} if the bucket is not indexed.
+     * @throws IllegalStateException if the index is still being seeded.
+     */
+    public PrefixSummary summary(String bucketName, String prefix) {
+        S3KeyIndex index = indexes.get(bucketName);
+        if (index == null) {
+            return null;
+        }
+        return index.summary(prefix != null ? prefix : "");
+    }
+
+    @PreDestroy
+    public void stopAll() {
+        indexes.keySet().forEach(bucketName -> stop(bucketName, false));
+    }
+}
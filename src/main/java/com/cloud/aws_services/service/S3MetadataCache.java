@@ -0,0 +1,92 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ObjectMetadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of object metadata from {@code HeadObject}.
+ * Entries expire after {@code aws.s3.metadata-cache.ttl}, which bounds how stale metadata of objects changed by other
+ * writers can get; writes made through this application invalidate their key immediately. Entries are evicted
+ * least-recently-used once {@code max-entries} is reached.
+ */
+@Service
+public class S3MetadataCache {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, CachedMetadata> entries;
+    private long invalidations;
+
+    public S3MetadataCache(MeterRegistry meterRegistry,
+                           @Value("${aws.s3.metadata-cache.max-entries:10000}") int maxEntries,
+                           @Value("${aws.s3.metadata-cache.ttl:30s}") Duration ttl) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedMetadata> eldest) {
+                return size() > S3MetadataCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached metadata of an object, or loads it if it is missing or expired.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param loader     Fetches the metadata from S3; only called on a miss. Failures are not cached.
+     * @return The metadata of the object.
+     */
+    public ObjectMetadata get(String bucketName, String key, Supplier<ObjectMetadata> loader) {
+        String cacheKey = bucketName + "/" + key;
+        long now = System.nanoTime();
+        long generation;
+        synchronized (entries) {
+            CachedMetadata cached = entries.get(cacheKey);
+            if (cached != null && now - cached.loadedAtNanos() < ttlNanos) {
+                count("hit");
+                return cached.metadata();
+            }
+            generation = invalidations;
+        }
+        count("miss");
+        ObjectMetadata metadata = loader.get();
+        synchronized (entries) {
+            // A write invalidated while we were loading: the response may predate it, so do not cache it.
+            if (generation == invalidations && ttlNanos > 0) {
+                entries.put(cacheKey, new CachedMetadata(metadata, now));
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Drops the metadata of an object, e.g. after it was overwritten or deleted through this application.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    public void invalidate(String bucketName, String key) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(bucketName + "/" + key);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("aws.s3.metadata.cache.requests", "result", result).increment();
+    }
+
+    private record CachedMetadata(ObjectMetadata metadata, long loadedAtNanos) {
+    }
+}
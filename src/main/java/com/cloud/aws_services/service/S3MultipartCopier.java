@@ -0,0 +1,149 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Server-side copy of large objects with parallel {@code UploadPartCopy} calls.
+ * No object data passes through this service; each part is a byte range copied by S3 itself.
+ * Parts are pinned to the source ETag so a concurrent overwrite of the source fails the copy
+ * instead of producing a mixed object.
+ */
+@Service
+public class S3MultipartCopier {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3MultipartCopier.class);
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final long thresholdBytes;
+    private final long partSizeBytes;
+    private final int concurrency;
+    private final int maxPartAttempts;
+
+    public S3MultipartCopier(S3Client s3Client,
+                             @Qualifier("s3TransferExecutor") ExecutorService executor,
+                             @Value("${aws.s3.copy.multipart-threshold:512MB}") DataSize threshold,
+                             @Value("${aws.s3.copy.part-size:128MB}") DataSize partSize,
+                             @Value("${aws.s3.copy.concurrency:8}") int concurrency,
+                             @Value("${aws.s3.multipart.max-part-attempts:3}") int maxPartAttempts) {
+        this.s3Client = s3Client;
+        this.executor = executor;
+        // A single CopyObject is limited to 5 GB.
+        this.thresholdBytes = Math.min(threshold.toBytes(), DataSize.ofGigabytes(5).toBytes());
+        this.partSizeBytes = Math.max(partSize.toBytes(), S3MultipartUploader.MIN_PART_SIZE);
+        this.concurrency = Math.max(1, concurrency);
+        this.maxPartAttempts = Math.max(1, maxPartAttempts);
+    }
+
+    /**
+     * Tells whether an object of the given size should be copied in parts.
+     *
+     * @param contentLength The size of the source object in bytes.
+     * @return {@code true} if the size is above the configured threshold.
+     */
+    public boolean shouldUseMultipart(long contentLength) {
+        return contentLength > thresholdBytes;
+    }
+
+    /**
+     * Copies an object with parallel part copies, preserving its content type and user metadata.
+     *
+     * @param sourceBucket      The source bucket name.
+     * @param sourceKey         The key of the source object.
+     * @param destinationBucket The destination bucket name.
+     * @param destinationKey    The key for the new object.
+     * @param source            The {@code HeadObject} response of the source object.
+     */
+    public void copy(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey,
+                     HeadObjectResponse source) {
+        long started = System.nanoTime();
+        long size = source.contentLength();
+        long partSize = Math.max(partSizeBytes, (size + S3MultipartUploader.MAX_PARTS - 1) / S3MultipartUploader.MAX_PARTS);
+        String uploadId = s3Client.createMultipartUpload(b -> b.bucket(destinationBucket).key(destinationKey)
+                        .contentType(source.contentType())
+                        .contentEncoding(source.contentEncoding())
+                        .metadata(source.metadata()))
+                .uploadId();
+
+        Semaphore slots = new Semaphore(concurrency);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                String range = "bytes=" + offset + "-" + (Math.min(offset + partSize, size) - 1);
+                int number = partNumber;
+                slots.acquire();
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> copyPart(sourceBucket, sourceKey, source.eTag(), destinationBucket,
+                                destinationKey, uploadId, number, range), executor)
+                        .whenComplete((part, error) -> slots.release()));
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            s3Client.completeMultipartUpload(b -> b.bucket(destinationBucket).key(destinationKey).uploadId(uploadId)
+                    .multipartUpload(u -> u.parts(completed)));
+            logger.info("Copied {}/{} to {}/{} in {} parts: {} bytes, {} MiB/s.", sourceBucket, sourceKey,
+                    destinationBucket, destinationKey, completed.size(), size, TransferRetries.mebibytesPerSecond(size, started));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(destinationBucket, destinationKey, uploadId, parts);
+            throw new RuntimeException("Interrupted while copying " + sourceKey, e);
+        } catch (RuntimeException e) {
+            abort(destinationBucket, destinationKey, uploadId, parts);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletedPart copyPart(String sourceBucket, String sourceKey, String sourceETag, String destinationBucket,
+                                   String destinationKey, String uploadId, int partNumber, String range) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartCopyResponse response = s3Client.uploadPartCopy(b -> b
+                        .sourceBucket(sourceBucket).sourceKey(sourceKey).copySourceIfMatch(sourceETag)
+                        .destinationBucket(destinationBucket).destinationKey(destinationKey)
+                        .uploadId(uploadId).partNumber(partNumber).copySourceRange(range));
+                return CompletedPart.builder().partNumber(partNumber).eTag(response.copyPartResult().eTag()).build();
+            } catch (SdkException e) {
+                if (attempt >= maxPartAttempts || !TransferRetries.isRetryable(e)) {
+                    logger.error("Copy part {} of upload {} failed after {} attempt(s): {}", partNumber, uploadId, attempt, e.getMessage());
+                    throw e;
+                }
+                logger.warn("Copy part {} of upload {} failed (attempt {}/{}), retrying: {}",
+                        partNumber, uploadId, attempt, maxPartAttempts, e.getMessage());
+                TransferRetries.backoff(attempt);
+            }
+        }
+    }
+
+    private void abort(String bucketName, String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(false));
+        try {
+            s3Client.abortMultipartUpload(b -> b.bucket(bucketName).key(key).uploadId(uploadId));
+            logger.warn("Aborted multipart copy {} to '{}' in bucket '{}'.", uploadId, key, bucketName);
+        } catch (SdkException e) {
+            logger.error("Error aborting multipart copy {} to '{}' in bucket {}: {}", uploadId, key, bucketName, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel multipart upload engine for large objects.
+ * Splits an input stream into parts, uploads up to {@code concurrency} parts at a time
+ * (bounding memory to {@code concurrency * partSize}), retries failed parts individually
+ * and either completes or aborts the upload.
+ */
+@Service
+public class S3MultipartUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3MultipartUploader.class);
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    static final int MAX_PARTS = 10_000;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final long thresholdBytes;
+    private final long partSizeBytes;
+    private final int concurrency;
+    private final int maxPartAttempts;
+
+    public S3MultipartUploader(S3Client s3Client,
+                               @Qualifier("s3TransferExecutor") ExecutorService executor,
+                               @Value("${aws.s3.multipart.threshold:64MB}") DataSize threshold,
+                               @Value("${aws.s3.multipart.part-size:16MB}") DataSize partSize,
+                               @Value("${aws.s3.multipart.concurrency:4}") int concurrency,
+                               @Value("${aws.s3.multipart.max-part-attempts:3}") int maxPartAttempts) {
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.thresholdBytes = threshold.toBytes();
+        this.partSizeBytes = Math.max(partSize.toBytes(), MIN_PART_SIZE);
+        this.concurrency = Math.max(1, concurrency);
+        this.maxPartAttempts = Math.max(1, maxPartAttempts);
+    }
+
+    /**
+     * Tells whether an upload of the given size should go through the multipart engine.
+     *
+     * @param contentLength  The size of the upload in bytes.
+     * @return {@code true} if the size is above the configured threshold.
+     */
+    public boolean shouldUseMultipart(long contentLength) {
+        return contentLength > thresholdBytes;
+    }
+
+    /**
+     * Uploads a stream as a multipart upload.
+     *
+     * @param bucketName     The target bucket name.
+     * @param key            The key under which the object will be stored.
+     * @param input          The content to upload; it is read sequentially and not closed.
+     * @param contentLength  The total size of the content in bytes.
+     * @param contentType    The content type to store with the object, or {@code null}.
+     * @return The ETag of the completed object.
+     * @throws IOException if reading the input fails.
+     */
+    public String upload(String bucketName, String key, InputStream input, long contentLength, String contentType) throws IOException {
+        return upload(bucketName, key, input, contentLength, contentType, null, null);
+    }
+
+    /**
+     * Uploads a stream as a multipart upload, running a check after the input has been fully read
+     * and before the upload is completed.
+     *
+     * @param bucketName      The target bucket name.
+     * @param key             The key under which the object will be stored.
+     * @param input           The content to upload; it is read sequentially and not closed.
+     * @param contentLength   The total size of the content in bytes, or a negative value if unknown.
+     *                        Unknown lengths use the configured part size, which caps the object at {@value #MAX_PARTS} parts.
+     * @param contentType     The content type to store with the object, or {@code null}.
+     * @param contentEncoding The content encoding to store with the object, or {@code null}.
+     * @param beforeComplete  Runs once all parts are uploaded; throwing aborts the upload. May be {@code null}.
+     * @return The ETag of the completed object.
+     * @throws IOException if reading the input fails.
+     */
+    public String upload(String bucketName, String key, InputStream input, long contentLength, String contentType,
+                         String contentEncoding, Runnable beforeComplete) throws IOException {
+        long started = System.nanoTime();
+        int partSize = partSizeFor(contentLength);
+        String uploadId = s3Client.createMultipartUpload(b -> b.bucket(bucketName).key(key).contentType(contentType)
+                        .contentEncoding(contentEncoding))
+                .uploadId();
+        logger.info("Started multipart upload {} of '{}' to bucket '{}' ({} bytes, {} byte parts).",
+                uploadId, key, bucketName, contentLength, partSize);
+
+        Semaphore buffers = new Semaphore(concurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        long uploaded = 0;
+        try {
+            for (int partNumber = 1; failure.get() == null; partNumber++) {
+                buffers.acquire();
+                if (failure.get() != null) {
+                    buffers.release();
+                    break;
+                }
+                byte[] data = input.readNBytes(partSize);
+                if (data.length == 0 && partNumber > 1) {
+                    buffers.release();
+                    break;
+                }
+                if (partNumber > MAX_PARTS) {
+                    throw new IOException("Upload of " + key + " exceeds " + MAX_PARTS + " parts of " + partSize + " bytes");
+                }
+                uploaded += data.length;
+                int number = partNumber;
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(bucketName, key, uploadId, number, data), executor)
+                        .whenComplete((part, error) -> {
+                            if (error != null) {
+                                failure.compareAndSet(null, error);
+                            }
+                            buffers.release();
+                        }));
+                if (data.length < partSize) {
+                    break;
+                }
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            if (beforeComplete != null) {
+                beforeComplete.run();
+            }
+            String eTag = s3Client.completeMultipartUpload(b -> b.bucket(bucketName).key(key).uploadId(uploadId)
+                    .multipartUpload(u -> u.parts(completed))).eTag();
+            logThroughput(bucketName, key, uploaded, completed.size(), started);
+            return eTag;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucketName, key, uploadId, parts);
+            throw new InterruptedIOException("Interrupted while uploading " + key);
+        } catch (IOException | RuntimeException e) {
+            abort(bucketName, key, uploadId, parts);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadPart(String bucketName, String key, String uploadId, int partNumber, byte[] data) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartResponse response = s3Client.uploadPart(b -> b.bucket(bucketName).key(key)
+                                .uploadId(uploadId).partNumber(partNumber).contentLength((long) data.length),
+                        RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data), data.length,
+                                "application/octet-stream"));
+                return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+            } catch (SdkException e) {
+                if (attempt >= maxPartAttempts || !TransferRetries.isRetryable(e)) {
+                    logger.error("Part {} of upload {} failed after {} attempt(s): {}", partNumber, uploadId, attempt, e.getMessage());
+                    throw e;
+                }
+                logger.warn("Part {} of upload {} failed (attempt {}/{}), retrying: {}",
+                        partNumber, uploadId, attempt, maxPartAttempts, e.getMessage());
+                TransferRetries.backoff(attempt);
+            }
+        }
+    }
+
+    private void abort(String bucketName, String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(false));
+        try {
+            s3Client.abortMultipartUpload(b -> b.bucket(bucketName).key(key).uploadId(uploadId));
+            logger.warn("Aborted multipart upload {} of '{}' to bucket '{}'.", uploadId, key, bucketName);
+        } catch (SdkException e) {
+            logger.error("Error aborting multipart upload {} of '{}' to bucket {}: {}", uploadId, key, bucketName, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The part size used when the total length is not known up front.
+     */
+    int partSize() {
+        return partSizeFor(-1);
+    }
+
+    private int partSizeFor(long contentLength) {
+        long size = Math.max(partSizeBytes, (contentLength + MAX_PARTS - 1) / MAX_PARTS);
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    private static void logThroughput(String bucketName, String key, long bytes, int parts, long startedNanos) {
+        logger.info("Completed multipart upload of '{}' to bucket '{}': {} bytes in {} parts, {} ms, {} MiB/s.",
+                key, bucketName, bytes, parts, (System.nanoTime() - startedNanos) / 1_000_000,
+                TransferRetries.mebibytesPerSecond(bytes, startedNanos));
+    }
+}
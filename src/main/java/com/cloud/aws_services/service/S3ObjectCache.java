@@ -0,0 +1,386 @@
+package com.cloud.aws_services.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of whole S3 objects on local disk.
+ * Concurrent requests for the same object share a single upstream {@code GetObject}.
+ * Entries are evicted least-recently-used once the cache exceeds its size limit, and entries older than
+ * the revalidation interval are checked with a conditional {@code GetObject} ({@code If-None-Match}) before use.
+ * Objects larger than the per-object limit are not cached and are remembered as such until the next revalidation;
+ * the request that found one gets the already open response to stream instead.
+ * A fetch overlapping an invalidation of its key is not stored, so a write through this application is never
+ * followed by the cache serving the body from before it.
+ */
+@Service
+public class S3ObjectCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3ObjectCache.class);
+    private static final int NOT_MODIFIED = 304;
+    private static final int INVALIDATION_STRIPES = 256;
+
+    private final S3Client s3Client;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final long maxObjectSizeBytes;
+    private final long revalidateAfterNanos;
+
+    private final Map<String, CachedObject> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedObject>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> uncacheableUntil = new ConcurrentHashMap<>();
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private long totalBytes;
+
+    public S3ObjectCache(S3Client s3Client,
+                         MeterRegistry meterRegistry,
+                         @Value("${aws.s3.cache.enabled:false}") boolean enabled,
+                         @Value("${aws.s3.cache.directory:${java.io.tmpdir}/aws-services-object-cache}") Path directory,
+                         @Value("${aws.s3.cache.max-size:2GB}") DataSize maxSize,
+                         @Value("${aws.s3.cache.max-object-size:64MB}") DataSize maxObjectSize,
+                         @Value("${aws.s3.cache.revalidate-after:30s}") Duration revalidateAfter) {
+        this.s3Client = s3Client;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxSizeBytes = maxSize.toBytes();
+        this.maxObjectSizeBytes = Math.min(maxObjectSize.toBytes(), maxSizeBytes);
+        this.revalidateAfterNanos = revalidateAfter.toNanos();
+    }
+
+    /**
+     * Creates the cache directory and removes files left by a previous run, whose index is gone.
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        logger.info("S3 object cache enabled in {} ({} bytes max).", directory, maxSizeBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the object from the cache, fetching or revalidating it first if needed.
+     * If this call fetched an object too large to cache, the open response is returned instead; the caller must
+     * consume or abort it.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @return The cached object or the uncacheable response, or neither if the cache is disabled, the object is known
+     * to be too large, or the fetch raced with an invalidation; the caller then reads from S3 itself.
+     */
+    public Lookup get(String bucketName, String key) {
+        if (!enabled) {
+            return Lookup.NONE;
+        }
+        String cacheKey = bucketName + "/" + key;
+        Long skipUntil = uncacheableUntil.get(cacheKey);
+        if (skipUntil != null) {
+            if (System.nanoTime() - skipUntil < 0) {
+                return Lookup.NONE;
+            }
+            uncacheableUntil.remove(cacheKey, skipUntil);
+        }
+        CachedObject cached;
+        synchronized (entries) {
+            cached = entries.get(cacheKey);
+        }
+        if (cached != null && System.nanoTime() - cached.validatedAtNanos < revalidateAfterNanos) {
+            count("hit");
+            return new Lookup(cached, null);
+        }
+
+        CompletableFuture<CachedObject> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedObject> existing = inFlight.putIfAbsent(cacheKey, fetch);
+        if (existing != null) {
+            count("coalesced");
+            try {
+                return new Lookup(existing.join(), null);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Lookup result = fetch(bucketName, key, cacheKey, cached);
+            fetch.complete(result.cached());
+            return result;
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, fetch);
+        }
+    }
+
+    /**
+     * Drops an object from the cache, e.g. after it was overwritten or deleted through this service.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    public void invalidate(String bucketName, String key) {
+        if (!enabled) {
+            return;
+        }
+        String cacheKey = bucketName + "/" + key;
+        // Fetches already running may have read the old body: they must not store it, and new requests
+        // must not join them.
+        invalidations.incrementAndGet(stripe(cacheKey));
+        inFlight.remove(cacheKey);
+        uncacheableUntil.remove(cacheKey);
+        CachedObject removed;
+        synchronized (entries) {
+            removed = entries.remove(cacheKey);
+            if (removed != null) {
+                totalBytes -= removed.length();
+            }
+        }
+        if (removed != null) {
+            deleteQuietly(removed.path());
+        }
+    }
+
+    private Lookup fetch(String bucketName, String key, String cacheKey, CachedObject stale) {
+        long generation = invalidations.get(stripe(cacheKey));
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = s3Client.getObject(b -> b.bucket(bucketName).key(key).ifNoneMatch(stale != null ? stale.eTag() : null));
+        } catch (S3Exception e) {
+            if (stale != null && e.statusCode() == NOT_MODIFIED) {
+                synchronized (entries) {
+                    if (generation != invalidations.get(stripe(cacheKey)) || entries.get(cacheKey) != stale) {
+                        count("discarded");
+                        return Lookup.NONE;
+                    }
+                    stale.validatedAtNanos = System.nanoTime();
+                }
+                count("revalidated");
+                return new Lookup(stale, null);
+            }
+            logger.error("Error fetching object '{}' from bucket {} into cache: {}", key, bucketName, e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch object " + key, e);
+        }
+        count("miss");
+        GetObjectResponse response = object.response();
+        if (response.contentLength() == null || response.contentLength() > maxObjectSizeBytes) {
+            uncacheableUntil.put(cacheKey, System.nanoTime() + revalidateAfterNanos);
+            if (stale != null) {
+                invalidate(bucketName, key);
+            }
+            return new Lookup(null, object);
+        }
+
+        Path temp;
+        try (object) {
+            temp = Files.createTempFile(directory, "fetch-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(object)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+                    position += transferred;
+                }
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw e;
+            }
+        } catch (IOException e) {
+            object.abort();
+            throw new UncheckedIOException("Failed to cache object " + key, e);
+        }
+
+        CachedObject fresh = new CachedObject(directory.resolve(fileName(cacheKey, response.eTag())),
+                response.contentLength(), response.eTag(), response.contentType(), response.contentEncoding(),
+                response.lastModified());
+        fresh.validatedAtNanos = System.nanoTime();
+        if (!store(cacheKey, temp, fresh, generation)) {
+            deleteQuietly(temp);
+            count("discarded");
+            return Lookup.NONE;
+        }
+        logger.info("Cached object '{}' from bucket '{}' ({} bytes).", key, bucketName, fresh.length());
+        return new Lookup(fresh, null);
+    }
+
+    /**
+     * Moves a fetched file into place and indexes it, unless the key was invalidated since the fetch began.
+     *
+     * @return Whether the object was stored.
+     */
+    private boolean store(String cacheKey, Path temp, CachedObject fresh, long generation) {
+        synchronized (entries) {
+            if (generation != invalidations.get(stripe(cacheKey))) {
+                return false;
+            }
+            try {
+                Files.move(temp, fresh.path(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw new UncheckedIOException("Failed to cache object " + cacheKey, e);
+            }
+            CachedObject previous = entries.put(cacheKey, fresh);
+            totalBytes += fresh.length();
+            if (previous != null) {
+                totalBytes -= previous.length();
+                if (!previous.path().equals(fresh.path())) {
+                    deleteQuietly(previous.path());
+                }
+            }
+            Iterator<Map.Entry<String, CachedObject>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxSizeBytes && eldest.hasNext()) {
+                CachedObject evicted = eldest.next().getValue();
+                if (evicted == fresh) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= evicted.length();
+                deleteQuietly(evicted.path());
+                count("evicted");
+            }
+            return true;
+        }
+    }
+
+    private static int stripe(String cacheKey) {
+        return Math.floorMod(cacheKey.hashCode(), INVALIDATION_STRIPES);
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("aws.s3.object.cache.requests", "result", result).increment();
+    }
+
+    /**
+     * Versioned file names keep readers of an old version working while a newer one is written.
+     */
+    private static String fileName(String cacheKey, String eTag) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(cacheKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(eTag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete cached file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * The outcome of a cache lookup: a cached object, the open response of an object too large to cache, or neither.
+     *
+     * @param cached   The cached object, or {@code null}.
+     * @param uncached The response fetched for an object too large to cache, or {@code null}.
+     */
+    public record Lookup(CachedObject cached, ResponseInputStream<GetObjectResponse> uncached) {
+        static final Lookup NONE = new Lookup(null, null);
+    }
+
+    /**
+     * An object stored in the cache. Open the file before serving it: an evicted file stays readable
+     * through channels that were already open.
+     */
+    public static final class CachedObject {
+        private final Path path;
+        private final long length;
+        private final String eTag;
+        private final String contentType;
+        private final String contentEncoding;
+        private final Instant lastModified;
+        private volatile long validatedAtNanos;
+
+        private CachedObject(Path path, long length, String eTag, String contentType, String contentEncoding,
+                             Instant lastModified) {
+            this.path = path;
+            this.length = length;
+            this.eTag = eTag;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.lastModified = lastModified;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public long length() {
+            return length;
+        }
+
+        public String eTag() {
+            return eTag;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String contentEncoding() {
+            return contentEncoding;
+        }
+
+        public Instant lastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Opens the cached file for reading.
+         *
+         * @throws IOException if the file has been evicted in the meantime.
+         */
+        public FileChannel open() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+    }
+}
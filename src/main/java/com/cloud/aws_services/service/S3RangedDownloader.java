@@ -0,0 +1,388 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Parallel download engine for large objects.
+ * Fetches an object as concurrent ranged {@code GetObject} calls of {@code part-size} bytes, either reassembled
+ * in order into a stream or written with positional writes into a preallocated file. At most {@code concurrency}
+ * parts are in flight per download. Parts buffered by the stream mode also take permits from a budget of
+ * {@code max-buffered-size} shared by all downloads; a download that finds the budget exhausted keeps reading one
+ * sequential stream instead of fanning out, so heap use stays bounded however many large downloads run.
+ * Every part is pinned to the object's ETag, so an overwrite during the download fails it instead of mixing versions.
+ */
+@Service
+public class S3RangedDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3RangedDownloader.class);
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final long thresholdBytes;
+    private final int partSizeBytes;
+    private final int concurrency;
+    private final int maxPartAttempts;
+    private final Semaphore bufferPermits;
+
+    public S3RangedDownloader(S3Client s3Client,
+                              @Qualifier("s3TransferExecutor") ExecutorService executor,
+                              @Value("${aws.s3.download.parallel-threshold:128MB}") DataSize threshold,
+                              @Value("${aws.s3.download.part-size:16MB}") DataSize partSize,
+                              @Value("${aws.s3.download.concurrency:8}") int concurrency,
+                              @Value("${aws.s3.download.max-buffered-size:256MB}") DataSize maxBufferedSize,
+                              @Value("${aws.s3.multipart.max-part-attempts:3}") int maxPartAttempts) {
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.thresholdBytes = threshold.toBytes();
+        this.partSizeBytes = (int) Math.clamp(partSize.toBytes(), 64 * 1024, Integer.MAX_VALUE - 8);
+        this.concurrency = Math.max(1, concurrency);
+        this.maxPartAttempts = Math.max(1, maxPartAttempts);
+        this.bufferPermits = new Semaphore((int) Math.clamp(maxBufferedSize.toBytes() / partSizeBytes, 1, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tells whether an object of the given size should be downloaded with parallel ranges.
+     *
+     * @param contentLength The size of the object in bytes.
+     * @return {@code true} if the size is above the configured threshold.
+     */
+    public boolean shouldUseRanges(long contentLength) {
+        return contentLength > thresholdBytes;
+    }
+
+    /**
+     * Continues an open, whole-object download with parallel ranged GETs.
+     * The first part is read from the open stream itself while the following parts are fetched ahead,
+     * so switching to ranges costs no extra request.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param object     The open download of the whole object; the returned stream takes ownership of it.
+     * @return A stream with the same metadata that yields the object content in order.
+     */
+    public ResponseInputStream<GetObjectResponse> parallelize(String bucketName, String key,
+                                                              ResponseInputStream<GetObjectResponse> object) {
+        GetObjectResponse response = object.response();
+        logger.info("Downloading '{}' from bucket '{}' with parallel ranges ({} bytes, {} byte parts, {} in flight).",
+                key, bucketName, response.contentLength(), partSizeBytes, concurrency);
+        return new ResponseInputStream<>(response,
+                new OrderedRangeStream(bucketName, key, response.eTag(), response.contentLength(), object));
+    }
+
+    /**
+     * Downloads an object into a file with parallel ranged GETs. The file is preallocated to the object size and
+     * each part is written at its own offset as it arrives, so no part is buffered in full.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @param target     The file to write; it is created or truncated, and deleted again if the download fails.
+     * @return The number of bytes written.
+     * @throws IOException if writing the file fails.
+     */
+    public long downloadToFile(String bucketName, String key, Path target) throws IOException {
+        long started = System.nanoTime();
+        HeadObjectResponse head = s3Client.headObject(b -> b.bucket(bucketName).key(key));
+        long size = head.contentLength();
+        Semaphore slots = new Semaphore(concurrency);
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (size > 0) {
+                file.write(ByteBuffer.allocate(1), size - 1);
+            }
+            for (long offset = 0; offset < size; offset += partSizeBytes) {
+                long first = offset;
+                long last = Math.min(offset + partSizeBytes, size) - 1;
+                slots.acquire();
+                parts.add(CompletableFuture
+                        .runAsync(() -> writePart(bucketName, key, head.eTag(), first, last, file), executor)
+                        .whenComplete((ignored, error) -> slots.release()));
+            }
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+            file.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parts.forEach(part -> part.cancel(false));
+            Files.deleteIfExists(target);
+            throw new InterruptedIOException("Interrupted while downloading " + key);
+        } catch (RuntimeException | IOException e) {
+            parts.forEach(part -> part.cancel(false));
+            Files.deleteIfExists(target);
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        logger.info("Downloaded '{}' from bucket '{}' to {} in {} parts: {} bytes, {} MiB/s.", key, bucketName, target,
+                parts.size(), size, TransferRetries.mebibytesPerSecond(size, started));
+        return size;
+    }
+
+    private void writePart(String bucketName, String key, String eTag, long first, long last, FileChannel file) {
+        retrying(bucketName, key, first, () -> {
+            try (ResponseInputStream<GetObjectResponse> part = getRange(bucketName, key, eTag, first, last)) {
+                byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+                long position = first;
+                int read;
+                while ((read = part.read(buffer)) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        position += file.write(chunk, position);
+                    }
+                }
+                if (position != last + 1) {
+                    throw new IOException("Range " + first + "-" + last + " of " + key + " ended at " + position);
+                }
+            }
+            return null;
+        });
+    }
+
+    private byte[] readPart(String bucketName, String key, String eTag, long first, long last) {
+        return retrying(bucketName, key, first, () -> {
+            try (ResponseInputStream<GetObjectResponse> part = getRange(bucketName, key, eTag, first, last)) {
+                byte[] data = part.readAllBytes();
+                if (data.length != last - first + 1) {
+                    throw new IOException("Range " + first + "-" + last + " of " + key + " returned " + data.length + " bytes");
+                }
+                return data;
+            }
+        });
+    }
+
+    private ResponseInputStream<GetObjectResponse> getRange(String bucketName, String key, String eTag, long first, long last) {
+        return s3Client.getObject(b -> b.bucket(bucketName).key(key).ifMatch(eTag).range("bytes=" + first + "-" + last));
+    }
+
+    /**
+     * Runs one part transfer, retrying S3 and I/O failures with backoff. A retry re-fetches the whole part.
+     */
+    private <T> T retrying(String bucketName, String key, long offset, PartTransfer<T> transfer) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transfer.run();
+            } catch (SdkException | IOException e) {
+                boolean retryable = e instanceof IOException || TransferRetries.isRetryable((SdkException) e);
+                if (attempt >= maxPartAttempts || !retryable) {
+                    logger.error("Range at {} of '{}' in bucket {} failed after {} attempt(s): {}",
+                            offset, key, bucketName, attempt, e.getMessage());
+                    if (e instanceof IOException io) {
+                        throw new UncheckedIOException(io);
+                    }
+                    throw (SdkException) e;
+                }
+                logger.warn("Range at {} of '{}' in bucket {} failed (attempt {}/{}), retrying: {}",
+                        offset, key, bucketName, attempt, maxPartAttempts, e.getMessage());
+                TransferRetries.backoff(attempt);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PartTransfer<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Serves the object from one sequential stream, starting with the original response, until parts fetched ahead
+     * are available, then the fetched-ahead parts in order. Each fetched part holds a buffer permit until it has been
+     * read. When no permit is free and nothing is buffered, the stream goes on sequentially one part at a time,
+     * reopening a ranged GET for the rest of the object if the original response was already dropped.
+     */
+    private final class OrderedRangeStream extends InputStream {
+        private final String bucketName;
+        private final String key;
+        private final String eTag;
+        private final long size;
+        private final Deque<CompletableFuture<byte[]>> window = new ArrayDeque<>();
+        private ResponseInputStream<GetObjectResponse> sequential;
+        private long sequentialRemaining;
+        private long nextOffset;
+        private byte[] current;
+        private int position;
+        private boolean closed;
+
+        private OrderedRangeStream(String bucketName, String key, String eTag, long size,
+                                   ResponseInputStream<GetObjectResponse> object) {
+            this.bucketName = bucketName;
+            this.key = key;
+            this.eTag = eTag;
+            this.size = size;
+            this.sequential = object;
+            this.sequentialRemaining = Math.min(partSizeBytes, size);
+            this.nextOffset = sequentialRemaining;
+            fillWindow();
+        }
+
+        private void fillWindow() {
+            while (window.size() < concurrency && scheduleNext()) {
+                // Fill the window.
+            }
+        }
+
+        private boolean scheduleNext() {
+            if (nextOffset >= size || !bufferPermits.tryAcquire()) {
+                return false;
+            }
+            long first = nextOffset;
+            long last = Math.min(first + partSizeBytes, size) - 1;
+            nextOffset = last + 1;
+            window.add(CompletableFuture.supplyAsync(() -> readPart(bucketName, key, eTag, first, last), executor));
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (sequentialRemaining > 0) {
+                    return readSequential(b, off, len);
+                }
+                if (current != null && position < current.length) {
+                    int read = Math.min(len, current.length - position);
+                    System.arraycopy(current, position, b, off, read);
+                    position += read;
+                    return read;
+                }
+                if (current != null) {
+                    current = null;
+                    bufferPermits.release();
+                }
+                CompletableFuture<byte[]> next = window.poll();
+                if (next != null) {
+                    current = await(next);
+                    position = 0;
+                    fillWindow();
+                } else if (nextOffset < size) {
+                    continueSequentially();
+                } else {
+                    return -1;
+                }
+            }
+        }
+
+        private int readSequential(byte[] b, int off, int len) throws IOException {
+            int read = sequential.read(b, off, (int) Math.min(len, sequentialRemaining));
+            if (read == -1) {
+                throw new IOException("Download of " + key + " ended " + sequentialRemaining + " bytes early");
+            }
+            sequentialRemaining -= read;
+            if (sequentialRemaining == 0) {
+                fillWindow();
+                if (nextOffset >= size && window.isEmpty()) {
+                    dropSequential(false);
+                } else if (!window.isEmpty()) {
+                    // The rest of this response duplicates the ranged parts; drop the connection instead of draining it.
+                    dropSequential(true);
+                } else {
+                    extendSequential();
+                }
+            }
+            return read;
+        }
+
+        private void continueSequentially() throws IOException {
+            if (sequential == null) {
+                try {
+                    sequential = getRange(bucketName, key, eTag, nextOffset, size - 1);
+                } catch (SdkException e) {
+                    throw new IOException("Ranged download of " + key + " failed: " + e.getMessage(), e);
+                }
+            }
+            extendSequential();
+        }
+
+        private void extendSequential() {
+            sequentialRemaining = Math.min(partSizeBytes, size - nextOffset);
+            nextOffset += sequentialRemaining;
+        }
+
+        private void dropSequential(boolean abort) {
+            if (sequential != null) {
+                if (abort) {
+                    sequential.abort();
+                }
+                try {
+                    sequential.close();
+                } catch (IOException e) {
+                    logger.debug("Error closing download of '{}': {}", key, e.getMessage());
+                }
+                sequential = null;
+            }
+        }
+
+        private byte[] await(CompletableFuture<byte[]> part) throws IOException {
+            try {
+                return part.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                bufferPermits.release();
+                throw new InterruptedIOException("Interrupted while downloading " + key);
+            } catch (ExecutionException e) {
+                bufferPermits.release();
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IOException("Ranged download of " + key + " failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            window.forEach(part -> part.cancel(false));
+            bufferPermits.release(window.size() + (current != null ? 1 : 0));
+            window.clear();
+            current = null;
+            dropSequential(sequentialRemaining > 0 || nextOffset < size);
+        }
+    }
+}
@@ -1,21 +1,55 @@
 package com.cloud.aws_services.service;
 
-import lombok.AllArgsConstructor;
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.ListingOptions;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.ObjectMetadata;
+import com.cloud.aws_services.model.PrefixDeleteSummary;
+import com.cloud.aws_services.model.PresignedUrl;
+import com.cloud.aws_services.model.StagedObject;
+import com.cloud.aws_services.model.StreamingUploadResult;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,12 +58,30 @@ import java.util.stream.Collectors;
  * upload files, delete objects, download files, copy objects, and generate pre-signed URLs.
  */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class S3Service {
 
     private static final Logger logger = LoggerFactory.getLogger(S3Service.class);
+    private static final int MAX_DELETE_KEYS = 1000;
+    private static final int MAX_LIST_PAGE_SIZE = 1000;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final int NOT_MODIFIED = 304;
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final S3MultipartUploader multipartUploader;
+    private final S3MultipartCopier multipartCopier;
+    private final S3RangedDownloader rangedDownloader;
+    private final PresignedUrlCache presignedUrlCache;
+    private final S3ObjectCache objectCache;
+    private final S3MetadataCache metadataCache;
+    @Qualifier("s3TransferExecutor")
+    private final ExecutorService transferExecutor;
+
+    @Value("${aws.s3.bulk-delete.parallelism:4}")
+    private int bulkDeleteParallelism;
+
+    @Value("${aws.s3.download.staging-directory:${java.io.tmpdir}/aws-services-staging}")
+    private Path stagingDirectory;
 
     /**
      * Lists all S3 buckets in the account.
@@ -52,6 +104,7 @@ public class S3Service {
 
     /**
      * Lists objects within the specified bucket.
+     * Only the first page (up to 1,000 keys) is returned; use {@link #streamObjects} for complete listings.
      *
      * @param bucketName The name of the bucket.
      * @return A list of object keys.
@@ -73,8 +126,136 @@ public class S3Service {
         }
     }
 
+    /**
+     * Lists every object matching the options, following continuation tokens page by page.
+     * Entries are handed to the consumer as each page arrives, so memory use is bounded by one page.
+     *
+     * @param bucketName The name of the bucket.
+     * @param options    Prefix, delimiter, start-after and page size of the listing.
+     * @param consumer   Receives each object or common prefix in listing order.
+     * @return The number of entries listed.
+     */
+    public long streamObjects(String bucketName, ListingOptions options, Consumer<ObjectEntry> consumer) {
+        try {
+            long count = 0;
+            for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest(bucketName, options))) {
+                page.commonPrefixes().forEach(prefix -> consumer.accept(ObjectEntry.of(prefix)));
+                page.contents().forEach(object -> consumer.accept(ObjectEntry.of(object)));
+                count += page.commonPrefixes().size() + page.contents().size();
+            }
+            logger.info("Streamed {} entries from bucket '{}'.", count, bucketName);
+            return count;
+        } catch (S3Exception e) {
+            logger.error("Error listing objects in bucket {}: {}", bucketName, e.awsErrorDetails().errorMessage(), e);
+            throw new RuntimeException("Failed to list objects in bucket " + bucketName, e);
+        }
+    }
+
+    /**
+     * Lists every object under the prefix by splitting the keyspace at the next {@code /}
+     * and listing the resulting partitions concurrently.
+     * Entries are delivered on the calling thread, but not in key order across partitions.
+     * Listings with a delimiter are inherently single-level and fall back to {@link #streamObjects}.
+     *
+     * @param bucketName  The name of the bucket.
+     * @param options     Prefix, start-after and page size of the listing.
+     * @param parallelism The maximum number of partitions listed at the same time.
+     * @param consumer    Receives each object.
+     * @return The number of entries listed.
+     */
+    public long streamObjectsParallel(String bucketName, ListingOptions options, int parallelism,
+                                      Consumer<ObjectEntry> consumer) {
+        if (options.delimiter() != null || parallelism <= 1) {
+            return streamObjects(bucketName, options, consumer);
+        }
+        Queue<String> partitions = new ConcurrentLinkedQueue<>();
+        long count = streamObjects(bucketName,
+                new ListingOptions(options.prefix(), "/", options.startAfter(), options.pageSize()),
+                entry -> {
+                    if (entry.prefix() != null) {
+                        partitions.add(entry.prefix());
+                    } else {
+                        consumer.accept(entry);
+                    }
+                });
+        count -= partitions.size();
+
+        BlockingQueue<List<ObjectEntry>> pages = new ArrayBlockingQueue<>(parallelism * 2);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int workerCount = Math.min(parallelism, partitions.size());
+        List<CompletableFuture<Void>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(CompletableFuture.runAsync(
+                    () -> listPartitions(bucketName, options, partitions, pages, cancelled), transferExecutor)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                        }
+                    }));
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new));
+        try {
+            while (true) {
+                if (failure.get() != null) {
+                    throw new RuntimeException("Failed to list objects in bucket " + bucketName, failure.get());
+                }
+                List<ObjectEntry> page = pages.poll(100, TimeUnit.MILLISECONDS);
+                if (page != null) {
+                    page.forEach(consumer);
+                    count += page.size();
+                } else if (all.isDone() && pages.isEmpty()) {
+                    break;
+                }
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed to list objects in bucket " + bucketName, failure.get());
+            }
+            logger.info("Streamed {} entries from bucket '{}' across {} partitions.", count, bucketName, workerCount);
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while listing objects in bucket " + bucketName, e);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    private void listPartitions(String bucketName, ListingOptions options, Queue<String> partitions,
+                                BlockingQueue<List<ObjectEntry>> pages, AtomicBoolean cancelled) {
+        String partition;
+        while (!cancelled.get() && (partition = partitions.poll()) != null) {
+            ListObjectsV2Request request = listRequest(bucketName,
+                    new ListingOptions(partition, null, options.startAfter(), options.pageSize()));
+            for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(request)) {
+                List<ObjectEntry> entries = page.contents().stream().map(ObjectEntry::of).toList();
+                try {
+                    while (!pages.offer(entries, 100, TimeUnit.MILLISECONDS)) {
+                        if (cancelled.get()) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static ListObjectsV2Request listRequest(String bucketName, ListingOptions options) {
+        return ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(options.prefix())
+                .delimiter(options.delimiter())
+                .startAfter(options.startAfter())
+                .maxKeys(options.pageSize() != null ? Math.clamp(options.pageSize(), 1, MAX_LIST_PAGE_SIZE) : null)
+                .build();
+    }
+
     /**
      * Uploads a file to the specified S3 bucket.
+     * Files above the configured multipart threshold are uploaded in parallel parts.
      *
      * @param bucketName The target bucket name.
      * @param key        The key under which the file will be stored.
@@ -82,12 +263,50 @@ public class S3Service {
      * @throws IOException if file reading fails.
      */
     public void uploadFile(String bucketName, String key, MultipartFile file) throws IOException {
+        uploadFile(bucketName, key, file, null);
+    }
+
+    /**
+     * Uploads a file to the specified S3 bucket, optionally compressing it on the way.
+     * Compressed files are stored with the codec as their {@code Content-Encoding}; since the compressed size is
+     * only known at the end, they go through the same path as a streaming upload of unknown length.
+     *
+     * @param bucketName  The target bucket name.
+     * @param key         The key under which the file will be stored.
+     * @param file        The file to upload.
+     * @param compression The compression to apply, or {@code null} to store the file as sent.
+     * @throws IOException if file reading fails.
+     */
+    public void uploadFile(String bucketName, String key, MultipartFile file, Compression compression) throws IOException {
         try {
+            if (compression != null) {
+                StoredObject stored;
+                long compressedBytes;
+                try (InputStream input = file.getInputStream();
+                     CompressingInputStream compressed = compression.compress(input)) {
+                    stored = uploadUnknownLength(bucketName, key, compressed, file.getContentType(),
+                            compression.codec().encoding(), null, null);
+                    compressedBytes = compressed.compressedBytes();
+                }
+                invalidateCaches(bucketName, key);
+                logger.info("Uploaded file '{}' to bucket '{}' with {}: {} -> {} bytes{}.", key, bucketName,
+                        compression.codec().encoding(), file.getSize(), compressedBytes, stored.multipart() ? " in parts" : "");
+                return;
+            }
+            if (multipartUploader.shouldUseMultipart(file.getSize())) {
+                try (InputStream input = file.getInputStream()) {
+                    multipartUploader.upload(bucketName, key, input, file.getSize(), file.getContentType());
+                }
+                invalidateCaches(bucketName, key);
+                logger.info("Uploaded file '{}' to bucket '{}' using multipart upload.", key, bucketName);
+                return;
+            }
             PutObjectRequest request = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
                     .build();
             s3Client.putObject(request, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            invalidateCaches(bucketName, key);
             logger.info("Uploaded file '{}' to bucket '{}'.", key, bucketName);
         } catch (S3Exception e) {
             logger.error("Error uploading file '{}' to bucket {}: {}", key, bucketName, e.awsErrorDetails().errorMessage(), e);
@@ -95,6 +314,113 @@ public class S3Service {
         }
     }
 
+    /**
+     * Uploads a raw stream as it arrives, without spooling it first.
+     *
+     * @see #uploadStream(String, String, InputStream, long, String, String, Compression)
+     */
+    public StreamingUploadResult uploadStream(String bucketName, String key, InputStream body, long contentLength,
+                                              String contentType, String contentMd5) throws IOException {
+        return uploadStream(bucketName, key, body, contentLength, contentType, contentMd5, null);
+    }
+
+    /**
+     * Uploads a raw stream as it arrives, without spooling it first.
+     * A known length up to the multipart threshold is sent as one streaming {@code PutObject}.
+     * Larger or unknown lengths are uploaded in parts, so at most the multipart buffers are held in memory;
+     * an unknown length that ends within the first part falls back to a single {@code PutObject}.
+     * MD5 and SHA-256 digests are computed while reading. A supplied {@code Content-MD5} is verified by S3
+     * for single uploads and by this service before a multipart upload is completed.
+     * With compression, the stream is compressed as it is read and always treated as of unknown length;
+     * digests and {@code Content-MD5} still refer to the bytes the client sent.
+     *
+     * @param bucketName    The target bucket name.
+     * @param key           The key under which the object will be stored.
+     * @param body          The content to upload; it is read sequentially and not closed.
+     * @param contentLength The size of the content in bytes, or a negative value if unknown.
+     * @param contentType   The content type to store with the object, or {@code null}.
+     * @param contentMd5    The base64 MD5 digest the content must match, or {@code null}.
+     * @param compression   The compression to apply, or {@code null} to store the content as sent.
+     * @return The ETag, sizes and digests of the uploaded object.
+     * @throws IOException if reading the body fails.
+     * @throws IllegalArgumentException if the content does not match {@code contentMd5}.
+     */
+    public StreamingUploadResult uploadStream(String bucketName, String key, InputStream body, long contentLength,
+                                              String contentType, String contentMd5, Compression compression) throws IOException {
+        ChecksumInputStream input = new ChecksumInputStream(body);
+        Runnable verify = () -> {
+            if (contentMd5 != null && !contentMd5.equals(Base64.getEncoder().encodeToString(input.md5()))) {
+                throw new IllegalArgumentException("Content-MD5 does not match the uploaded content");
+            }
+        };
+        try {
+            StoredObject stored;
+            long storedSize;
+            String contentEncoding = null;
+            if (compression != null) {
+                contentEncoding = compression.codec().encoding();
+                try (CompressingInputStream compressed = compression.compress(input)) {
+                    stored = uploadUnknownLength(bucketName, key, compressed, contentType, contentEncoding, null, verify);
+                    storedSize = compressed.compressedBytes();
+                }
+            } else if (contentLength >= 0 && !multipartUploader.shouldUseMultipart(contentLength)) {
+                stored = new StoredObject(putStream(bucketName, key, RequestBody.fromInputStream(input, contentLength),
+                        contentType, null, contentMd5), false);
+                storedSize = input.count();
+            } else if (contentLength >= 0) {
+                stored = new StoredObject(multipartUploader.upload(bucketName, key, input, contentLength, contentType,
+                        null, verify), true);
+                storedSize = input.count();
+            } else {
+                stored = uploadUnknownLength(bucketName, key, input, contentType, null, contentMd5, verify);
+                storedSize = input.count();
+            }
+            invalidateCaches(bucketName, key);
+            StreamingUploadResult result = new StreamingUploadResult(bucketName, key, stored.eTag(), input.count(),
+                    storedSize, contentEncoding, HexFormat.of().formatHex(input.md5()), input.sha256Hex(), stored.multipart());
+            logger.info("Streamed upload of '{}' to bucket '{}': {} bytes{}{}.", key, bucketName, result.size(),
+                    contentEncoding != null ? ", " + storedSize + " bytes stored as " + contentEncoding : "",
+                    stored.multipart() ? " in parts" : "");
+            return result;
+        } catch (S3Exception e) {
+            logger.error("Error uploading stream '{}' to bucket {}: {}", key, bucketName, e.awsErrorDetails().errorMessage(), e);
+            if ("BadDigest".equals(e.awsErrorDetails().errorCode()) || "InvalidDigest".equals(e.awsErrorDetails().errorCode())) {
+                throw new IllegalArgumentException("Content-MD5 does not match the uploaded content", e);
+            }
+            throw new RuntimeException("Failed to upload stream", e);
+        }
+    }
+
+    /**
+     * Uploads a stream of unknown length: one {@code PutObject} if it ends within the first part, multipart otherwise.
+     * {@code verify} runs once the stream is exhausted and before anything is committed.
+     */
+    private StoredObject uploadUnknownLength(String bucketName, String key, InputStream input, String contentType,
+                                             String contentEncoding, String contentMd5, Runnable verify) throws IOException {
+        int partSize = multipartUploader.partSize();
+        byte[] first = input.readNBytes(partSize);
+        if (first.length < partSize) {
+            if (verify != null) {
+                verify.run();
+            }
+            return new StoredObject(putStream(bucketName, key, RequestBody.fromBytes(first), contentType, contentEncoding,
+                    contentMd5), false);
+        }
+        InputStream rest = new SequenceInputStream(new ByteArrayInputStream(first), input);
+        return new StoredObject(multipartUploader.upload(bucketName, key, rest, -1, contentType, contentEncoding, verify),
+                true);
+    }
+
+    private String putStream(String bucketName, String key, RequestBody body, String contentType, String contentEncoding,
+                             String contentMd5) {
+        return s3Client.putObject(b -> b.bucket(bucketName).key(key).contentType(contentType)
+                        .contentEncoding(contentEncoding).contentMD5(contentMd5), body)
+                .eTag();
+    }
+
+    private record StoredObject(String eTag, boolean multipart) {
+    }
+
     /**
      * Deletes an object from the specified S3 bucket.
      *
@@ -108,6 +434,7 @@ public class S3Service {
                     .key(key)
                     .build();
             s3Client.deleteObject(request);
+            invalidateCaches(bucketName, key);
             logger.info("Deleted object '{}' from bucket '{}'.", key, bucketName);
         } catch (S3Exception e) {
             logger.error("Error deleting object '{}' from bucket {}: {}", key, bucketName, e.awsErrorDetails().errorMessage(), e);
@@ -116,29 +443,223 @@ public class S3Service {
     }
 
     /**
-     * Downloads an object from the specified S3 bucket.
+     * Deletes many objects using {@code DeleteObjects} calls of up to 1,000 keys,
+     * running up to {@code aws.s3.bulk-delete.parallelism} calls at a time.
+     *
+     * @param bucketName The name of the bucket.
+     * @param keys       The keys of the objects to delete.
+     * @return One result per key.
+     */
+    public List<BulkItemResult> deleteObjects(String bucketName, List<String> keys) {
+        List<BulkItemResult> results = Collections.synchronizedList(new ArrayList<>(keys.size()));
+        Semaphore slots = new Semaphore(bulkDeleteParallelism);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        try {
+            for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+                List<String> chunk = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()));
+                slots.acquire();
+                calls.add(CompletableFuture.runAsync(() -> results.addAll(deleteChunk(bucketName, chunk)), transferExecutor)
+                        .whenComplete((ignored, error) -> slots.release()));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while deleting objects", e);
+        }
+        logger.info("Bulk deleted {} objects from bucket '{}'.", keys.size(), bucketName);
+        return results;
+    }
+
+    /**
+     * Deletes every object under a prefix. Keys are fed page by page from a paginated listing
+     * into {@code DeleteObjects} calls, with bounded parallelism, so memory does not grow with the prefix size.
+     *
+     * @param bucketName The name of the bucket.
+     * @param prefix     The prefix whose objects are deleted.
+     * @return The number of deleted and failed objects, with details of the first failures.
+     */
+    public PrefixDeleteSummary deletePrefix(String bucketName, String prefix) {
+        LongAdder deleted = new LongAdder();
+        LongAdder failed = new LongAdder();
+        List<BulkItemResult> failures = Collections.synchronizedList(new ArrayList<>());
+        Semaphore slots = new Semaphore(bulkDeleteParallelism);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        try {
+            ListObjectsV2Request request = ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix).build();
+            for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(request)) {
+                List<String> keys = page.contents().stream().map(S3Object::key).toList();
+                if (keys.isEmpty()) {
+                    continue;
+                }
+                slots.acquire();
+                calls.add(CompletableFuture.runAsync(() -> {
+                    for (BulkItemResult result : deleteChunk(bucketName, keys)) {
+                        if (result.success()) {
+                            deleted.increment();
+                        } else {
+                            failed.increment();
+                            if (failures.size() < MAX_REPORTED_FAILURES) {
+                                failures.add(result);
+                            }
+                        }
+                    }
+                }, transferExecutor).whenComplete((ignored, error) -> slots.release()));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        } catch (S3Exception e) {
+            logger.error("Error listing prefix '{}' in bucket {}: {}", prefix, bucketName, e.awsErrorDetails().errorMessage(), e);
+            throw new RuntimeException("Failed to delete prefix " + prefix, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while deleting prefix " + prefix, e);
+        }
+        logger.info("Deleted {} objects under prefix '{}' in bucket '{}' ({} failed).", deleted.sum(), prefix, bucketName, failed.sum());
+        return new PrefixDeleteSummary(bucketName, prefix, deleted.sum(), failed.sum(), List.copyOf(failures));
+    }
+
+    private List<BulkItemResult> deleteChunk(String bucketName, List<String> keys) {
+        try {
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(d -> d.objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList()))
+                    .build();
+            DeleteObjectsResponse response = s3Client.deleteObjects(request);
+            List<BulkItemResult> results = new ArrayList<>(keys.size());
+            response.deleted().forEach(deleted -> {
+                invalidateCaches(bucketName, deleted.key());
+                results.add(BulkItemResult.ok(deleted.key()));
+            });
+            response.errors().forEach(error -> results.add(BulkItemResult.failed(error.key(), error.code() + " - " + error.message())));
+            return results;
+        } catch (S3Exception e) {
+            logger.error("Error deleting {} objects from bucket {}: {}", keys.size(), bucketName, e.awsErrorDetails().errorMessage(), e);
+            String reason = e.awsErrorDetails().errorCode() + " - " + e.awsErrorDetails().errorMessage();
+            return keys.stream().map(key -> BulkItemResult.failed(key, reason)).toList();
+        } catch (SdkException e) {
+            // Client-side failures (network, timeouts, the concurrency limiter) fail this chunk only.
+            logger.error("Error deleting {} objects from bucket {}: {}", keys.size(), bucketName, e.getMessage(), e);
+            return keys.stream().map(key -> BulkItemResult.failed(key, e.getMessage())).toList();
+        }
+    }
+
+    /**
+     * Opens a streaming download of an object from the specified S3 bucket.
+     * The caller owns the returned stream and must close it once the body has been consumed.
+     * Whole-object downloads above the parallel download threshold continue with concurrent ranged GETs
+     * that are reassembled in order.
      *
      * @param bucketName The name of the bucket.
      * @param key        The key of the object to download.
-     * @return The file data as a byte array.
+     * @param range      An optional HTTP byte range (e.g. {@code bytes=0-1023}), or {@code null} for the whole object.
+     * @return The object content together with its {@link GetObjectResponse} metadata.
      */
-    public byte[] downloadFile(String bucketName, String key) {
+    public ResponseInputStream<GetObjectResponse> downloadFile(String bucketName, String key, String range) {
+        return downloadFile(bucketName, key, range, null, null);
+    }
+
+    /**
+     * Opens a conditional streaming download of an object. The conditions are evaluated by S3; when they show
+     * the client's copy is current, S3 answers {@code 304 Not Modified} without a body and this method throws
+     * with an {@link S3Exception} of status 304 as the cause.
+     *
+     * @param bucketName      The name of the bucket.
+     * @param key             The key of the object to download.
+     * @param range           An optional HTTP byte range, or {@code null} for the whole object.
+     * @param ifNoneMatch     An optional ETag (or {@code *}) the client already has.
+     * @param ifModifiedSince An optional time; the object is only sent if modified after it.
+     * @return The object content together with its {@link GetObjectResponse} metadata.
+     */
+    public ResponseInputStream<GetObjectResponse> downloadFile(String bucketName, String key, String range,
+                                                               String ifNoneMatch, Instant ifModifiedSince) {
         try {
             GetObjectRequest request = GetObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
+                    .range(range)
+                    .ifNoneMatch(ifNoneMatch)
+                    .ifModifiedSince(ifModifiedSince)
                     .build();
-            byte[] data = s3Client.getObjectAsBytes(request).asByteArray();
-            logger.info("Downloaded object '{}' from bucket '{}'.", key, bucketName);
-            return data;
+            ResponseInputStream<GetObjectResponse> stream = s3Client.getObject(request);
+            logger.info("Opened download of object '{}' from bucket '{}' ({} bytes{}).", key, bucketName,
+                    stream.response().contentLength(), range == null ? "" : ", range " + range);
+            Long contentLength = stream.response().contentLength();
+            if (range == null && contentLength != null && rangedDownloader.shouldUseRanges(contentLength)) {
+                return rangedDownloader.parallelize(bucketName, key, stream);
+            }
+            return stream;
         } catch (S3Exception e) {
+            if (e.statusCode() == NOT_MODIFIED) {
+                logger.debug("Object '{}' in bucket '{}' not modified.", key, bucketName);
+                throw new RuntimeException("Object not modified", e);
+            }
             logger.error("Error downloading object '{}' from bucket {}: {}", key, bucketName, e.awsErrorDetails().errorMessage(), e);
             throw new RuntimeException("Failed to download object", e);
         }
     }
 
+    /**
+     * Returns the metadata of an object from {@code HeadObject}, served from {@link S3MetadataCache} while fresh.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     * @return The metadata of the object.
+     */
+    public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+        return metadataCache.get(bucketName, key, () -> {
+            try {
+                HeadObjectResponse response = s3Client.headObject(b -> b.bucket(bucketName).key(key));
+                logger.debug("Fetched metadata of object '{}' in bucket '{}'.", key, bucketName);
+                return ObjectMetadata.of(bucketName, key, response);
+            } catch (S3Exception e) {
+                logger.error("Error fetching metadata of object '{}' from bucket {}: {}", key, bucketName, e.getMessage(), e);
+                throw new RuntimeException("Failed to fetch object metadata", e);
+            }
+        });
+    }
+
+    /**
+     * Drops an object from the local object and metadata caches after it was written or deleted through this application.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object.
+     */
+    public void invalidateCaches(String bucketName, String key) {
+        objectCache.invalidate(bucketName, key);
+        metadataCache.invalidate(bucketName, key);
+    }
+
+    /**
+     * Downloads an object into the staging directory with parallel ranged GETs and positional file writes.
+     * The file is stored as {@code <staging-directory>/<bucket>/<key>}.
+     *
+     * @param bucketName The name of the bucket.
+     * @param key        The key of the object to stage.
+     * @return The location and size of the staged file.
+     * @throws IOException if writing the file fails.
+     * @throws IllegalArgumentException if the key would resolve outside the staging directory.
+     */
+    public StagedObject stageObject(String bucketName, String key) throws IOException {
+        Path bucketDirectory = stagingDirectory.resolve(bucketName).normalize();
+        Path target = bucketDirectory.resolve(key).normalize();
+        if (!bucketDirectory.startsWith(stagingDirectory.normalize()) || !target.startsWith(bucketDirectory)
+                || target.equals(bucketDirectory)) {
+            throw new IllegalArgumentException("Key cannot be staged: " + key);
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            long size = rangedDownloader.downloadToFile(bucketName, key, target);
+            logger.info("Staged object '{}' from bucket '{}' at {}.", key, bucketName, target);
+            return new StagedObject(bucketName, key, target.toString(), size);
+        } catch (S3Exception e) {
+            logger.error("Error staging object '{}' from bucket {}: {}", key, bucketName, e.awsErrorDetails().errorMessage(), e);
+            throw new RuntimeException("Failed to stage object", e);
+        }
+    }
+
     /**
      * Copies an object from a source location to a destination.
+     * Objects above the multipart copy threshold are copied with parallel {@code UploadPartCopy} calls,
+     * which also lifts the 5 GB limit of a single {@code CopyObject}.
      *
      * @param sourceBucket      The source bucket name.
      * @param sourceKey         The key of the source object.
@@ -146,7 +667,35 @@ public class S3Service {
      * @param destinationKey    The key for the new object.
      */
     public void copyObject(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) {
+        copyObject(sourceBucket, sourceKey, destinationBucket, destinationKey, -1);
+    }
+
+    /**
+     * Copies an object whose size is already known, e.g. from a listing, avoiding a {@code HeadObject}
+     * call for objects small enough for a single {@code CopyObject}.
+     *
+     * @param sourceBucket      The source bucket name.
+     * @param sourceKey         The key of the source object.
+     * @param destinationBucket The destination bucket name.
+     * @param destinationKey    The key for the new object.
+     * @param sourceSize        The size of the source object in bytes, or a negative value if unknown.
+     */
+    public void copyObject(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey,
+                           long sourceSize) {
         try {
+            HeadObjectResponse source = null;
+            if (sourceSize < 0) {
+                source = s3Client.headObject(b -> b.bucket(sourceBucket).key(sourceKey));
+                sourceSize = source.contentLength();
+            }
+            if (multipartCopier.shouldUseMultipart(sourceSize)) {
+                if (source == null) {
+                    source = s3Client.headObject(b -> b.bucket(sourceBucket).key(sourceKey));
+                }
+                multipartCopier.copy(sourceBucket, sourceKey, destinationBucket, destinationKey, source);
+                invalidateCaches(destinationBucket, destinationKey);
+                return;
+            }
             CopyObjectRequest request = CopyObjectRequest.builder()
                     .sourceBucket(sourceBucket)
                     .sourceKey(sourceKey)
@@ -154,6 +703,7 @@ public class S3Service {
                     .destinationKey(destinationKey)
                     .build();
             s3Client.copyObject(request);
+            invalidateCaches(destinationBucket, destinationKey);
             logger.info("Copied object from {}/{} to {}/{}.", sourceBucket, sourceKey, destinationBucket, destinationKey);
         } catch (S3Exception e) {
             logger.error("Error copying object from {}/{} to {}/{}: {}", sourceBucket, sourceKey, destinationBucket, destinationKey, e.awsErrorDetails().errorMessage(), e);
@@ -163,6 +713,7 @@ public class S3Service {
 
     /**
      * Generates a pre-signed URL for downloading an object, valid for the specified duration.
+     * URLs are served from {@link PresignedUrlCache} while enough of their validity remains.
      *
      * @param bucketName        The name of the bucket.
      * @param key               The key of the object.
@@ -170,22 +721,49 @@ public class S3Service {
      * @return A ResponseEntity containing the URL or an error message.
      */
     public ResponseEntity<?> generatePresignedUrl(String bucketName, String key, long expirationSeconds) {
+        return ResponseEntity.ok(presign(bucketName, key, "GET", expirationSeconds, null).url());
+    }
+
+    /**
+     * Generates pre-signed URLs for many keys at once.
+     *
+     * @param bucketName        The name of the bucket.
+     * @param keys              The keys of the objects.
+     * @param method            {@code GET} for downloads or {@code PUT} for direct uploads.
+     * @param expirationSeconds The duration (in seconds) for which the URLs are valid.
+     * @param contentType       For {@code PUT}, the content type the upload must be sent with, or {@code null}.
+     * @return One pre-signed URL per key, in request order.
+     */
+    public List<PresignedUrl> generatePresignedUrls(String bucketName, List<String> keys, String method,
+                                                    long expirationSeconds, String contentType) {
+        List<PresignedUrl> urls = keys.stream()
+                .map(key -> presign(bucketName, key, method, expirationSeconds, contentType))
+                .toList();
+        logger.info("Generated {} pre-signed {} URLs for bucket '{}'.", urls.size(), method, bucketName);
+        return urls;
+    }
+
+    private PresignedUrl presign(String bucketName, String key, String method, long expirationSeconds, String contentType) {
+        Duration validity = Duration.ofSeconds(expirationSeconds);
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofSeconds(expirationSeconds))
-                    .getObjectRequest(getObjectRequest)
-                    .build();
-            PresignedGetObjectRequest presignedGetObjectRequest = s3Presigner.presignGetObject(presignRequest);
-            String url = presignedGetObjectRequest.url().toString();
-            logger.info("Generated pre-signed URL for object '{}' in bucket '{}'.", key, bucketName);
-            return ResponseEntity.ok(url);
+            PresignedUrlCache.CachedUrl cached = switch (method) {
+                case "GET" -> presignedUrlCache.get(method, bucketName, key, validity, null,
+                        signedValidity -> s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+                                .signatureDuration(signedValidity)
+                                .getObjectRequest(r -> r.bucket(bucketName).key(key))
+                                .build()).url().toString());
+                case "PUT" -> presignedUrlCache.get(method, bucketName, key, validity, contentType,
+                        signedValidity -> s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                                .signatureDuration(signedValidity)
+                                .putObjectRequest(r -> r.bucket(bucketName).key(key).contentType(contentType))
+                                .build()).url().toString());
+                default -> throw new IllegalArgumentException("Unsupported pre-sign method: " + method);
+            };
+            logger.debug("Pre-signed {} URL for object '{}' in bucket '{}'.", method, key, bucketName);
+            return new PresignedUrl(key, method, cached.url(), cached.expiresAt());
         } catch (S3Exception e) {
             logger.error("Unexpected error generating pre-signed URL for object '{}' in bucket {}: {}", key, bucketName, e.getMessage(), e);
             throw new RuntimeException("Failed to generate pre-signed URL.", e);
         }
     }
-}
\ No newline at end of file
+}
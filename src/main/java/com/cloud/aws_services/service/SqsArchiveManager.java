@@ -0,0 +1,145 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ArchiveSinkSettings;
+import com.cloud.aws_services.model.ArchiveSinkStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Starts, stops and reports on SQS-to-S3 archive sinks, identified by name.
+ * A queue can only be drained by one sink at a time.
+ */
+@Service
+public class SqsArchiveManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsArchiveManager.class);
+
+    private final SqsService sqsService;
+    private final S3Service s3Service;
+    private final S3CompressionPolicy compressionPolicy;
+    private final ObjectMapper objectMapper;
+    private final Map<String, SqsArchiveSink> sinks = new ConcurrentHashMap<>();
+
+    @Value("${aws.sqs.archive.max-batch-size:16MB}")
+    private DataSize defaultMaxBatchSize;
+
+    @Value("${aws.sqs.archive.max-batch-messages:10000}")
+    private int defaultMaxBatchMessages;
+
+    @Value("${aws.sqs.archive.max-batch-age:60s}")
+    private Duration defaultMaxBatchAge;
+
+    @Value("${aws.sqs.archive.pollers-per-queue:2}")
+    private int defaultPollersPerQueue;
+
+    @Value("${aws.sqs.archive.upload-concurrency:2}")
+    private int uploadConcurrency;
+
+    @Value("${aws.sqs.archive.visibility-timeout-seconds:120}")
+    private int defaultVisibilityTimeoutSeconds;
+
+    @Value("${aws.sqs.archive.wait-time-seconds:20}")
+    private int defaultWaitTimeSeconds;
+
+    @Value("${aws.sqs.archive.shutdown-grace-millis:30000}")
+    private long shutdownGraceMillis;
+
+    public SqsArchiveManager(SqsService sqsService, S3Service s3Service, S3CompressionPolicy compressionPolicy,
+                             ObjectMapper objectMapper) {
+        this.sqsService = sqsService;
+        this.s3Service = s3Service;
+        this.compressionPolicy = compressionPolicy;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Starts draining queues into batch objects.
+     *
+     * @param settings The queues, target location and batching limits of the sink.
+     * @return The initial status of the sink.
+     * @throws IllegalArgumentException if a setting is missing or invalid.
+     * @throws IllegalStateException    if the name or one of the queues is already used by a running sink.
+     */
+    public synchronized ArchiveSinkStatus start(ArchiveSinkSettings settings) {
+        if (settings.queueUrls() == null || settings.queueUrls().isEmpty() || settings.bucketName() == null) {
+            throw new IllegalArgumentException("queueUrls and bucketName are required");
+        }
+        String name = settings.name() != null && !settings.name().isBlank()
+                ? settings.name() : SqsConsumer.queueName(settings.queueUrls().get(0));
+        if (sinks.containsKey(name)) {
+            throw new IllegalStateException("An archive sink named '" + name + "' is already running");
+        }
+        for (SqsArchiveSink sink : sinks.values()) {
+            List<String> shared = sink.status().queueUrls().stream().filter(settings.queueUrls()::contains).toList();
+            if (!shared.isEmpty()) {
+                throw new IllegalStateException("Queues " + shared + " are already archived by sink '" + sink.status().name() + "'");
+            }
+        }
+        String prefix = settings.prefix() != null ? settings.prefix() : "";
+        Compression compression = compressionPolicy.resolve(settings.bucketName(), prefix, settings.compression());
+        long maxBatchBytes = settings.maxBatchSize() != null
+                ? DataSize.parse(settings.maxBatchSize()).toBytes() : defaultMaxBatchSize.toBytes();
+        long maxBatchAgeMillis = settings.maxBatchAgeSeconds() != null && settings.maxBatchAgeSeconds() > 0
+                ? settings.maxBatchAgeSeconds() * 1_000L : defaultMaxBatchAge.toMillis();
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        SqsArchiveSink sink = new SqsArchiveSink(sqsService, s3Service, objectMapper, name, settings.queueUrls(),
+                settings.bucketName(), prefix, compression, maxBatchBytes,
+                positive(settings.maxBatchMessages(), defaultMaxBatchMessages),
+                maxBatchAgeMillis,
+                positive(settings.pollersPerQueue(), defaultPollersPerQueue),
+                Math.max(1, uploadConcurrency),
+                positive(settings.visibilityTimeoutSeconds(), defaultVisibilityTimeoutSeconds),
+                settings.waitTimeSeconds() != null ? settings.waitTimeSeconds() : defaultWaitTimeSeconds);
+        sinks.put(name, sink);
+        sink.start();
+        return sink.status();
+    }
+
+    /**
+     * Stops a sink, writing its open batch and waiting for pending writes within the shutdown grace period.
+     *
+     * @param name The name of the sink.
+     * @return The final status of the sink, or {@code null} if none was running.
+     */
+    public ArchiveSinkStatus stop(String name) {
+        SqsArchiveSink sink = sinks.remove(name);
+        if (sink == null) {
+            return null;
+        }
+        sink.stop(shutdownGraceMillis);
+        return sink.status();
+    }
+
+    /**
+     * Reports progress of all running sinks.
+     *
+     * @return One status per sink.
+     */
+    public List<ArchiveSinkStatus> status() {
+        return sinks.values().stream().map(SqsArchiveSink::status).toList();
+    }
+
+    @PreDestroy
+    public void stopAll() {
+        sinks.keySet().forEach(name -> {
+            logger.info("Stopping archive sink '{}' on shutdown.", name);
+            stop(name);
+        });
+    }
+
+    private static int positive(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+}
@@ -0,0 +1,400 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ArchiveSinkStatus;
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.StreamingUploadResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * One running SQS-to-S3 archive sink.
+ * Long-polls each queue and appends the received messages, one JSON object per line, to an open batch.
+ * The batch is written to S3 as a single NDJSON object once it reaches {@code maxBatchBytes} (uncompressed),
+ * {@code maxBatchMessages} or {@code maxBatchAgeMillis}, and its messages are deleted in batches only after
+ * the write succeeded. A failed write deletes nothing, so the messages are redelivered: delivery is at least once.
+ * A failed delete after a successful write is counted as an acknowledgement failure, not a failed batch; those
+ * messages are archived again when they are redelivered.
+ * At most {@code uploadConcurrency} batches are written at a time; pollers block once that many are pending.
+ * Messages of pending batches get their visibility timeout extended until their batch is written.
+ */
+class SqsArchiveSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsArchiveSink.class);
+    private static final int MAX_RECEIVE = 10;
+    private static final String CONTENT_TYPE = "application/x-ndjson";
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("yyyy/MM/dd/HH").withZone(ZoneOffset.UTC);
+
+    private final SqsService sqsService;
+    private final S3Service s3Service;
+    private final ObjectMapper objectMapper;
+    private final String name;
+    private final List<String> queueUrls;
+    private final String bucketName;
+    private final String prefix;
+    private final Compression compression;
+    private final long maxBatchBytes;
+    private final int maxBatchMessages;
+    private final long maxBatchAgeNanos;
+    private final int pollersPerQueue;
+    private final int visibilityTimeoutSeconds;
+    private final int waitTimeSeconds;
+    private final Semaphore writeSlots;
+    private final ExecutorService pollerThreads;
+    private final ExecutorService writerThreads;
+    private final ScheduledExecutorService housekeeping;
+    private final Set<Batch> sealed = ConcurrentHashMap.newKeySet();
+    private final Object lock = new Object();
+    private final Instant startedAt = Instant.now();
+    private Batch open;
+    private volatile boolean running = true;
+    private volatile String lastObjectKey;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder batchesWritten = new LongAdder();
+    private final LongAdder batchesFailed = new LongAdder();
+    private final LongAdder ackFailures = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+
+    SqsArchiveSink(SqsService sqsService, S3Service s3Service, ObjectMapper objectMapper, String name, List<String> queueUrls,
+                   String bucketName, String prefix, Compression compression, long maxBatchBytes, int maxBatchMessages,
+                   long maxBatchAgeMillis, int pollersPerQueue, int uploadConcurrency, int visibilityTimeoutSeconds,
+                   int waitTimeSeconds) {
+        this.sqsService = sqsService;
+        this.s3Service = s3Service;
+        this.objectMapper = objectMapper;
+        this.name = name;
+        this.queueUrls = List.copyOf(queueUrls);
+        this.bucketName = bucketName;
+        this.prefix = prefix == null ? "" : prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        this.compression = compression;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchMessages = maxBatchMessages;
+        this.maxBatchAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchAgeMillis);
+        this.pollersPerQueue = pollersPerQueue;
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.waitTimeSeconds = waitTimeSeconds;
+        this.writeSlots = new Semaphore(uploadConcurrency);
+        String threadName = "sqs-archive-" + name;
+        this.pollerThreads = Executors.newFixedThreadPool(queueUrls.size() * pollersPerQueue,
+                Thread.ofPlatform().name(threadName + "-poll-", 0).daemon(true).factory());
+        this.writerThreads = Executors.newFixedThreadPool(uploadConcurrency,
+                Thread.ofPlatform().name(threadName + "-write-", 0).daemon(true).factory());
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name(threadName + "-timer").daemon(true).factory());
+    }
+
+    void start() {
+        for (String queueUrl : queueUrls) {
+            for (int i = 0; i < pollersPerQueue; i++) {
+                pollerThreads.execute(() -> pollLoop(queueUrl));
+            }
+        }
+        long extendEveryMillis = Math.max(1_000L, visibilityTimeoutSeconds * 1_000L / 3);
+        housekeeping.scheduleWithFixedDelay(this::extendVisibility, extendEveryMillis, extendEveryMillis, TimeUnit.MILLISECONDS);
+        long ageCheckMillis = Math.clamp(TimeUnit.NANOSECONDS.toMillis(maxBatchAgeNanos) / 2, 100, 1_000);
+        housekeeping.scheduleWithFixedDelay(this::rollOverAged, ageCheckMillis, ageCheckMillis, TimeUnit.MILLISECONDS);
+        logger.info("Started archive sink '{}' from {} to s3://{}/{} ({} bytes, {} messages or {} ms per batch).",
+                name, queueUrls, bucketName, prefix, maxBatchBytes, maxBatchMessages, TimeUnit.NANOSECONDS.toMillis(maxBatchAgeNanos));
+    }
+
+    /**
+     * Stops polling, writes the open batch and waits for pending writes within the grace period.
+     * Messages of batches still unwritten afterwards are left on their queue for redelivery.
+     */
+    void stop(long graceMillis) {
+        running = false;
+        pollerThreads.shutdownNow();
+        try {
+            pollerThreads.awaitTermination(graceMillis, TimeUnit.MILLISECONDS);
+            Batch last;
+            synchronized (lock) {
+                last = open;
+                open = null;
+                if (last != null) {
+                    sealed.add(last);
+                }
+            }
+            if (last != null) {
+                submit(last);
+            }
+            writerThreads.shutdown();
+            if (!writerThreads.awaitTermination(graceMillis, TimeUnit.MILLISECONDS)) {
+                writerThreads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThreads.shutdownNow();
+        }
+        housekeeping.shutdownNow();
+        logger.info("Stopped archive sink '{}' ({} messages archived in {} batches).", name, archived.sum(), batchesWritten.sum());
+    }
+
+    ArchiveSinkStatus status() {
+        int pending = sealed.stream().mapToInt(batch -> batch.messages.size()).sum();
+        synchronized (lock) {
+            if (open != null) {
+                pending += open.messages.size();
+            }
+        }
+        return new ArchiveSinkStatus(name, queueUrls, bucketName, prefix, running, startedAt, received.sum(),
+                archived.sum(), pending, batchesWritten.sum(), batchesFailed.sum(), ackFailures.sum(), bytesWritten.sum(), bytesStored.sum(),
+                lastObjectKey);
+    }
+
+    private void pollLoop(String queueUrl) {
+        while (running) {
+            try {
+                List<Message> messages = sqsService.receiveMessages(queueUrl, MAX_RECEIVE, waitTimeSeconds, visibilityTimeoutSeconds);
+                if (!messages.isEmpty()) {
+                    append(queueUrl, messages);
+                }
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (running) {
+                    logger.warn("Polling queue {} for archive sink '{}' failed, backing off: {}", queueUrl, name, e.getMessage());
+                    sleepQuietly(1_000);
+                }
+            }
+        }
+    }
+
+    private void append(String queueUrl, List<Message> messages) {
+        List<byte[]> lines = messages.stream().map(message -> line(queueUrl, message)).toList();
+        List<Batch> full = new ArrayList<>();
+        synchronized (lock) {
+            for (int i = 0; i < messages.size(); i++) {
+                if (open == null) {
+                    open = new Batch(System.nanoTime() + TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds));
+                }
+                open.add(new HeldMessage(queueUrl, messages.get(i).receiptHandle()), lines.get(i));
+                if (open.messages.size() >= maxBatchMessages || open.content.size() >= maxBatchBytes) {
+                    sealed.add(open);
+                    full.add(open);
+                    open = null;
+                }
+            }
+        }
+        received.add(messages.size());
+        full.forEach(this::submit);
+    }
+
+    /**
+     * Writes a batch once a write slot is free. Blocking here is what stops pollers from receiving faster than
+     * batches are written.
+     */
+    private void submit(Batch batch) {
+        writeSlots.acquireUninterruptibly();
+        writerThreads.execute(() -> write(batch));
+    }
+
+    private void rollOverAged() {
+        Batch aged;
+        synchronized (lock) {
+            if (open == null || System.nanoTime() - open.createdNanos < maxBatchAgeNanos || !writeSlots.tryAcquire()) {
+                return;
+            }
+            aged = open;
+            open = null;
+            sealed.add(aged);
+        }
+        writerThreads.execute(() -> write(aged));
+    }
+
+    private void write(Batch batch) {
+        String key = objectKey();
+        try {
+            StreamingUploadResult result;
+            try {
+                result = s3Service.uploadStream(bucketName, key, batch.content.toInputStream(),
+                        batch.content.size(), CONTENT_TYPE, null, compression);
+            } catch (IOException | RuntimeException e) {
+                batchesFailed.increment();
+                logger.error("Archive sink '{}' failed to write batch of {} messages to '{}'; they will be redelivered: {}",
+                        name, batch.messages.size(), key, e.getMessage(), e);
+                return;
+            }
+            batchesWritten.increment();
+            bytesWritten.add(result.size());
+            bytesStored.add(result.storedSize());
+            lastObjectKey = key;
+            logger.info("Archive sink '{}' wrote {} messages to '{}' ({} bytes stored).", name, batch.messages.size(),
+                    key, result.storedSize());
+            acknowledge(batch);
+        } finally {
+            sealed.remove(batch);
+            writeSlots.release();
+        }
+    }
+
+    /**
+     * Deletes the messages of a written batch. Messages that cannot be deleted are already archived, so a failure
+     * here only counts as an acknowledgement failure.
+     */
+    private void acknowledge(Batch batch) {
+        byQueue(batch.messages).forEach((queueUrl, receiptHandles) -> {
+            long deleted;
+            try {
+                deleted = sqsService.deleteMessages(queueUrl, receiptHandles).stream().filter(BulkItemResult::success).count();
+            } catch (RuntimeException e) {
+                logger.warn("Archive sink '{}' failed to acknowledge {} archived messages on queue {}: {}",
+                        name, receiptHandles.size(), queueUrl, e.getMessage());
+                deleted = 0;
+            }
+            archived.add(deleted);
+            if (deleted < receiptHandles.size()) {
+                ackFailures.add(receiptHandles.size() - deleted);
+                logger.warn("Archive sink '{}' could not delete {} archived messages from queue {}; they will be archived again.",
+                        name, receiptHandles.size() - deleted, queueUrl);
+            }
+        });
+    }
+
+    /**
+     * Renews the visibility timeout of every pending message that has used up more than half of it.
+     */
+    private void extendVisibility() {
+        long now = System.nanoTime();
+        long halfTimeout = TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds) / 2;
+        List<Batch> expiring = new ArrayList<>();
+        List<List<HeldMessage>> messages = new ArrayList<>();
+        synchronized (lock) {
+            if (open != null && open.deadlineNanos - now < halfTimeout) {
+                expiring.add(open);
+                messages.add(List.copyOf(open.messages));
+            }
+        }
+        for (Batch batch : sealed) {
+            if (batch.deadlineNanos - now < halfTimeout) {
+                expiring.add(batch);
+                messages.add(batch.messages);
+            }
+        }
+        for (int i = 0; i < expiring.size(); i++) {
+            byQueue(messages.get(i)).forEach((queueUrl, receiptHandles) -> {
+                for (int from = 0; from < receiptHandles.size(); from += MAX_RECEIVE) {
+                    List<String> chunk = receiptHandles.subList(from, Math.min(from + MAX_RECEIVE, receiptHandles.size()));
+                    try {
+                        sqsService.changeMessageVisibilityBatch(queueUrl, chunk, visibilityTimeoutSeconds);
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to extend visibility of {} messages in queue {}: {}", chunk.size(), queueUrl, e.getMessage());
+                    }
+                }
+            });
+            expiring.get(i).deadlineNanos = now + TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds);
+        }
+    }
+
+    private byte[] line(String queueUrl, Message message) {
+        String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+        Map<String, String> attributes = new LinkedHashMap<>();
+        message.messageAttributes().forEach((attribute, value) -> attributes.put(attribute, stringValue(value)));
+        try {
+            return objectMapper.writeValueAsBytes(new ArchivedMessage(SqsConsumer.queueName(queueUrl), message.messageId(),
+                    sentTimestamp != null ? Long.valueOf(sentTimestamp) : null, attributes, message.body()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String objectKey() {
+        Instant now = Instant.now();
+        String extension = compression == null ? "" : compression.codec() == ContentCodec.GZIP ? ".gz" : ".zst";
+        return prefix + PARTITION.format(now) + "/" + name + "-" + now.toEpochMilli() + "-"
+                + UUID.randomUUID().toString().substring(0, 8) + ".ndjson" + extension;
+    }
+
+    private static String stringValue(MessageAttributeValue value) {
+        return value.stringValue() != null ? value.stringValue()
+                : value.binaryValue() != null ? Base64.getEncoder().encodeToString(value.binaryValue().asByteArray()) : null;
+    }
+
+    private static Map<String, List<String>> byQueue(List<HeldMessage> messages) {
+        return messages.stream().collect(Collectors.groupingBy(HeldMessage::queueUrl, LinkedHashMap::new,
+                Collectors.mapping(HeldMessage::receiptHandle, Collectors.toList())));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One line of a batch object. Binary message attributes are base64-encoded.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private record ArchivedMessage(String queue, String messageId, Long sentTimestamp, Map<String, String> attributes,
+                                   String body) {
+    }
+
+    private record HeldMessage(String queueUrl, String receiptHandle) {
+    }
+
+    /**
+     * Messages are only added while the batch is open, under the sink's lock; afterwards it is read-only.
+     */
+    private static final class Batch {
+        private final BatchContent content = new BatchContent();
+        private final List<HeldMessage> messages = new ArrayList<>();
+        private final long createdNanos = System.nanoTime();
+        private volatile long deadlineNanos;
+
+        private Batch(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private void add(HeldMessage message, byte[] line) {
+            messages.add(message);
+            content.write(line, 0, line.length);
+            content.write('\n');
+        }
+    }
+
+    /**
+     * Lets the upload read the accumulated lines without copying them.
+     */
+    private static final class BatchContent extends ByteArrayOutputStream {
+        private BatchContent() {
+            super(64 * 1024);
+        }
+
+        private InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
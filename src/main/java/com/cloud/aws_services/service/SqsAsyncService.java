@@ -0,0 +1,89 @@
+package com.cloud.aws_services.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link SqsService} built on {@link SqsAsyncClient}.
+ * Long polls no longer hold a request thread while waiting for messages.
+ * Only active when {@code aws.client.mode=async}.
+ */
+@Service
+@ConditionalOnProperty(name = "aws.client.mode", havingValue = "async")
+public class SqsAsyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsAsyncService.class);
+    private final SqsAsyncClient sqsAsyncClient;
+
+    public SqsAsyncService(SqsAsyncClient sqsAsyncClient) {
+        this.sqsAsyncClient = sqsAsyncClient;
+    }
+
+    /**
+     * Sends a message to the specified SQS queue.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @param message  The message body.
+     * @return A future completing with the ID of the sent message.
+     */
+    public CompletableFuture<String> sendMessage(String queueUrl, String message) {
+        return sqsAsyncClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(message))
+                .thenApply(SendMessageResponse::messageId)
+                .whenComplete((messageId, error) -> {
+                    if (error != null) {
+                        logger.error("Error sending message to queue {}: {}", queueUrl, error.getMessage(), error);
+                    } else {
+                        logger.info("Message sent successfully. Message ID: {}", messageId);
+                    }
+                });
+    }
+
+    /**
+     * Receives messages from the specified SQS queue.
+     *
+     * @param queueUrl        The URL of the SQS queue.
+     * @param maxMessages     Maximum number of messages to retrieve.
+     * @param waitTimeSeconds Wait time for long polling.
+     * @return A future completing with the received messages.
+     */
+    public CompletableFuture<List<Message>> receiveMessages(String queueUrl, int maxMessages, int waitTimeSeconds) {
+        return sqsAsyncClient.receiveMessage(b -> b.queueUrl(queueUrl)
+                        .maxNumberOfMessages(maxMessages)
+                        .waitTimeSeconds(waitTimeSeconds))
+                .thenApply(response -> response.messages())
+                .whenComplete((messages, error) -> {
+                    if (error != null) {
+                        logger.error("Error receiving messages from queue {}: {}", queueUrl, error.getMessage(), error);
+                    } else {
+                        logger.info("Received {} messages from queue {}", messages.size(), queueUrl);
+                    }
+                });
+    }
+
+    /**
+     * Deletes a message from the specified SQS queue.
+     *
+     * @param queueUrl      The URL of the SQS queue.
+     * @param receiptHandle The receipt handle of the message.
+     * @return A future completing once the message has been deleted.
+     */
+    public CompletableFuture<Void> deleteMessage(String queueUrl, String receiptHandle) {
+        return sqsAsyncClient.deleteMessage(b -> b.queueUrl(queueUrl).receiptHandle(receiptHandle))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        logger.error("Error deleting message from queue {}: {}", queueUrl, error.getMessage(), error);
+                    } else {
+                        logger.info("Deleted message with receipt handle {} from queue {}", receiptHandle, queueUrl);
+                    }
+                })
+                .thenApply(response -> null);
+    }
+}
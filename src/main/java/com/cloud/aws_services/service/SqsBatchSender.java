@@ -0,0 +1,216 @@
+package com.cloud.aws_services.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side auto-batching for SQS sends.
+ * Messages are buffered per queue URL and sent with {@code SendMessageBatch} once a batch is full
+ * (10 entries or 256 KB) or the linger time of its first message has elapsed.
+ * Every caller gets its own future, completed with the message ID and the time the message spent from being queued
+ * until its batch was acknowledged, or with the failure of its entry.
+ */
+@Service
+public class SqsBatchSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsBatchSender.class);
+    static final int MAX_BATCH_ENTRIES = 10;
+    static final int MAX_BATCH_BYTES = 256 * 1024;
+
+    private final SqsService sqsService;
+    private final ScheduledExecutorService executor;
+    private final Duration linger;
+    private final boolean enabled;
+    private final Map<String, QueueBuffer> buffers = new ConcurrentHashMap<>();
+
+    public SqsBatchSender(SqsService sqsService,
+                          @Qualifier("sqsBatchExecutor") ScheduledExecutorService executor,
+                          @Value("${aws.sqs.batch.linger:20ms}") Duration linger,
+                          @Value("${aws.sqs.batch.enabled:false}") boolean enabled) {
+        this.sqsService = sqsService;
+        this.executor = executor;
+        this.linger = linger;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether single sends from {@code POST /aws/sqs/send} should be routed through the batcher.
+     *
+     * @return {@code true} if {@code aws.sqs.batch.enabled} is set.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a message for the next batch sent to the queue.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @param message  The message body.
+     * @return A future completing with the message ID and send latency, or exceptionally if the entry failed.
+     */
+    public CompletableFuture<SentMessage> send(String queueUrl, String message) {
+        PendingMessage pending = new PendingMessage(message);
+        buffers.computeIfAbsent(queueUrl, QueueBuffer::new).add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Queues several messages at once; they are packed into as few batches as the limits allow.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @param messages The message bodies.
+     * @return One future per message, in the same order.
+     */
+    public List<CompletableFuture<SentMessage>> sendAll(String queueUrl, List<String> messages) {
+        List<CompletableFuture<SentMessage>> futures = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            futures.add(send(queueUrl, message));
+        }
+        QueueBuffer buffer = buffers.get(queueUrl);
+        if (buffer != null) {
+            buffer.flushNow();
+        }
+        return futures;
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        buffers.values().forEach(QueueBuffer::flushNow);
+    }
+
+    private void sendBatch(String queueUrl, List<PendingMessage> batch) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .messageBody(batch.get(i).body)
+                    .build());
+        }
+        try {
+            SendMessageBatchResponse response = sqsService.sendMessageBatch(queueUrl, entries);
+            long sentAt = System.nanoTime();
+            for (SendMessageBatchResultEntry result : response.successful()) {
+                PendingMessage pending = batch.get(Integer.parseInt(result.id()));
+                pending.future.complete(new SentMessage(result.messageId(),
+                        Duration.ofNanos(sentAt - pending.enqueuedAt)));
+            }
+            for (BatchResultErrorEntry error : response.failed()) {
+                batch.get(Integer.parseInt(error.id())).future.completeExceptionally(
+                        new RuntimeException("Failed to send message: " + error.code() + " - " + error.message()));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * A message acknowledged by SQS.
+     *
+     * @param messageId The ID assigned by SQS.
+     * @param latency   The time from queuing the message until its batch was acknowledged, including the linger time.
+     */
+    public record SentMessage(String messageId, Duration latency) {
+    }
+
+    private static final class PendingMessage {
+        private final String body;
+        private final int bytes;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<SentMessage> future = new CompletableFuture<>();
+
+        private PendingMessage(String body) {
+            this.body = body;
+            this.bytes = body.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    /**
+     * Pending messages of one queue. The first message of an empty buffer arms the linger timer;
+     * a full buffer is handed to the executor immediately.
+     */
+    private final class QueueBuffer {
+        private final String queueUrl;
+        private List<PendingMessage> pending = new ArrayList<>(MAX_BATCH_ENTRIES);
+        private int pendingBytes;
+        private ScheduledFuture<?> lingerTimer;
+
+        private QueueBuffer(String queueUrl) {
+            this.queueUrl = queueUrl;
+        }
+
+        private void add(PendingMessage message) {
+            List<PendingMessage> overflow = null;
+            List<PendingMessage> full = null;
+            synchronized (this) {
+                if (!pending.isEmpty() && pendingBytes + message.bytes > MAX_BATCH_BYTES) {
+                    overflow = drain();
+                }
+                pending.add(message);
+                pendingBytes += message.bytes;
+                if (pending.size() >= MAX_BATCH_ENTRIES) {
+                    full = drain();
+                } else if (lingerTimer == null) {
+                    lingerTimer = executor.schedule(this::flushNow, linger.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (overflow != null) {
+                submit(overflow);
+            }
+            if (full != null) {
+                submit(full);
+            }
+        }
+
+        private void flushNow() {
+            List<PendingMessage> ready;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                ready = drain();
+            }
+            submit(ready);
+        }
+
+        private List<PendingMessage> drain() {
+            List<PendingMessage> drained = pending;
+            pending = new ArrayList<>(MAX_BATCH_ENTRIES);
+            pendingBytes = 0;
+            if (lingerTimer != null) {
+                lingerTimer.cancel(false);
+                lingerTimer = null;
+            }
+            return drained;
+        }
+
+        private void submit(List<PendingMessage> batch) {
+            try {
+                executor.execute(() -> sendBatch(queueUrl, batch));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Batch executor rejected {} messages for queue {}; sending inline.", batch.size(), queueUrl);
+                sendBatch(queueUrl, batch);
+            }
+        }
+    }
+}
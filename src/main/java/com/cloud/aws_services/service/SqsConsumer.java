@@ -0,0 +1,452 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ConsumerStatus;
+import com.cloud.aws_services.model.GroupStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One running consumer of an SQS queue.
+ * Runs {@code pollers} long-poll loops that hand messages to a fixed pool of handler threads.
+ * A semaphore of {@code maxInFlight} permits provides backpressure: a poller only asks for as many
+ * messages as there are free permits, and blocks while handlers are saturated.
+ * Slow handlers get their visibility timeout extended, and successful messages are deleted in batches.
+ * <p>
+ * When {@code ordered}, each received batch is partitioned by message group: messages of one group are handled one at
+ * a time in receive order, different groups concurrently, and acknowledged in batches per group. If a handler fails,
+ * the messages queued behind it in its group are made visible again, so that SQS redelivers them after the failed
+ * one instead of letting them overtake it. Messages without a group ID are each a group of their own. Handled
+ * messages stay in flight, with their visibility extended, until their batch is deleted, so that a slow group cannot
+ * let them reappear and be redelivered behind later messages of the same group.
+ */
+class SqsConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsConsumer.class);
+    private static final int MAX_RECEIVE = 10;
+    private static final int MAX_REPORTED_GROUPS = 20;
+    private static final long GROUP_IDLE_MILLIS = 60_000;
+
+    private final SqsService sqsService;
+    private final String queueUrl;
+    private final String handlerName;
+    private final MessageHandler handler;
+    private final int pollers;
+    private final int visibilityTimeoutSeconds;
+    private final int waitTimeSeconds;
+    private final boolean ordered;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final ExecutorService pollerThreads;
+    private final ThreadPoolExecutor workerThreads;
+    private final ScheduledExecutorService housekeeping;
+    private final Map<String, InFlightMessage> inFlight = new ConcurrentHashMap<>();
+    private final Queue<String> pendingAcks = new ConcurrentLinkedQueue<>();
+    private final Map<String, GroupLane> groups = new ConcurrentHashMap<>();
+    private final Instant startedAt = Instant.now();
+    private volatile boolean running = true;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder visibilityExtensions = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+    private long lastSampleProcessed;
+    private long lastSampleNanos = System.nanoTime();
+
+    SqsConsumer(SqsService sqsService, String queueUrl, String handlerName, MessageHandler handler,
+                int pollers, int workers, int maxInFlight, int visibilityTimeoutSeconds, int waitTimeSeconds,
+                boolean ordered) {
+        this.sqsService = sqsService;
+        this.queueUrl = queueUrl;
+        this.handlerName = handlerName;
+        this.handler = handler;
+        this.pollers = pollers;
+        this.maxInFlight = maxInFlight;
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.waitTimeSeconds = waitTimeSeconds;
+        this.ordered = ordered;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        String name = "sqs-consumer-" + queueName(queueUrl);
+        this.pollerThreads = Executors.newFixedThreadPool(pollers, Thread.ofPlatform().name(name + "-poll-", 0).daemon(true).factory());
+        this.workerThreads = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name(name + "-work-", 0).daemon(true).factory());
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name(name + "-timer").daemon(true).factory());
+    }
+
+    void start() {
+        for (int i = 0; i < pollers; i++) {
+            pollerThreads.execute(this::pollLoop);
+        }
+        long extendEveryMillis = Math.max(1_000L, visibilityTimeoutSeconds * 1_000L / 3);
+        housekeeping.scheduleWithFixedDelay(this::extendVisibility, extendEveryMillis, extendEveryMillis, TimeUnit.MILLISECONDS);
+        housekeeping.scheduleWithFixedDelay(this::flushAcks, 1, 1, TimeUnit.SECONDS);
+        if (ordered) {
+            housekeeping.scheduleWithFixedDelay(this::evictIdleGroups, GROUP_IDLE_MILLIS, GROUP_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Started {}consumer for queue {} with {} pollers, {} workers, {} max in flight.", ordered ? "ordered " : "",
+                queueUrl, pollers, workerThreads.getCorePoolSize(), maxInFlight);
+    }
+
+    /**
+     * Stops polling, lets running handlers finish within the grace period and flushes pending acknowledgements.
+     */
+    void stop(long graceMillis) {
+        running = false;
+        pollerThreads.shutdownNow();
+        workerThreads.shutdown();
+        try {
+            if (!workerThreads.awaitTermination(graceMillis, TimeUnit.MILLISECONDS)) {
+                workerThreads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workerThreads.shutdownNow();
+        }
+        housekeeping.shutdownNow();
+        flushAcks();
+        logger.info("Stopped consumer for queue {}.", queueUrl);
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    synchronized ConsumerStatus status() {
+        long now = System.nanoTime();
+        long processedNow = processed.sum();
+        double seconds = Math.max((now - lastSampleNanos) / 1e9, 1e-9);
+        double rate = (processedNow - lastSampleProcessed) / seconds;
+        lastSampleProcessed = processedNow;
+        lastSampleNanos = now;
+        List<GroupStatus> groupStatuses = groups.values().stream()
+                .map(lane -> lane.sample(seconds))
+                .sorted(Comparator.comparingInt(GroupStatus::backlog)
+                        .thenComparingDouble(GroupStatus::messagesPerSecond).reversed())
+                .limit(MAX_REPORTED_GROUPS)
+                .toList();
+        return new ConsumerStatus(queueUrl, handlerName, running, startedAt, inFlight.size(),
+                received.sum(), processedNow, failed.sum(), acknowledged.sum(), visibilityExtensions.sum(),
+                rate, lastLagMillis.get(), maxLagMillis.get(), ordered, groups.size(), groupStatuses);
+    }
+
+    private void pollLoop() {
+        while (running) {
+            int permits = 0;
+            try {
+                if (!inFlightPermits.tryAcquire(1, TimeUnit.SECONDS)) {
+                    continue;
+                }
+                permits = 1;
+                while (permits < MAX_RECEIVE && inFlightPermits.tryAcquire()) {
+                    permits++;
+                }
+                List<Message> messages = sqsService.receiveMessages(queueUrl, permits, waitTimeSeconds, visibilityTimeoutSeconds);
+                inFlightPermits.release(permits - messages.size());
+                permits = 0;
+                for (Message message : messages) {
+                    dispatch(message);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlightPermits.release(permits);
+                return;
+            } catch (RuntimeException e) {
+                inFlightPermits.release(permits);
+                if (running) {
+                    logger.warn("Polling queue {} failed, backing off: {}", queueUrl, e.getMessage());
+                    sleepQuietly(1_000);
+                }
+            }
+        }
+    }
+
+    private void dispatch(Message message) {
+        received.increment();
+        recordLag(message);
+        inFlight.put(message.messageId(), new InFlightMessage(message.receiptHandle(),
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds)));
+        if (!ordered) {
+            workerThreads.execute(() -> process(message));
+            return;
+        }
+        String groupId = message.attributes().getOrDefault(MessageSystemAttributeName.MESSAGE_GROUP_ID, message.messageId());
+        GroupLane lane = groups.compute(groupId, (id, existing) -> {
+            GroupLane target = existing != null ? existing : new GroupLane(id);
+            target.enqueue(message);
+            return target;
+        });
+        if (lane.claim()) {
+            workerThreads.execute(() -> drain(lane));
+        }
+    }
+
+    private void process(Message message) {
+        boolean success = handle(message);
+        inFlight.remove(message.messageId());
+        if (success) {
+            pendingAcks.add(message.receiptHandle());
+            if (pendingAcks.size() >= MAX_RECEIVE) {
+                flushAcks();
+            }
+        }
+    }
+
+    /**
+     * Handles the queued messages of one group in order until none are left, acknowledging them in batches.
+     * Only one worker drains a group at a time.
+     */
+    private void drain(GroupLane lane) {
+        List<Message> acks = new ArrayList<>(MAX_RECEIVE);
+        Message message;
+        while ((message = lane.next()) != null) {
+            boolean success = handle(message);
+            lane.finished(success);
+            if (success) {
+                acks.add(message);
+                if (acks.size() == MAX_RECEIVE) {
+                    acknowledge(acks);
+                    acks = new ArrayList<>(MAX_RECEIVE);
+                }
+            } else {
+                inFlight.remove(message.messageId());
+                requeue(lane.groupId, lane.clear());
+            }
+        }
+        if (!acks.isEmpty()) {
+            acknowledge(acks);
+        }
+    }
+
+    /**
+     * Deletes handled messages of a group, keeping their visibility extended until the delete has returned.
+     */
+    private void acknowledge(List<Message> messages) {
+        try {
+            deleteBatch(messages.stream().map(Message::receiptHandle).toList());
+        } finally {
+            messages.forEach(message -> inFlight.remove(message.messageId()));
+        }
+    }
+
+    /**
+     * Runs the handler on a message and frees its permit; the caller removes it from {@code inFlight}.
+     *
+     * @return Whether the handler succeeded.
+     */
+    private boolean handle(Message message) {
+        try {
+            handler.handle(message);
+            processed.increment();
+            return true;
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("Handler '{}' failed for message {} from queue {}: {}", handlerName, message.messageId(), queueUrl, e.getMessage());
+            return false;
+        } finally {
+            inFlightPermits.release();
+        }
+    }
+
+    /**
+     * Makes messages that were queued behind a failed one visible again, so that they are redelivered after it.
+     */
+    private void requeue(String groupId, List<Message> messages) {
+        for (Message message : messages) {
+            inFlight.remove(message.messageId());
+            inFlightPermits.release();
+        }
+        for (int from = 0; from < messages.size(); from += MAX_RECEIVE) {
+            List<Message> batch = messages.subList(from, Math.min(from + MAX_RECEIVE, messages.size()));
+            try {
+                sqsService.changeMessageVisibilityBatch(queueUrl, batch.stream().map(Message::receiptHandle).toList(), 0);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to return {} messages of group '{}' to queue {}: {}", batch.size(), groupId, queueUrl, e.getMessage());
+            }
+        }
+        if (!messages.isEmpty()) {
+            logger.info("Returned {} messages of group '{}' to queue {} after a handler failure.", messages.size(), groupId, queueUrl);
+        }
+    }
+
+    private void evictIdleGroups() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(GROUP_IDLE_MILLIS);
+        groups.keySet().forEach(groupId -> groups.computeIfPresent(groupId, (id, lane) -> lane.isIdleSince(cutoff) ? null : lane));
+    }
+
+    private void flushAcks() {
+        List<String> batch = new ArrayList<>(MAX_RECEIVE);
+        String handle;
+        while ((handle = pendingAcks.poll()) != null) {
+            batch.add(handle);
+            if (batch.size() == MAX_RECEIVE) {
+                deleteBatch(batch);
+                batch = new ArrayList<>(MAX_RECEIVE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteBatch(batch);
+        }
+    }
+
+    private void deleteBatch(List<String> receiptHandles) {
+        try {
+            DeleteMessageBatchResponse response = sqsService.deleteMessageBatch(queueUrl, receiptHandles);
+            acknowledged.add(response.successful().size());
+            response.failed().forEach(error -> logger.warn("Failed to acknowledge message in queue {}: {} - {}",
+                    queueUrl, error.code(), error.message()));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to acknowledge {} messages in queue {}: {}", receiptHandles.size(), queueUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * Renews the visibility timeout of every message whose handler has used up more than half of it.
+     */
+    private void extendVisibility() {
+        long now = System.nanoTime();
+        long halfTimeout = TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds) / 2;
+        List<InFlightMessage> expiring = inFlight.values().stream()
+                .filter(message -> message.deadlineNanos - now < halfTimeout)
+                .toList();
+        for (int from = 0; from < expiring.size(); from += MAX_RECEIVE) {
+            List<InFlightMessage> batch = expiring.subList(from, Math.min(from + MAX_RECEIVE, expiring.size()));
+            try {
+                sqsService.changeMessageVisibilityBatch(queueUrl,
+                        batch.stream().map(message -> message.receiptHandle).toList(), visibilityTimeoutSeconds);
+                long deadline = now + TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds);
+                batch.forEach(message -> message.deadlineNanos = deadline);
+                visibilityExtensions.add(batch.size());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to extend visibility of {} messages in queue {}: {}", batch.size(), queueUrl, e.getMessage());
+            }
+        }
+    }
+
+    private void recordLag(Message message) {
+        String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+        if (sentTimestamp != null) {
+            long lag = Math.max(0, System.currentTimeMillis() - Long.parseLong(sentTimestamp));
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulate(lag);
+        }
+    }
+
+    static String queueName(String queueUrl) {
+        return queueUrl.substring(queueUrl.lastIndexOf('/') + 1);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The received, unfinished messages of one message group in receive order, and the group's counters.
+     * A lane is drained by at most one worker at a time; it stays registered while idle so that its counters
+     * reach the next status snapshot, and is evicted after {@value #GROUP_IDLE_MILLIS} ms without messages.
+     */
+    private static final class GroupLane {
+        private final String groupId;
+        private final Deque<Message> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean handling;
+        private long processed;
+        private long failed;
+        private long lastSampleProcessed;
+        private long lastActiveNanos = System.nanoTime();
+
+        private GroupLane(String groupId) {
+            this.groupId = groupId;
+        }
+
+        private synchronized void enqueue(Message message) {
+            queue.add(message);
+            lastActiveNanos = System.nanoTime();
+        }
+
+        /**
+         * Marks the lane as being drained if it has messages and no worker is draining it yet.
+         */
+        private synchronized boolean claim() {
+            if (scheduled || queue.isEmpty()) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        /**
+         * Takes the next message, or releases the lane and returns {@code null} when there is none.
+         */
+        private synchronized Message next() {
+            Message message = queue.poll();
+            handling = message != null;
+            scheduled = handling;
+            return message;
+        }
+
+        private synchronized void finished(boolean success) {
+            if (success) {
+                processed++;
+            } else {
+                failed++;
+            }
+            lastActiveNanos = System.nanoTime();
+        }
+
+        private synchronized List<Message> clear() {
+            List<Message> messages = new ArrayList<>(queue);
+            queue.clear();
+            return messages;
+        }
+
+        private synchronized boolean isIdleSince(long cutoffNanos) {
+            return !scheduled && queue.isEmpty() && lastActiveNanos - cutoffNanos < 0;
+        }
+
+        private synchronized GroupStatus sample(double seconds) {
+            double rate = (processed - lastSampleProcessed) / seconds;
+            lastSampleProcessed = processed;
+            return new GroupStatus(groupId, queue.size() + (handling ? 1 : 0), processed, failed, rate);
+        }
+    }
+
+    private static final class InFlightMessage {
+        private final String receiptHandle;
+        private volatile long deadlineNanos;
+
+        private InFlightMessage(String receiptHandle, long deadlineNanos) {
+            this.receiptHandle = receiptHandle;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ConsumerSettings;
+import com.cloud.aws_services.model.ConsumerStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Starts, stops and reports on managed SQS consumers, at most one per queue URL.
+ * Message handlers are looked up among the {@link MessageHandler} beans by bean name.
+ */
+@Service
+public class SqsConsumerManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsConsumerManager.class);
+
+    private final SqsService sqsService;
+    private final Map<String, MessageHandler> handlers;
+    private final Map<String, SqsConsumer> consumers = new ConcurrentHashMap<>();
+
+    @Value("${aws.sqs.consumer.pollers:2}")
+    private int defaultPollers;
+
+    @Value("${aws.sqs.consumer.workers:16}")
+    private int defaultWorkers;
+
+    @Value("${aws.sqs.consumer.max-in-flight:100}")
+    private int defaultMaxInFlight;
+
+    @Value("${aws.sqs.consumer.visibility-timeout-seconds:30}")
+    private int defaultVisibilityTimeoutSeconds;
+
+    @Value("${aws.sqs.consumer.wait-time-seconds:20}")
+    private int defaultWaitTimeSeconds;
+
+    @Value("${aws.sqs.consumer.shutdown-grace-millis:10000}")
+    private long shutdownGraceMillis;
+
+    public SqsConsumerManager(SqsService sqsService, Map<String, MessageHandler> handlers) {
+        this.sqsService = sqsService;
+        this.handlers = handlers;
+    }
+
+    /**
+     * Starts consuming a queue.
+     *
+     * @param settings The queue, handler and tuning of the consumer.
+     * @return The initial status of the consumer.
+     * @throws IllegalArgumentException if the queue URL is missing or the handler is unknown.
+     * @throws IllegalStateException    if the queue already has a running consumer.
+     */
+    public synchronized ConsumerStatus start(ConsumerSettings settings) {
+        if (settings.queueUrl() == null || settings.queueUrl().isBlank()) {
+            throw new IllegalArgumentException("queueUrl is required");
+        }
+        if (consumers.containsKey(settings.queueUrl())) {
+            throw new IllegalStateException("A consumer is already running for queue " + settings.queueUrl());
+        }
+        String handlerName = settings.handler() != null ? settings.handler() : "logging";
+        MessageHandler handler = handlers.get(handlerName);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown message handler '" + handlerName + "', available: " + handlers.keySet());
+        }
+        SqsConsumer consumer = new SqsConsumer(sqsService, settings.queueUrl(), handlerName, handler,
+                positive(settings.pollers(), defaultPollers),
+                positive(settings.workers(), defaultWorkers),
+                positive(settings.maxInFlight(), defaultMaxInFlight),
+                positive(settings.visibilityTimeoutSeconds(), defaultVisibilityTimeoutSeconds),
+                settings.waitTimeSeconds() != null ? settings.waitTimeSeconds() : defaultWaitTimeSeconds,
+                settings.ordered() != null ? settings.ordered() : settings.queueUrl().endsWith(".fifo"));
+        consumers.put(settings.queueUrl(), consumer);
+        consumer.start();
+        return consumer.status();
+    }
+
+    /**
+     * Stops the consumer of a queue, letting in-flight handlers finish within the shutdown grace period.
+     *
+     * @param queueUrl The URL of the consumed queue.
+     * @return The final status of the consumer, or {@code null} if none was running.
+     */
+    public ConsumerStatus stop(String queueUrl) {
+        SqsConsumer consumer = consumers.remove(queueUrl);
+        if (consumer == null) {
+            return null;
+        }
+        consumer.stop(shutdownGraceMillis);
+        return consumer.status();
+    }
+
+    /**
+     * Reports throughput, lag and in-flight counts of all running consumers.
+     *
+     * @return One status per consumer.
+     */
+    public List<ConsumerStatus> status() {
+        return consumers.values().stream().map(SqsConsumer::status).toList();
+    }
+
+    @PreDestroy
+    public void stopAll() {
+        consumers.keySet().forEach(queueUrl -> {
+            logger.info("Stopping consumer for queue {} on shutdown.", queueUrl);
+            stop(queueUrl);
+        });
+    }
+
+    private static int positive(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+}
@@ -0,0 +1,196 @@
+package com.cloud.aws_services.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes SQS messages to long-lived subscribers, such as Server-Sent Events connections.
+ * Each queue with at least one subscriber has a single long-poll loop whose batches are broadcast to all of its
+ * subscribers, so adding a subscriber adds no SQS calls. The loop stops when the last subscriber leaves.
+ * <p>
+ * Messages are not deleted: subscribers delete the ones they processed with the receipt handle, and the others
+ * become visible again after the visibility timeout. Each subscriber has a bounded buffer of batches drained by its
+ * own thread; a subscriber that falls behind by more than the buffer is disconnected rather than slowing the others.
+ */
+@Service
+public class SqsMessageBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsMessageBroadcaster.class);
+    private static final int MAX_RECEIVE = 10;
+
+    private final SqsService sqsService;
+    private final Map<String, QueueBroadcast> broadcasts = new ConcurrentHashMap<>();
+
+    @Value("${aws.sqs.stream.wait-time-seconds:20}")
+    private int waitTimeSeconds;
+
+    @Value("${aws.sqs.stream.visibility-timeout-seconds:30}")
+    private int visibilityTimeoutSeconds;
+
+    @Value("${aws.sqs.stream.subscriber-buffer:100}")
+    private int subscriberBuffer;
+
+    public SqsMessageBroadcaster(SqsService sqsService) {
+        this.sqsService = sqsService;
+    }
+
+    /**
+     * Subscribes to the messages of a queue, starting its poll loop if this is the first subscriber.
+     *
+     * @param queueUrl The URL of the queue.
+     * @param sink     Where to send received batches.
+     * @return The subscription; close it when the subscriber goes away.
+     */
+    public synchronized Subscription subscribe(String queueUrl, MessageStreamSink sink) {
+        QueueBroadcast broadcast = broadcasts.computeIfAbsent(queueUrl, QueueBroadcast::new);
+        Subscription subscription = new Subscription(broadcast, sink);
+        broadcast.subscribers.add(subscription);
+        subscription.sender.start();
+        if (!broadcast.poller.isAlive()) {
+            broadcast.poller.start();
+        }
+        logger.info("Subscriber joined stream of queue {} ({} subscribers).", queueUrl, broadcast.subscribers.size());
+        return subscription;
+    }
+
+    /**
+     * Number of current subscribers of a queue.
+     */
+    public int subscribers(String queueUrl) {
+        QueueBroadcast broadcast = broadcasts.get(queueUrl);
+        return broadcast == null ? 0 : broadcast.subscribers.size();
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        broadcasts.values().forEach(broadcast -> broadcast.subscribers.forEach(subscription -> subscription.end("shutdown")));
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        QueueBroadcast broadcast = subscription.broadcast;
+        broadcast.subscribers.remove(subscription);
+        logger.info("Subscriber left stream of queue {} ({} subscribers).", broadcast.queueUrl, broadcast.subscribers.size());
+        if (broadcast.subscribers.isEmpty() && broadcasts.remove(broadcast.queueUrl, broadcast)) {
+            broadcast.stop();
+        }
+    }
+
+    /**
+     * The poll loop of one queue and its subscribers.
+     */
+    private final class QueueBroadcast {
+
+        private final String queueUrl;
+        private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+        private final Thread poller;
+        private volatile boolean running = true;
+
+        private QueueBroadcast(String queueUrl) {
+            this.queueUrl = queueUrl;
+            this.poller = Thread.ofPlatform().name("sqs-stream-" + SqsConsumer.queueName(queueUrl)).daemon(true)
+                    .unstarted(this::pollLoop);
+        }
+
+        private void pollLoop() {
+            while (running) {
+                try {
+                    List<Message> messages = sqsService.receiveMessages(queueUrl, MAX_RECEIVE, waitTimeSeconds,
+                            visibilityTimeoutSeconds);
+                    for (Subscription subscription : subscribers) {
+                        subscription.offer(messages);
+                    }
+                } catch (RuntimeException e) {
+                    if (running) {
+                        logger.warn("Polling queue {} for stream subscribers failed, backing off: {}", queueUrl, e.getMessage());
+                        sleepQuietly(1_000);
+                    }
+                }
+            }
+        }
+
+        private void stop() {
+            running = false;
+            poller.interrupt();
+        }
+    }
+
+    /**
+     * One subscriber: a bounded buffer of batches and the thread that sends them to the sink.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final QueueBroadcast broadcast;
+        private final MessageStreamSink sink;
+        private final BlockingQueue<List<Message>> buffer;
+        private final Thread sender;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(QueueBroadcast broadcast, MessageStreamSink sink) {
+            this.broadcast = broadcast;
+            this.sink = sink;
+            this.buffer = new ArrayBlockingQueue<>(Math.max(1, subscriberBuffer));
+            // Senders mostly block on the client's socket, so virtual threads keep idle subscribers cheap.
+            this.sender = Thread.ofVirtual().name("sqs-stream-" + SqsConsumer.queueName(broadcast.queueUrl) + "-subscriber")
+                    .unstarted(this::sendLoop);
+        }
+
+        /**
+         * Ends the subscription because the subscriber went away. The sink is not called again.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                sender.interrupt();
+                unsubscribe(this);
+            }
+        }
+
+        private void end(String reason) {
+            if (closed.compareAndSet(false, true)) {
+                logger.info("Closing stream subscriber of queue {}: {}", broadcast.queueUrl, reason);
+                sender.interrupt();
+                unsubscribe(this);
+                sink.close();
+            }
+        }
+
+        private void offer(List<Message> messages) {
+            if (!buffer.offer(messages)) {
+                end("more than " + subscriberBuffer + " batches behind");
+            }
+        }
+
+        private void sendLoop() {
+            try {
+                while (!closed.get()) {
+                    sink.send(buffer.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                end("send failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
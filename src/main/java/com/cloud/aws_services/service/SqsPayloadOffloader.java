@@ -0,0 +1,353 @@
+package com.cloud.aws_services.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Claim-check offloading of large SQS message bodies to S3.
+ * A body (plus message attributes) above the threshold is stored as an S3 object and sent as a pointer instead,
+ * in the format of the Amazon SQS Extended Client Library so that producers or consumers on the other side of a
+ * queue may use that library: the body becomes
+ * {@code ["software.amazon.payloadoffloading.PayloadS3Pointer",{"s3BucketName":...,"s3Key":...}]} and the
+ * original size is sent in the {@code ExtendedPayloadSize} message attribute.
+ * Received pointers are resolved whether or not offloading is enabled for sends, but only if they point into the
+ * configured bucket under the configured key prefix; other pointers are left as they are, so a message body or a
+ * receipt handle cannot make this application read or delete arbitrary objects. A payload that cannot be fetched
+ * leaves its message unresolved and flagged with the {@code ExtendedPayloadUnresolved} attribute instead of failing
+ * the whole receive. The receipt handle of a resolved message carries the payload location, so deleting the message
+ * can delete the payload as well.
+ * Bodies below the threshold take the inline path without being encoded.
+ */
+@Service
+public class SqsPayloadOffloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsPayloadOffloader.class);
+    static final String POINTER_CLASS = "software.amazon.payloadoffloading.PayloadS3Pointer";
+    static final String PAYLOAD_SIZE_ATTRIBUTE = "ExtendedPayloadSize";
+    static final String UNRESOLVED_ATTRIBUTE = "ExtendedPayloadUnresolved";
+    private static final String BUCKET_MARKER = "-..s3BucketName..-";
+    private static final String KEY_MARKER = "-..s3Key..-";
+    private static final int MAX_POINTER_LENGTH = 2048;
+    private static final int MAX_DELETE_KEYS = 1000;
+
+    private final S3Client s3Client;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String bucketName;
+    private final String keyPrefix;
+    private final long thresholdBytes;
+    private final boolean deletePayloads;
+
+    public SqsPayloadOffloader(S3Client s3Client,
+                               @Qualifier("s3TransferExecutor") ExecutorService executor,
+                               ObjectMapper objectMapper,
+                               @Value("${aws.sqs.payload-offload.enabled:false}") boolean enabled,
+                               @Value("${aws.sqs.payload-offload.bucket:}") String bucketName,
+                               @Value("${aws.sqs.payload-offload.key-prefix:}") String keyPrefix,
+                               @Value("${aws.sqs.payload-offload.threshold:256KB}") DataSize threshold,
+                               @Value("${aws.sqs.payload-offload.delete-payloads:true}") boolean deletePayloads) {
+        if (enabled && (bucketName == null || bucketName.isBlank())) {
+            throw new IllegalStateException("aws.sqs.payload-offload.bucket is required when payload offloading is enabled");
+        }
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.bucketName = bucketName;
+        this.keyPrefix = keyPrefix;
+        this.thresholdBytes = threshold.toBytes();
+        this.deletePayloads = deletePayloads;
+    }
+
+    /**
+     * Tells whether deleting a message deletes its offloaded payload unless the caller decides otherwise.
+     *
+     * @return {@code true} if {@code aws.sqs.payload-offload.delete-payloads} is set.
+     */
+    public boolean deletesPayloads() {
+        return deletePayloads;
+    }
+
+    /**
+     * Offloads the body of a send request if it is above the threshold.
+     *
+     * @param request The request to send.
+     * @return The request itself, or a copy carrying a pointer to the stored body.
+     */
+    public SendMessageRequest offload(SendMessageRequest request) {
+        if (!exceedsThreshold(request.messageBody(), request.messageAttributes())) {
+            return request;
+        }
+        return request.toBuilder()
+                .messageBody(store(request.messageBody()))
+                .messageAttributes(withPayloadSize(request.messageAttributes(), request.messageBody()))
+                .build();
+    }
+
+    /**
+     * Offloads the bodies of batch entries that are above the threshold, storing several payloads in parallel.
+     *
+     * @param entries The entries to send.
+     * @return The entries in the same order, with large bodies replaced by pointers.
+     */
+    public List<SendMessageBatchRequestEntry> offload(List<SendMessageBatchRequestEntry> entries) {
+        return transform(entries, entry -> exceedsThreshold(entry.messageBody(), entry.messageAttributes()),
+                entry -> entry.toBuilder()
+                        .messageBody(store(entry.messageBody()))
+                        .messageAttributes(withPayloadSize(entry.messageAttributes(), entry.messageBody()))
+                        .build());
+    }
+
+    /**
+     * Replaces pointer bodies by their payloads, fetching several payloads in parallel.
+     * Resolved messages get a receipt handle that also identifies the payload. Pointers outside the configured
+     * bucket and key prefix are not followed, and a message whose payload cannot be fetched is returned unresolved
+     * with the {@code ExtendedPayloadUnresolved} attribute, so that it does not hold back the rest of the batch.
+     *
+     * @param messages The received messages.
+     * @return The messages in the same order, with pointers resolved.
+     */
+    public List<Message> resolve(List<Message> messages) {
+        return transform(messages, message -> trustedPointerOf(message.body()) != null, this::fetchOrFlag);
+    }
+
+    /**
+     * Returns the receipt handle SQS issued, without the payload location added by {@link #resolve(List)}.
+     *
+     * @param receiptHandle A receipt handle as returned by {@link #resolve(List)}.
+     * @return The SQS receipt handle.
+     */
+    public String sqsReceiptHandle(String receiptHandle) {
+        return receiptHandle.startsWith(BUCKET_MARKER)
+                ? receiptHandle.substring(receiptHandle.lastIndexOf(KEY_MARKER) + KEY_MARKER.length())
+                : receiptHandle;
+    }
+
+    /**
+     * Deletes the payloads of messages that were resolved from pointers. Failures are logged; the message
+     * itself is already gone by then, so an undeleted payload is left for a bucket lifecycle rule.
+     *
+     * @param receiptHandles Receipt handles as returned by {@link #resolve(List)}; those without a payload, or with
+     *                       one outside the configured bucket and key prefix, are skipped.
+     */
+    public void deletePayloads(List<String> receiptHandles) {
+        Map<String, List<String>> keysByBucket = receiptHandles.stream()
+                .map(SqsPayloadOffloader::payloadOf)
+                .filter(Objects::nonNull)
+                .filter(pointer -> {
+                    if (isTrusted(pointer)) {
+                        return true;
+                    }
+                    logger.warn("Not deleting message payload '{}' in bucket {}: outside the configured payload location.",
+                            pointer.key(), pointer.bucketName());
+                    return false;
+                })
+                .collect(Collectors.groupingBy(PayloadPointer::bucketName, LinkedHashMap::new,
+                        Collectors.mapping(PayloadPointer::key, Collectors.toList())));
+        keysByBucket.forEach((bucket, keys) -> {
+            for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+                List<ObjectIdentifier> chunk = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size())).stream()
+                        .map(key -> ObjectIdentifier.builder().key(key).build())
+                        .toList();
+                try {
+                    DeleteObjectsResponse response = s3Client.deleteObjects(b -> b.bucket(bucket)
+                            .delete(d -> d.objects(chunk).quiet(true)));
+                    response.errors().forEach(error -> logger.warn("Failed to delete message payload '{}' in bucket {}: {}",
+                            error.key(), bucket, error.message()));
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to delete {} message payloads in bucket {}: {}", chunk.size(), bucket, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private boolean exceedsThreshold(String body, Map<String, MessageAttributeValue> attributes) {
+        if (!enabled) {
+            return false;
+        }
+        // A UTF-16 char encodes to at most three UTF-8 bytes, so short bodies skip the exact count.
+        long attributeBytes = attributesSize(attributes);
+        if ((long) body.length() * 3 + attributeBytes <= thresholdBytes) {
+            return false;
+        }
+        return body.getBytes(StandardCharsets.UTF_8).length + attributeBytes > thresholdBytes;
+    }
+
+    private String store(String body) {
+        String key = keyPrefix + UUID.randomUUID();
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+        s3Client.putObject(b -> b.bucket(bucketName).key(key), RequestBody.fromBytes(payload));
+        logger.debug("Offloaded message body of {} bytes to '{}' in bucket '{}'.", payload.length, key, bucketName);
+        ArrayNode pointer = objectMapper.createArrayNode().add(POINTER_CLASS);
+        pointer.addObject().put("s3BucketName", bucketName).put("s3Key", key);
+        return pointer.toString();
+    }
+
+    private Message fetchOrFlag(Message message) {
+        try {
+            return fetch(message);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to fetch the payload of message {}, returning it unresolved: {}", message.messageId(), e.getMessage());
+            Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+            attributes.put(UNRESOLVED_ATTRIBUTE, MessageAttributeValue.builder()
+                    .dataType("String")
+                    .stringValue(Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName()))
+                    .build());
+            return message.toBuilder().messageAttributes(attributes).build();
+        }
+    }
+
+    private Message fetch(Message message) {
+        PayloadPointer pointer = trustedPointerOf(message.body());
+        String body = s3Client.getObjectAsBytes(b -> b.bucket(pointer.bucketName()).key(pointer.key())).asUtf8String();
+        Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+        attributes.remove(PAYLOAD_SIZE_ATTRIBUTE);
+        return message.toBuilder()
+                .body(body)
+                .messageAttributes(attributes)
+                .receiptHandle(BUCKET_MARKER + pointer.bucketName() + BUCKET_MARKER
+                        + KEY_MARKER + pointer.key() + KEY_MARKER + message.receiptHandle())
+                .build();
+    }
+
+    /**
+     * Applies {@code change} to the matching items, concurrently when there are several.
+     */
+    private <T> List<T> transform(List<T> items, Predicate<T> matches, Function<T, T> change) {
+        List<Integer> matching = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (matches.test(items.get(i))) {
+                matching.add(i);
+            }
+        }
+        if (matching.isEmpty()) {
+            return items;
+        }
+        List<T> result = new ArrayList<>(items);
+        if (matching.size() == 1) {
+            int index = matching.get(0);
+            result.set(index, change.apply(items.get(index)));
+            return result;
+        }
+        List<CompletableFuture<T>> changed = matching.stream()
+                .map(index -> CompletableFuture.supplyAsync(() -> change.apply(items.get(index)), executor))
+                .toList();
+        try {
+            for (int i = 0; i < matching.size(); i++) {
+                result.set(matching.get(i), changed.get(i).join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the pointer in a message body if it points into the configured bucket and key prefix.
+     */
+    private PayloadPointer trustedPointerOf(String body) {
+        PayloadPointer pointer = pointerOf(body);
+        if (pointer == null) {
+            return null;
+        }
+        if (!isTrusted(pointer)) {
+            logger.warn("Not resolving payload pointer to '{}' in bucket {}: outside the configured payload location.",
+                    pointer.key(), pointer.bucketName());
+            return null;
+        }
+        return pointer;
+    }
+
+    private boolean isTrusted(PayloadPointer pointer) {
+        return bucketName != null && !bucketName.isBlank() && bucketName.equals(pointer.bucketName())
+                && pointer.key().startsWith(keyPrefix);
+    }
+
+    private PayloadPointer pointerOf(String body) {
+        if (body == null || body.length() > MAX_POINTER_LENGTH || !body.startsWith("[") || !body.contains(POINTER_CLASS)) {
+            return null;
+        }
+        try {
+            JsonNode pointer = objectMapper.readTree(body);
+            if (pointer.size() != 2 || !POINTER_CLASS.equals(pointer.path(0).asText())
+                    || !pointer.path(1).hasNonNull("s3BucketName") || !pointer.path(1).hasNonNull("s3Key")) {
+                return null;
+            }
+            return new PayloadPointer(pointer.path(1).get("s3BucketName").asText(), pointer.path(1).get("s3Key").asText());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static PayloadPointer payloadOf(String receiptHandle) {
+        if (!receiptHandle.startsWith(BUCKET_MARKER)) {
+            return null;
+        }
+        int bucketEnd = receiptHandle.indexOf(BUCKET_MARKER, BUCKET_MARKER.length());
+        int keyStart = bucketEnd + BUCKET_MARKER.length() + KEY_MARKER.length();
+        int keyEnd = receiptHandle.lastIndexOf(KEY_MARKER);
+        if (bucketEnd < 0 || keyEnd < keyStart) {
+            return null;
+        }
+        return new PayloadPointer(receiptHandle.substring(BUCKET_MARKER.length(), bucketEnd), receiptHandle.substring(keyStart, keyEnd));
+    }
+
+    private static Map<String, MessageAttributeValue> withPayloadSize(Map<String, MessageAttributeValue> attributes, String body) {
+        Map<String, MessageAttributeValue> withSize = new HashMap<>(attributes);
+        withSize.put(PAYLOAD_SIZE_ATTRIBUTE, MessageAttributeValue.builder()
+                .dataType("Number")
+                .stringValue(Integer.toString(body.getBytes(StandardCharsets.UTF_8).length))
+                .build());
+        return withSize;
+    }
+
+    /**
+     * Counts attributes the way SQS does towards the message size limit: name, data type and value.
+     */
+    private static long attributesSize(Map<String, MessageAttributeValue> attributes) {
+        long size = 0;
+        for (Map.Entry<String, MessageAttributeValue> attribute : attributes.entrySet()) {
+            MessageAttributeValue value = attribute.getValue();
+            size += attribute.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += value.dataType() != null ? value.dataType().getBytes(StandardCharsets.UTF_8).length : 0;
+            size += value.stringValue() != null ? value.stringValue().getBytes(StandardCharsets.UTF_8).length : 0;
+            size += value.binaryValue() != null ? value.binaryValue().asByteArrayUnsafe().length : 0;
+        }
+        return size;
+    }
+
+    private record PayloadPointer(String bucketName, String key) {
+    }
+}
@@ -1,28 +1,45 @@
 package com.cloud.aws_services.service;
 
+import com.cloud.aws_services.model.BulkItemResult;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 import software.amazon.awssdk.services.sqs.model.Message;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * Service for interacting with Amazon SQS.
- * Provides methods for sending, receiving, and deleting messages
+ * Provides methods for sending, receiving, and deleting messages.
+ * Bodies above the {@code aws.sqs.payload-offload.threshold} are sent as S3 claim checks and resolved on receive,
+ * see {@link SqsPayloadOffloader}.
  */
 @AllArgsConstructor
 @Service
 public class SqsService {
 
     private static final Logger logger = LoggerFactory.getLogger(SqsService.class);
+    private static final int MAX_BATCH_ENTRIES = 10;
     private final SqsClient sqsClient;
+    private final SqsPayloadOffloader payloadOffloader;
 
     /**
      * Sends a message to the specified SQS queue.
@@ -33,10 +50,10 @@ public class SqsService {
      */
     public String sendMessage(String queueUrl, String message) {
         try {
-            SendMessageRequest request = SendMessageRequest.builder()
+            SendMessageRequest request = payloadOffloader.offload(SendMessageRequest.builder()
                     .queueUrl(queueUrl)
                     .messageBody(message)
-                    .build();
+                    .build());
             String messageId = sqsClient.sendMessage(request).messageId();
             logger.info("Message sent successfully. Message ID: {}", messageId);
             return messageId;
@@ -46,6 +63,30 @@ public class SqsService {
         }
     }
 
+    /**
+     * Sends up to ten messages to the specified SQS queue in a single call.
+     * Failures of individual entries are reported in the response rather than thrown.
+     * Large bodies are offloaded to S3 individually, so one large entry does not push the others out of the batch.
+     *
+     * @param queueUrl The URL of the SQS queue.
+     * @param entries  The messages to send, each with an ID unique within the batch.
+     * @return The per-entry results of the batch.
+     */
+    public SendMessageBatchResponse sendMessageBatch(String queueUrl, List<SendMessageBatchRequestEntry> entries) {
+        try {
+            SendMessageBatchRequest request = SendMessageBatchRequest.builder()
+                    .queueUrl(queueUrl)
+                    .entries(payloadOffloader.offload(entries))
+                    .build();
+            SendMessageBatchResponse response = sqsClient.sendMessageBatch(request);
+            logger.info("Sent batch of {} messages to queue {} ({} failed).", entries.size(), queueUrl, response.failed().size());
+            return response;
+        } catch (Exception e) {
+            logger.error("Error sending message batch to queue {}: {}", queueUrl, e.getMessage(), e);
+            throw new RuntimeException("Failed to send message batch", e);
+        }
+    }
+
     /**
      * Receives messages from the specified SQS queue.
      *
@@ -62,7 +103,7 @@ public class SqsService {
                     .waitTimeSeconds(waitTimeSeconds)
                     .build();
             ReceiveMessageResponse response = sqsClient.receiveMessage(request);
-            List<Message> messages = response.messages();
+            List<Message> messages = payloadOffloader.resolve(response.messages());
             logger.info("Received {} messages from queue {}", messages.size(), queueUrl);
             return messages;
         } catch (Exception e) {
@@ -72,22 +113,156 @@ public class SqsService {
     }
 
     /**
-     * Deletes a message from the specified SQS queue.
+     * Receives messages together with their system and message attributes.
+     *
+     * @param queueUrl                 The URL of the SQS queue.
+     * @param maxMessages              Maximum number of messages to retrieve (1 to 10).
+     * @param waitTimeSeconds          Wait time for long polling.
+     * @param visibilityTimeoutSeconds How long the received messages stay hidden from other consumers.
+     * @return A list of messages.
+     */
+    public List<Message> receiveMessages(String queueUrl, int maxMessages, int waitTimeSeconds, int visibilityTimeoutSeconds) {
+        try {
+            ReceiveMessageRequest request = ReceiveMessageRequest.builder()
+                    .queueUrl(queueUrl)
+                    .maxNumberOfMessages(maxMessages)
+                    .waitTimeSeconds(waitTimeSeconds)
+                    .visibilityTimeout(visibilityTimeoutSeconds)
+                    .messageSystemAttributeNames(MessageSystemAttributeName.ALL)
+                    .messageAttributeNames("All")
+                    .build();
+            List<Message> messages = payloadOffloader.resolve(sqsClient.receiveMessage(request).messages());
+            logger.debug("Received {} messages from queue {}", messages.size(), queueUrl);
+            return messages;
+        } catch (Exception e) {
+            logger.error("Error receiving messages from queue {}: {}", queueUrl, e.getMessage(), e);
+            throw new RuntimeException("Failed to receive messages", e);
+        }
+    }
+
+    /**
+     * Deletes a message from the specified SQS queue, and its offloaded payload if
+     * {@code aws.sqs.payload-offload.delete-payloads} is set.
      *
      * @param queueUrl      The URL of the SQS queue.
      * @param receiptHandle The receipt handle of the message.
      */
     public void deleteMessage(String queueUrl, String receiptHandle) {
+        deleteMessage(queueUrl, receiptHandle, payloadOffloader.deletesPayloads());
+    }
+
+    /**
+     * Deletes a message from the specified SQS queue.
+     *
+     * @param queueUrl      The URL of the SQS queue.
+     * @param receiptHandle The receipt handle of the message.
+     * @param deletePayload Whether to also delete the S3 payload of a message that was received as a claim check.
+     */
+    public void deleteMessage(String queueUrl, String receiptHandle, boolean deletePayload) {
         try {
             DeleteMessageRequest request = DeleteMessageRequest.builder()
                     .queueUrl(queueUrl)
-                    .receiptHandle(receiptHandle)
+                    .receiptHandle(payloadOffloader.sqsReceiptHandle(receiptHandle))
                     .build();
             sqsClient.deleteMessage(request);
+            if (deletePayload) {
+                payloadOffloader.deletePayloads(List.of(receiptHandle));
+            }
             logger.info("Deleted message with receipt handle {} from queue {}", receiptHandle, queueUrl);
         } catch (Exception e) {
             logger.error("Error deleting message from queue {}: {}", queueUrl, e.getMessage(), e);
             throw new RuntimeException("Failed to delete message", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes up to ten messages from the specified SQS queue in a single call.
+     * Failures of individual entries are reported in the response rather than thrown.
+     * Offloaded payloads of the deleted messages are deleted too if {@code aws.sqs.payload-offload.delete-payloads} is set.
+     *
+     * @param queueUrl       The URL of the SQS queue.
+     * @param receiptHandles The receipt handles of the messages; entry IDs are their list indexes.
+     * @return The per-entry results of the batch.
+     */
+    public DeleteMessageBatchResponse deleteMessageBatch(String queueUrl, List<String> receiptHandles) {
+        try {
+            DeleteMessageBatchRequest request = DeleteMessageBatchRequest.builder()
+                    .queueUrl(queueUrl)
+                    .entries(batchEntries(receiptHandles, (id, handle) -> DeleteMessageBatchRequestEntry.builder()
+                            .id(id).receiptHandle(payloadOffloader.sqsReceiptHandle(handle)).build()))
+                    .build();
+            DeleteMessageBatchResponse response = sqsClient.deleteMessageBatch(request);
+            if (payloadOffloader.deletesPayloads()) {
+                payloadOffloader.deletePayloads(response.successful().stream()
+                        .map(entry -> receiptHandles.get(Integer.parseInt(entry.id())))
+                        .toList());
+            }
+            logger.debug("Deleted batch of {} messages from queue {} ({} failed).", receiptHandles.size(), queueUrl, response.failed().size());
+            return response;
+        } catch (Exception e) {
+            logger.error("Error deleting message batch from queue {}: {}", queueUrl, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete message batch", e);
+        }
+    }
+
+    /**
+     * Deletes many messages using {@code DeleteMessageBatch} calls of up to ten entries.
+     *
+     * @param queueUrl       The URL of the SQS queue.
+     * @param receiptHandles The receipt handles of the messages.
+     * @return One result per receipt handle, identified by its position in the list.
+     */
+    public List<BulkItemResult> deleteMessages(String queueUrl, List<String> receiptHandles) {
+        List<BulkItemResult> results = new ArrayList<>(receiptHandles.size());
+        for (int from = 0; from < receiptHandles.size(); from += MAX_BATCH_ENTRIES) {
+            List<String> chunk = receiptHandles.subList(from, Math.min(from + MAX_BATCH_ENTRIES, receiptHandles.size()));
+            int offset = from;
+            try {
+                DeleteMessageBatchResponse response = deleteMessageBatch(queueUrl, chunk);
+                response.successful().forEach(entry ->
+                        results.add(BulkItemResult.ok(Integer.toString(offset + Integer.parseInt(entry.id())))));
+                response.failed().forEach(entry -> results.add(BulkItemResult.failed(
+                        Integer.toString(offset + Integer.parseInt(entry.id())), entry.code() + " - " + entry.message())));
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BulkItemResult.failed(Integer.toString(offset + i), e.getCause() != null
+                            ? e.getCause().getMessage() : e.getMessage()));
+                }
+            }
+        }
+        logger.info("Bulk deleted {} messages from queue {}", receiptHandles.size(), queueUrl);
+        return results;
+    }
+
+    /**
+     * Changes the visibility timeout of up to ten in-flight messages in a single call.
+     *
+     * @param queueUrl                 The URL of the SQS queue.
+     * @param receiptHandles           The receipt handles of the messages; entry IDs are their list indexes.
+     * @param visibilityTimeoutSeconds The new visibility timeout, counted from now.
+     * @return The per-entry results of the batch.
+     */
+    public ChangeMessageVisibilityBatchResponse changeMessageVisibilityBatch(String queueUrl, List<String> receiptHandles,
+                                                                             int visibilityTimeoutSeconds) {
+        try {
+            ChangeMessageVisibilityBatchRequest request = ChangeMessageVisibilityBatchRequest.builder()
+                    .queueUrl(queueUrl)
+                    .entries(batchEntries(receiptHandles, (id, handle) -> ChangeMessageVisibilityBatchRequestEntry.builder()
+                            .id(id).receiptHandle(payloadOffloader.sqsReceiptHandle(handle))
+                            .visibilityTimeout(visibilityTimeoutSeconds).build()))
+                    .build();
+            return sqsClient.changeMessageVisibilityBatch(request);
+        } catch (Exception e) {
+            logger.error("Error changing message visibility in queue {}: {}", queueUrl, e.getMessage(), e);
+            throw new RuntimeException("Failed to change message visibility", e);
+        }
+    }
+
+    private static <T> List<T> batchEntries(List<String> receiptHandles, BiFunction<String, String, T> entry) {
+        List<T> entries = new ArrayList<>(receiptHandles.size());
+        for (int i = 0; i < receiptHandles.size(); i++) {
+            entries.add(entry.apply(Integer.toString(i), receiptHandles.get(i)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cloud.aws_services.service;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry rules shared by the part-level transfer engines.
+ * Parts are retried on their own so that one flaky request does not restart a whole transfer.
+ */
+final class TransferRetries {
+
+    private TransferRetries() {
+    }
+
+    /**
+     * Server errors, throttling and client-side I/O failures are worth retrying; other 4xx errors are not.
+     */
+    static boolean isRetryable(SdkException e) {
+        if (e instanceof S3Exception s3Exception) {
+            return s3Exception.statusCode() >= 500 || s3Exception.isThrottlingException();
+        }
+        return e instanceof SdkClientException;
+    }
+
+    /**
+     * Sleeps for a jittered, exponentially growing delay capped at five seconds.
+     */
+    static void backoff(int attempt) {
+        long maxDelayMillis = Math.min(100L << attempt, 5_000L);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelayMillis / 2, maxDelayMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while backing off", e);
+        }
+    }
+
+    /**
+     * Formats a transfer rate for logging.
+     */
+    static String mebibytesPerSecond(long bytes, long startedNanos) {
+        double seconds = Math.max((System.nanoTime() - startedNanos) / 1e9, 1e-9);
+        return String.format("%.2f", bytes / seconds / (1024 * 1024));
+    }
+}
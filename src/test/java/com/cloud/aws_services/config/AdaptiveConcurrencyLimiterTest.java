@@ -0,0 +1,79 @@
+package com.cloud.aws_services.config;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void retriesSlowDownWithBackoffAndShrinksThePrefixLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(registry, true, 10, 2, 20, 0.5, 100);
+        try (FakeS3Server server = new FakeS3Server(); S3Client s3Client = client(server, limiter)) {
+            server.slowDown(2);
+            s3Client.putObject(b -> b.bucket("bucket").key("logs/a.txt"), RequestBody.fromString("a"));
+
+            server.slowDown(3);
+            assertThatThrownBy(() -> s3Client.putObject(b -> b.bucket("bucket").key("logs/b.txt"), RequestBody.fromString("b")))
+                    .isInstanceOfSatisfying(S3Exception.class, e -> assertThat(AdaptiveConcurrencyLimiter.isThrottling(e)).isTrue());
+        }
+
+        assertThat(registry.get("aws.client.concurrency.throttled").tags("service", "s3", "partition", "bucket/logs/")
+                .counter().count()).isEqualTo(5);
+        assertThat(registry.get("aws.client.concurrency.limit").tags("partition", "bucket/logs/").gauge().value())
+                .isBetween(2.0, 5.0);
+        assertThat(registry.get("aws.client.concurrency.in-flight").tags("partition", "bucket/logs/").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void rejectsCallsOverTheLimitWithoutSendingThem() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(registry, true, 1, 1, 4, 0.5, 100);
+        try (FakeS3Server server = new FakeS3Server(); S3Client s3Client = client(server, limiter)) {
+            server.putObject("bucket", "a.txt", new byte[10]);
+            AdaptiveConcurrencyLimiter.Limit limit = limiter.limit("s3", "bucket");
+            assertThat(limit.tryAcquire()).isTrue();
+
+            assertThatThrownBy(() -> s3Client.getObjectAsBytes(b -> b.bucket("bucket").key("a.txt")))
+                    .isInstanceOfSatisfying(ConcurrencyLimitExceededException.class,
+                            e -> assertThat(e.partition()).isEqualTo("s3:bucket"));
+            assertThat(server.getRequests()).isZero();
+
+            limit.release();
+            assertThat(s3Client.getObjectAsBytes(b -> b.bucket("bucket").key("a.txt")).asByteArray()).hasSize(10);
+            assertThat(server.getRequests()).isEqualTo(1);
+        }
+
+        assertThat(registry.get("aws.client.concurrency.rejected").tags("partition", "bucket").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("aws.client.concurrency.limit").tags("partition", "bucket").gauge().value())
+                .isEqualTo(2);
+    }
+
+    private static S3Client client(FakeS3Server server, AdaptiveConcurrencyLimiter limiter) {
+        return S3Client.builder()
+                .endpointOverride(server.endpoint())
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .overrideConfiguration(AwsConfig.instrumented(new MicrometerMetricPublisher(new SimpleMeterRegistry()),
+                        new ResourceTaggingInterceptor(), limiter, AwsConfig.throttleAwareRetryStrategy(3,
+                                Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(50), true)))
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.cloud.aws_services.config;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicrometerMetricPublisherTest {
+
+    @Test
+    void recordsCallDurationBytesAndOutcomeTaggedByBucket() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (FakeS3Server server = new FakeS3Server();
+             S3Client s3Client = S3Client.builder()
+                     .endpointOverride(server.endpoint())
+                     .forcePathStyle(true)
+                     .region(Region.US_EAST_1)
+                     .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                     .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                     .overrideConfiguration(AwsConfig.instrumented(new MicrometerMetricPublisher(registry), new ResourceTaggingInterceptor()))
+                     .build()) {
+            s3Client.putObject(b -> b.bucket("metrics-bucket").key("a.txt"), RequestBody.fromBytes(new byte[1234]));
+            s3Client.getObjectAsBytes(b -> b.bucket("metrics-bucket").key("a.txt"));
+            assertThatThrownBy(() -> s3Client.getObjectAsBytes(b -> b.bucket("metrics-bucket").key("missing")));
+        }
+
+        Timer put = registry.get("aws.sdk.api.call.duration")
+                .tags("service", "S3", "operation", "PutObject", "resource", "metrics-bucket", "outcome", "success").timer();
+        assertThat(put.count()).isEqualTo(1);
+        assertThat(registry.get("aws.sdk.api.call.duration").tags("operation", "GetObject", "outcome", "failure").timer().count())
+                .isEqualTo(1);
+        DistributionSummary sent = registry.get("aws.sdk.bytes").tags("operation", "PutObject", "direction", "sent").summary();
+        assertThat(sent.totalAmount()).isEqualTo(1234);
+        DistributionSummary received = registry.get("aws.sdk.bytes")
+                .tags("operation", "GetObject", "outcome", "success", "direction", "received").summary();
+        assertThat(received.totalAmount()).isEqualTo(1234);
+        assertThat(registry.get("aws.sdk.http.connection.acquire").timer().count()).isEqualTo(3);
+    }
+}
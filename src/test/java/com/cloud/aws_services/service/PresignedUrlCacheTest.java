@@ -0,0 +1,99 @@
+package com.cloud.aws_services.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresignedUrlCacheTest {
+
+    @Test
+    void reusesUrlWhileEnoughValidityRemains() {
+        PresignedUrlCache cache = new PresignedUrlCache(100, 0.5);
+        AtomicInteger signed = new AtomicInteger();
+
+        String first = cache.get("GET", "bucket", "thumb.png", Duration.ofMinutes(5), null,
+                validity -> "url-" + signed.incrementAndGet()).url();
+        String second = cache.get("GET", "bucket", "thumb.png", Duration.ofMinutes(5), null,
+                validity -> "url-" + signed.incrementAndGet()).url();
+        String otherValidity = cache.get("GET", "bucket", "thumb.png", Duration.ofMinutes(10), null,
+                validity -> "url-" + signed.incrementAndGet()).url();
+
+        assertThat(first).isEqualTo(second).isEqualTo("url-1");
+        assertThat(otherValidity).isEqualTo("url-2");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void sharesOneUrlAcrossValiditiesOfTheSameClass() {
+        PresignedUrlCache cache = new PresignedUrlCache(100, 0.5);
+        List<Duration> signedFor = new ArrayList<>();
+
+        PresignedUrlCache.CachedUrl eightMinutes = cache.get("GET", "bucket", "a", Duration.ofMinutes(8), null,
+                validity -> {
+                    signedFor.add(validity);
+                    return "url-" + signedFor.size();
+                });
+        PresignedUrlCache.CachedUrl tenMinutes = cache.get("GET", "bucket", "a", Duration.ofMinutes(10), null,
+                validity -> {
+                    signedFor.add(validity);
+                    return "url-" + signedFor.size();
+                });
+
+        assertThat(tenMinutes).isEqualTo(eightMinutes);
+        assertThat(signedFor).containsExactly(Duration.ofMinutes(8));
+        assertThat(PresignedUrlCache.validityClass(Duration.ofMinutes(8))).isEqualTo(Duration.ofMinutes(5));
+        assertThat(PresignedUrlCache.validityClass(Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void neverReturnsUrlValidLongerThanRequested() {
+        PresignedUrlCache cache = new PresignedUrlCache(100, 0.5);
+        List<Duration> signedFor = new ArrayList<>();
+
+        cache.get("GET", "bucket", "a", Duration.ofMinutes(14), null, validity -> {
+            signedFor.add(validity);
+            return "url-" + signedFor.size();
+        });
+        PresignedUrlCache.CachedUrl shorter = cache.get("GET", "bucket", "a", Duration.ofMinutes(6), null, validity -> {
+            signedFor.add(validity);
+            return "url-" + signedFor.size();
+        });
+        cache.get("GET", "bucket", "b", Duration.ofSeconds(61), null, validity -> {
+            signedFor.add(validity);
+            return "url-" + signedFor.size();
+        });
+
+        assertThat(shorter.url()).isEqualTo("url-2");
+        assertThat(shorter.expiresAt()).isBeforeOrEqualTo(Instant.now().plus(Duration.ofMinutes(6)));
+        assertThat(signedFor).containsExactly(Duration.ofMinutes(14), Duration.ofMinutes(6), Duration.ofSeconds(61));
+    }
+
+    @Test
+    void resignsWhenRemainingValidityIsTooShort() {
+        PresignedUrlCache cache = new PresignedUrlCache(100, 1.0);
+        AtomicInteger signed = new AtomicInteger();
+
+        cache.get("GET", "bucket", "a", Duration.ofSeconds(60), null, validity -> "url-" + signed.incrementAndGet());
+        String again = cache.get("GET", "bucket", "a", Duration.ofSeconds(60), null,
+                validity -> "url-" + signed.incrementAndGet()).url();
+
+        assertThat(again).isEqualTo("url-2");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondCapacity() {
+        PresignedUrlCache cache = new PresignedUrlCache(2, 0.5);
+        for (String key : new String[]{"a", "b", "c"}) {
+            cache.get("GET", "bucket", key, Duration.ofMinutes(5), null, validity -> key);
+        }
+
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+}
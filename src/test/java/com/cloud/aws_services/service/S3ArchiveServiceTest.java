@@ -0,0 +1,131 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ArchiveUploadSummary;
+import com.cloud.aws_services.support.FakeS3Server;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class S3ArchiveServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3ArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(8);
+        S3Service s3Service = FakeS3Server.s3Service(s3Client, executor);
+        archiveService = new S3ArchiveService(s3Client, s3Service, executor, 4, DataSize.ofKilobytes(64),
+                3, DataSize.ofKilobytes(64), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void unpacksTarEntriesIntoObjectsAndRejectsUnsafeNames() throws Exception {
+        byte[] large = randomBytes(200 * 1024);
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("a.txt", "alpha".getBytes(StandardCharsets.UTF_8));
+        files.put("./docs/b.json", "{\"b\":1}".getBytes(StandardCharsets.UTF_8));
+        files.put("../escape.txt", "nope".getBytes(StandardCharsets.UTF_8));
+        files.put("docs/large.bin", large);
+
+        ArchiveUploadSummary summary = archiveService.uploadArchive(BUCKET, "imports/", new ByteArrayInputStream(tar(files)), "tar");
+
+        assertThat(summary.uploaded()).isEqualTo(3);
+        assertThat(summary.failed()).isEqualTo(1);
+        assertThat(summary.failures()).singleElement().satisfies(failure -> assertThat(failure.id()).isEqualTo("../escape.txt"));
+        assertThat(server.getObject(BUCKET, "imports/a.txt")).isEqualTo(files.get("a.txt"));
+        assertThat(server.getObject(BUCKET, "imports/docs/b.json")).isEqualTo(files.get("./docs/b.json"));
+        assertThat(server.getObject(BUCKET, "imports/docs/large.bin")).isEqualTo(large);
+    }
+
+    @Test
+    void streamsZipInOrderWithLargeObjectsAndReportsMissingKeys() throws Exception {
+        Map<String, byte[]> objects = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            objects.put("export/file-" + i + ".txt", ("content " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        objects.put("export/file-5.txt", randomBytes(300 * 1024));
+        objects.forEach((key, data) -> server.putObject(BUCKET, key, data));
+
+        ByteArrayOutputStream prefixZip = new ByteArrayOutputStream();
+        archiveService.writeZip(BUCKET, "export/", null, prefixZip);
+        Map<String, byte[]> entries = unzip(prefixZip.toByteArray());
+        assertThat(entries.keySet()).containsExactlyElementsOf(objects.keySet().stream()
+                .map(key -> key.substring("export/".length())).sorted().toList());
+        objects.forEach((key, data) -> assertThat(entries.get(key.substring("export/".length()))).isEqualTo(data));
+        assertThat(server.getRequests()).as("one GET per object").isEqualTo(objects.size());
+
+        ByteArrayOutputStream listZip = new ByteArrayOutputStream();
+        archiveService.writeZip(BUCKET, null, List.of("export/file-3.txt", "export/missing.txt", "export/file-5.txt"), listZip);
+        Map<String, byte[]> listed = unzip(listZip.toByteArray());
+        assertThat(listed.keySet()).containsExactly("export/file-3.txt", "export/file-5.txt", S3ArchiveService.ERRORS_ENTRY);
+        assertThat(new String(listed.get(S3ArchiveService.ERRORS_ENTRY), StandardCharsets.UTF_8))
+                .startsWith("export/missing.txt: NoSuchKey");
+        assertThat(server.getRequests()).as("one GET per object").isEqualTo(objects.size() + 2);
+    }
+
+    private static byte[] tar(Map<String, byte[]> files) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            tar.putArchiveEntry(new TarArchiveEntry("docs/"));
+            tar.closeArchiveEntry();
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                TarArchiveEntry entry = new TarArchiveEntry(file.getKey(), true);
+                entry.setSize(file.getValue().length);
+                tar.putArchiveEntry(entry);
+                tar.write(file.getValue());
+                tar.closeArchiveEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(3).nextBytes(data);
+        return data;
+    }
+}
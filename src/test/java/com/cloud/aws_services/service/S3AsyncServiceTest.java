@@ -0,0 +1,116 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ObjectMetadata;
+import com.cloud.aws_services.support.FakeS3Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3AsyncServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3AsyncClient s3AsyncClient;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3MetadataCache metadataCache;
+    private S3AsyncService s3AsyncService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3AsyncClient = server.asyncClient();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(2);
+        metadataCache = new S3MetadataCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        S3ObjectCache objectCache = new S3ObjectCache(s3Client, new SimpleMeterRegistry(), false, Path.of("unused"),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), Duration.ZERO);
+        s3AsyncService = new S3AsyncService(s3AsyncClient, executor, objectCache, metadataCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3AsyncClient.close();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void uploadsCopiesListsAndDeletesObjects() throws Exception {
+        byte[] data = randomBytes(300 * 1024);
+
+        s3AsyncService.uploadFile(BUCKET, "a.bin", new MockMultipartFile("file", "a.bin", "application/octet-stream", data))
+                .get(10, TimeUnit.SECONDS);
+        s3AsyncService.copyObject(BUCKET, "a.bin", BUCKET, "b.bin").get(10, TimeUnit.SECONDS);
+
+        assertThat(server.getObject(BUCKET, "a.bin")).isEqualTo(data);
+        assertThat(server.getObject(BUCKET, "b.bin")).isEqualTo(data);
+        assertThat(s3AsyncService.listObjects(BUCKET).get(10, TimeUnit.SECONDS)).containsExactly("a.bin", "b.bin");
+
+        s3AsyncService.deleteObject(BUCKET, "a.bin").get(10, TimeUnit.SECONDS);
+        assertThat(server.getObject(BUCKET, "a.bin")).isNull();
+    }
+
+    @Test
+    void streamsWholeAndRangedDownloads() throws Exception {
+        byte[] data = randomBytes(200 * 1024);
+        server.putObject(BUCKET, "video.mp4", data);
+
+        try (var object = s3AsyncService.downloadFile(BUCKET, "video.mp4", null).get(10, TimeUnit.SECONDS)) {
+            assertThat(object.readAllBytes()).isEqualTo(data);
+            assertThat(object.response().contentRange()).isNull();
+        }
+        try (var object = s3AsyncService.downloadFile(BUCKET, "video.mp4", "bytes=1024-2047").get(10, TimeUnit.SECONDS)) {
+            assertThat(object.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, 1024, 2048));
+            assertThat(object.response().contentRange()).isEqualTo("bytes 1024-2047/" + data.length);
+        }
+        assertThatThrownBy(() -> s3AsyncService.downloadFile(BUCKET, "missing.bin", null).get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void writesDropTheirKeyFromTheMetadataCache() throws Exception {
+        server.putObject(BUCKET, "a.bin", new byte[16]);
+        for (String key : new String[]{"a.bin", "b.bin", "c.bin"}) {
+            metadataCache.get(BUCKET, key, () -> metadata(key));
+        }
+
+        s3AsyncService.uploadFile(BUCKET, "c.bin", new MockMultipartFile("file", new byte[8])).get(10, TimeUnit.SECONDS);
+        s3AsyncService.copyObject(BUCKET, "a.bin", BUCKET, "b.bin").get(10, TimeUnit.SECONDS);
+        s3AsyncService.deleteObject(BUCKET, "a.bin").get(10, TimeUnit.SECONDS);
+
+        for (String key : new String[]{"a.bin", "b.bin", "c.bin"}) {
+            ObjectMetadata reloaded = metadata(key);
+            assertThat(metadataCache.get(BUCKET, key, () -> reloaded)).as(key).isSameAs(reloaded);
+        }
+    }
+
+    private static ObjectMetadata metadata(String key) {
+        return new ObjectMetadata(BUCKET, key, 16L, "\"etag\"", null, null, null, null, null, null);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+}
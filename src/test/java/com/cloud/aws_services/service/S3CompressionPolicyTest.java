@@ -0,0 +1,42 @@
+package com.cloud.aws_services.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3CompressionPolicyTest {
+
+    private final S3CompressionPolicy policy = new S3CompressionPolicy(
+            List.of("logs=gzip", "logs/app/=zstd", "logs/app/raw/=none"), 6, 3);
+
+    @Test
+    void appliesLongestMatchingRuleUnlessTheRequestChooses() {
+        assertThat(policy.resolve("logs", "web/access.log", null)).isEqualTo(new Compression(ContentCodec.GZIP, 6));
+        assertThat(policy.resolve("logs", "app/events.json", null)).isEqualTo(new Compression(ContentCodec.ZSTD, 3));
+        assertThat(policy.resolve("logs", "app/raw/dump.bin", null)).isNull();
+        assertThat(policy.resolve("logs-archive", "web/access.log", null)).isNull();
+        assertThat(policy.resolve("logs", "app/events.json", "none")).isNull();
+        assertThat(policy.resolve("other", "data.json", "GZIP")).isEqualTo(new Compression(ContentCodec.GZIP, 6));
+        assertThatThrownBy(() -> policy.resolve("other", "data.json", "brotli")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void honoursAcceptEncodingQualityValues() {
+        assertThat(ContentCodec.ZSTD.isAcceptedBy("gzip, deflate, br, zstd")).isTrue();
+        assertThat(ContentCodec.GZIP.isAcceptedBy("gzip;q=0.5")).isTrue();
+        assertThat(ContentCodec.GZIP.isAcceptedBy("gzip;q=0")).isFalse();
+        assertThat(ContentCodec.ZSTD.isAcceptedBy("*")).isTrue();
+        assertThat(ContentCodec.ZSTD.isAcceptedBy("gzip")).isFalse();
+        assertThat(ContentCodec.GZIP.isAcceptedBy(null)).isFalse();
+    }
+
+    @Test
+    void letsExplicitEncodingsOverrideTheWildcard() {
+        assertThat(ContentCodec.GZIP.isAcceptedBy("*;q=0, gzip")).isTrue();
+        assertThat(ContentCodec.ZSTD.isAcceptedBy("*;q=0, gzip")).isFalse();
+        assertThat(ContentCodec.GZIP.isAcceptedBy("*, gzip;q=0")).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.CopyJobRequest;
+import com.cloud.aws_services.model.CopyJobStatus;
+import com.cloud.aws_services.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class S3CopyJobServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private S3CopyJobService copyJobService;
+    private final AtomicBoolean failKey42 = new AtomicBoolean(true);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        server.listPageSize(10);
+        s3Client = server.client();
+        for (int i = 0; i < 100; i++) {
+            server.putObject(BUCKET, String.format("src/key-%03d", i), new byte[]{(byte) i});
+        }
+        S3Service s3Service = mock(S3Service.class);
+        doAnswer(invocation -> {
+            String sourceKey = invocation.getArgument(1);
+            if (sourceKey.endsWith("042") && failKey42.get()) {
+                throw new RuntimeException("copy failed");
+            }
+            server.putObject(invocation.getArgument(2), invocation.getArgument(3), server.getObject(BUCKET, sourceKey));
+            return null;
+        }).when(s3Service).copyObject(anyString(), anyString(), anyString(), anyString(), anyLong());
+        copyJobService = new S3CopyJobService(s3Client, s3Service);
+        ReflectionTestUtils.setField(copyJobService, "defaultConcurrency", 4);
+        ReflectionTestUtils.setField(copyJobService, "maxConcurrency", 8);
+        ReflectionTestUtils.setField(copyJobService, "retention", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        copyJobService.shutdown();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void checkpointStopsBeforeFailedPageAndResumeFinishesTheJob() throws Exception {
+        CopyJobStatus started = copyJobService.start(new CopyJobRequest(BUCKET, "src/", "dest-bucket", "dst/", null, null));
+
+        CopyJobStatus first = awaitStopped(started.id());
+        assertThat(first.state()).isEqualTo("COMPLETED");
+        assertThat(first.copiedObjects()).isEqualTo(99);
+        assertThat(first.failedObjects()).isEqualTo(1);
+        assertThat(first.failures()).extracting("id").containsExactly("src/key-042");
+        assertThat(first.checkpoint()).isEqualTo("src/key-039");
+        assertThat(server.getObject("dest-bucket", "dst/key-099")).containsExactly(99);
+
+        failKey42.set(false);
+        copyJobService.resume(started.id());
+
+        CopyJobStatus second = awaitStopped(started.id());
+        assertThat(second.state()).isEqualTo("COMPLETED");
+        assertThat(second.failures()).isEmpty();
+        assertThat(second.checkpoint()).isEqualTo("src/key-099");
+        assertThat(server.getObject("dest-bucket", "dst/key-042")).containsExactly(42);
+    }
+
+    @Test
+    void forgetsStoppedJobsAfterTheRetentionPeriod() throws Exception {
+        CopyJobStatus started = copyJobService.start(new CopyJobRequest(BUCKET, "src/", "dest-bucket", "dst/", null, null));
+        awaitStopped(started.id());
+        assertThat(copyJobService.statuses()).hasSize(1);
+
+        ReflectionTestUtils.setField(copyJobService, "retention", Duration.ZERO);
+        Thread.sleep(5);
+
+        assertThat(copyJobService.statuses()).isEmpty();
+        assertThat(copyJobService.status(started.id())).isNull();
+    }
+
+    private CopyJobStatus awaitStopped(String id) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        CopyJobStatus status = copyJobService.status(id);
+        while (status.finishedAt() == null && Instant.now().isBefore(deadline)) {
+            Thread.sleep(20);
+            status = copyJobService.status(id);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,203 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.KeyIndexSettings;
+import com.cloud.aws_services.model.KeyIndexStatus;
+import com.cloud.aws_services.model.ObjectEntry;
+import com.cloud.aws_services.model.PrefixSummary;
+import com.cloud.aws_services.support.FakeS3Server;
+import com.cloud.aws_services.support.FakeSqsServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class S3KeyIndexManagerTest {
+
+    private static final String BUCKET = "indexed";
+
+    @TempDir
+    Path directory;
+
+    private final FakeS3Server s3;
+    private final FakeSqsServer sqs;
+    private final S3Client s3Client;
+    private final SqsClient sqsClient;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final S3Service s3Service;
+    private final SqsService sqsService;
+    private final String queueUrl;
+    private S3KeyIndexManager manager;
+
+    S3KeyIndexManagerTest() throws Exception {
+        s3 = new FakeS3Server();
+        sqs = new FakeSqsServer();
+        s3Client = s3.client();
+        sqsClient = sqs.client();
+        s3Service = FakeS3Server.s3Service(s3Client, executor);
+        sqsService = new SqsService(sqsClient, new SqsPayloadOffloader(null, null, new ObjectMapper(), false,
+                "", "", DataSize.ofKilobytes(256), true));
+        queueUrl = sqs.queueUrl("bucket-events");
+        s3.putObject(BUCKET, "logs/2024/a.log", new byte[10]);
+        s3.putObject(BUCKET, "logs/2024/b.log", new byte[20]);
+        s3.putObject(BUCKET, "logs/2025/c.log", new byte[30]);
+        s3.putObject(BUCKET, "data/d.bin", new byte[40]);
+        s3.putObject(BUCKET, "top.txt", new byte[5]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.stopAll();
+        executor.shutdownNow();
+        s3Client.close();
+        sqsClient.close();
+        s3.close();
+        sqs.close();
+    }
+
+    @Test
+    void seedsFromAListingAndAppliesEventNotificationsInOrder() throws Exception {
+        manager = manager();
+        assertThat(manager.start(new KeyIndexSettings(BUCKET, queueUrl, null, 4)).bucketName()).isEqualTo(BUCKET);
+        awaitCondition(() -> status().state().equals("LIVE"));
+
+        assertThat(manager.summary(BUCKET, "")).isEqualTo(new PrefixSummary(BUCKET, "", 5, 105));
+        assertThat(manager.summary(BUCKET, "logs/")).isEqualTo(new PrefixSummary(BUCKET, "logs/", 3, 60));
+        assertThat(manager.summary(BUCKET, "logs/2024/b")).isEqualTo(new PrefixSummary(BUCKET, "logs/2024/b", 1, 20));
+        assertThat(manager.list(BUCKET, "", "/", null, 100))
+                .extracting(entry -> entry.key() != null ? entry.key() : entry.prefix())
+                .containsExactly("data/", "logs/", "top.txt");
+        assertThat(manager.list(BUCKET, "logs/", null, "logs/2024/a.log", 1))
+                .extracting(ObjectEntry::key).containsExactly("logs/2024/b.log");
+
+        send(event("ObjectCreated:Put", "logs/2025/new+file.log", 100, "2030-01-01T00:00:00.000Z", "0A"));
+        send(event("ObjectRemoved:Delete", "logs/2024/a.log", 0, "2030-01-01T00:00:01.000Z", "0B"));
+        awaitCondition(() -> status().eventsApplied() == 2);
+        // A redelivered creation older than the removal must not bring the key back.
+        send(event("ObjectCreated:Put", "logs/2024/a.log", 10, "2029-12-31T00:00:00.000Z", "09"));
+        send("{\"Service\":\"Amazon S3\",\"Event\":\"s3:TestEvent\",\"Bucket\":\"" + BUCKET + "\"}");
+        awaitCondition(() -> status().eventsIgnored() == 1 && sqs.size(queueUrl) == 0);
+
+        assertThat(manager.summary(BUCKET, "logs/")).isEqualTo(new PrefixSummary(BUCKET, "logs/", 3, 150));
+        assertThat(manager.summary(BUCKET, "logs/2024/")).isEqualTo(new PrefixSummary(BUCKET, "logs/2024/", 1, 20));
+        assertThat(manager.list(BUCKET, "logs/2025/", null, null, 10))
+                .extracting(ObjectEntry::key, ObjectEntry::size)
+                .containsExactly(tuple("logs/2025/c.log", 30L),
+                        tuple("logs/2025/new file.log", 100L));
+    }
+
+    @Test
+    void pagesADelimitedListingOneEntryAtATime() throws Exception {
+        manager = manager();
+        manager.start(new KeyIndexSettings(BUCKET, queueUrl, null, 4));
+        awaitCondition(() -> status().state().equals("LIVE"));
+
+        assertThat(pageAll("", "/")).containsExactly("data/", "logs/", "top.txt");
+        assertThat(pageAll("logs/", "/")).containsExactly("logs/2024/", "logs/2025/");
+    }
+
+    @Test
+    void refusesBucketNamesThatWouldLeaveTheIndexDirectory() {
+        manager = manager();
+
+        for (String bucketName : List.of("../../somewhere/x", "a..b", "Upper", "x")) {
+            assertThatThrownBy(() -> manager.start(new KeyIndexSettings(bucketName, queueUrl, null, null)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(directory.getParent().resolve("somewhere")).doesNotExist();
+        assertThat(manager.status()).isEmpty();
+    }
+
+    @Test
+    void resumesAPersistedIndexWithoutListingAgain() throws Exception {
+        manager = manager();
+        manager.start(new KeyIndexSettings(BUCKET, queueUrl, null, 2));
+        awaitCondition(() -> status().state().equals("LIVE"));
+        assertThatThrownBy(() -> manager.start(new KeyIndexSettings(BUCKET, queueUrl, null, null)))
+                .isInstanceOf(IllegalStateException.class);
+        manager.stop(BUCKET, false);
+
+        s3.putObject(BUCKET, "not-indexed.txt", new byte[1]);
+        send(event("ObjectRemoved:Delete", "top.txt", 0, "2030-01-01T00:00:00.000Z", "0A"));
+        manager = manager();
+        manager.resume();
+        awaitCondition(() -> status().eventsApplied() == 1);
+
+        KeyIndexStatus status = status();
+        assertThat(status.queueUrl()).isEqualTo(queueUrl);
+        assertThat(status.seededAt()).isNotNull();
+        assertThat(manager.summary(BUCKET, "")).isEqualTo(new PrefixSummary(BUCKET, "", 4, 100));
+        assertThat(manager.list(BUCKET, "", null, null, 100)).extracting(ObjectEntry::key)
+                .containsExactly("data/d.bin", "logs/2024/a.log", "logs/2024/b.log", "logs/2025/c.log");
+    }
+
+    /**
+     * Lists with a limit of one, passing the last entry of each page as startAfter, as a client would.
+     */
+    private List<String> pageAll(String prefix, String delimiter) {
+        List<String> listed = new ArrayList<>();
+        String startAfter = null;
+        for (int page = 0; page < 20; page++) {
+            List<ObjectEntry> entries = manager.list(BUCKET, prefix, delimiter, startAfter, 1);
+            if (entries.isEmpty()) {
+                return listed;
+            }
+            startAfter = entries.get(0).key() != null ? entries.get(0).key() : entries.get(0).prefix();
+            listed.add(startAfter);
+        }
+        throw new AssertionError("Listing did not end, listed " + listed);
+    }
+
+    private S3KeyIndexManager manager() {
+        S3KeyIndexManager indexManager = new S3KeyIndexManager(sqsService, s3Service, new ObjectMapper());
+        ReflectionTestUtils.setField(indexManager, "directory", directory);
+        ReflectionTestUtils.setField(indexManager, "resumeOnStartup", true);
+        ReflectionTestUtils.setField(indexManager, "defaultSeedParallelism", 4);
+        ReflectionTestUtils.setField(indexManager, "waitTimeSeconds", 1);
+        ReflectionTestUtils.setField(indexManager, "visibilityTimeoutSeconds", 30);
+        ReflectionTestUtils.setField(indexManager, "tombstoneRetention", Duration.ofHours(1));
+        ReflectionTestUtils.setField(indexManager, "shutdownGraceMillis", 5_000L);
+        return indexManager;
+    }
+
+    private KeyIndexStatus status() {
+        List<KeyIndexStatus> statuses = manager.status();
+        assertThat(statuses).hasSize(1);
+        return statuses.get(0);
+    }
+
+    private void send(String body) {
+        sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(body));
+    }
+
+    private static String event(String eventName, String encodedKey, long size, String eventTime, String sequencer) {
+        return """
+                {"Records":[{"eventVersion":"2.1","eventSource":"aws:s3","eventName":"%s","eventTime":"%s",
+                "s3":{"bucket":{"name":"%s"},"object":{"key":"%s","size":%d,"eTag":"abc","sequencer":"%s"}}}]}
+                """.formatted(eventName, eventTime, BUCKET, encodedKey, size, sequencer);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition met within 10s").isNegative();
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3MultipartCopierTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3MultipartCopier copier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(4);
+        copier = new S3MultipartCopier(s3Client, executor, DataSize.ofMegabytes(8), DataSize.ofMegabytes(5), 4, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void copiesLargeObjectInRangedParts() {
+        byte[] data = new byte[12 * 1024 * 1024 + 5];
+        new Random(42).nextBytes(data);
+        server.putObject(BUCKET, "source.bin", data);
+        HeadObjectResponse source = s3Client.headObject(b -> b.bucket(BUCKET).key("source.bin"));
+
+        assertThat(copier.shouldUseMultipart(data.length)).isTrue();
+        copier.copy(BUCKET, "source.bin", "other-bucket", "copy.bin", source);
+
+        assertThat(server.getObject("other-bucket", "copy.bin")).isEqualTo(data);
+        assertThat(server.pendingUploads()).isZero();
+    }
+
+    @Test
+    void abortsWhenSourceChangedDuringCopy() {
+        server.putObject(BUCKET, "source.bin", new byte[11 * 1024 * 1024]);
+        HeadObjectResponse stale = s3Client.headObject(b -> b.bucket(BUCKET).key("source.bin"));
+        server.putObject(BUCKET, "source.bin", new byte[11 * 1024 * 1024 + 1]);
+
+        assertThatThrownBy(() -> copier.copy(BUCKET, "source.bin", BUCKET, "copy.bin", stale))
+                .isInstanceOf(S3Exception.class);
+        assertThat(server.getObject(BUCKET, "copy.bin")).isNull();
+        assertThat(server.abortedUploads()).isEqualTo(1);
+    }
+}
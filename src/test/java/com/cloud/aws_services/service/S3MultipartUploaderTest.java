@@ -0,0 +1,95 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3MultipartUploaderTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(4);
+        uploader = new S3MultipartUploader(s3Client, executor, DataSize.ofMegabytes(8),
+                DataSize.ofMegabytes(5), 3, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void uploadsLargeStreamInParallelParts() throws Exception {
+        byte[] data = randomBytes(12 * 1024 * 1024 + 17);
+
+        uploader.upload(BUCKET, "large.bin", new ByteArrayInputStream(data), data.length, "application/octet-stream");
+
+        assertThat(server.getObject(BUCKET, "large.bin")).isEqualTo(data);
+        assertThat(server.partAttempts(1)).isEqualTo(1);
+        assertThat(server.partAttempts(3)).isEqualTo(1);
+        assertThat(server.partAttempts(4)).isZero();
+        assertThat(server.pendingUploads()).isZero();
+    }
+
+    @Test
+    void retriesOnlyTheFailedPart() throws Exception {
+        byte[] data = randomBytes(11 * 1024 * 1024);
+        server.failPart(2, 1);
+
+        uploader.upload(BUCKET, "retried.bin", new ByteArrayInputStream(data), data.length, null);
+
+        assertThat(server.getObject(BUCKET, "retried.bin")).isEqualTo(data);
+        assertThat(server.partAttempts(1)).isEqualTo(1);
+        assertThat(server.partAttempts(2)).isEqualTo(2);
+        assertThat(server.partAttempts(3)).isEqualTo(1);
+    }
+
+    @Test
+    void abortsUploadWhenPartKeepsFailing() {
+        byte[] data = randomBytes(11 * 1024 * 1024);
+        server.failPart(2, 10);
+
+        assertThatThrownBy(() -> uploader.upload(BUCKET, "failed.bin", new ByteArrayInputStream(data), data.length, null))
+                .isInstanceOf(S3Exception.class);
+
+        assertThat(server.partAttempts(2)).isEqualTo(3);
+        assertThat(server.getObject(BUCKET, "failed.bin")).isNull();
+        assertThat(server.abortedUploads()).isEqualTo(1);
+        assertThat(server.pendingUploads()).isZero();
+    }
+
+    @Test
+    void usesMultipartOnlyAboveThreshold() {
+        assertThat(uploader.shouldUseMultipart(DataSize.ofMegabytes(8).toBytes())).isFalse();
+        assertThat(uploader.shouldUseMultipart(DataSize.ofMegabytes(8).toBytes() + 1)).isTrue();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+}
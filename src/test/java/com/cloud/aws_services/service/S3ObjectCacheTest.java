@@ -0,0 +1,144 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class S3ObjectCacheTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    @TempDir
+    Path directory;
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void concurrentRequestsShareOneFetch() throws Exception {
+        byte[] data = new byte[2 * 1024 * 1024];
+        data[12345] = 7;
+        server.putObject(BUCKET, "hot.bin", data);
+        S3ObjectCache cache = cache(DataSize.ofMegabytes(16), Duration.ofMinutes(1));
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<S3ObjectCache.CachedObject>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return cache.get(BUCKET, "hot.bin").cached();
+            }, clients));
+        }
+        start.countDown();
+        for (CompletableFuture<S3ObjectCache.CachedObject> result : results) {
+            assertThat(Files.readAllBytes(result.join().path())).isEqualTo(data);
+        }
+        clients.shutdown();
+
+        assertThat(server.getRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void revalidatesWithStoredETag() throws Exception {
+        server.putObject(BUCKET, "doc.txt", "v1".getBytes());
+        S3ObjectCache cache = cache(DataSize.ofMegabytes(16), Duration.ZERO);
+
+        S3ObjectCache.CachedObject first = cache.get(BUCKET, "doc.txt").cached();
+        S3ObjectCache.CachedObject revalidated = cache.get(BUCKET, "doc.txt").cached();
+        assertThat(revalidated).isSameAs(first);
+        assertThat(server.getRequests()).isEqualTo(2);
+
+        server.putObject(BUCKET, "doc.txt", "v2".getBytes());
+        S3ObjectCache.CachedObject refreshed = cache.get(BUCKET, "doc.txt").cached();
+        assertThat(Files.readString(refreshed.path())).isEqualTo("v2");
+        assertThat(refreshed.eTag()).isNotEqualTo(first.eTag());
+        assertThat(first.path()).doesNotExist();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndSkipsOversizedObjects() throws Exception {
+        for (String key : List.of("a", "b", "c", "d")) {
+            server.putObject(BUCKET, key, new byte[1024 * 1024]);
+        }
+        server.putObject(BUCKET, "huge", new byte[4 * 1024 * 1024]);
+        S3ObjectCache cache = cache(DataSize.ofMegabytes(3), Duration.ofMinutes(1));
+
+        S3ObjectCache.CachedObject a = cache.get(BUCKET, "a").cached();
+        S3ObjectCache.CachedObject b = cache.get(BUCKET, "b").cached();
+        cache.get(BUCKET, "c");
+        cache.get(BUCKET, "a");
+        cache.get(BUCKET, "d");
+
+        assertThat(a.path()).exists();
+        assertThat(b.path()).doesNotExist();
+        S3ObjectCache.Lookup huge = cache.get(BUCKET, "huge");
+        assertThat(huge.cached()).isNull();
+        try (var body = huge.uncached()) {
+            assertThat(body.readAllBytes()).hasSize(4 * 1024 * 1024);
+        }
+        assertThat(cache.get(BUCKET, "huge")).isEqualTo(S3ObjectCache.Lookup.NONE);
+        assertThat(server.getRequests()).isEqualTo(5);
+    }
+
+    @Test
+    void fetchOverlappingAnInvalidationIsNotStored() throws Exception {
+        server.putObject(BUCKET, "doc.txt", "v1".getBytes());
+        S3ObjectCache cache = cache(DataSize.ofMegabytes(16), Duration.ofMinutes(1));
+        CountDownLatch gate = new CountDownLatch(1);
+        server.holdGets(gate);
+        CompletableFuture<S3ObjectCache.Lookup> slowFetch = CompletableFuture.supplyAsync(() -> cache.get(BUCKET, "doc.txt"));
+        while (server.getRequests() == 0) {
+            Thread.sleep(5);
+        }
+
+        server.putObject(BUCKET, "doc.txt", "v2".getBytes());
+        cache.invalidate(BUCKET, "doc.txt");
+        server.holdGets(null);
+        gate.countDown();
+
+        assertThat(slowFetch.join()).isEqualTo(S3ObjectCache.Lookup.NONE);
+        assertThat(Files.readString(cache.get(BUCKET, "doc.txt").cached().path())).isEqualTo("v2");
+        assertThat(server.getRequests()).isEqualTo(2);
+    }
+
+    private S3ObjectCache cache(DataSize maxSize, Duration revalidateAfter) throws Exception {
+        S3ObjectCache cache = new S3ObjectCache(s3Client, new SimpleMeterRegistry(), true, directory, maxSize,
+                DataSize.ofMegabytes(2), revalidateAfter);
+        cache.initialize();
+        return cache;
+    }
+}
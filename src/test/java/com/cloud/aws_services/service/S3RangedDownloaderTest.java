@@ -0,0 +1,111 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3RangedDownloaderTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3RangedDownloader downloader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(4);
+        downloader = new S3RangedDownloader(s3Client, executor, DataSize.ofKilobytes(512), DataSize.ofKilobytes(100), 3,
+                DataSize.ofMegabytes(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void reassemblesRangesInOrderAfterTheOpenStream() throws Exception {
+        byte[] data = randomBytes(1_000_003);
+        server.putObject(BUCKET, "large.bin", data);
+
+        ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b.bucket(BUCKET).key("large.bin"));
+        assertThat(downloader.shouldUseRanges(object.response().contentLength())).isTrue();
+        try (ResponseInputStream<GetObjectResponse> parallel = downloader.parallelize(BUCKET, "large.bin", object)) {
+            assertThat(parallel.response().contentLength()).isEqualTo(data.length);
+            assertThat(parallel.readAllBytes()).isEqualTo(data);
+        }
+        // One whole-object GET plus nine ranged GETs for the remaining 100 KiB parts.
+        assertThat(server.getRequests()).isEqualTo(10);
+    }
+
+    @Test
+    void readsSequentiallyWhileTheSharedBufferBudgetIsTaken() throws Exception {
+        byte[] data = randomBytes(1_000_003);
+        server.putObject(BUCKET, "large.bin", data);
+        // Room for a single buffered part across all downloads.
+        S3RangedDownloader budgeted = new S3RangedDownloader(s3Client, executor, DataSize.ofKilobytes(512),
+                DataSize.ofKilobytes(100), 3, DataSize.ofKilobytes(100), 2);
+
+        try (ResponseInputStream<GetObjectResponse> holding = budgeted.parallelize(BUCKET, "large.bin",
+                s3Client.getObject(b -> b.bucket(BUCKET).key("large.bin")))) {
+            try (ResponseInputStream<GetObjectResponse> starved = budgeted.parallelize(BUCKET, "large.bin",
+                    s3Client.getObject(b -> b.bucket(BUCKET).key("large.bin")))) {
+                assertThat(starved.readAllBytes()).isEqualTo(data);
+            }
+            // Both whole-object GETs plus at most the one part the first download fetched ahead.
+            assertThat(server.getRequests()).isLessThanOrEqualTo(3);
+            assertThat(holding.readAllBytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void failsInsteadOfMixingVersionsWhenTheObjectChanges() throws Exception {
+        server.putObject(BUCKET, "changing.bin", randomBytes(1_000_000));
+
+        ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b.bucket(BUCKET).key("changing.bin"));
+        server.putObject(BUCKET, "changing.bin", randomBytes(999_999));
+        try (ResponseInputStream<GetObjectResponse> parallel = downloader.parallelize(BUCKET, "changing.bin", object)) {
+            assertThatThrownBy(parallel::readAllBytes).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void writesPartsIntoPreallocatedFile(@TempDir Path directory) throws Exception {
+        byte[] data = randomBytes(777_777);
+        server.putObject(BUCKET, "staged.bin", data);
+        Path target = directory.resolve("staged.bin");
+
+        long size = downloader.downloadToFile(BUCKET, "staged.bin", target);
+
+        assertThat(size).isEqualTo(data.length);
+        assertThat(Files.readAllBytes(target)).isEqualTo(data);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+}
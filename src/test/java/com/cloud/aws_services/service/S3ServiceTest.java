@@ -0,0 +1,312 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.BulkItemResult;
+import com.cloud.aws_services.model.ListingOptions;
+import com.cloud.aws_services.model.ObjectMetadata;
+import com.cloud.aws_services.model.StreamingUploadResult;
+import com.cloud.aws_services.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class S3ServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server server;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private S3Service s3Service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeS3Server();
+        s3Client = server.client();
+        executor = Executors.newFixedThreadPool(4);
+        s3Service = FakeS3Server.s3Service(s3Client, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    void streamsUnknownLengthInPartsAndReportsDigests() throws Exception {
+        byte[] data = randomBytes(12 * 1024 * 1024 + 3);
+
+        StreamingUploadResult result = s3Service.uploadStream(BUCKET, "stream.bin", new ByteArrayInputStream(data), -1,
+                "application/octet-stream", base64Md5(data));
+
+        assertThat(server.getObject(BUCKET, "stream.bin")).isEqualTo(data);
+        assertThat(result.multipart()).isTrue();
+        assertThat(result.size()).isEqualTo(data.length);
+        assertThat(result.sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)));
+        assertThat(result.md5()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)));
+    }
+
+    @Test
+    void smallUnknownLengthBodyIsSentAsSinglePut() throws Exception {
+        byte[] data = randomBytes(1000);
+
+        StreamingUploadResult result = s3Service.uploadStream(BUCKET, "small.bin", new ByteArrayInputStream(data), -1,
+                null, null);
+
+        assertThat(result.multipart()).isFalse();
+        assertThat(server.getObject(BUCKET, "small.bin")).isEqualTo(data);
+    }
+
+    @Test
+    void abortsMultipartUploadWhenContentMd5DoesNotMatch() {
+        byte[] data = randomBytes(11 * 1024 * 1024);
+
+        assertThatThrownBy(() -> s3Service.uploadStream(BUCKET, "corrupt.bin", new ByteArrayInputStream(data),
+                data.length, null, base64Md5(new byte[1])))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(server.getObject(BUCKET, "corrupt.bin")).isNull();
+        assertThat(server.abortedUploads()).isEqualTo(1);
+    }
+
+    @Test
+    void compressesUnknownLengthStreamAndRecordsEncoding() throws Exception {
+        byte[] data = jsonLines(12 * 1024 * 1024);
+
+        StreamingUploadResult result = s3Service.uploadStream(BUCKET, "events.ndjson", new ByteArrayInputStream(data), -1,
+                "application/x-ndjson", base64Md5(data), new Compression(ContentCodec.ZSTD, 3));
+
+        byte[] stored = server.getObject(BUCKET, "events.ndjson");
+        assertThat(server.contentEncoding(BUCKET, "events.ndjson")).isEqualTo("zstd");
+        assertThat(result.contentEncoding()).isEqualTo("zstd");
+        assertThat(result.size()).isEqualTo(data.length);
+        assertThat(result.storedSize()).isEqualTo(stored.length).isLessThan(data.length / 4);
+        assertThat(ContentCodec.ZSTD.decompress(new ByteArrayInputStream(stored)).readAllBytes()).isEqualTo(data);
+    }
+
+    @Test
+    void compressesMultipartFormUploadWithGzip() throws Exception {
+        byte[] data = jsonLines(100_000);
+
+        s3Service.uploadFile(BUCKET, "events.json", new MockMultipartFile("file", data),
+                new Compression(ContentCodec.GZIP, 6));
+
+        assertThat(server.contentEncoding(BUCKET, "events.json")).isEqualTo("gzip");
+        byte[] stored = server.getObject(BUCKET, "events.json");
+        assertThat(ContentCodec.GZIP.decompress(new ByteArrayInputStream(stored)).readAllBytes()).isEqualTo(data);
+    }
+
+    @Test
+    void cachesObjectMetadataUntilTheObjectIsWrittenThroughTheService() throws Exception {
+        server.putObject(BUCKET, "report.csv", "a,b\n".getBytes(StandardCharsets.UTF_8));
+
+        ObjectMetadata first = s3Service.getObjectMetadata(BUCKET, "report.csv");
+        assertThat(s3Service.getObjectMetadata(BUCKET, "report.csv")).isEqualTo(first);
+        assertThat(first.size()).isEqualTo(4);
+        assertThat(server.headRequests()).isEqualTo(1);
+
+        s3Service.copyObject(BUCKET, "report.csv", BUCKET, "copy.csv");
+        s3Service.getObjectMetadata(BUCKET, "copy.csv");
+        s3Service.uploadFile(BUCKET, "report.csv", new MockMultipartFile("file", "a,b,c\n".getBytes(StandardCharsets.UTF_8)));
+        ObjectMetadata rewritten = s3Service.getObjectMetadata(BUCKET, "report.csv");
+        assertThat(rewritten.size()).isEqualTo(6);
+        assertThat(rewritten.eTag()).isNotEqualTo(first.eTag());
+        s3Service.copyObject(BUCKET, "report.csv", BUCKET, "copy.csv");
+        assertThat(s3Service.getObjectMetadata(BUCKET, "copy.csv").size()).isEqualTo(6);
+
+        s3Service.deleteObject(BUCKET, "report.csv");
+        assertThatThrownBy(() -> s3Service.getObjectMetadata(BUCKET, "report.csv"))
+                .hasRootCauseInstanceOf(S3Exception.class);
+    }
+
+    @Test
+    void conditionalDownloadOfAnUnchangedObjectTransfersNoBody() throws Exception {
+        server.putObject(BUCKET, "logo.png", randomBytes(2048));
+        String eTag = s3Service.getObjectMetadata(BUCKET, "logo.png").eTag();
+
+        assertThatThrownBy(() -> s3Service.downloadFile(BUCKET, "logo.png", null, eTag, null))
+                .hasCauseInstanceOf(S3Exception.class)
+                .cause().satisfies(cause -> assertThat(((S3Exception) cause).statusCode()).isEqualTo(304));
+        try (var object = s3Service.downloadFile(BUCKET, "logo.png", null, "\"stale\"", null)) {
+            assertThat(object.readAllBytes()).hasSize(2048);
+        }
+    }
+
+    @Test
+    void rangedDownloadStreamsOnlyTheRequestedBytesWithTheirContentRange() throws Exception {
+        byte[] data = randomBytes(2 * 1024 * 1024);
+        server.putObject(BUCKET, "video.mp4", data);
+
+        try (var object = s3Service.downloadFile(BUCKET, "video.mp4", "bytes=100-1123")) {
+            assertThat(object.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, 100, 1124));
+            assertThat(object.response().contentLength()).isEqualTo(1024);
+            assertThat(object.response().contentRange()).isEqualTo("bytes 100-1123/" + data.length);
+        }
+        try (var object = s3Service.downloadFile(BUCKET, "video.mp4", "bytes=2097000-")) {
+            assertThat(object.readAllBytes()).isEqualTo(Arrays.copyOfRange(data, 2097000, data.length));
+            assertThat(object.response().contentRange()).isEqualTo("bytes 2097000-2097151/" + data.length);
+        }
+        assertThat(server.getRequests()).as("a range is never split into parallel GETs").isEqualTo(2);
+    }
+
+    @Test
+    void rangeStartingPastTheEndOfTheObjectIsNotSatisfiable() {
+        server.putObject(BUCKET, "logo.png", randomBytes(2048));
+
+        assertThatThrownBy(() -> s3Service.downloadFile(BUCKET, "logo.png", "bytes=2048-"))
+                .hasCauseInstanceOf(S3Exception.class)
+                .cause().satisfies(cause -> assertThat(((S3Exception) cause).statusCode()).isEqualTo(416));
+    }
+
+    @Test
+    void streamsEveryKeyAcrossPagesByFollowingContinuationTokens() {
+        List<String> keys = putKeys();
+        server.listPageSize(7);
+
+        List<String> listed = new ArrayList<>();
+        long count = s3Service.streamObjects(BUCKET, new ListingOptions(null, null, null, null),
+                entry -> listed.add(entry.key()));
+
+        assertThat(listed).containsExactlyElementsOf(keys);
+        assertThat(count).isEqualTo(keys.size());
+
+        listed.clear();
+        s3Service.streamObjects(BUCKET, new ListingOptions("logs/", null, "logs/2024/k09", null),
+                entry -> listed.add(entry.key()));
+        assertThat(listed).containsExactlyElementsOf(keys.stream().filter(key -> key.startsWith("logs/"))
+                .filter(key -> key.compareTo("logs/2024/k09") > 0).toList());
+    }
+
+    @Test
+    void streamsEachCommonPrefixOnceAcrossPages() {
+        putKeys();
+        server.listPageSize(2);
+
+        List<String> listed = new ArrayList<>();
+        s3Service.streamObjects(BUCKET, new ListingOptions("logs/", "/", null, null),
+                entry -> listed.add(entry.prefix() != null ? entry.prefix() : entry.key()));
+
+        assertThat(listed).containsExactlyInAnyOrder("logs/2024/", "logs/2025/", "logs/latest.log");
+    }
+
+    @Test
+    void clampsThePageSizeToWhatS3Accepts() {
+        List<String> keys = putKeys();
+
+        for (int pageSize : new int[]{-5, 0, 5000}) {
+            List<String> listed = new ArrayList<>();
+            s3Service.streamObjects(BUCKET, new ListingOptions(null, null, null, pageSize), entry -> listed.add(entry.key()));
+            assertThat(listed).as("page size %d", pageSize).containsExactlyElementsOf(keys);
+        }
+    }
+
+    @Test
+    void parallelListingReturnsEveryKeyExactlyOnce() {
+        List<String> keys = putKeys();
+        server.listPageSize(3);
+
+        List<String> listed = new ArrayList<>();
+        long count = s3Service.streamObjectsParallel(BUCKET, new ListingOptions(null, null, null, null), 4,
+                entry -> listed.add(entry.key()));
+
+        assertThat(listed).containsExactlyInAnyOrderElementsOf(keys);
+        assertThat(count).isEqualTo(keys.size());
+
+        listed.clear();
+        s3Service.streamObjectsParallel(BUCKET, new ListingOptions("logs/", null, null, null), 4,
+                entry -> listed.add(entry.key()));
+        assertThat(listed).containsExactlyInAnyOrderElementsOf(keys.stream().filter(key -> key.startsWith("logs/")).toList());
+    }
+
+    @Test
+    void bulkDeleteReportsAClientSideFailureOfOneChunkPerKey() {
+        S3Client failingClient = mock(S3Client.class);
+        AtomicBoolean failed = new AtomicBoolean();
+        when(failingClient.deleteObjects(any(DeleteObjectsRequest.class))).thenAnswer(invocation -> {
+            if (!failed.getAndSet(true)) {
+                throw SdkClientException.create("Unable to execute HTTP request: Connection reset");
+            }
+            DeleteObjectsRequest request = invocation.getArgument(0);
+            return DeleteObjectsResponse.builder().deleted(request.delete().objects().stream()
+                    .map(ObjectIdentifier::key).map(key -> DeletedObject.builder().key(key).build()).toList()).build();
+        });
+        S3Service service = FakeS3Server.s3Service(failingClient, executor);
+        ReflectionTestUtils.setField(service, "bulkDeleteParallelism", 2);
+        List<String> keys = IntStream.range(0, 1500).mapToObj(i -> "k" + i).toList();
+
+        List<BulkItemResult> results = service.deleteObjects(BUCKET, keys);
+
+        assertThat(results).hasSize(1500);
+        assertThat(results.stream().filter(BulkItemResult::success)).hasSizeBetween(500, 1000);
+        assertThat(results.stream().filter(result -> !result.success()))
+                .hasSizeBetween(500, 1000)
+                .allSatisfy(result -> assertThat(result.error()).contains("Connection reset"));
+    }
+
+    /**
+     * Stores 52 small objects spread over nested prefixes and the bucket root, returning their keys in key order.
+     */
+    private List<String> putKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("logs/2024/k%02d".formatted(i));
+            keys.add("logs/2025/k%02d".formatted(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            keys.add("data/part-%02d.bin".formatted(i));
+        }
+        keys.add("logs/latest.log");
+        keys.add("readme.txt");
+        keys.forEach(key -> server.putObject(BUCKET, key, new byte[16]));
+        return keys.stream().sorted().toList();
+    }
+
+    private static byte[] jsonLines(int size) {
+        StringBuilder lines = new StringBuilder(size + 100);
+        Random random = new Random(7);
+        while (lines.length() < size) {
+            lines.append("{\"id\":").append(random.nextInt(1_000_000)).append(",\"type\":\"order.created\",\"amount\":")
+                    .append(random.nextInt(10_000)).append("}\n");
+        }
+        return lines.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String base64Md5(byte[] data) throws Exception {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(7).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,118 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ArchiveSinkStatus;
+import com.cloud.aws_services.model.StreamingUploadResult;
+import com.cloud.aws_services.support.FakeSqsServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqsArchiveSinkTest {
+
+    private final FakeSqsServer sqs;
+    private final SqsClient sqsClient;
+    private final SqsService sqsService;
+    private final S3Service s3Service = mock(S3Service.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String queueUrl;
+
+    SqsArchiveSinkTest() throws Exception {
+        sqs = new FakeSqsServer();
+        sqsClient = sqs.client();
+        sqsService = new SqsService(sqsClient, new SqsPayloadOffloader(null, null, objectMapper, false, "", "",
+                DataSize.ofKilobytes(256), true));
+        queueUrl = sqs.queueUrl("events");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sqsClient.close();
+        sqs.close();
+    }
+
+    @Test
+    void writesBatchesByCountAndDeletesOnlyArchivedMessages() throws Exception {
+        List<String> objects = Collections.synchronizedList(new ArrayList<>());
+        when(s3Service.uploadStream(eq("archive"), anyString(), any(InputStream.class), anyLong(),
+                eq("application/x-ndjson"), isNull(), isNull())).thenAnswer(invocation -> {
+            byte[] content = invocation.<InputStream>getArgument(2).readAllBytes();
+            objects.add(new String(content, StandardCharsets.UTF_8));
+            return new StreamingUploadResult("archive", invocation.getArgument(1), "etag", content.length,
+                    content.length, null, null, null, false);
+        });
+        for (int i = 0; i < 25; i++) {
+            sqsService.sendMessage(queueUrl, "{\"n\":" + i + "}");
+        }
+
+        SqsArchiveSink sink = new SqsArchiveSink(sqsService, s3Service, objectMapper, "events", List.of(queueUrl),
+                "archive", "raw", null, 1 << 20, 10, 60_000, 1, 2, 30, 1);
+        sink.start();
+        awaitCondition(() -> sqs.size(queueUrl) == 5);
+        assertThat(objects).hasSize(2);
+        sink.stop(5_000);
+
+        assertThat(objects).hasSize(3);
+        List<String> bodies = new ArrayList<>();
+        for (String object : objects) {
+            for (String line : object.split("\n")) {
+                JsonNode record = objectMapper.readTree(line);
+                assertThat(record.path("queue").asText()).isEqualTo("events");
+                assertThat(record.path("messageId").asText()).isNotBlank();
+                bodies.add(record.path("body").asText());
+            }
+        }
+        assertThat(bodies).hasSize(25).contains("{\"n\":0}", "{\"n\":24}");
+        assertThat(sqs.size(queueUrl)).isZero();
+        ArchiveSinkStatus status = sink.status();
+        assertThat(status.archived()).isEqualTo(25);
+        assertThat(status.batchesWritten()).isEqualTo(3);
+        assertThat(status.pending()).isZero();
+        assertThat(status.lastObjectKey()).startsWith("raw/").endsWith(".ndjson");
+    }
+
+    @Test
+    void keepsMessagesQueuedWhenTheBatchWriteFails() throws Exception {
+        when(s3Service.uploadStream(anyString(), anyString(), any(InputStream.class), anyLong(), anyString(), isNull(), isNull()))
+                .thenThrow(new RuntimeException("Failed to upload stream"));
+        for (int i = 0; i < 5; i++) {
+            sqsService.sendMessage(queueUrl, "m" + i);
+        }
+
+        SqsArchiveSink sink = new SqsArchiveSink(sqsService, s3Service, objectMapper, "events", List.of(queueUrl),
+                "archive", "", null, 1 << 20, 1_000, 200, 1, 1, 30, 1);
+        sink.start();
+        awaitCondition(() -> sink.status().batchesFailed() >= 1);
+        sink.stop(5_000);
+
+        assertThat(sink.status().archived()).isZero();
+        assertThat(sqs.size(queueUrl)).isEqualTo(5);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition met within 5s").isNegative();
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeSqsServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SqsAsyncServiceTest {
+
+    private FakeSqsServer server;
+    private SqsAsyncClient sqsAsyncClient;
+    private SqsAsyncService sqsAsyncService;
+    private String queueUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeSqsServer();
+        sqsAsyncClient = server.asyncClient();
+        sqsAsyncService = new SqsAsyncService(sqsAsyncClient);
+        queueUrl = server.queueUrl("orders");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sqsAsyncClient.close();
+        server.close();
+    }
+
+    @Test
+    void sendsReceivesAndDeletesMessages() throws Exception {
+        String messageId = sqsAsyncService.sendMessage(queueUrl, "order-1").get(10, TimeUnit.SECONDS);
+
+        List<Message> messages = sqsAsyncService.receiveMessages(queueUrl, 10, 0).get(10, TimeUnit.SECONDS);
+        assertThat(messages).extracting(Message::messageId, Message::body).containsExactly(tuple(messageId, "order-1"));
+
+        sqsAsyncService.deleteMessage(queueUrl, messages.get(0).receiptHandle()).get(10, TimeUnit.SECONDS);
+        assertThat(server.size(queueUrl)).isZero();
+    }
+
+    @Test
+    void longPollCompletesWhenAMessageArrives() throws Exception {
+        CompletableFuture<List<Message>> poll = sqsAsyncService.receiveMessages(queueUrl, 1, 5);
+        assertThat(poll).isNotDone();
+
+        sqsAsyncService.sendMessage(queueUrl, "order-2").get(10, TimeUnit.SECONDS);
+
+        assertThat(poll.get(10, TimeUnit.SECONDS)).extracting(Message::body).containsExactly("order-2");
+    }
+}
@@ -0,0 +1,85 @@
+package com.cloud.aws_services.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqsBatchSenderTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/test";
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+    private final SqsService sqsService = mock(SqsService.class);
+    private final List<List<SendMessageBatchRequestEntry>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void packsMessagesIntoBatchesOfTen() {
+        when(sqsService.sendMessageBatch(eq(QUEUE_URL), anyList())).thenAnswer(invocation -> {
+            List<SendMessageBatchRequestEntry> entries = invocation.getArgument(1);
+            batches.add(entries);
+            return SendMessageBatchResponse.builder()
+                    .successful(entries.stream()
+                            .map(e -> SendMessageBatchResultEntry.builder().id(e.id()).messageId("id-" + e.messageBody()).build())
+                            .toList())
+                    .build();
+        });
+        SqsBatchSender sender = new SqsBatchSender(sqsService, executor, Duration.ofSeconds(10), true);
+
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            messages.add("m" + i);
+        }
+        List<CompletableFuture<SqsBatchSender.SentMessage>> futures = sender.sendAll(QUEUE_URL, messages);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(futures.get(i).orTimeout(5, TimeUnit.SECONDS).join().messageId()).isEqualTo("id-m" + i);
+        }
+        assertThat(batches).extracting(List::size).containsExactlyInAnyOrder(10, 10, 5);
+    }
+
+    @Test
+    void flushesAfterLingerAndFailsOnlyRejectedEntries() {
+        when(sqsService.sendMessageBatch(eq(QUEUE_URL), anyList())).thenAnswer(invocation -> {
+            List<SendMessageBatchRequestEntry> entries = invocation.getArgument(1);
+            return SendMessageBatchResponse.builder()
+                    .successful(SendMessageBatchResultEntry.builder().id(entries.get(0).id()).messageId("ok").build())
+                    .failed(BatchResultErrorEntry.builder().id(entries.get(1).id()).code("InvalidMessageContents")
+                            .message("bad").senderFault(true).build())
+                    .build();
+        });
+        SqsBatchSender sender = new SqsBatchSender(sqsService, executor, Duration.ofMillis(20), true);
+
+        CompletableFuture<SqsBatchSender.SentMessage> first = sender.send(QUEUE_URL, "good");
+        CompletableFuture<SqsBatchSender.SentMessage> second = sender.send(QUEUE_URL, "bad");
+
+        SqsBatchSender.SentMessage sent = first.orTimeout(5, TimeUnit.SECONDS).join();
+        assertThat(sent.messageId()).isEqualTo("ok");
+        assertThat(sent.latency()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        assertThatThrownBy(() -> second.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasMessageContaining("InvalidMessageContents");
+    }
+}
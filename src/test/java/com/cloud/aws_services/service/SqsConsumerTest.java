@@ -0,0 +1,177 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.model.ConsumerStatus;
+import com.cloud.aws_services.model.GroupStatus;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SqsConsumerTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/orders";
+
+    @Test
+    void dispatchesMessagesAndAcknowledgesSuccessesInBatches() throws Exception {
+        SqsService sqsService = mock(SqsService.class);
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(sqsService.receiveMessages(eq(QUEUE_URL), anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (delivered.getAndSet(true)) {
+                Thread.sleep(20);
+                return List.of();
+            }
+            List<Message> messages = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                messages.add(Message.builder().messageId("m" + i).receiptHandle("r" + i).body(i == 3 ? "fail" : "ok").build());
+            }
+            return messages;
+        });
+        List<String> acknowledged = Collections.synchronizedList(new ArrayList<>());
+        when(sqsService.deleteMessageBatch(eq(QUEUE_URL), anyList())).thenAnswer(invocation -> {
+            List<String> handles = invocation.getArgument(1);
+            acknowledged.addAll(handles);
+            return DeleteMessageBatchResponse.builder()
+                    .successful(handles.stream().map(h -> DeleteMessageBatchResultEntry.builder().id(h).build()).toList())
+                    .build();
+        });
+        CountDownLatch handled = new CountDownLatch(5);
+        MessageHandler handler = message -> {
+            handled.countDown();
+            if (message.body().equals("fail")) {
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        SqsConsumer consumer = new SqsConsumer(sqsService, QUEUE_URL, "test", handler, 1, 2, 10, 30, 1, false);
+        consumer.start();
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        consumer.stop(1_000);
+
+        assertThat(acknowledged).containsExactlyInAnyOrder("r0", "r1", "r2", "r4");
+        assertThat(consumer.status().processed()).isEqualTo(4);
+        assertThat(consumer.status().failed()).isEqualTo(1);
+        assertThat(consumer.status().inFlight()).isZero();
+    }
+
+    @Test
+    void handlesGroupsConcurrentlyInOrderAndReturnsMessagesBehindAFailure() throws Exception {
+        SqsService sqsService = mock(SqsService.class);
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(sqsService.receiveMessages(eq(QUEUE_URL), anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (delivered.getAndSet(true)) {
+                Thread.sleep(20);
+                return List.of();
+            }
+            return List.of(groupMessage("a", 1), groupMessage("b", 1), groupMessage("a", 2),
+                    groupMessage("b", 2), groupMessage("a", 3), groupMessage("b", 3));
+        });
+        List<List<String>> ackBatches = Collections.synchronizedList(new ArrayList<>());
+        when(sqsService.deleteMessageBatch(eq(QUEUE_URL), anyList())).thenAnswer(invocation -> {
+            List<String> handles = invocation.getArgument(1);
+            ackBatches.add(handles);
+            return DeleteMessageBatchResponse.builder()
+                    .successful(handles.stream().map(h -> DeleteMessageBatchResultEntry.builder().id(h).build()).toList())
+                    .build();
+        });
+        Map<String, List<String>> handledByGroup = new ConcurrentHashMap<>();
+        CountDownLatch groupBStarted = new CountDownLatch(1);
+        AtomicBoolean groupsOverlapped = new AtomicBoolean();
+        CountDownLatch handled = new CountDownLatch(5);
+        MessageHandler handler = message -> {
+            String group = message.attributes().get(MessageSystemAttributeName.MESSAGE_GROUP_ID);
+            handledByGroup.computeIfAbsent(group, g -> Collections.synchronizedList(new ArrayList<>())).add(message.body());
+            if (group.equals("b")) {
+                groupBStarted.countDown();
+            } else if (message.body().equals("a1")) {
+                groupsOverlapped.set(groupBStarted.await(5, TimeUnit.SECONDS));
+            }
+            handled.countDown();
+            if (message.body().equals("b2")) {
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        SqsConsumer consumer = new SqsConsumer(sqsService, QUEUE_URL, "test", handler, 1, 2, 10, 30, 1, true);
+        consumer.start();
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(sqsService, timeout(5_000)).changeMessageVisibilityBatch(QUEUE_URL, List.of("r-b3"), 0);
+        consumer.stop(1_000);
+
+        assertThat(groupsOverlapped).isTrue();
+        assertThat(handledByGroup.get("a")).containsExactly("a1", "a2", "a3");
+        assertThat(handledByGroup.get("b")).containsExactly("b1", "b2");
+        assertThat(ackBatches).allSatisfy(batch -> assertThat(batch).allMatch(h -> h.charAt(2) == batch.get(0).charAt(2)));
+        assertThat(ackBatches.stream().flatMap(List::stream)).containsExactlyInAnyOrder("r-a1", "r-a2", "r-a3", "r-b1");
+        ConsumerStatus status = consumer.status();
+        assertThat(status.inFlight()).isZero();
+        assertThat(status.activeGroups()).isEqualTo(2);
+        assertThat(status.groups()).extracting(GroupStatus::groupId, GroupStatus::backlog, GroupStatus::processed, GroupStatus::failed)
+                .containsExactlyInAnyOrder(tuple("a", 0, 3L, 0L), tuple("b", 0, 1L, 1L));
+    }
+
+    @Test
+    void keepsExtendingHandledMessagesOfASlowGroupUntilTheyAreDeleted() throws Exception {
+        SqsService sqsService = mock(SqsService.class);
+        AtomicBoolean delivered = new AtomicBoolean();
+        when(sqsService.receiveMessages(eq(QUEUE_URL), anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (delivered.getAndSet(true)) {
+                Thread.sleep(20);
+                return List.of();
+            }
+            return List.of(groupMessage("a", 1), groupMessage("a", 2), groupMessage("a", 3));
+        });
+        List<String> extended = Collections.synchronizedList(new ArrayList<>());
+        when(sqsService.changeMessageVisibilityBatch(eq(QUEUE_URL), anyList(), eq(1))).thenAnswer(invocation -> {
+            extended.addAll(invocation.getArgument(1));
+            return null;
+        });
+        List<String> acknowledged = Collections.synchronizedList(new ArrayList<>());
+        when(sqsService.deleteMessageBatch(eq(QUEUE_URL), anyList())).thenAnswer(invocation -> {
+            List<String> handles = invocation.getArgument(1);
+            acknowledged.addAll(handles);
+            return DeleteMessageBatchResponse.builder()
+                    .successful(handles.stream().map(h -> DeleteMessageBatchResultEntry.builder().id(h).build()).toList())
+                    .build();
+        });
+        // Together the handlers of the group take more than twice the one-second visibility timeout.
+        MessageHandler handler = message -> Thread.sleep(800);
+
+        SqsConsumer consumer = new SqsConsumer(sqsService, QUEUE_URL, "test", handler, 1, 2, 10, 1, 1, true);
+        consumer.start();
+        verify(sqsService, timeout(10_000)).deleteMessageBatch(QUEUE_URL, List.of("r-a1", "r-a2", "r-a3"));
+        consumer.stop(1_000);
+
+        assertThat(extended).contains("r-a1");
+        assertThat(acknowledged).containsExactly("r-a1", "r-a2", "r-a3");
+        assertThat(consumer.status().inFlight()).isZero();
+    }
+
+    private static Message groupMessage(String group, int sequence) {
+        return Message.builder()
+                .messageId("m-" + group + sequence)
+                .receiptHandle("r-" + group + sequence)
+                .body(group + sequence)
+                .attributes(Map.of(MessageSystemAttributeName.MESSAGE_GROUP_ID, group))
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeSqsServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqsMessageBroadcasterTest {
+
+    private final FakeSqsServer sqs;
+    private final SqsClient sqsClient;
+    private final SqsMessageBroadcaster broadcaster;
+    private final String queueUrl;
+
+    SqsMessageBroadcasterTest() throws Exception {
+        sqs = new FakeSqsServer();
+        sqsClient = sqs.client();
+        SqsService sqsService = new SqsService(sqsClient, new SqsPayloadOffloader(null, null, new ObjectMapper(), false,
+                "", "", DataSize.ofKilobytes(256), true));
+        broadcaster = new SqsMessageBroadcaster(sqsService);
+        ReflectionTestUtils.setField(broadcaster, "waitTimeSeconds", 1);
+        ReflectionTestUtils.setField(broadcaster, "visibilityTimeoutSeconds", 30);
+        ReflectionTestUtils.setField(broadcaster, "subscriberBuffer", 2);
+        queueUrl = sqs.queueUrl("events");
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.closeAll();
+        sqsClient.close();
+        sqs.close();
+    }
+
+    @Test
+    void broadcastsEveryMessageToAllSubscribersFromOnePollLoop() throws Exception {
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        SqsMessageBroadcaster.Subscription firstSubscription = broadcaster.subscribe(queueUrl, first);
+        SqsMessageBroadcaster.Subscription secondSubscription = broadcaster.subscribe(queueUrl, second);
+        for (int i = 0; i < 5; i++) {
+            sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody("m"));
+        }
+
+        awaitCondition(() -> first.messages.size() == 5 && second.messages.size() == 5);
+        assertThat(first.messages).extracting(Message::messageId)
+                .containsExactlyInAnyOrderElementsOf(second.messages.stream().map(Message::messageId).toList());
+        assertThat(sqs.size(queueUrl)).isEqualTo(5);
+
+        firstSubscription.close();
+        assertThat(broadcaster.subscribers(queueUrl)).isEqualTo(1);
+        secondSubscription.close();
+        assertThat(broadcaster.subscribers(queueUrl)).isZero();
+        assertThat(first.closed).isFalse();
+    }
+
+    @Test
+    void disconnectsASubscriberThatFallsBehindWithoutStallingTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink() {
+            @Override
+            public void send(List<Message> messages) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        RecordingSink healthy = new RecordingSink();
+        broadcaster.subscribe(queueUrl, stuck);
+        broadcaster.subscribe(queueUrl, healthy);
+
+        for (int i = 0; i < 40; i++) {
+            sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody("m"));
+        }
+        awaitCondition(() -> stuck.closed.get());
+        awaitCondition(() -> healthy.messages.size() == 40);
+        assertThat(broadcaster.subscribers(queueUrl)).isEqualTo(1);
+        release.countDown();
+    }
+
+    private static class RecordingSink implements MessageStreamSink {
+        final List<Message> messages = Collections.synchronizedList(new ArrayList<>());
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public void send(List<Message> batch) throws IOException {
+            messages.addAll(batch);
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition met within 10s").isNegative();
+            Thread.sleep(20);
+        }
+    }
+}
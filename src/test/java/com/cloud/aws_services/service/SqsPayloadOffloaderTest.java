@@ -0,0 +1,141 @@
+package com.cloud.aws_services.service;
+
+import com.cloud.aws_services.support.FakeS3Server;
+import com.cloud.aws_services.support.FakeSqsServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqsPayloadOffloaderTest {
+
+    private static final String BUCKET = "payloads";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakeSqsServer sqs;
+    private FakeS3Server s3;
+    private SqsClient sqsClient;
+    private S3Client s3Client;
+    private ExecutorService executor;
+    private SqsService sqsService;
+    private String queueUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sqs = new FakeSqsServer();
+        s3 = new FakeS3Server();
+        sqsClient = sqs.client();
+        s3Client = s3.client();
+        executor = Executors.newFixedThreadPool(4);
+        sqsService = new SqsService(sqsClient, new SqsPayloadOffloader(s3Client, executor, objectMapper, true, BUCKET,
+                "sqs/", DataSize.ofKilobytes(256), true));
+        queueUrl = sqs.queueUrl("large");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        sqsClient.close();
+        s3Client.close();
+        sqs.close();
+        s3.close();
+    }
+
+    @Test
+    void offloadsOnlyLargeBodiesAndResolvesThemOnReceive() throws Exception {
+        String large = "a".repeat(300 * 1024);
+        String alsoLarge = "b".repeat(400 * 1024);
+        sqsService.sendMessageBatch(queueUrl, List.of(
+                SendMessageBatchRequestEntry.builder().id("0").messageBody("small").build(),
+                SendMessageBatchRequestEntry.builder().id("1").messageBody(large).build(),
+                SendMessageBatchRequestEntry.builder().id("2").messageBody(alsoLarge).build()));
+
+        List<String> rawBodies = sqsClient.receiveMessage(b -> b.queueUrl(queueUrl).maxNumberOfMessages(10).visibilityTimeout(0))
+                .messages().stream().map(Message::body).toList();
+        assertThat(rawBodies).hasSize(3).contains("small");
+        List<String> keys = new ArrayList<>();
+        for (String body : rawBodies.subList(1, 3)) {
+            JsonNode pointer = objectMapper.readTree(body);
+            assertThat(pointer.get(0).asText()).isEqualTo(SqsPayloadOffloader.POINTER_CLASS);
+            assertThat(pointer.get(1).get("s3BucketName").asText()).isEqualTo(BUCKET);
+            keys.add(pointer.get(1).get("s3Key").asText());
+        }
+        assertThat(keys).allMatch(key -> key.startsWith("sqs/") && s3.getObject(BUCKET, key) != null);
+
+        List<Message> messages = sqsService.receiveMessages(queueUrl, 10, 0, 30);
+        assertThat(messages).extracting(Message::body).containsExactly("small", large, alsoLarge);
+
+        sqsService.deleteMessageBatch(queueUrl, messages.stream().map(Message::receiptHandle).toList());
+        assertThat(sqs.size(queueUrl)).isZero();
+        assertThat(keys).allMatch(key -> s3.getObject(BUCKET, key) == null);
+    }
+
+    @Test
+    void keepsPayloadWhenDeleteOptsOut() {
+        String large = "c".repeat(257 * 1024);
+        sqsService.sendMessage(queueUrl, large);
+
+        Message message = sqsService.receiveMessages(queueUrl, 1, 0, 30).get(0);
+        assertThat(message.body()).isEqualTo(large);
+        sqsService.deleteMessage(queueUrl, message.receiptHandle(), false);
+
+        assertThat(sqs.size(queueUrl)).isZero();
+        String key = message.receiptHandle().split("-\\.\\.s3Key\\.\\.-")[1];
+        assertThat(s3.getObject(BUCKET, key)).isNotNull();
+    }
+
+    @Test
+    void returnsMessageWithMissingPayloadUnresolvedWithoutFailingTheBatch() {
+        String large = "d".repeat(300 * 1024);
+        String missing = pointer(BUCKET, "sqs/missing");
+        sqsService.sendMessage(queueUrl, large);
+        sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(missing));
+
+        List<Message> messages = sqsService.receiveMessages(queueUrl, 10, 0, 30);
+
+        assertThat(messages).extracting(Message::body).containsExactlyInAnyOrder(large, missing);
+        Message unresolved = messages.stream().filter(message -> message.body().equals(missing)).findFirst().orElseThrow();
+        assertThat(unresolved.messageAttributes()).containsKey(SqsPayloadOffloader.UNRESOLVED_ATTRIBUTE);
+        assertThat(unresolved.receiptHandle()).doesNotStartWith("-..s3BucketName..-");
+    }
+
+    @Test
+    void ignoresPointersOutsideTheConfiguredBucketAndPrefix() {
+        s3.putObject("victim", "secret", "secret".getBytes());
+        s3.putObject(BUCKET, "other/secret", "secret".getBytes());
+        String foreignBucket = pointer("victim", "secret");
+        String foreignPrefix = pointer(BUCKET, "other/secret");
+        sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(foreignBucket));
+        sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(foreignPrefix));
+
+        List<Message> messages = sqsService.receiveMessages(queueUrl, 10, 0, 30);
+        assertThat(messages).extracting(Message::body).containsExactlyInAnyOrder(foreignBucket, foreignPrefix);
+
+        SqsPayloadOffloader offloader = new SqsPayloadOffloader(s3Client, executor, objectMapper, true, BUCKET,
+                "sqs/", DataSize.ofKilobytes(256), true);
+        offloader.deletePayloads(List.of(
+                "-..s3BucketName..-victim-..s3BucketName..--..s3Key..-secret-..s3Key..-x",
+                "-..s3BucketName..-" + BUCKET + "-..s3BucketName..--..s3Key..-other/secret-..s3Key..-x"));
+        assertThat(s3.getObject("victim", "secret")).isNotNull();
+        assertThat(s3.getObject(BUCKET, "other/secret")).isNotNull();
+    }
+
+    private String pointer(String bucket, String key) {
+        return objectMapper.createArrayNode().add(SqsPayloadOffloader.POINTER_CLASS)
+                .add(objectMapper.createObjectNode().put("s3BucketName", bucket).put("s3Key", key))
+                .toString();
+    }
+}
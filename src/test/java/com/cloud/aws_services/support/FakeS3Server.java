@@ -0,0 +1,596 @@
+package com.cloud.aws_services.support;
+
+import com.cloud.aws_services.service.PresignedUrlCache;
+import com.cloud.aws_services.service.S3MetadataCache;
+import com.cloud.aws_services.service.S3MultipartCopier;
+import com.cloud.aws_services.service.S3MultipartUploader;
+import com.cloud.aws_services.service.S3ObjectCache;
+import com.cloud.aws_services.service.S3RangedDownloader;
+import com.cloud.aws_services.service.S3Service;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal in-process, S3-compatible HTTP endpoint for tests and benchmarks.
+ * Supports path-style object PUT/GET/HEAD/DELETE, server-side copies, ListObjectsV2, DeleteObjects and the multipart
+ * upload calls, keeps everything in memory and can inject failures for individual upload parts.
+ */
+public class FakeS3Server implements AutoCloseable {
+
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>");
+
+    private final HttpServer server;
+    private final Map<String, NavigableMap<String, byte[]>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Map<String, String> contentEncodings = new ConcurrentHashMap<>();
+    private final Map<String, CachedETag> eTags = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> partFailures = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> partAttempts = new ConcurrentHashMap<>();
+    private final AtomicInteger abortedUploads = new AtomicInteger();
+    private final AtomicInteger getRequests = new AtomicInteger();
+    private final AtomicInteger headRequests = new AtomicInteger();
+    private final AtomicInteger slowDowns = new AtomicInteger();
+    private volatile int listPageSize = 1000;
+    private volatile CountDownLatch getGate;
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header and body writes hit delayed ACKs (~40 ms per call).
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    /**
+     * Builds a client pointed at this server with SDK retries disabled,
+     * so tests observe exactly the calls made by the code under test.
+     */
+    public S3Client client() {
+        return client(null);
+    }
+
+    /**
+     * Builds a client like {@link #client()} on the given HTTP transport, or the SDK's default when {@code null}.
+     */
+    public S3Client client(SdkHttpClient.Builder<?> httpClient) {
+        return S3Client.builder()
+                .httpClientBuilder(httpClient)
+                .endpointOverride(endpoint())
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.doNotRetry()))
+                .build();
+    }
+
+    /**
+     * Builds an async client like {@link #client()} on the Netty transport.
+     */
+    public S3AsyncClient asyncClient() {
+        return S3AsyncClient.builder()
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                .endpointOverride(endpoint())
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.doNotRetry()))
+                .build();
+    }
+
+    /**
+     * Builds an {@link S3Service} on the given client the way tests use it: multipart uploads above 8 MB, multipart
+     * copies above 512 MB, ranged downloads above 1 MB in 256 KB parts, and the local object cache disabled.
+     */
+    public static S3Service s3Service(S3Client s3Client, ExecutorService executor) {
+        S3MultipartUploader uploader = new S3MultipartUploader(s3Client, executor, DataSize.ofMegabytes(8),
+                DataSize.ofMegabytes(5), 3, 3);
+        S3MultipartCopier copier = new S3MultipartCopier(s3Client, executor, DataSize.ofMegabytes(512),
+                DataSize.ofMegabytes(128), 4, 3);
+        S3ObjectCache objectCache = new S3ObjectCache(s3Client, new SimpleMeterRegistry(), false, Path.of("unused"),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), Duration.ZERO);
+        S3RangedDownloader rangedDownloader = new S3RangedDownloader(s3Client, executor, DataSize.ofMegabytes(1),
+                DataSize.ofKilobytes(256), 4, DataSize.ofMegabytes(4), 3);
+        return new S3Service(s3Client, null, uploader, copier, rangedDownloader, new PresignedUrlCache(100, 0.5),
+                objectCache, new S3MetadataCache(new SimpleMeterRegistry(), 100, Duration.ofSeconds(30)), executor);
+    }
+
+    public void putObject(String bucket, String key, byte[] data) {
+        bucket(bucket).put(key, data);
+    }
+
+    public byte[] getObject(String bucket, String key) {
+        return bucket(bucket).get(key);
+    }
+
+    /** The {@code Content-Encoding} stored with an object, or {@code null}. */
+    public String contentEncoding(String bucket, String key) {
+        return contentEncodings.get(bucket + "/" + key);
+    }
+
+    /** Makes the next {@code times} attempts to upload the given part number fail with a 500. */
+    public void failPart(int partNumber, int times) {
+        partFailures.put(partNumber, new AtomicInteger(times));
+    }
+
+    public int partAttempts(int partNumber) {
+        AtomicInteger attempts = partAttempts.get(partNumber);
+        return attempts == null ? 0 : attempts.get();
+    }
+
+    /** Makes the next {@code times} requests of any kind fail with {@code 503 SlowDown}. */
+    public void slowDown(int times) {
+        slowDowns.set(times);
+    }
+
+    /**
+     * Holds object GETs, after they have read the object, until the gate opens;
+     * lets tests overlap a fetch with a write. {@code null} stops holding.
+     */
+    public void holdGets(CountDownLatch gate) {
+        this.getGate = gate;
+    }
+
+    /** Caps the number of keys per ListObjectsV2 page, to exercise pagination with few objects. */
+    public void listPageSize(int listPageSize) {
+        this.listPageSize = listPageSize;
+    }
+
+    public int pendingUploads() {
+        return uploads.size();
+    }
+
+    public int abortedUploads() {
+        return abortedUploads.get();
+    }
+
+    /** Number of object GET requests served, including conditional ones answered with 304. */
+    public int getRequests() {
+        return getRequests.get();
+    }
+
+    /** Number of object HEAD requests served. */
+    public int headRequests() {
+        return headRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private NavigableMap<String, byte[]> bucket(String bucket) {
+        return buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath().substring(1);
+            int slash = path.indexOf('/');
+            String bucket = slash < 0 ? path : path.substring(0, slash);
+            String key = slash < 0 ? "" : URLDecoder.decode(path.substring(slash + 1), StandardCharsets.UTF_8);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            byte[] body = readBody(exchange);
+            if (slowDowns.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                sendError(exchange, 503, "SlowDown");
+                return;
+            }
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                    if (copySource != null) {
+                        copy(exchange, bucket, key, query, copySource);
+                    } else if (query.containsKey("uploadId")) {
+                        uploadPart(exchange, query, body);
+                    } else {
+                        bucket(bucket).put(key, body);
+                        storeContentEncoding(bucket + "/" + key, exchange);
+                        exchange.getResponseHeaders().set("ETag", eTag(body));
+                        send(exchange, 200, new byte[0]);
+                    }
+                }
+                case "POST" -> {
+                    if (query.containsKey("uploads")) {
+                        String uploadId = UUID.randomUUID().toString();
+                        uploads.put(uploadId, new ConcurrentHashMap<>());
+                        storeContentEncoding(uploadId, exchange);
+                        sendXml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                                + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+                    } else if (query.containsKey("delete")) {
+                        deleteObjects(exchange, bucket, body);
+                    } else {
+                        completeUpload(exchange, bucket, key, query.get("uploadId"), body);
+                    }
+                }
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) {
+                        uploads.remove(query.get("uploadId"));
+                        abortedUploads.incrementAndGet();
+                    } else {
+                        bucket(bucket).remove(key);
+                        contentEncodings.remove(bucket + "/" + key);
+                    }
+                    send(exchange, 204, null);
+                }
+                case "GET", "HEAD" -> {
+                    if (key.isEmpty() && "2".equals(query.get("list-type"))) {
+                        listObjects(exchange, bucket, query);
+                    } else {
+                        getObject(exchange, bucket(bucket).get(key), bucket + "/" + key);
+                    }
+                }
+                default -> sendError(exchange, 405, "MethodNotAllowed");
+            }
+        }
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query, byte[] body) throws IOException {
+        int partNumber = Integer.parseInt(query.get("partNumber"));
+        partAttempts.computeIfAbsent(partNumber, n -> new AtomicInteger()).incrementAndGet();
+        AtomicInteger failures = partFailures.get(partNumber);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            sendError(exchange, 500, "InternalError");
+            return;
+        }
+        Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        parts.put(partNumber, body);
+        exchange.getResponseHeaders().set("ETag", eTag(body));
+        send(exchange, 200, new byte[0]);
+    }
+
+    /** Handles CopyObject and, when an upload ID is present, UploadPartCopy with its byte range. */
+    private void copy(HttpExchange exchange, String bucket, String key, Map<String, String> query, String copySource)
+            throws IOException {
+        String source = URLDecoder.decode(copySource.startsWith("/") ? copySource.substring(1) : copySource, StandardCharsets.UTF_8);
+        int slash = source.indexOf('/');
+        byte[] data = bucket(source.substring(0, slash)).get(source.substring(slash + 1));
+        if (data == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        String ifMatch = exchange.getRequestHeaders().getFirst("x-amz-copy-source-if-match");
+        if (ifMatch != null && !ifMatch.equals(eTag(data))) {
+            sendError(exchange, 412, "PreconditionFailed");
+            return;
+        }
+        if (!query.containsKey("uploadId")) {
+            bucket(bucket).put(key, data);
+            sendXml(exchange, 200, "<CopyObjectResult><ETag>" + eTag(data) + "</ETag></CopyObjectResult>");
+            return;
+        }
+        Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("x-amz-copy-source-range");
+        byte[] part = data;
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            part = Arrays.copyOfRange(data, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+        }
+        parts.put(Integer.parseInt(query.get("partNumber")), part);
+        sendXml(exchange, 200, "<CopyPartResult><ETag>" + eTag(part) + "</ETag></CopyPartResult>");
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.getOrDefault("delimiter", "");
+        String after = query.getOrDefault("continuation-token", query.get("start-after"));
+        int maxKeys = Math.min(listPageSize, Integer.parseInt(query.getOrDefault("max-keys", "1000")));
+        NavigableMap<String, byte[]> objects = after == null || after.isEmpty()
+                ? bucket(bucket).tailMap(prefix, true) : bucket(bucket).tailMap(after, false);
+        StringBuilder contents = new StringBuilder();
+        StringBuilder commonPrefixes = new StringBuilder();
+        String lastEntry = null;
+        int count = 0;
+        boolean truncated = false;
+        for (Map.Entry<String, byte[]> object : objects.entrySet()) {
+            String key = object.getKey();
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            int split = delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            String commonPrefix = split < 0 ? null : key.substring(0, split + delimiter.length());
+            if (commonPrefix != null && (commonPrefix.equals(lastEntry) || (after != null && after.equals(commonPrefix)))) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.append("<CommonPrefixes><Prefix>").append(commonPrefix).append("</Prefix></CommonPrefixes>");
+                lastEntry = commonPrefix;
+            } else {
+                contents.append("<Contents><Key>").append(key).append("</Key><Size>").append(object.getValue().length)
+                        .append("</Size><ETag>").append(eTag(object.getValue())).append("</ETag></Contents>");
+                lastEntry = key;
+            }
+            count++;
+        }
+        sendXml(exchange, 200, "<ListBucketResult><Name>" + bucket + "</Name><Prefix>" + prefix + "</Prefix><KeyCount>" + count
+                + "</KeyCount><MaxKeys>" + maxKeys + "</MaxKeys><IsTruncated>" + truncated + "</IsTruncated>"
+                + (truncated ? "<NextContinuationToken>" + lastEntry + "</NextContinuationToken>" : "")
+                + contents + commonPrefixes + "</ListBucketResult>");
+    }
+
+    private void deleteObjects(HttpExchange exchange, String bucket, byte[] body) throws IOException {
+        StringBuilder result = new StringBuilder("<DeleteResult>");
+        Matcher matcher = DELETE_KEY.matcher(new String(body, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            String key = matcher.group(1).replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+            bucket(bucket).remove(key);
+            contentEncodings.remove(bucket + "/" + key);
+            result.append("<Deleted><Key>").append(matcher.group(1)).append("</Key></Deleted>");
+        }
+        sendXml(exchange, 200, result.append("</DeleteResult>").toString());
+    }
+
+    private void completeUpload(HttpExchange exchange, String bucket, String key, String uploadId, byte[] body) throws IOException {
+        Map<Integer, byte[]> parts = uploads.remove(uploadId);
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        Matcher matcher = PART_NUMBER.matcher(new String(body, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            byte[] part = parts.get(Integer.parseInt(matcher.group(1)));
+            if (part == null) {
+                sendError(exchange, 400, "InvalidPart");
+                return;
+            }
+            object.write(part);
+        }
+        byte[] data = object.toByteArray();
+        bucket(bucket).put(key, data);
+        String contentEncoding = contentEncodings.remove(uploadId);
+        if (contentEncoding != null) {
+            contentEncodings.put(bucket + "/" + key, contentEncoding);
+        } else {
+            contentEncodings.remove(bucket + "/" + key);
+        }
+        sendXml(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                + "</Key><ETag>" + eTag(data) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    /**
+     * Hashing a large object on every GET would dominate ranged-download benchmarks, so the ETag is kept
+     * until the stored array is replaced.
+     */
+    private String objectETag(String objectPath, byte[] data) {
+        CachedETag cached = eTags.get(objectPath);
+        if (cached != null && cached.data() == data) {
+            return cached.eTag();
+        }
+        String eTag = eTag(data);
+        eTags.put(objectPath, new CachedETag(data, eTag));
+        return eTag;
+    }
+
+    private record CachedETag(byte[] data, String eTag) {
+    }
+
+    /** Records the request's {@code Content-Encoding} minus the {@code aws-chunked} transfer coding the SDK may add. */
+    private void storeContentEncoding(String id, HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        String encoding = header == null ? "" : Arrays.stream(header.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty() && !token.equals("aws-chunked"))
+                .collect(Collectors.joining(","));
+        if (encoding.isEmpty()) {
+            contentEncodings.remove(id);
+        } else {
+            contentEncodings.put(id, encoding);
+        }
+    }
+
+    private void getObject(HttpExchange exchange, byte[] data, String objectPath) throws IOException {
+        if (data == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        if ("GET".equals(exchange.getRequestMethod())) {
+            getRequests.incrementAndGet();
+            CountDownLatch gate = getGate;
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } else {
+            headRequests.incrementAndGet();
+        }
+        String eTag = objectETag(objectPath, data);
+        String contentEncoding = contentEncodings.get(objectPath);
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.equals(eTag)) {
+            sendError(exchange, 412, "PreconditionFailed");
+            return;
+        }
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.equals(eTag)) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+            send(exchange, 304, null);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", eTag);
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", contentEncoding);
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int status = 200;
+        if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            long start = Long.parseLong(bounds[0]);
+            long end = bounds[1].isEmpty() ? data.length - 1 : Math.min(Long.parseLong(bounds[1]), data.length - 1);
+            if (start >= data.length) {
+                sendError(exchange, 416, "InvalidRange");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+            byte[] slice = new byte[(int) (end - start + 1)];
+            System.arraycopy(data, (int) start, slice, 0, slice.length);
+            data = slice;
+            status = 206;
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(data.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        send(exchange, status, data);
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, status, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Reads the request body, decoding {@code aws-chunked} payloads if the SDK used them. */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw;
+        try (InputStream in = exchange.getRequestBody()) {
+            raw = in.readAllBytes();
+        }
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        boolean chunked = (encoding != null && encoding.contains("aws-chunked"))
+                || (sha256 != null && sha256.startsWith("STREAMING-"));
+        return chunked ? decodeAwsChunked(raw) : raw;
+    }
+
+    private static byte[] decodeAwsChunked(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            out.write(raw, position, size);
+            position += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static String eTag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.cloud.aws_services.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal in-process, SQS-compatible HTTP endpoint for tests and benchmarks.
+ * Speaks the AWS JSON 1.0 protocol the SDK uses for SQS and supports sending, receiving (including
+ * long polling), deleting and changing visibility, singly and in batches, with message attributes.
+ * Queues are created on first use.
+ */
+public class FakeSqsServer implements AutoCloseable {
+
+    private static final String TARGET_PREFIX = "AmazonSQS.";
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, FakeQueue> queues = new ConcurrentHashMap<>();
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header and body writes hit delayed ACKs (~40 ms per call).
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public FakeSqsServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    /** Returns a queue URL served by this endpoint. */
+    public String queueUrl(String queueName) {
+        return endpoint() + "/123456789012/" + queueName;
+    }
+
+    /**
+     * Builds a client pointed at this server with SDK retries disabled,
+     * so tests observe exactly the calls made by the code under test.
+     */
+    public SqsClient client() {
+        return client(null);
+    }
+
+    /**
+     * Builds a client like {@link #client()} on the given HTTP transport, or the SDK's default when {@code null}.
+     */
+    public SqsClient client(SdkHttpClient.Builder<?> httpClient) {
+        return SqsClient.builder()
+                .httpClientBuilder(httpClient)
+                .endpointOverride(endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.doNotRetry()))
+                .build();
+    }
+
+    /**
+     * Builds an async client like {@link #client()} on the Netty transport.
+     */
+    public SqsAsyncClient asyncClient() {
+        return SqsAsyncClient.builder()
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                .endpointOverride(endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.doNotRetry()))
+                .build();
+    }
+
+    /** Number of messages in the queue, visible or not. */
+    public int size(String queueUrl) {
+        FakeQueue queue = queues.get(queueUrl);
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            JsonNode request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = objectMapper.readTree(in);
+            }
+            if (target == null || !target.startsWith(TARGET_PREFIX)) {
+                sendError(exchange, 400, "InvalidAction");
+                return;
+            }
+            FakeQueue queue = queues.computeIfAbsent(request.path("QueueUrl").asText(), url -> new FakeQueue());
+            ObjectNode response = objectMapper.createObjectNode();
+            switch (target.substring(TARGET_PREFIX.length())) {
+                case "SendMessage" -> {
+                    String body = request.path("MessageBody").asText();
+                    JsonNode attributes = request.path("MessageAttributes");
+                    response.put("MessageId", queue.add(body, attributes)).put("MD5OfMessageBody", md5(body));
+                    putAttributesMd5(response, attributes);
+                }
+                case "SendMessageBatch" -> {
+                    ArrayNode successful = response.putArray("Successful");
+                    response.putArray("Failed");
+                    for (JsonNode entry : request.path("Entries")) {
+                        String body = entry.path("MessageBody").asText();
+                        JsonNode attributes = entry.path("MessageAttributes");
+                        putAttributesMd5(successful.addObject().put("Id", entry.path("Id").asText())
+                                .put("MessageId", queue.add(body, attributes)).put("MD5OfMessageBody", md5(body)), attributes);
+                    }
+                }
+                case "ReceiveMessage" -> {
+                    int max = request.path("MaxNumberOfMessages").asInt(1);
+                    int visibility = request.path("VisibilityTimeout").asInt(30);
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(request.path("WaitTimeSeconds").asInt(0));
+                    boolean withAttributes = !request.path("MessageAttributeNames").isEmpty();
+                    ArrayNode messages = response.putArray("Messages");
+                    queue.receive(max, visibility, deadline).forEach(message -> {
+                        ObjectNode received = messages.addObject()
+                                .put("MessageId", message.id)
+                                .put("ReceiptHandle", message.receiptHandle)
+                                .put("MD5OfBody", md5(message.body))
+                                .put("Body", message.body);
+                        received.putObject("Attributes").put("SentTimestamp", String.valueOf(message.sentMillis));
+                        if (withAttributes && putAttributesMd5(received, message.attributes)) {
+                            received.set("MessageAttributes", message.attributes);
+                        }
+                    });
+                }
+                case "DeleteMessage" -> queue.delete(request.path("ReceiptHandle").asText());
+                case "DeleteMessageBatch" -> {
+                    ArrayNode successful = response.putArray("Successful");
+                    response.putArray("Failed");
+                    for (JsonNode entry : request.path("Entries")) {
+                        queue.delete(entry.path("ReceiptHandle").asText());
+                        successful.addObject().put("Id", entry.path("Id").asText());
+                    }
+                }
+                case "ChangeMessageVisibilityBatch" -> {
+                    ArrayNode successful = response.putArray("Successful");
+                    response.putArray("Failed");
+                    for (JsonNode entry : request.path("Entries")) {
+                        queue.changeVisibility(entry.path("ReceiptHandle").asText(), entry.path("VisibilityTimeout").asInt());
+                        successful.addObject().put("Id", entry.path("Id").asText());
+                    }
+                }
+                default -> {
+                    sendError(exchange, 400, "InvalidAction");
+                    return;
+                }
+            }
+            send(exchange, 200, objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        ObjectNode error = objectMapper.createObjectNode()
+                .put("__type", "com.amazonaws.sqs#" + code)
+                .put("message", code);
+        send(exchange, status, objectMapper.writeValueAsBytes(error));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.0");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String md5(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds {@code MD5OfMessageAttributes}, which the SDK verifies whenever attributes were sent or received,
+     * computed as SQS does over the attributes sorted by name.
+     */
+    private static boolean putAttributesMd5(ObjectNode target, JsonNode attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return false;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            List<String> names = new ArrayList<>();
+            attributes.fieldNames().forEachRemaining(names::add);
+            names.sort(null);
+            for (String name : names) {
+                JsonNode value = attributes.get(name);
+                updateLengthPrefixed(digest, name.getBytes(StandardCharsets.UTF_8));
+                updateLengthPrefixed(digest, value.path("DataType").asText().getBytes(StandardCharsets.UTF_8));
+                if (value.hasNonNull("StringValue")) {
+                    digest.update((byte) 1);
+                    updateLengthPrefixed(digest, value.get("StringValue").asText().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    digest.update((byte) 2);
+                    updateLengthPrefixed(digest, value.path("BinaryValue").binaryValue());
+                }
+            }
+            target.put("MD5OfMessageAttributes", HexFormat.of().formatHex(digest.digest()));
+            return true;
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void updateLengthPrefixed(MessageDigest digest, byte[] bytes) {
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static final class FakeMessage {
+        private final String id = UUID.randomUUID().toString();
+        private final String body;
+        private final JsonNode attributes;
+        private final long sentMillis = System.currentTimeMillis();
+        private String receiptHandle;
+        private long visibleAtNanos = System.nanoTime();
+
+        private FakeMessage(String body, JsonNode attributes) {
+            this.body = body;
+            this.attributes = attributes;
+        }
+    }
+
+    /** Messages in send order; receipt handles map back to the message they were issued for. */
+    private static final class FakeQueue {
+        private final Map<String, FakeMessage> messages = new LinkedHashMap<>();
+        private final Map<String, String> receiptHandles = new ConcurrentHashMap<>();
+
+        private synchronized String add(String body, JsonNode attributes) {
+            FakeMessage message = new FakeMessage(body, attributes);
+            messages.put(message.id, message);
+            notifyAll();
+            return message.id;
+        }
+
+        private synchronized List<FakeMessage> receive(int max, int visibilitySeconds, long deadlineNanos) {
+            List<FakeMessage> received = new ArrayList<>();
+            while (true) {
+                long now = System.nanoTime();
+                for (Iterator<FakeMessage> it = messages.values().iterator(); it.hasNext() && received.size() < max; ) {
+                    FakeMessage message = it.next();
+                    if (message.visibleAtNanos - now <= 0) {
+                        message.visibleAtNanos = now + TimeUnit.SECONDS.toNanos(visibilitySeconds);
+                        message.receiptHandle = UUID.randomUUID().toString();
+                        receiptHandles.put(message.receiptHandle, message.id);
+                        received.add(message);
+                    }
+                }
+                long remaining = deadlineNanos - System.nanoTime();
+                if (!received.isEmpty() || remaining <= 0) {
+                    return received;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return received;
+                }
+            }
+        }
+
+        private synchronized void delete(String receiptHandle) {
+            String id = receiptHandles.remove(receiptHandle);
+            if (id != null) {
+                messages.remove(id);
+            }
+        }
+
+        private synchronized void changeVisibility(String receiptHandle, int visibilitySeconds) {
+            String id = receiptHandles.get(receiptHandle);
+            FakeMessage message = id == null ? null : messages.get(id);
+            if (message != null) {
+                message.visibleAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(visibilitySeconds);
+            }
+        }
+
+        private synchronized int size() {
+            return messages.size();
+        }
+    }
+}